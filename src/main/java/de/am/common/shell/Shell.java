@@ -15,18 +15,58 @@
  */
 package de.am.common.shell;
 
-import de.am.common.shell.command.ShellCommand;
+import de.am.common.shell.command.CommandInvocation;
 import de.am.common.shell.command.ShellCommandDictionary;
+import de.am.common.shell.exception.CommandTimeoutException;
+import de.am.common.shell.exception.CommandTooLongException;
 import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.history.CommandHistory;
+import de.am.common.shell.io.ChannelLineReader;
 import de.am.common.shell.io.InputProvider;
+import de.am.common.shell.io.LogRotation;
 import de.am.common.shell.io.OutputProvider;
+import de.am.common.shell.io.RecordingOutputProvider;
+import de.am.common.shell.io.ResultRendererRegistry;
+import de.am.common.shell.job.Job;
+import de.am.common.shell.job.JobTable;
 import de.am.common.shell.util.StopWatch;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
 import static de.am.common.shell.ShellConstants.ANSI_YELLOW_BRIGHT;
+import static de.am.common.shell.ShellConstants.CONTINUE_ON_ERROR_OPTION;
+import static de.am.common.shell.ShellConstants.JOB_SHUTDOWN_TIMEOUT_MILLIS;
+import static de.am.common.shell.ShellConstants.MAX_BATCH_SIZE;
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static de.am.common.shell.ShellConstants.PARALLEL_OPTION;
+import static de.am.common.shell.ShellConstants.RENDER_CHUNK_LENGTH;
+import static de.am.common.shell.ShellConstants.RENDER_CHUNK_SIZE;
+import static de.am.common.shell.ShellConstants.RENDER_FLUSH_INTERVAL_MILLIS;
+import static de.am.common.shell.ShellConstants.SCRIPT_OPTION;
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 /**
@@ -39,25 +79,21 @@ public class Shell {
     @Getter
     private final ShellCommandDictionary dictionary;
     @Getter
-    private final InputProvider inputProvider;
-    @Getter
-    private final OutputProvider outputProvider;
-    @Getter
     private final String prompt;
     @Getter
-    @Setter
-    private boolean isShutdown;
+    private final ShellMetrics metrics;
     @Getter
-    @Setter
-    private Exception exception;
+    private final CommandHistory history;
+    private final ShellSession console;
+    private final ThreadLocal<ShellSession> currentSession;
     @Getter
-    @Setter
-    private boolean isTimeDisplayed;
-    @Getter
-    @Setter
-    private boolean isExceptionDetailsDisplayed;
     private final int maxCommandLength;
-    private final StopWatch sw;
+    private final ExecutorService batchExecutor;
+    private final ResultRendererRegistry resultRenderers;
+    private final ExecutorService jobExecutor;
+    private final int maxJobs;
+    private final long commandTimeout;
+    private final ThreadLocal<RecordingOutputProvider> recordedOutput;
 
     private static final String EX_MESSAGE = "Exception occurred, run 'showException' or 'sE' to see the details.";
 
@@ -70,50 +106,320 @@ public class Shell {
     @Builder
     public Shell(ShellConfig config, ShellCommandDictionary dictionary) {
         this.dictionary = dictionary;
-        this.inputProvider = config.getInputProvider();
-        this.outputProvider = config.getOutputProvider();
         this.prompt = config.getAppName() + config.getPrompt();
-        this.isTimeDisplayed = config.isTimeDisplayed();
-        this.isExceptionDetailsDisplayed = config.isExceptionDetailsDisplayed();
+        this.console = ShellSession.builder()
+            .inputProvider(config.getInputProvider())
+            .outputProvider(config.getOutputProvider())
+            .isTimeDisplayed(config.isTimeDisplayed())
+            .isExceptionDetailsDisplayed(config.isExceptionDetailsDisplayed())
+            .build();
+        this.currentSession = new ThreadLocal<>();
         this.maxCommandLength = config.getMaxCommandLength();
-        this.sw = StopWatch.builder().build();
+        this.batchExecutor = config.getBatchExecutor();
+        this.resultRenderers = config.getResultRenderers();
+        this.jobExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shell-job-", 1).factory());
+        this.maxJobs = config.getMaxJobs();
+        this.commandTimeout = config.getCommandTimeout().toMillis();
+        this.metrics = new ShellMetrics();
+        this.recordedOutput = new ThreadLocal<>();
+        this.history = openHistory(config.getHistoryFile());
+        if (nonNull(dictionary)) {
+            console.getInputProvider().setCompleter(dictionary::complete);
+        }
     }
 
     /**
      * Main loop of the shell.
      */
     public void execute() {
-        outputProvider.print(prompt, ANSI_YELLOW_BRIGHT);
+        run(console);
+    }
 
-        String command;
-        while (!isShutdown) {
-            command = inputProvider.readCommand();
-            if (command == null) {
-                shutdown();
-                break;
-            }
+    /**
+     * Executes the main loop for a session of its own reading from {@code inputProvider} and writing to
+     * {@code outputProvider}, e.g. for a connection of a {@link de.am.common.shell.server.ShellServer}.<p>
+     * The session shares the commands, their handlers and the history with the shell, but has its own background jobs,
+     * last exception, display settings and shutdown flag. While the session is executed, the methods of the shell
+     * called by its thread refer to the session. Several sessions can be executed by different threads at the same time,
+     * the running background jobs of the session are cancelled when it ends.
+     *
+     * @param inputProvider  the input provider of the session
+     * @param outputProvider the output provider of the session
+     */
+    public void executeSession(InputProvider inputProvider, OutputProvider outputProvider) {
+        ShellSession session = ShellSession.builder()
+            .inputProvider(inputProvider)
+            .outputProvider(outputProvider)
+            .isTimeDisplayed(console.isTimeDisplayed())
+            .isExceptionDetailsDisplayed(console.isExceptionDetailsDisplayed())
+            .build();
+        if (nonNull(dictionary)) {
+            inputProvider.setCompleter(dictionary::complete);
+        }
 
-            sw.setId(command);
-            sw.start();
+        currentSession.set(session);
+        try {
+            run(session);
+        } finally {
+            session.getJobs().cancelAll();
+            currentSession.remove();
+        }
+    }
 
-            if (!command.isEmpty()) {
-                if (command.length() > maxCommandLength) {
-                    exception = new IllegalArgumentException("Command length exceeds the configured limit of " + maxCommandLength + " characters.");
-                    outputProvider.println("{0}", ANSI_WHITE_BRIGHT, EX_MESSAGE);
-                } else {
-                    executeCommand(command);
+    /**
+     * Returns the input provider of the current session.
+     *
+     * @return the input provider
+     */
+    public InputProvider getInputProvider() {
+        return session().getInputProvider();
+    }
+
+    /**
+     * Returns the output provider of the current session.<p>
+     * While a thread safe command is executed in parallel batch mode, a provider recording the output of the command is
+     * returned, the recorded output is written in the order of the script lines.
+     *
+     * @return the output provider
+     */
+    public OutputProvider getOutputProvider() {
+        RecordingOutputProvider recorder = recordedOutput.get();
+        return isNull(recorder) ? session().getOutputProvider() : recorder;
+    }
+
+    /**
+     * Returns the background jobs of the current session.
+     *
+     * @return the job table
+     */
+    public JobTable getJobs() {
+        return session().getJobs();
+    }
+
+    /**
+     * Returns true if the current session is shut down.
+     *
+     * @return true if the session is shut down, false otherwise
+     */
+    public boolean isShutdown() {
+        return session().isShutdown();
+    }
+
+    /**
+     * Sets the shutdown flag of the current session, the main loop ends after the running command.
+     *
+     * @param isShutdown true to shut down the session
+     */
+    public void setShutdown(boolean isShutdown) {
+        session().setShutdown(isShutdown);
+    }
+
+    /**
+     * Returns the last exception occurred in the current session.
+     *
+     * @return the last exception or null if none occurred
+     */
+    public Exception getException() {
+        return session().getException();
+    }
+
+    /**
+     * Sets the last exception of the current session.
+     *
+     * @param exception the exception
+     */
+    public void setException(Exception exception) {
+        session().setException(exception);
+    }
+
+    /**
+     * Returns true if the runtime of commands is displayed in the current session.
+     *
+     * @return true if the runtime is displayed, false otherwise
+     */
+    public boolean isTimeDisplayed() {
+        return session().isTimeDisplayed();
+    }
+
+    /**
+     * Specifies if the runtime of commands is displayed in the current session.
+     *
+     * @param isTimeDisplayed true to display the runtime
+     */
+    public void setTimeDisplayed(boolean isTimeDisplayed) {
+        session().setTimeDisplayed(isTimeDisplayed);
+    }
+
+    /**
+     * Returns true if exception details are exposed in the current session.
+     *
+     * @return true if exception details are exposed, false otherwise
+     */
+    public boolean isExceptionDetailsDisplayed() {
+        return session().isExceptionDetailsDisplayed();
+    }
+
+    /**
+     * Specifies if exception details are exposed in the current session.
+     *
+     * @param isExceptionDetailsDisplayed true to expose exception details
+     */
+    public void setExceptionDetailsDisplayed(boolean isExceptionDetailsDisplayed) {
+        session().setExceptionDetailsDisplayed(isExceptionDetailsDisplayed);
+    }
+
+    /**
+     * Returns true if the current thread executes commands of the interactive console, false if it executes a session
+     * started by {@link #executeSession(InputProvider, OutputProvider)}.
+     *
+     * @return true for the console, false for another session
+     */
+    public boolean isConsole() {
+        return session() == console;
+    }
+
+    /**
+     * Executes the shell as specified by the command line arguments of the application.<p>
+     * With {@code --script <file>} the commands of the file are executed, see {@link #executeScript(Path, boolean, boolean)},
+     * the execution stops at the first failed command unless {@code --continue-on-error} is specified as well and
+     * {@code --parallel} executes thread safe commands concurrently. Without {@code --script} the interactive main loop
+     * is executed.
+     *
+     * @param args the command line arguments of the application
+     * @return the number of failed script commands, 0 in interactive mode
+     * @throws IllegalArgumentException if {@code --script} is not followed by a file
+     */
+    public int execute(String[] args) {
+        List<String> arguments = isNull(args) ? List.of() : List.of(args);
+        int scriptIndex = arguments.indexOf(SCRIPT_OPTION);
+        if (scriptIndex < 0) {
+            execute();
+            return 0;
+        }
+
+        if (scriptIndex + 1 >= arguments.size()) {
+            throw new IllegalArgumentException("Option " + SCRIPT_OPTION + " requires a script file.");
+        }
+        Path script = Path.of(arguments.get(scriptIndex + 1));
+        return executeScript(script, !arguments.contains(CONTINUE_ON_ERROR_OPTION), arguments.contains(PARALLEL_OPTION));
+    }
+
+    /**
+     * Executes the commands of the specified script and stops at the first failed command.
+     *
+     * @param script the script containing one command per line
+     * @return the number of failed commands
+     * @see #executeScript(Path, boolean)
+     */
+    public int executeScript(Path script) {
+        return executeScript(script, true);
+    }
+
+    /**
+     * Executes the commands of the specified script without printing prompts.<p>
+     * The script is streamed through a large buffer, so scripts of any size can be executed. Empty lines and lines
+     * starting with {@code #} are skipped. Failed and unknown commands are reported with their line number, at the end
+     * the number of commands, errors and the throughput are printed. A command shutting down the shell ends the script.
+     *
+     * @param script      the script containing one command per line
+     * @param stopOnError true if the execution stops at the first failed command, false to continue with the next line
+     * @return the number of failed commands, a script that can not be read counts as one failure
+     */
+    public int executeScript(Path script, boolean stopOnError) {
+        return executeScript(script, stopOnError, false);
+    }
+
+    /**
+     * Executes the commands of the specified script without printing prompts, see {@link #executeScript(Path, boolean)}.
+     * <p>
+     * In parallel batch mode consecutive commands marked as thread safe are executed concurrently by the batch executor
+     * of the {@link ShellConfig}, or a virtual thread per command if none is configured. Their output is written in the
+     * order of the script lines. All other commands are barriers, they are executed alone after the preceding commands
+     * are completed. If a thread safe command fails, the commands running concurrently are completed before the script
+     * stops.
+     *
+     * @param script      the script containing one command per line
+     * @param stopOnError true if the execution stops at the first failed command, false to continue with the next line
+     * @param isParallel  true to execute consecutive thread safe commands concurrently
+     * @return the number of failed commands, a script that can not be read counts as one failure
+     */
+    public int executeScript(Path script, boolean stopOnError, boolean isParallel) {
+        checkNotNull(script, "script");
+
+        ShellSession session = session();
+        OutputProvider outputProvider = session.getOutputProvider();
+        long lineNumber = 0;
+        long commandCount = 0;
+        int errorCount = 0;
+        long bytesRead;
+        long startTime = System.nanoTime();
+        ExecutorService executor = isParallel && isNull(batchExecutor) ? Executors.newVirtualThreadPerTaskExecutor() : batchExecutor;
+        try (ChannelLineReader reader = ChannelLineReader.builder().channel(FileChannel.open(script, READ))
+            .maxLineLength(maxCommandLength).build()) {
+            List<ScriptLine> batch = new ArrayList<>();
+            String line;
+            while (!session.isShutdown()) {
+                try {
+                    line = reader.readLine();
+                } catch (CommandTooLongException ex) {
+                    lineNumber++;
+                    commandCount++;
+                    int failedCount = executeBatch(batch, executor);
+                    if (failedCount == 0 || !stopOnError) {
+                        rejectScriptLine(ex, lineNumber);
+                        failedCount++;
+                    }
+                    errorCount += failedCount;
+                    if (stopOnError) {
+                        break;
+                    }
+                    continue;
+                }
+                if (isNull(line)) {
+                    break;
                 }
-            }
 
-            sw.stop();
-            if (isTimeDisplayed()) {
-                outputProvider.println(sw.toString(), ANSI_WHITE_BRIGHT);
-            }
+                lineNumber++;
+                if (isSkipped(line)) {
+                    continue;
+                }
 
-            if (!isShutdown) {
-                outputProvider.print(prompt, ANSI_YELLOW_BRIGHT);
+                commandCount++;
+                ParsedLine parsed = isParallel ? parseScriptLine(line) : null;
+                CommandInvocation invocation = nonNull(parsed) && parsed.isThreadSafe() ? parsed.invocation() : null;
+                if (nonNull(invocation)) {
+                    batch.add(new ScriptLine(lineNumber, line, invocation, new RecordingOutputProvider(outputProvider)));
+                    if (batch.size() < MAX_BATCH_SIZE) {
+                        continue;
+                    }
+                }
+
+                int failedCount = executeBatch(batch, executor);
+                boolean isStopped = failedCount > 0 && stopOnError;
+                if (!isStopped && isNull(invocation) && !executeScriptCommand(line, lineNumber, parsed)) {
+                    failedCount++;
+                }
+                errorCount += failedCount;
+                if (failedCount > 0 && stopOnError) {
+                    break;
+                }
+            }
+            errorCount += executeBatch(batch, executor);
+            bytesRead = reader.getBytesRead();
+        } catch (IOException ex) {
+            session.setException(ex);
+            outputProvider.println("Can not read script [{0}].", ANSI_WHITE_BRIGHT, script);
+            return errorCount + 1;
+        } finally {
+            if (nonNull(executor) && executor != batchExecutor) {
+                executor.close();
             }
+            outputProvider.flush();
         }
+
+        printScriptStatistics(script, commandCount, errorCount, bytesRead, System.nanoTime() - startTime);
+        outputProvider.flush();
+        return errorCount;
     }
 
     /**
@@ -122,46 +428,580 @@ public class Shell {
      * @param fileName the name of the log file
      */
     public void enableLogging(String fileName) {
-        outputProvider.enableLogging(fileName);
+        session().getOutputProvider().enableLogging(fileName);
+    }
+
+    /**
+     * Enables the logging of shell component and writes to specified {@code fileName} logfile, which is rotated as
+     * specified by {@code rotation}.
+     *
+     * @param fileName the name of the log file
+     * @param rotation specifies when the log file is rotated
+     */
+    public void enableLogging(String fileName, LogRotation rotation) {
+        session().getOutputProvider().enableLogging(fileName, rotation);
     }
 
     /**
      * Disables the logging of shell.
      */
     public void disableLogging() {
-        outputProvider.disableLogging();
+        session().getOutputProvider().disableLogging();
     }
 
     /**
      * Shutdown the shell.
      */
     public void shutdown() {
-        isShutdown = true;
+        session().setShutdown(true);
+    }
+
+    /**
+     * Cancels the running background jobs of the current session and waits until their threads are terminated.<p>
+     * Jobs are interrupted, a job ignoring the interruption is abandoned after
+     * {@value ShellConstants#JOB_SHUTDOWN_TIMEOUT_MILLIS} ms. The jobs of other sessions are not affected.
+     *
+     * @return the number of cancelled jobs
+     */
+    public int stopJobs() {
+        ShellSession session = session();
+        int cancelled = session.getJobs().cancelAll();
+        CompletableFuture<?>[] threads = session.getJobThreads().toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(threads).get(JOB_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ex) {
+            session.getOutputProvider().println("Background jobs did not stop within {0} ms.", ANSI_WHITE_BRIGHT,
+                Long.toString(JOB_SHUTDOWN_TIMEOUT_MILLIS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Terminates the shell: the running background jobs of all sessions are interrupted and the executor they share is
+     * shut down, a job ignoring the interruption is abandoned after {@value ShellConstants#JOB_SHUTDOWN_TIMEOUT_MILLIS}
+     * ms. No background job can be started afterwards. Call it when the console and every
+     * {@link de.am.common.shell.server.ShellServer} of the shell have ended.
+     */
+    public void close() {
+        jobExecutor.shutdownNow();
+        try {
+            if (!jobExecutor.awaitTermination(JOB_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                console.getOutputProvider().println("Background jobs did not stop within {0} ms.", ANSI_WHITE_BRIGHT,
+                    Long.toString(JOB_SHUTDOWN_TIMEOUT_MILLIS));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     // #################################################################################################################
+    private ShellSession session() {
+        ShellSession session = currentSession.get();
+        return isNull(session) ? console : session;
+    }
+
+    private void run(ShellSession session) {
+        InputProvider inputProvider = session.getInputProvider();
+        OutputProvider outputProvider = session.getOutputProvider();
+        StopWatch sw = session.getStopWatch();
+        printPrompt(session);
+
+        String command;
+        while (!session.isShutdown()) {
+            try {
+                command = inputProvider.readCommand();
+            } catch (CommandTooLongException ex) {
+                // the input provider discarded the line without holding it
+                synchronized (session.getPromptLock()) {
+                    session.setPrompting(false);
+                }
+                session.setException(ex);
+                outputProvider.println("{0}", ANSI_WHITE_BRIGHT, EX_MESSAGE);
+                printPrompt(session);
+                continue;
+            }
+            synchronized (session.getPromptLock()) {
+                session.setPrompting(false);
+            }
+            if (command == null) {
+                session.setShutdown(true);
+                break;
+            }
+
+            sw.setId(command);
+            sw.start();
+
+            if (!command.isEmpty()) {
+                if (command.length() > maxCommandLength) {
+                    session.setException(new IllegalArgumentException("Command length exceeds the configured limit of " + maxCommandLength + " characters."));
+                    outputProvider.println("{0}", ANSI_WHITE_BRIGHT, EX_MESSAGE);
+                } else {
+                    command = recall(command);
+                    if (nonNull(command)) {
+                        remember(command);
+                        executeCommand(command);
+                    }
+                }
+            }
+
+            sw.stop();
+            if (session.isTimeDisplayed()) {
+                outputProvider.println("{0}", ANSI_WHITE_BRIGHT, sw.toString());
+            }
+
+            if (!session.isShutdown()) {
+                printPrompt(session);
+            }
+        }
+        outputProvider.flush();
+    }
+
     private void executeCommand(String command) {
+        ShellSession session = session();
+        OutputProvider outputProvider = session.getOutputProvider();
         try {
-            ShellCommand cmd = dictionary.getCommand(command);
-            if (nonNull(cmd)) {
-                Object result = executeMethod(cmd, cmd.getTypedParameters());
-                if (nonNull(result)) {
-                    outputProvider.println("{0}", ANSI_WHITE_BRIGHT, result);
-                }
-            } else {
+            if (!dispatch(command)) {
                 outputProvider.println("Command [{0}] not found.", ANSI_WHITE_BRIGHT, command);
             }
         } catch (Exception ex) {
-            exception = ex;
+            session.setException(ex);
             outputProvider.println("{0}", ANSI_WHITE_BRIGHT, EX_MESSAGE);
         }
     }
 
-    private Object executeMethod(ShellCommand command, Object[] parameters) {
+    private boolean executeScriptCommand(String command, long lineNumber, ParsedLine parsed) {
+        ShellSession session = session();
+        OutputProvider outputProvider = session.getOutputProvider();
         try {
-            return command.getMethod().invoke(command.getCommandHandler(), parameters);
+            if (isNull(parsed) ? dispatch(command) : dispatch(parsed, command)) {
+                return true;
+            }
+            outputProvider.println("Line {0}: Command [{1}] not found.", ANSI_WHITE_BRIGHT, Long.toString(lineNumber), command);
         } catch (Exception ex) {
-            throw new ShellException(ex.getMessage(), ex);
+            session.setException(ex);
+            outputProvider.println("Line {0}: {1}", ANSI_WHITE_BRIGHT, Long.toString(lineNumber), describe(ex));
+        }
+        return false;
+    }
+
+    private static CommandHistory openHistory(Path file) {
+        if (isNull(file)) {
+            return null;
+        }
+        try {
+            return CommandHistory.builder().file(file).build();
+        } catch (IOException ex) {
+            throw new ShellException("Can not open history file [" + file + "].", ex);
+        }
+    }
+
+    private String recall(String command) {
+        if (isNull(history) || command.length() < 2 || command.charAt(0) != '!') {
+            return command;
+        }
+
+        String recalled = history.recall(command.substring(1));
+        OutputProvider outputProvider = session().getOutputProvider();
+        if (isNull(recalled)) {
+            outputProvider.println("Event [{0}] not found.", ANSI_WHITE_BRIGHT, command);
+        } else {
+            outputProvider.println("{0}", ANSI_WHITE_BRIGHT, recalled);
+        }
+        return recalled;
+    }
+
+    private void remember(String command) {
+        if (isNull(history)) {
+            return;
+        }
+        try {
+            history.add(command);
+        } catch (IOException | RuntimeException ex) {
+            session().setException(ex);
+            session().getOutputProvider().println("Can not write command to history file [{0}].", ANSI_WHITE_BRIGHT, history.getFile());
+        }
+    }
+
+    private void rejectScriptLine(CommandTooLongException ex, long lineNumber) {
+        session().setException(ex);
+        session().getOutputProvider().println("Line {0}: {1}", ANSI_WHITE_BRIGHT, Long.toString(lineNumber), describe(ex));
+    }
+
+    private ParsedLine parseScriptLine(String command) {
+        if (backgroundSuffix(command) >= 0) {
+            // parsed without the suffix when the job is started
+            return null;
+        }
+        try {
+            return new ParsedLine(dictionary.parse(command), null);
+        } catch (RuntimeException ex) {
+            // the command is executed alone to report the error with its line number
+            return new ParsedLine(null, ex);
+        }
+    }
+
+    private int executeBatch(List<ScriptLine> batch, ExecutorService executor) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        ShellSession session = session();
+        List<Future<Throwable>> results = new ArrayList<>(batch.size());
+        for (ScriptLine line : batch) {
+            results.add(executor.submit(() -> executeRecorded(session, line)));
+        }
+
+        int failedCount = 0;
+        for (int index = 0; index < batch.size(); index++) {
+            Throwable failure = await(results.get(index));
+            batch.get(index).output().replay(session.getOutputProvider());
+            if (nonNull(failure)) {
+                session.setException(failure instanceof Exception ex ? ex : new ShellException(failure.toString(), failure));
+                failedCount++;
+            }
+        }
+        batch.clear();
+        return failedCount;
+    }
+
+    private Throwable executeRecorded(ShellSession session, ScriptLine line) {
+        bind(session);
+        recordedOutput.set(line.output());
+        try {
+            invoke(line.invocation(), line.command());
+            return null;
+        } catch (Exception | Error ex) {
+            // an error fails the line like an exception, the other lines of the batch are completed
+            line.output().println("Line {0}: {1}", ANSI_WHITE_BRIGHT, Long.toString(line.lineNumber()), describe(ex));
+            return ex;
+        } finally {
+            recordedOutput.remove();
+            currentSession.remove();
+        }
+    }
+
+    private static Throwable await(Future<Throwable> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ShellException("Interrupted while waiting for the parallel batch.", ex);
+        } catch (ExecutionException ex) {
+            return ex.getCause();
+        }
+    }
+
+    private boolean dispatch(String command) {
+        int ampersand = backgroundSuffix(command);
+        if (ampersand >= 0) {
+            return startJob(command.substring(0, ampersand).strip());
+        }
+
+        CommandInvocation invocation = dictionary.parse(command);
+        if (isNull(invocation)) {
+            return false;
+        }
+
+        invoke(invocation, command);
+        return true;
+    }
+
+    private boolean dispatch(ParsedLine parsed, String command) {
+        if (nonNull(parsed.failure())) {
+            throw parsed.failure();
+        }
+        if (isNull(parsed.invocation())) {
+            return false;
+        }
+
+        invoke(parsed.invocation(), command);
+        return true;
+    }
+
+    private void invoke(CommandInvocation invocation, String command) {
+        Object result = call(invocation, command);
+        if (result instanceof Future<?> future) {
+            ShellSession session = session();
+            Job job = session.getJobs().add(command, future, completed -> notifyCompletion(session, completed));
+            getOutputProvider().println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, Integer.toString(job.getId()), command);
+        } else {
+            render(result, getOutputProvider());
+        }
+    }
+
+    private void render(Object result, OutputProvider output) {
+        if (resultRenderers.render(result, output)) {
+            // written as content, e.g. the bytes of a returned file
+        } else if (result instanceof Stream<?> stream) {
+            try (stream) {
+                render(stream.iterator(), output);
+            }
+        } else if (result instanceof Iterator<?> iterator) {
+            render(iterator, output);
+        } else if (result instanceof Iterable<?> iterable) {
+            render(iterable.iterator(), output);
+        } else if (result instanceof Spliterator<?> spliterator) {
+            render(Spliterators.iterator(spliterator), output);
+        } else if (nonNull(result)) {
+            output.println("{0}", ANSI_WHITE_BRIGHT, result);
+        }
+    }
+
+    private boolean isRenderedAsContent(Object result) {
+        return resultRenderers.canRender(result) || result instanceof Stream<?> || result instanceof Iterator<?>
+            || result instanceof Iterable<?> || result instanceof Spliterator<?>;
+    }
+
+    private static void render(Iterator<?> elements, OutputProvider output) {
+        // the elements are printed in chunks as they are produced, the result is never held in memory as a whole
+        StringBuilder chunk = new StringBuilder();
+        int chunkSize = 0;
+        long chunkStart = System.nanoTime();
+        while (elements.hasNext()) {
+            if (chunkSize > 0) {
+                chunk.append(NEW_LINE);
+            }
+            chunk.append(elements.next());
+            chunkSize++;
+            if (chunkSize >= RENDER_CHUNK_SIZE || chunk.length() >= RENDER_CHUNK_LENGTH
+                || System.nanoTime() - chunkStart >= TimeUnit.MILLISECONDS.toNanos(RENDER_FLUSH_INTERVAL_MILLIS)) {
+                output.println("{0}", ANSI_WHITE_BRIGHT, chunk.toString());
+                // a buffering provider shows the chunk right away instead of before the next prompt
+                output.flush();
+                chunk.setLength(0);
+                chunkSize = 0;
+                chunkStart = System.nanoTime();
+            }
+        }
+        if (chunkSize > 0) {
+            output.println("{0}", ANSI_WHITE_BRIGHT, chunk.toString());
+        }
+    }
+
+    private Object call(CommandInvocation invocation, String command) {
+        metrics.recordCommand();
+        long timeout = invocation.getTimeout() > 0 ? invocation.getTimeout() : commandTimeout;
+        try {
+            reportAbandonedCommands();
+            return timeout > 0 ? callWithTimeout(invocation, command, timeout) : invocation.invoke();
+        } catch (CommandTimeoutException ex) {
+            metrics.recordTimeout();
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            metrics.recordFailure();
+            throw ex;
+        }
+    }
+
+    private Object callWithTimeout(CommandInvocation invocation, String command, long timeout) {
+        ShellSession session = currentSession.get();
+        RecordingOutputProvider output = recordedOutput.get();
+        FutureTask<Object> task = new FutureTask<>(() -> {
+            bind(session);
+            recordedOutput.set(output);
+            return invocation.invoke();
+        });
+        Thread thread = Thread.ofVirtual().name("shell-command").start(task);
+
+        try {
+            return task.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            task.cancel(true);
+            // a command ignoring the interruption keeps running, it is reported instead of blocking the prompt
+            session().getAbandonedCommands().put(thread, command);
+            throw new CommandTimeoutException(command, timeout);
+        } catch (InterruptedException ex) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ShellException("Interrupted while waiting for command [" + command + "].", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new ShellException(ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    private void reportAbandonedCommands() {
+        Map<Thread, String> abandonedCommands = session().getAbandonedCommands();
+        if (abandonedCommands.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<Thread, String>> entries = abandonedCommands.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Thread, String> entry = entries.next();
+            if (entry.getKey().isAlive()) {
+                getOutputProvider().println("Timed out command [{0}] ignores the interruption and is still running.",
+                    ANSI_WHITE_BRIGHT, entry.getValue());
+            }
+            entries.remove();
+        }
+    }
+
+    private boolean startJob(String command) {
+        CommandInvocation invocation = dictionary.parse(command);
+        if (isNull(invocation)) {
+            return false;
+        }
+        ShellSession session = session();
+        if (session.getJobs().getRunningCount() >= maxJobs) {
+            throw new IllegalStateException("Number of background jobs exceeds the configured limit of " + maxJobs + ".");
+        }
+
+        RecordingOutputProvider output = new RecordingOutputProvider(session.getOutputProvider());
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        // completed when the thread of the job ends, a cancelled job may still be running
+        CompletableFuture<Void> thread = new CompletableFuture<>();
+        // executed instead of submitted, so the executor keeps track of the thread of a cancelled job until it ends
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            bind(session);
+            recordedOutput.set(output);
+            try {
+                result.complete(call(invocation, command));
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            } finally {
+                recordedOutput.remove();
+                currentSession.remove();
+            }
+        }, null) {
+            @Override
+            public void run() {
+                try {
+                    super.run();
+                } finally {
+                    session.getJobThreads().remove(thread);
+                    thread.complete(null);
+                }
+            }
+        };
+        session.getJobThreads().add(thread);
+        try {
+            jobExecutor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            session.getJobThreads().remove(thread);
+            throw new IllegalStateException("The shell is closed, no background job can be started.", ex);
+        }
+        result.whenComplete((value, failure) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+
+        Job job = session.getJobs().add(command, result, output, completed -> notifyCompletion(session, completed));
+        getOutputProvider().println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, Integer.toString(job.getId()), command);
+        return true;
+    }
+
+    private static int backgroundSuffix(String command) {
+        int index = command.length() - 1;
+        while (index >= 0 && Character.isWhitespace(command.charAt(index))) {
+            index--;
+        }
+        return index >= 0 && command.charAt(index) == '&' ? index : -1;
+    }
+
+    private void bind(ShellSession session) {
+        if (session != console) {
+            currentSession.set(session);
+        }
+    }
+
+    private void printPrompt(ShellSession session) {
+        OutputProvider outputProvider = session.getOutputProvider();
+        synchronized (session.getPromptLock()) {
+            session.getJobs().takeUnreported().forEach(job -> reportJob(session, job));
+            outputProvider.print(prompt, ANSI_YELLOW_BRIGHT);
+            outputProvider.flush();
+            session.setPrompting(true);
+        }
+    }
+
+    private void notifyCompletion(ShellSession session, Job job) {
+        OutputProvider outputProvider = session.getOutputProvider();
+        synchronized (session.getPromptLock()) {
+            // while a command is executed the completion is reported before the next prompt
+            if (session.isPrompting() && job.markReported()) {
+                session.getJobs().remove(job.getId());
+                outputProvider.println("", null);
+                reportJob(session, job);
+                outputProvider.print(prompt, ANSI_YELLOW_BRIGHT);
+                outputProvider.flush();
+            }
+        }
+    }
+
+    private void reportJob(ShellSession session, Job job) {
+        OutputProvider outputProvider = session.getOutputProvider();
+        if (nonNull(job.getOutput())) {
+            job.getOutput().replay(outputProvider);
+        }
+        String id = Integer.toString(job.getId());
+        switch (job.getState()) {
+            case SUCCESS -> {
+                Object result = job.getFuture().resultNow();
+                String runtime = Long.toString(job.getRuntimeMillis());
+                if (isNull(result)) {
+                    outputProvider.println("Job [{0}] done in {1} ms.", ANSI_WHITE_BRIGHT, id, runtime);
+                } else if (isRenderedAsContent(result)) {
+                    outputProvider.println("Job [{0}] done in {1} ms:", ANSI_WHITE_BRIGHT, id, runtime);
+                    render(result, outputProvider);
+                } else {
+                    outputProvider.println("Job [{0}] done in {1} ms: {2}", ANSI_WHITE_BRIGHT, id, runtime, result);
+                }
+            }
+            case FAILED -> {
+                Throwable failure = job.getFuture().exceptionNow();
+                if (failure instanceof Exception ex) {
+                    session.setException(ex);
+                }
+                outputProvider.println("Job [{0}] failed: {1}", ANSI_WHITE_BRIGHT, id, describe(session, failure));
+            }
+            case CANCELLED -> outputProvider.println("Job [{0}] cancelled.", ANSI_WHITE_BRIGHT, id);
+            default -> {
+                // running jobs are not reported
+            }
+        }
+    }
+
+    private String describe(Throwable ex) {
+        return describe(session(), ex);
+    }
+
+    private static String describe(ShellSession session, Throwable ex) {
+        return session.isExceptionDetailsDisplayed() ? ex.toString() : ex.getClass().getName();
+    }
+
+    private static boolean isSkipped(String line) {
+        for (int index = 0; index < line.length(); index++) {
+            char ch = line.charAt(index);
+            if (!Character.isWhitespace(ch)) {
+                return ch == '#';
+            }
+        }
+        return true;
+    }
+
+    private void printScriptStatistics(Path script, long commandCount, int errorCount, long bytesRead, long nanos) {
+        double seconds = Math.max(nanos, 1) / 1_000_000_000.0;
+        String statistics = "Script [%s] executed %d commands with %d errors in %d ms (%.0f commands/s, %.1f MB/s)."
+            .formatted(script.getFileName(), commandCount, errorCount, nanos / 1_000_000,
+                commandCount / seconds, bytesRead / seconds / (1024 * 1024));
+        session().getOutputProvider().println("{0}", ANSI_WHITE_BRIGHT, statistics);
+    }
+
+    private record ScriptLine(long lineNumber, String command, CommandInvocation invocation, RecordingOutputProvider output) {
+    }
+
+    private record ParsedLine(CommandInvocation invocation, RuntimeException failure) {
+
+        boolean isThreadSafe() {
+            return nonNull(invocation) && invocation.isThreadSafe();
         }
     }
-}
\ No newline at end of file
+}
@@ -15,21 +15,36 @@
  */
 package de.am.common.shell;
 
+import de.am.common.shell.command.CommandLineCache;
+import de.am.common.shell.command.TypeConverterRegistry;
+import de.am.common.shell.io.AsyncLogAppender;
+import de.am.common.shell.io.ChannelInputProvider;
 import de.am.common.shell.io.DefaultInputProvider;
 import de.am.common.shell.io.DefaultOutputProvider;
 import de.am.common.shell.io.InputProvider;
+import de.am.common.shell.io.LogFileWriter;
+import de.am.common.shell.io.LogRotation;
 import de.am.common.shell.io.OutputProvider;
+import de.am.common.shell.io.ResultRendererRegistry;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
 import static de.am.common.shell.ShellConstants.DEFAULT_APP_NAME;
 import static de.am.common.shell.ShellConstants.DEFAULT_DISPLAY_EXCEPTION_DETAILS;
 import static de.am.common.shell.ShellConstants.DEFAULT_DISPLAY_TIME;
 import static de.am.common.shell.ShellConstants.DEFAULT_MAX_COMMAND_LENGTH;
+import static de.am.common.shell.ShellConstants.DEFAULT_MAX_JOBS;
 import static de.am.common.shell.ShellConstants.DEFAULT_MAX_LOG_ENTRY_LENGTH;
+import static de.am.common.shell.ShellConstants.DEFAULT_OUTPUT_BUFFERED;
+import static de.am.common.shell.ShellConstants.DEFAULT_PARSE_CACHE_SIZE;
 import static de.am.common.shell.ShellConstants.DEFAULT_PROMPT;
 import static de.am.common.shell.util.Preconditions.isNullOrEmpty;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
  * {@code ShellConfig} contains the configuration the {@link Shell} application.
@@ -44,6 +59,8 @@ public class ShellConfig {
     @Getter
     private final InputProvider inputProvider;
     @Getter
+    private final boolean isFastInput;
+    @Getter
     private final OutputProvider outputProvider;
     @Getter
     private final boolean isTimeDisplayed;
@@ -53,6 +70,36 @@ public class ShellConfig {
     private final int maxCommandLength;
     @Getter
     private final int maxLogEntryLength;
+    @Getter
+    private final TypeConverterRegistry typeConverters;
+    @Getter
+    private final ResultRendererRegistry resultRenderers;
+    @Getter
+    private final boolean isPrefixMatching;
+    @Getter
+    private final int parseCacheSize;
+    @Getter
+    private final CommandLineCache.Eviction parseCacheEviction;
+    @Getter
+    private final ExecutorService batchExecutor;
+    @Getter
+    private final int maxJobs;
+    @Getter
+    private final Duration commandTimeout;
+    @Getter
+    private final boolean isOutputBuffered;
+    @Getter
+    private final LogFileWriter.FlushPolicy logFlushPolicy;
+    @Getter
+    private final boolean isLogSynced;
+    @Getter
+    private final boolean isLogAsync;
+    @Getter
+    private final AsyncLogAppender.Overflow logOverflow;
+    @Getter
+    private final LogRotation logRotation;
+    @Getter
+    private final Path historyFile;
 
     /**
      * Create a new instance of {@code ShellConfig}.
@@ -60,21 +107,58 @@ public class ShellConfig {
      * @param prompt          the prompt of the shell
      * @param appName         the name of the application using shell
      * @param inputProvider   the input provider of shell
+     * @param isFastInput     true if the commands are read by a {@link ChannelInputProvider} instead of the
+     *                        {@link DefaultInputProvider} if no input provider is given, it rejects commands longer
+     *                        than {@code maxCommandLength} while reading them
      * @param outputProvider  the output provider of shell
      * @param isTimeDisplayed true if the runtime of commands should be measured, false otherwise
      * @param isExceptionDetailsDisplayed true if exception details should be exposed, false otherwise
      * @param maxCommandLength maximum allowed command length
      * @param maxLogEntryLength maximum allowed log entry length for the default output provider
+     * @param typeConverters  the converters of the command parameter types
+     * @param resultRenderers the renderers of command results written as content instead of text
+     * @param isPrefixMatching true if a command is also found by a prefix of its name or shortcut matching no other
+     *                        command
+     * @param parseCacheSize  maximum number of cached command lines, 0 disables the cache
+     * @param parseCacheEviction the eviction strategy of the command line cache
+     * @param batchExecutor   the executor of thread safe commands in parallel batch mode, a virtual thread per command
+     *                        is used if null
+     * @param maxJobs         maximum number of background jobs running at the same time
+     * @param commandTimeout  the timeout of commands not declaring one, zero or null if they are not limited; a timed out
+     *                        command ignoring the interruption keeps running, the shell warns about it
+     * @param isOutputBuffered true if the default output provider buffers the console output until the next prompt
+     * @param logFlushPolicy  specifies when the default output provider writes the session log file
+     * @param isLogSynced     true if every write of the session log file is forced to the storage device
+     * @param isLogAsync      true if the session log file is written by a background thread
+     * @param logOverflow     the strategy of the asynchronous session log if its buffer is full
+     * @param logRotation     specifies when the session log file is rotated, never if null
+     * @param historyFile     the file of the persistent command history, no history is kept if null
      */
     @Builder
     public ShellConfig(String prompt,
                        String appName,
                        InputProvider inputProvider,
+                       Boolean isFastInput,
                        OutputProvider outputProvider,
                        Boolean isTimeDisplayed,
                        Boolean isExceptionDetailsDisplayed,
                        Integer maxCommandLength,
-                       Integer maxLogEntryLength)
+                       Integer maxLogEntryLength,
+                       TypeConverterRegistry typeConverters,
+                       ResultRendererRegistry resultRenderers,
+                       Boolean isPrefixMatching,
+                       Integer parseCacheSize,
+                       CommandLineCache.Eviction parseCacheEviction,
+                       ExecutorService batchExecutor,
+                       Integer maxJobs,
+                       Duration commandTimeout,
+                       Boolean isOutputBuffered,
+                       LogFileWriter.FlushPolicy logFlushPolicy,
+                       Boolean isLogSynced,
+                       Boolean isLogAsync,
+                       AsyncLogAppender.Overflow logOverflow,
+                       LogRotation logRotation,
+                       Path historyFile)
     {
         this.prompt = isNullOrEmpty(prompt) ? DEFAULT_PROMPT : prompt;
         this.appName = isNullOrEmpty(appName) ? DEFAULT_APP_NAME : appName;
@@ -82,9 +166,40 @@ public class ShellConfig {
         this.isExceptionDetailsDisplayed = isNull(isExceptionDetailsDisplayed) ? DEFAULT_DISPLAY_EXCEPTION_DETAILS : isExceptionDetailsDisplayed;
         this.maxCommandLength = isNull(maxCommandLength) ? DEFAULT_MAX_COMMAND_LENGTH : maxCommandLength;
         this.maxLogEntryLength = isNull(maxLogEntryLength) ? DEFAULT_MAX_LOG_ENTRY_LENGTH : maxLogEntryLength;
-        this.inputProvider = isNull(inputProvider) ? DefaultInputProvider.builder().build() : inputProvider;
+        this.typeConverters = isNull(typeConverters) ? new TypeConverterRegistry() : typeConverters;
+        this.resultRenderers = isNull(resultRenderers) ? new ResultRendererRegistry() : resultRenderers;
+        this.isPrefixMatching = nonNull(isPrefixMatching) && isPrefixMatching;
+        this.parseCacheSize = isNull(parseCacheSize) ? DEFAULT_PARSE_CACHE_SIZE : parseCacheSize;
+        this.parseCacheEviction = isNull(parseCacheEviction) ? CommandLineCache.Eviction.LEAST_RECENTLY_USED : parseCacheEviction;
+        this.batchExecutor = batchExecutor;
+        this.maxJobs = isNull(maxJobs) ? DEFAULT_MAX_JOBS : maxJobs;
+        this.commandTimeout = isNull(commandTimeout) ? Duration.ZERO : commandTimeout;
+        this.isOutputBuffered = isNull(isOutputBuffered) ? DEFAULT_OUTPUT_BUFFERED : isOutputBuffered;
+        this.logFlushPolicy = isNull(logFlushPolicy) ? LogFileWriter.FlushPolicy.COMMAND : logFlushPolicy;
+        this.isLogSynced = nonNull(isLogSynced) && isLogSynced;
+        this.isLogAsync = nonNull(isLogAsync) && isLogAsync;
+        this.logOverflow = isNull(logOverflow) ? AsyncLogAppender.Overflow.BLOCK : logOverflow;
+        this.logRotation = logRotation;
+        this.historyFile = historyFile;
+        this.isFastInput = nonNull(isFastInput) && isFastInput;
+        this.inputProvider = isNull(inputProvider) ? createInputProvider(this.isFastInput, this.maxCommandLength) : inputProvider;
         this.outputProvider = isNull(outputProvider)
-            ? DefaultOutputProvider.builder().maxLogEntryLength(this.maxLogEntryLength).build()
+            ? DefaultOutputProvider.builder()
+                .maxLogEntryLength(this.maxLogEntryLength)
+                .isBuffered(this.isOutputBuffered)
+                .logFlushPolicy(this.logFlushPolicy)
+                .isLogSynced(this.isLogSynced)
+                .isLogAsync(this.isLogAsync)
+                .logOverflow(this.logOverflow)
+                .logRotation(this.logRotation)
+                .build()
             : outputProvider;
     }
-}
\ No newline at end of file
+
+    // #################################################################################################################
+    private static InputProvider createInputProvider(boolean isFastInput, int maxCommandLength) {
+        return isFastInput
+            ? ChannelInputProvider.builder().maxCommandLength(maxCommandLength).build()
+            : DefaultInputProvider.builder().build();
+    }
+}
@@ -48,6 +48,105 @@ public final class ShellConstants {
      * Maximum length of a single log entry written by the default output provider
      */
     public static final int DEFAULT_MAX_LOG_ENTRY_LENGTH = 16384;
+    /**
+     * Parsed command lines are not cached by default
+     */
+    public static final int DEFAULT_PARSE_CACHE_SIZE = 0;
+    /**
+     * Size of the buffers used to read scripts and other streamed input
+     */
+    public static final int DEFAULT_READ_BUFFER_SIZE = 1 << 20;
+    /**
+     * Number of characters written to the console at once in buffered output mode
+     */
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 1 << 16;
+    /**
+     * Default value if the console output is buffered until the next prompt
+     */
+    public static final boolean DEFAULT_OUTPUT_BUFFERED = false;
+    /**
+     * Maximum number of compiled output patterns cached by the default output provider
+     */
+    public static final int DEFAULT_TEMPLATE_CACHE_SIZE = 256;
+    /**
+     * Size in bytes of the buffer of the session log file
+     */
+    public static final int DEFAULT_LOG_BUFFER_SIZE = 1 << 16;
+    /**
+     * Interval in milliseconds in which the session log file is written if the log is flushed by a timer
+     */
+    public static final long DEFAULT_LOG_FLUSH_INTERVAL_MILLIS = 1000;
+    /**
+     * Number of session log entries buffered in asynchronous logging mode
+     */
+    public static final int DEFAULT_LOG_QUEUE_CAPACITY = 8192;
+    /**
+     * Number of rotated segments of the session log file kept if the log is rotated by size
+     */
+    public static final int DEFAULT_LOG_MAX_FILES = 5;
+    /**
+     * Number of lines kept by an in-memory output sink
+     */
+    public static final int DEFAULT_MEMORY_LOG_CAPACITY = 1000;
+    /**
+     * Number of characters of recorded output kept in memory, further output is spooled to a temporary file
+     */
+    public static final int DEFAULT_RECORDING_MEMORY_SIZE = 1 << 20;
+    /**
+     * Maximum number of consecutive thread safe script commands executed concurrently in parallel batch mode
+     */
+    public static final int MAX_BATCH_SIZE = 1024;
+    /**
+     * Maximum number of background jobs running at the same time
+     */
+    public static final int DEFAULT_MAX_JOBS = 64;
+    /**
+     * Time in milliseconds to wait for cancelled background jobs when the shell exits
+     */
+    public static final long JOB_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+    /**
+     * Maximum number of elements of a returned stream, iterator or iterable printed at once
+     */
+    public static final int RENDER_CHUNK_SIZE = 256;
+    /**
+     * Maximum number of characters of a returned stream, iterator or iterable printed at once
+     */
+    public static final int RENDER_CHUNK_LENGTH = 8192;
+    /**
+     * Time in milliseconds after which the rendered elements are printed even if the chunk is not full
+     */
+    public static final long RENDER_FLUSH_INTERVAL_MILLIS = 50;
+    /**
+     * Maximum number of history entries listed by the history commands
+     */
+    public static final int HISTORY_LIST_SIZE = 20;
+    /**
+     * Maximum number of sessions served by a shell server at the same time
+     */
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    /**
+     * Size of the read and write buffers of a shell server session, kept small to serve many idle sessions
+     */
+    public static final int SESSION_BUFFER_SIZE = 4096;
+    /**
+     * Maximum number of pending connections of a shell server
+     */
+    public static final int SERVER_BACKLOG = 1024;
+
+    // #################################################################################################################
+    // Command line options
+    /**
+     * Option to execute the commands of the following script file instead of the interactive prompt
+     */
+    public static final String SCRIPT_OPTION = "--script";
+    /**
+     * Option to continue the execution of a script if a command fails
+     */
+    public static final String CONTINUE_ON_ERROR_OPTION = "--continue-on-error";
+    /**
+     * Option to execute consecutive thread safe commands of a script concurrently
+     */
+    public static final String PARALLEL_OPTION = "--parallel";
 
     // #################################################################################################################
     // Common constants
@@ -87,6 +186,10 @@ public final class ShellConstants {
      * RegEx uses to create a shortcut name of a command
      */
     public static final String SPLIT_REGEX = "(?<!(^|[A-Z]))(?=[A-Z])|(?<!^)(?=[A-Z][a-z])";
+    /**
+     * Suffix of the command registry classes generated by the annotation processor
+     */
+    public static final String COMMAND_REGISTRY_SUFFIX = "_CommandRegistry";
 
     // #################################################################################################################
     // ANSI colors
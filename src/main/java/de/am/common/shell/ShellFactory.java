@@ -15,17 +15,25 @@
  */
 package de.am.common.shell;
 
+import de.am.common.shell.command.CommandLineCache;
+import de.am.common.shell.command.CommandRegistry;
 import de.am.common.shell.command.DisplayTimeCommand;
 import de.am.common.shell.command.ExitCommand;
 import de.am.common.shell.command.HelpCommand;
+import de.am.common.shell.command.HistoryCommand;
+import de.am.common.shell.command.JobCommand;
 import de.am.common.shell.command.LoggingCommand;
+import de.am.common.shell.command.MethodHandleInvoker;
 import de.am.common.shell.command.ShellCommand;
 import de.am.common.shell.command.ShellCommandDictionary;
 import de.am.common.shell.command.ShellCommandParameter;
 import de.am.common.shell.command.ShowExceptionCommand;
+import de.am.common.shell.command.TypeConverterRegistry;
 import de.am.common.shell.command.VersionCommand;
 import de.am.common.shell.command.annotation.Command;
 import de.am.common.shell.command.annotation.CommandParameter;
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.util.CommandNames;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -34,8 +42,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import static de.am.common.shell.ShellConstants.SPLIT_REGEX;
-import static java.util.Arrays.stream;
 import static java.util.Objects.nonNull;
 
 /**
@@ -69,31 +75,67 @@ public final class ShellFactory {
      */
     public static Shell createShell(ShellConfig config, Object... commandHandlers) {
         List<Object> commandList = addStandardCommands(commandHandlers);
+        TypeConverterRegistry converters = config.getTypeConverters();
         List<ShellCommand> commands = commandList.stream()
-            .map(ShellFactory::createCommands)
+            .map(commandHandler -> createCommands(commandHandler, converters))
             .flatMap(List::stream)
             .toList();
         validateUniqueCommands(commands);
-        ShellCommandDictionary dictionary = ShellCommandDictionary.builder().commands(commands).build();
+        ShellCommandDictionary dictionary = ShellCommandDictionary.builder()
+            .commands(commands)
+            .cache(createCache(config))
+            .isPrefixMatching(config.isPrefixMatching())
+            .build();
         Shell shell = Shell.builder().config(config).dictionary(dictionary).build();
         injectShell(shell, commandList);
         return shell;
     }
 
     // #################################################################################################################
-    private static List<ShellCommand> createCommands(Object commandHandler) {
+    private static List<ShellCommand> createCommands(Object commandHandler, TypeConverterRegistry converters) {
+        CommandRegistry registry = findRegistry(commandHandler.getClass());
+        return nonNull(registry)
+            ? registry.createCommands(commandHandler, converters)
+            : createCommandsByReflection(commandHandler, converters);
+    }
+
+    private static CommandLineCache createCache(ShellConfig config) {
+        return config.getParseCacheSize() > 0
+            ? CommandLineCache.builder().maxSize(config.getParseCacheSize()).eviction(config.getParseCacheEviction()).build()
+            : null;
+    }
+
+    private static CommandRegistry findRegistry(Class<?> handlerClass) {
+        String registryName = CommandNames.registryName(handlerClass.getName());
+        try {
+            Class<?> registryClass = Class.forName(registryName, true, handlerClass.getClassLoader());
+            if (CommandRegistry.class.isAssignableFrom(registryClass)) {
+                return (CommandRegistry) registryClass.getDeclaredConstructor().newInstance();
+            }
+        } catch (ClassNotFoundException ex) {
+            // No registry generated for the handler class, reflection is used instead
+        } catch (ReflectiveOperationException ex) {
+            throw new ShellException("Can not create command registry [" + registryName + "].", ex);
+        }
+        return null;
+    }
+
+    private static List<ShellCommand> createCommandsByReflection(Object commandHandler, TypeConverterRegistry converters) {
         List<ShellCommand> commands = new ArrayList<>();
 
         for (Method method : commandHandler.getClass().getMethods()) {
             Command cmdAnnotation = method.getAnnotation(Command.class);
             if (nonNull(cmdAnnotation)) {
                 String name = cmdAnnotation.name().isEmpty() ? method.getName() : cmdAnnotation.name();
-                String shortCut = cmdAnnotation.shortcut().isEmpty() ? createShortCut(method.getName()) : cmdAnnotation.shortcut();
+                String shortCut = cmdAnnotation.shortcut().isEmpty() ? CommandNames.createShortCut(method.getName()) : cmdAnnotation.shortcut();
                 String description = cmdAnnotation.description();
                 commands.add(
                     ShellCommand.builder()
-                        .method(method).commandHandler(commandHandler).name(name).shortcut(shortCut).description(description)
-                        .parameters(createParameters(method))
+                        .method(method).commandHandler(commandHandler).invoker(MethodHandleInvoker.bind(method, commandHandler))
+                        .name(name).shortcut(shortCut).description(description)
+                        .parameters(createParameters(method, converters))
+                        .isThreadSafe(cmdAnnotation.threadSafe())
+                        .timeout(cmdAnnotation.timeout())
                         .build()
                 );
             }
@@ -102,7 +144,7 @@ public final class ShellFactory {
         return commands;
     }
 
-    private static ShellCommandParameter[] createParameters(Method method) {
+    private static ShellCommandParameter[] createParameters(Method method, TypeConverterRegistry converters) {
         Parameter[] methodParameters = method.getParameters();
         ShellCommandParameter[] commandParameters = new ShellCommandParameter[methodParameters.length];
 
@@ -119,6 +161,7 @@ public final class ShellFactory {
                     .name(name)
                     .description(description)
                     .type(methodParameter.getType())
+                    .converter(converters.getConverter(methodParameter.getType()))
                     .build();
                 index++;
             }
@@ -134,7 +177,9 @@ public final class ShellFactory {
             new HelpCommand(),
             new ShowExceptionCommand(),
             new VersionCommand(),
-            new DisplayTimeCommand()
+            new DisplayTimeCommand(),
+            new JobCommand(),
+            new HistoryCommand()
         ));
 
         // Add user commands
@@ -172,12 +217,6 @@ public final class ShellFactory {
         identifiers.put(identifier, command);
     }
 
-    private static String createShortCut(String methodName) {
-        return stream(methodName.split(SPLIT_REGEX))
-            .map(word -> String.valueOf(word.charAt(0)))
-            .reduce("", String::concat);
-    }
-
     private ShellFactory() {
         // No instance needed
     }
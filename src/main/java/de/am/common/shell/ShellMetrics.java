@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code ShellMetrics} counts the commands executed by a {@link Shell}.<p>
+ * The counters are updated by all threads executing commands, e.g. in parallel batch mode or as background job.
+ *
+ * @author Martin Absmeier
+ */
+public final class ShellMetrics {
+
+    private final LongAdder commandCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    /**
+     * Returns the number of executed commands, a pipeline counts as one command.
+     *
+     * @return the number of commands
+     */
+    public long getCommandCount() {
+        return commandCount.sum();
+    }
+
+    /**
+     * Returns the number of commands that failed, including the ones timed out.
+     *
+     * @return the number of failed commands
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * Returns the number of commands interrupted because they exceeded their timeout.
+     *
+     * @return the number of timed out commands
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ShellMetrics{commands=" + getCommandCount() + ", failures=" + getFailureCount()
+            + ", timeouts=" + getTimeoutCount() + "}";
+    }
+
+    // #################################################################################################################
+    void recordCommand() {
+        commandCount.increment();
+    }
+
+    void recordFailure() {
+        failureCount.increment();
+    }
+
+    void recordTimeout() {
+        timeoutCount.increment();
+        failureCount.increment();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell;
+
+import de.am.common.shell.io.InputProvider;
+import de.am.common.shell.io.OutputProvider;
+import de.am.common.shell.job.JobTable;
+import de.am.common.shell.util.StopWatch;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+
+/**
+ * {@code ShellSession} contains the state of one user of a {@link Shell}: its input and output, its background jobs, the
+ * last exception and the display settings.<p>
+ * The interactive console is the default session of a shell, every connection of a
+ * {@link de.am.common.shell.server.ShellServer} is a session of its own sharing the commands of the shell.
+ *
+ * @author Martin Absmeier
+ */
+final class ShellSession {
+    @Getter
+    private final InputProvider inputProvider;
+    @Getter
+    private final OutputProvider outputProvider;
+    @Getter
+    private final JobTable jobs;
+    @Getter
+    private final Set<CompletableFuture<Void>> jobThreads;
+    @Getter
+    private final Map<Thread, String> abandonedCommands;
+    @Getter
+    private final StopWatch stopWatch;
+    @Getter
+    private final Object promptLock;
+    @Getter
+    @Setter
+    private volatile boolean isShutdown;
+    @Getter
+    @Setter
+    private volatile Exception exception;
+    @Getter
+    @Setter
+    private volatile boolean isTimeDisplayed;
+    @Getter
+    @Setter
+    private volatile boolean isExceptionDetailsDisplayed;
+    @Getter
+    @Setter
+    private boolean isPrompting;
+
+    /**
+     * Creates a new instance of {@link ShellSession} class.
+     *
+     * @param inputProvider               the input provider of the session
+     * @param outputProvider              the output provider of the session
+     * @param isTimeDisplayed             true if the runtime of commands is displayed
+     * @param isExceptionDetailsDisplayed true if exception details are exposed
+     */
+    @Builder
+    ShellSession(InputProvider inputProvider, OutputProvider outputProvider, boolean isTimeDisplayed,
+                 boolean isExceptionDetailsDisplayed) {
+        checkNotNull(inputProvider, "inputProvider");
+        checkNotNull(outputProvider, "outputProvider");
+
+        this.inputProvider = inputProvider;
+        this.outputProvider = outputProvider;
+        this.isTimeDisplayed = isTimeDisplayed;
+        this.isExceptionDetailsDisplayed = isExceptionDetailsDisplayed;
+        this.jobs = new JobTable();
+        this.jobThreads = ConcurrentHashMap.newKeySet();
+        this.abandonedCommands = new ConcurrentHashMap<>();
+        this.stopWatch = StopWatch.builder().build();
+        this.promptLock = new Object();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code CommandIndex} is an immutable open addressing hash table mapping the names and shortcuts of {@link ShellCommand}s
+ * to the commands.<p>
+ * Keys can be looked up by a range of a {@link CharSequence}, so a command can be found in an entered line without
+ * allocating a substring. If several commands share an identifier the first registered one wins.
+ *
+ * @author Martin Absmeier
+ */
+final class CommandIndex {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final String[] keys;
+    private final ShellCommand[] values;
+    private final int mask;
+
+    /**
+     * Creates a new instance of {@link CommandIndex} class containing the names and shortcuts of the specified commands.
+     *
+     * @param commands the commands to index
+     */
+    CommandIndex(List<ShellCommand> commands) {
+        // two keys per command and a load factor of at most 0.5
+        int capacity = tableSizeFor(commands.size() * 4);
+        this.keys = new String[capacity];
+        this.values = new ShellCommand[capacity];
+        this.mask = capacity - 1;
+
+        for (ShellCommand command : commands) {
+            put(command.getName(), command);
+            put(command.getShortcut(), command);
+        }
+    }
+
+    /**
+     * Returns the command registered with the specified name or shortcut.
+     *
+     * @param key the name or shortcut of the command
+     * @return the command or null if no command is registered with this key
+     */
+    ShellCommand get(String key) {
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * Returns the command registered with the name or shortcut contained in {@code sequence} between {@code start}
+     * (inclusive) and {@code end} (exclusive).
+     *
+     * @param sequence the character sequence containing the key
+     * @param start    the start index of the key
+     * @param end      the end index of the key
+     * @return the command or null if no command is registered with this key
+     */
+    ShellCommand get(CharSequence sequence, int start, int end) {
+        int slot = spread(hash(sequence, start, end)) & mask;
+        String key;
+        while (!isNull(key = keys[slot])) {
+            if (regionEquals(key, sequence, start, end)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    // #################################################################################################################
+    private void put(String key, ShellCommand command) {
+        if (isNull(key)) {
+            return;
+        }
+
+        int slot = spread(key.hashCode()) & mask;
+        while (!isNull(keys[slot])) {
+            if (keys[slot].equals(key)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = command;
+    }
+
+    private static int hash(CharSequence sequence, int start, int end) {
+        // same algorithm as String.hashCode() so the cached hash of the keys can be used during registration
+        int hash = 0;
+        for (int index = start; index < end; index++) {
+            hash = 31 * hash + sequence.charAt(index);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(String key, CharSequence sequence, int start, int end) {
+        int length = end - start;
+        if (key.length() != length) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            if (key.charAt(index) != sequence.charAt(start + index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
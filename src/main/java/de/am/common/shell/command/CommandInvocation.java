@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.exception.ShellException;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.stream.BaseStream;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code CommandInvocation} is a registered {@link ShellCommand} bound to the typed arguments parsed from a command line.
+ * <p>
+ * It is created by {@link ShellCommandDictionary#parse(String)} instead of copying the command and its parameters for
+ * every entered line. In a pipeline ({@code a | b}) the invocation of {@code b} refers to the invocation of {@code a} as
+ * previous one, the return value of {@code a} is passed as last argument to {@code b}.
+ *
+ * @author Martin Absmeier
+ */
+public final class CommandInvocation {
+    @Getter
+    private final ShellCommand command;
+    @Getter
+    private final Object[] arguments;
+    @Getter
+    private final CommandInvocation previous;
+
+    /**
+     * Creates a new instance of {@link CommandInvocation} class.
+     *
+     * @param command   the registered command
+     * @param arguments the arguments typed for the command method
+     */
+    public CommandInvocation(ShellCommand command, Object[] arguments) {
+        this(command, arguments, null);
+    }
+
+    /**
+     * Creates a new instance of {@link CommandInvocation} class receiving the return value of the previous invocation.
+     *
+     * @param command   the registered command
+     * @param arguments the arguments typed for the command method, the last one is replaced by the piped value
+     * @param previous  the previous invocation of the pipeline or null if the command is not piped
+     */
+    public CommandInvocation(ShellCommand command, Object[] arguments, CommandInvocation previous) {
+        this.command = command;
+        this.arguments = arguments;
+        this.previous = previous;
+    }
+
+    /**
+     * Invokes the command method with the bound arguments, a piped command invokes the previous commands first.<p>
+     * A stream returned by a previous command is closed if the piped command fails, otherwise closing it is up to the
+     * receiving command or the caller.
+     *
+     * @return the return value of the command method or null if the method is void
+     * @throws ShellException           if the command is not bound to a method or the method throws a checked exception
+     * @throws IllegalArgumentException if the piped value can not be passed to the command
+     */
+    public Object invoke() {
+        if (isNull(previous)) {
+            return command.invoke(arguments);
+        }
+
+        Object pipedValue = previous.invoke();
+        boolean isFailed = true;
+        try {
+            // the bound arguments are shared by all executions of a cached invocation
+            Object[] pipedArguments = Arrays.copyOf(arguments, arguments.length);
+            int lastIndex = pipedArguments.length - 1;
+            pipedArguments[lastIndex] = command.convertPipedValue(lastIndex, pipedValue);
+            Object result = command.invoke(pipedArguments);
+            isFailed = false;
+            return result;
+        } finally {
+            if (isFailed && pipedValue instanceof BaseStream<?, ?> stream) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the command and all previous commands of the pipeline are thread safe.
+     *
+     * @return true if the invocation can run concurrently with other thread safe commands, false otherwise
+     */
+    public boolean isThreadSafe() {
+        return command.isThreadSafe() && (isNull(previous) || previous.isThreadSafe());
+    }
+
+    /**
+     * Returns the largest timeout of the command and all previous commands of the pipeline.
+     *
+     * @return the timeout in milliseconds or 0 if no command declares a timeout
+     */
+    public long getTimeout() {
+        return isNull(previous) ? command.getTimeout() : Math.max(command.getTimeout(), previous.getTimeout());
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+/**
+ * {@code CommandInvoker} calls the method of a {@link ShellCommand} on its command handler.<p>
+ * An invoker is created once when the command is registered and reused for every call of the command.
+ *
+ * @author Martin Absmeier
+ */
+@FunctionalInterface
+public interface CommandInvoker {
+
+    /**
+     * Invokes the command method with the specified arguments.
+     *
+     * @param arguments the typed arguments of the command method
+     * @return the return value of the command method or null if the method is void
+     * @throws Throwable everything thrown by the command method
+     */
+    Object invoke(Object[] arguments) throws Throwable;
+}
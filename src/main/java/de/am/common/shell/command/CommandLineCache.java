@@ -0,0 +1,182 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code CommandLineCache} is a bounded cache mapping entered command lines to their {@link CommandInvocation}s, so lines
+ * entered again and again are neither tokenized nor converted a second time.<p>
+ * Only invocations whose arguments, including those of all pipeline stages, are immutable (strings, boxed primitives,
+ * enums, ...) are cached, because a cached invocation is shared by every execution of the line. The decision is made by
+ * the runtime type of every argument, not by its converter: arrays and other mutable values are never cached, whereas
+ * the value of a custom {@link TypeConverter} returning an immutable type is cached like a built-in one. Such a
+ * converter must therefore return an equal value for the same input.
+ *
+ * @author Martin Absmeier
+ */
+public final class CommandLineCache {
+
+    /**
+     * The strategy choosing the command line removed when the cache is full.
+     */
+    public enum Eviction {
+        /**
+         * The command line that was not requested for the longest time is removed.
+         */
+        LEAST_RECENTLY_USED,
+        /**
+         * The command line that was added first is removed.
+         */
+        FIRST_IN_FIRST_OUT
+    }
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+        String.class, Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class, Boolean.class,
+        Character.class, BigDecimal.class, BigInteger.class, UUID.class, Duration.class
+    );
+
+    @Getter
+    private final int maxSize;
+    @Getter
+    private final Eviction eviction;
+    private final Map<String, CommandInvocation> invocations;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a new instance of {@link CommandLineCache} class.
+     *
+     * @param maxSize  the maximum number of cached command lines, must be greater than zero
+     * @param eviction the eviction strategy, {@link Eviction#LEAST_RECENTLY_USED} if null
+     * @throws IllegalArgumentException if {@code maxSize} is not greater than zero
+     */
+    @Builder
+    public CommandLineCache(int maxSize, Eviction eviction) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The size of the command line cache must be greater than zero.");
+        }
+        this.maxSize = maxSize;
+        this.eviction = isNull(eviction) ? Eviction.LEAST_RECENTLY_USED : eviction;
+        this.invocations = new LinkedHashMap<>(16, 0.75f, this.eviction == Eviction.LEAST_RECENTLY_USED) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CommandInvocation> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached invocation of the specified command line and counts the request as hit or miss.
+     *
+     * @param line the entered command line
+     * @return the cached invocation or null if the line is not cached
+     */
+    public synchronized CommandInvocation get(String line) {
+        CommandInvocation invocation = invocations.get(line);
+        if (isNull(invocation)) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return invocation;
+    }
+
+    /**
+     * Caches the invocation of the specified command line if all of its arguments are immutable.
+     *
+     * @param line       the entered command line
+     * @param invocation the invocation parsed from the line
+     * @return true if the invocation is cached, false otherwise
+     */
+    public synchronized boolean put(String line, CommandInvocation invocation) {
+        if (!isCacheable(invocation)) {
+            return false;
+        }
+        invocations.put(line, invocation);
+        return true;
+    }
+
+    /**
+     * Removes all cached command lines and resets the counters.
+     */
+    public synchronized void clear() {
+        invocations.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Returns the number of cached command lines.
+     *
+     * @return the number of cached command lines
+     */
+    public synchronized int size() {
+        return invocations.size();
+    }
+
+    /**
+     * Returns the number of requested command lines found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requested command lines not found in the cache.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CommandLineCache{size=" + invocations.size() + ", maxSize=" + maxSize + ", eviction=" + eviction
+            + ", hits=" + hits + ", misses=" + misses + "}";
+    }
+
+    // #################################################################################################################
+    private static boolean isCacheable(CommandInvocation invocation) {
+        for (CommandInvocation stage = invocation; !isNull(stage); stage = stage.getPrevious()) {
+            for (Object argument : stage.getArguments()) {
+                if (!isNull(argument) && !isImmutable(argument)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutable(Object argument) {
+        return argument instanceof Enum<?> || argument instanceof Path || IMMUTABLE_TYPES.contains(argument.getClass());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import java.util.Arrays;
+
+/**
+ * {@code CommandLineTokenizer} splits an entered command line into tokens separated by whitespace, single-quoted and
+ * double-quoted parts may contain whitespace. An unquoted {@code |} separates the stages of a command pipeline.<p>
+ * Tokens are stored as offsets into the line in buffers reused for every line, a token is only materialized as
+ * {@code String} on request. An instance is not thread safe, {@link ShellCommandDictionary} keeps one per thread.
+ *
+ * @author Martin Absmeier
+ */
+final class CommandLineTokenizer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private boolean[] quoted = new boolean[INITIAL_CAPACITY];
+    private int[] stageStarts = new int[INITIAL_CAPACITY];
+    private int count;
+    private int stageCount;
+
+    /**
+     * Tokenizes the specified line, the tokens can be accessed until the next line is tokenized.
+     *
+     * @param line the command line
+     * @return the number of tokens of all stages
+     * @throws IllegalArgumentException if the line contains an unterminated quoted part or an empty pipeline stage
+     */
+    int tokenize(CharSequence line) {
+        count = 0;
+        stageCount = 0;
+        addStage();
+        boolean tokenStarted = false;
+        boolean tokenQuoted = false;
+        int tokenStart = 0;
+        char activeQuote = 0;
+
+        for (int index = 0; index < line.length(); index++) {
+            char currentChar = line.charAt(index);
+
+            if (activeQuote == 0 && (currentChar == '"' || currentChar == '\'')) {
+                activeQuote = currentChar;
+                tokenQuoted = true;
+            } else if (activeQuote != 0 && currentChar == activeQuote) {
+                activeQuote = 0;
+                continue;
+            } else if (activeQuote == 0 && currentChar == '|') {
+                if (tokenStarted) {
+                    add(tokenStart, index, tokenQuoted);
+                    tokenStarted = false;
+                    tokenQuoted = false;
+                }
+                checkStageNotEmpty();
+                addStage();
+                continue;
+            } else if (activeQuote == 0 && Character.isWhitespace(currentChar)) {
+                if (tokenStarted) {
+                    add(tokenStart, index, tokenQuoted);
+                    tokenStarted = false;
+                    tokenQuoted = false;
+                }
+                continue;
+            }
+
+            if (!tokenStarted) {
+                tokenStart = index;
+                tokenStarted = true;
+            }
+        }
+
+        if (activeQuote != 0) {
+            throw new IllegalArgumentException("Command contains an unterminated quoted parameter.");
+        }
+
+        if (tokenStarted) {
+            add(tokenStart, line.length(), tokenQuoted);
+        }
+        if (stageCount > 1) {
+            checkStageNotEmpty();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of pipeline stages of the tokenized line, a line without {@code |} has one stage.
+     *
+     * @return the number of stages
+     */
+    int stageCount() {
+        return stageCount;
+    }
+
+    /**
+     * Returns the index of the first token of the stage with the specified index, this token is the command.
+     *
+     * @param stage the index of the stage
+     * @return the index of the first token
+     */
+    int stageStart(int stage) {
+        return stageStarts[stage];
+    }
+
+    /**
+     * Returns the index after the last token of the stage with the specified index.
+     *
+     * @param stage the index of the stage
+     * @return the index after the last token
+     */
+    int stageEnd(int stage) {
+        return stage + 1 < stageCount ? stageStarts[stage + 1] : count;
+    }
+
+    /**
+     * Returns the start offset (inclusive) of the token with the specified index.
+     *
+     * @param index the index of the token
+     * @return the start offset in the line
+     */
+    int start(int index) {
+        return starts[index];
+    }
+
+    /**
+     * Returns the end offset (exclusive) of the token with the specified index.
+     *
+     * @param index the index of the token
+     * @return the end offset in the line
+     */
+    int end(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Returns true if the token with the specified index contains quotes, its offsets include the quote characters.
+     *
+     * @param index the index of the token
+     * @return true if the token has to be unquoted, false otherwise
+     */
+    boolean isQuoted(int index) {
+        return quoted[index];
+    }
+
+    /**
+     * Materializes the token with the specified index, quote characters are removed.
+     *
+     * @param line  the tokenized line
+     * @param index the index of the token
+     * @return the token
+     */
+    String token(String line, int index) {
+        if (!quoted[index]) {
+            return line.substring(starts[index], ends[index]);
+        }
+
+        StringBuilder token = new StringBuilder(ends[index] - starts[index]);
+        char activeQuote = 0;
+        for (int offset = starts[index]; offset < ends[index]; offset++) {
+            char currentChar = line.charAt(offset);
+            if (activeQuote == 0 && (currentChar == '"' || currentChar == '\'')) {
+                activeQuote = currentChar;
+            } else if (activeQuote != 0 && currentChar == activeQuote) {
+                activeQuote = 0;
+            } else {
+                token.append(currentChar);
+            }
+        }
+        return token.toString();
+    }
+
+    // #################################################################################################################
+    private void addStage() {
+        if (stageCount == stageStarts.length) {
+            stageStarts = Arrays.copyOf(stageStarts, stageCount * 2);
+        }
+        stageStarts[stageCount++] = count;
+    }
+
+    private void checkStageNotEmpty() {
+        if (stageStarts[stageCount - 1] == count) {
+            throw new IllegalArgumentException("Command pipeline contains an empty command.");
+        }
+    }
+
+    private void add(int start, int end, boolean isQuoted) {
+        if (count == starts.length) {
+            int capacity = count * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            quoted = Arrays.copyOf(quoted, capacity);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        quoted[count] = isQuoted;
+        count++;
+    }
+}
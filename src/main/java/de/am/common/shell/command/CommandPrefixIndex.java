@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code CommandPrefixIndex} is an immutable sorted array of the names and shortcuts of {@link ShellCommand}s searched
+ * with binary search.<p>
+ * It resolves a prefix matching the identifiers of exactly one command and lists the identifiers starting with a prefix
+ * as completion candidates. Like the {@link CommandIndex} a prefix can be a range of a {@link CharSequence} and if
+ * several commands share an identifier the first registered one wins.
+ *
+ * @author Martin Absmeier
+ */
+final class CommandPrefixIndex {
+
+    private final String[] keys;
+    private final ShellCommand[] values;
+
+    /**
+     * Creates a new instance of {@link CommandPrefixIndex} class containing the names and shortcuts of the specified
+     * commands.
+     *
+     * @param commands the commands to index
+     */
+    CommandPrefixIndex(List<ShellCommand> commands) {
+        Map<String, ShellCommand> identifiers = new HashMap<>();
+        for (ShellCommand command : commands) {
+            put(identifiers, command.getName(), command);
+            put(identifiers, command.getShortcut(), command);
+        }
+
+        this.keys = identifiers.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        this.values = new ShellCommand[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            values[index] = identifiers.get(keys[index]);
+        }
+    }
+
+    /**
+     * Returns the command whose name or shortcut is contained in {@code sequence} between {@code start} (inclusive) and
+     * {@code end} (exclusive) or is the only command with an identifier starting with it.
+     *
+     * @param sequence the character sequence containing the prefix
+     * @param start    the start index of the prefix
+     * @param end      the end index of the prefix
+     * @return the command or null if no or several commands match the prefix
+     */
+    ShellCommand resolve(CharSequence sequence, int start, int end) {
+        int first = lowerBound(sequence, start, end);
+        if (first == keys.length || !startsWith(keys[first], sequence, start, end)) {
+            return null;
+        }
+        if (keys[first].length() == end - start) {
+            return values[first];
+        }
+
+        // a command can match with its name and its shortcut
+        ShellCommand command = values[first];
+        for (int index = first + 1; index < keys.length && startsWith(keys[index], sequence, start, end); index++) {
+            if (values[index] != command) {
+                return null;
+            }
+        }
+        return command;
+    }
+
+    /**
+     * Returns the names and shortcuts starting with the specified prefix in ascending order.
+     *
+     * @param prefix the prefix of the identifiers
+     * @return the matching identifiers, an empty list if no identifier starts with the prefix
+     */
+    List<String> complete(String prefix) {
+        int first = lowerBound(prefix, 0, prefix.length());
+        int last = first;
+        while (last < keys.length && startsWith(keys[last], prefix, 0, prefix.length())) {
+            last++;
+        }
+        return List.of(Arrays.copyOfRange(keys, first, last));
+    }
+
+    // #################################################################################################################
+    private static void put(Map<String, ShellCommand> identifiers, String key, ShellCommand command) {
+        if (!isNull(key)) {
+            identifiers.putIfAbsent(key, command);
+        }
+    }
+
+    private int lowerBound(CharSequence sequence, int start, int end) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(keys[middle], sequence, start, end) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(String key, CharSequence sequence, int start, int end) {
+        int length = Math.min(key.length(), end - start);
+        for (int index = 0; index < length; index++) {
+            int difference = key.charAt(index) - sequence.charAt(start + index);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return key.length() - (end - start);
+    }
+
+    private static boolean startsWith(String key, CharSequence sequence, int start, int end) {
+        int length = end - start;
+        if (key.length() < length) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            if (key.charAt(index) != sequence.charAt(start + index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
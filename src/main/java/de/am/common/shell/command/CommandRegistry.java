@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.command.annotation.Command;
+
+import java.util.List;
+
+/**
+ * {@code CommandRegistry} creates the {@link ShellCommand}s of one command handler class without reflection.<p>
+ * Implementations are generated at build time by the {@code CommandProcessor} annotation processor for every class
+ * declaring methods annotated with {@link Command}. If no registry exists for a command handler the shell falls back to
+ * reflection.
+ *
+ * @author Martin Absmeier
+ */
+@FunctionalInterface
+public interface CommandRegistry {
+
+    /**
+     * Creates the commands of the specified command handler.
+     *
+     * @param commandHandler the command handler instance, must be an instance of the class the registry was generated for
+     * @param converters     the registry to resolve the converters of the parameter types
+     * @return the commands of the command handler
+     */
+    List<ShellCommand> createCommands(Object commandHandler, TypeConverterRegistry converters);
+}
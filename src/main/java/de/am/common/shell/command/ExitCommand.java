@@ -18,12 +18,14 @@ package de.am.common.shell.command;
 import de.am.common.shell.Shell;
 import de.am.common.shell.ShellInject;
 import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.history.CommandHistory;
 import de.am.common.shell.io.InputProvider;
 import de.am.common.shell.io.OutputProvider;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static java.util.Objects.nonNull;
 
 /**
  * {@code ExitCommand} shut down current running shell instance.
@@ -41,10 +43,17 @@ public class ExitCommand implements ShellInject {
     @Command(name = "exit", shortcut = "exit", description = "Exit the shell.")
     public void exit() {
         shell.setShutdown(true);
+        shell.stopJobs();
 
         InputProvider input = shell.getInputProvider();
         input.exit();
 
+        // the history is shared by all sessions of the shell
+        CommandHistory history = shell.getHistory();
+        if (nonNull(history) && shell.isConsole()) {
+            history.close();
+        }
+
         OutputProvider out = shell.getOutputProvider();
         out.println("{0}", ANSI_WHITE_BRIGHT, "Shutdown shell...");
         out.exit();
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.Shell;
+import de.am.common.shell.ShellInject;
+import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.command.annotation.CommandParameter;
+import de.am.common.shell.history.CommandHistory;
+import de.am.common.shell.io.OutputProvider;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static de.am.common.shell.ShellConstants.HISTORY_LIST_SIZE;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code HistoryCommand} shows the persistent command history of the shell, see {@link CommandHistory}.<p>
+ * Entries are recalled with {@code !n} or {@code !prefix} at the prompt.
+ *
+ * @author Martin Absmeier
+ */
+@NoArgsConstructor
+public class HistoryCommand implements ShellInject {
+    @Setter
+    private Shell shell;
+
+    /**
+     * Lists the most recent {@value de.am.common.shell.ShellConstants#HISTORY_LIST_SIZE} entries of the history with
+     * their numbers.
+     */
+    @Command(name = "history", shortcut = "history", description = "List the most recent commands of the history.")
+    public void history() {
+        CommandHistory history = shell.getHistory();
+        if (isDisabled(history)) {
+            return;
+        }
+
+        long count = history.getCount();
+        for (long number = Math.max(1, count - HISTORY_LIST_SIZE + 1); number <= count; number++) {
+            printEntry(history, number);
+        }
+    }
+
+    /**
+     * Searches the history backwards and lists the most recent
+     * {@value de.am.common.shell.ShellConstants#HISTORY_LIST_SIZE} entries containing the specified text.
+     *
+     * @param text the text contained in the entries
+     */
+    @Command(name = "searchHistory", shortcut = "sH", description = "Search the history backwards for commands containing a text.")
+    public void searchHistory(@CommandParameter(name = "text", description = "The text contained in the commands.") String text) {
+        CommandHistory history = shell.getHistory();
+        if (isDisabled(history)) {
+            return;
+        }
+
+        long number = history.getCount() + 1;
+        int found = 0;
+        while (found < HISTORY_LIST_SIZE && (number = history.search(text, number)) > 0) {
+            printEntry(history, number);
+            found++;
+        }
+        if (found == 0) {
+            shell.getOutputProvider().println("No command contains [{0}].", ANSI_WHITE_BRIGHT, text);
+        }
+    }
+
+    // #################################################################################################################
+    private boolean isDisabled(CommandHistory history) {
+        if (isNull(history)) {
+            shell.getOutputProvider().println("{0}", ANSI_WHITE_BRIGHT, "The history is disabled.");
+            return true;
+        }
+        return false;
+    }
+
+    private void printEntry(CommandHistory history, long number) {
+        OutputProvider out = shell.getOutputProvider();
+        out.println("{0}  {1}", ANSI_WHITE_BRIGHT, String.format("%5d", number), history.get(number));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.Shell;
+import de.am.common.shell.ShellInject;
+import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.command.annotation.CommandParameter;
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.io.OutputProvider;
+import de.am.common.shell.job.Job;
+import de.am.common.shell.job.JobTable;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code JobCommand} manages the jobs running in the background of the shell, see {@link JobTable}.
+ *
+ * @author Martin Absmeier
+ */
+@NoArgsConstructor
+public class JobCommand implements ShellInject {
+    @Setter
+    private Shell shell;
+
+    /**
+     * Lists all jobs, the recorded output of the jobs that are done is written before their line and they are removed
+     * from the job table afterwards.
+     */
+    @Command(name = "jobs", shortcut = "jobs", description = "List the jobs running in the background.")
+    public void jobs() {
+        OutputProvider out = shell.getOutputProvider();
+        JobTable jobTable = shell.getJobs();
+
+        List<Job> jobs = jobTable.getJobs();
+        if (jobs.isEmpty()) {
+            out.println("{0}", ANSI_WHITE_BRIGHT, "No jobs.");
+        }
+        for (Job job : jobs) {
+            if (job.isDone()) {
+                report(jobTable, job);
+            }
+            out.println("{0}", ANSI_WHITE_BRIGHT, job.toString());
+        }
+    }
+
+    /**
+     * Waits until the specified job is done and returns its result, the job is removed from the job table.<p>
+     * The recorded output of the job is written before the result.
+     *
+     * @param id the identifier of the job
+     * @return the result of the job
+     */
+    @Command(name = "wait", shortcut = "wait", description = "Wait for a job and show its result.")
+    public Object waitFor(@CommandParameter(name = "job-id", description = "The identifier of the job.") int id) {
+        JobTable jobTable = shell.getJobs();
+        Job job = jobTable.get(id);
+        try {
+            return job.getFuture().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ShellException("Interrupted while waiting for job [" + id + "].", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ShellException("Job [" + id + "] failed.", ex.getCause());
+        } finally {
+            report(jobTable, job);
+        }
+    }
+
+    /**
+     * Cancels the specified job and removes it from the job table.<p>
+     * The thread running the job is interrupted, a {@link java.util.concurrent.CompletableFuture} is only marked as
+     * cancelled.
+     *
+     * @param id the identifier of the job
+     */
+    @Command(name = "cancel", shortcut = "cancel", description = "Cancel a job running in the background.")
+    public void cancel(@CommandParameter(name = "job-id", description = "The identifier of the job.") int id) {
+        JobTable jobTable = shell.getJobs();
+        Job job = jobTable.get(id);
+        boolean isCancelled = job.getFuture().cancel(true);
+        report(jobTable, job);
+
+        String message = isCancelled ? "Job [{0}] cancelled." : "Job [{0}] is already done.";
+        shell.getOutputProvider().println(message, ANSI_WHITE_BRIGHT, Integer.toString(id));
+    }
+
+    // #################################################################################################################
+    private void report(JobTable jobTable, Job job) {
+        // the output is replayed once, a job reported at the prompt has already written it
+        if (job.markReported() && nonNull(job.getOutput())) {
+            job.getOutput().replay(shell.getOutputProvider());
+        }
+        jobTable.remove(job.getId());
+    }
+}
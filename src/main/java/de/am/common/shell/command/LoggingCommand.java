@@ -19,6 +19,7 @@ import de.am.common.shell.Shell;
 import de.am.common.shell.ShellInject;
 import de.am.common.shell.command.annotation.Command;
 import de.am.common.shell.command.annotation.CommandParameter;
+import de.am.common.shell.io.LogRotation;
 import de.am.common.shell.util.Preconditions;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -42,14 +43,33 @@ public class LoggingCommand implements ShellInject {
      */
     @Command(name = "enableLogging", shortcut = "eL", description = "Enable the logging of the shell. Parameter is the file name e.g. myLogFile.log.")
     public void enableLogging(@CommandParameter(name = "file-name", description = "The name of the log file.") String fileName) {
-        Preconditions.checkNotNull(fileName, "fileName");
-        Path normalizedPath = Path.of(fileName.trim()).normalize();
-        if (normalizedPath.isAbsolute() || normalizedPath.getNameCount() != 1) {
-            throw new IllegalArgumentException("The file name for logging must not contain path elements.");
-        }
+        checkFileName(fileName);
         shell.enableLogging(fileName);
     }
 
+    /**
+     * Enables the logging of the shell, the log file is rotated if it would exceed the specified size.
+     *
+     * @param fileName     the name of the log file
+     * @param maxSize      the maximum size of the log file, e.g. 10MB
+     * @param maxFiles     the number of rotated segments kept
+     * @param isCompressed true if the rotated segments are compressed with gzip
+     */
+    @Command(name = "enableRollingLogging", shortcut = "eRL",
+        description = "Enable the logging of the shell to a log file rotated by size e.g. myLogFile.log 10MB 5 true.")
+    public void enableRollingLogging(@CommandParameter(name = "file-name", description = "The name of the log file.") String fileName,
+                                     @CommandParameter(name = "max-size", description = "The maximum size of the log file e.g. 512KB, 10MB or 1GB.") String maxSize,
+                                     @CommandParameter(name = "max-files", description = "The number of rotated log files kept.") int maxFiles,
+                                     @CommandParameter(name = "compress", description = "True to compress rotated log files with gzip.") boolean isCompressed) {
+        checkFileName(fileName);
+        LogRotation rotation = LogRotation.builder()
+            .maxFileSize(LogRotation.parseSize(maxSize))
+            .maxFiles(maxFiles)
+            .isCompressed(isCompressed)
+            .build();
+        shell.enableLogging(fileName, rotation);
+    }
+
     /**
      * Disables the logging of the shell.
      */
@@ -57,4 +77,13 @@ public class LoggingCommand implements ShellInject {
     public void disableLogging() {
         shell.disableLogging();
     }
+
+    // #################################################################################################################
+    private static void checkFileName(String fileName) {
+        Preconditions.checkNotNull(fileName, "fileName");
+        Path normalizedPath = Path.of(fileName.trim()).normalize();
+        if (normalizedPath.isAbsolute() || normalizedPath.getNameCount() != 1) {
+            throw new IllegalArgumentException("The file name for logging must not contain path elements.");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.util.Preconditions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * {@code MethodHandleInvoker} is a {@link CommandInvoker} calling the command method through a {@link MethodHandle}.<p>
+ * The handle is bound to the command handler and adapted to take the arguments as {@code Object[]} once, so a call does
+ * not need any access checks or argument validation of reflection.
+ *
+ * @author Martin Absmeier
+ */
+public final class MethodHandleInvoker implements CommandInvoker {
+
+    private final MethodHandle handle;
+
+    /**
+     * Creates an invoker calling the specified {@code method} on the specified {@code commandHandler}.
+     *
+     * @param method         the command method
+     * @param commandHandler the instance owning the method, ignored if the method is static
+     * @return the invoker
+     * @throws ShellException if the method is not accessible
+     */
+    public static MethodHandleInvoker bind(Method method, Object commandHandler) {
+        Preconditions.checkNotNull(method, "method");
+
+        try {
+            // Commands are often declared in non-public handler classes, suppress the access check once here
+            method.trySetAccessible();
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(commandHandler);
+            }
+            handle = handle.asType(handle.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+            return new MethodHandleInvoker(handle);
+        } catch (IllegalAccessException ex) {
+            throw new ShellException("Can not access command method [" + method.getName() + "].", ex);
+        }
+    }
+
+    @Override
+    public Object invoke(Object[] arguments) throws Throwable {
+        return (Object) handle.invokeExact(arguments);
+    }
+
+    // #################################################################################################################
+    private MethodHandleInvoker(MethodHandle handle) {
+        this.handle = handle;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code PipedValues} adapts the return value of a command to the sequence type ({@link Stream}, {@link Iterator} or
+ * {@link Iterable}) expected by the next command of a pipeline.<p>
+ * The adaptation is lazy, the elements are only produced while the receiving command consumes them.
+ *
+ * @author Martin Absmeier
+ */
+final class PipedValues {
+
+    /**
+     * Returns true if the specified parameter type receives the piped value as sequence.
+     *
+     * @param type the parameter type
+     * @return true if the type is {@link Stream}, {@link Iterator} or {@link Iterable}, false otherwise
+     */
+    static boolean isSequenceType(Class<?> type) {
+        return type == Stream.class || type == Iterator.class || type == Iterable.class;
+    }
+
+    /**
+     * Returns true if the specified value can only be consumed once, so it must not be converted to text.
+     *
+     * @param value the piped value
+     * @return true if the value is a stream, iterator or spliterator, false otherwise
+     */
+    static boolean isSequence(Object value) {
+        return value instanceof BaseStream || value instanceof Iterator || value instanceof Spliterator;
+    }
+
+    /**
+     * Adapts the piped value to the specified sequence type, see {@link #isSequenceType(Class)}.<p>
+     * Streams, collections, iterables, iterators, spliterators and arrays are passed element by element, null is passed
+     * as empty sequence and all other values as sequence of one element.
+     *
+     * @param value the piped value
+     * @param type  the sequence type
+     * @return the adapted value
+     */
+    static Object toSequence(Object value, Class<?> type) {
+        if (type.isInstance(value)) {
+            return value;
+        }
+
+        Stream<?> stream = toStream(value);
+        if (type == Stream.class) {
+            return stream;
+        }
+        if (type == Iterator.class) {
+            return stream.iterator();
+        }
+        return iterable(stream);
+    }
+
+    // #################################################################################################################
+    private static <T> Iterable<T> iterable(Stream<T> stream) {
+        // like the stream the iterable can only be iterated once
+        return stream::iterator;
+    }
+
+    private static Stream<?> toStream(Object value) {
+        if (isNull(value)) {
+            return Stream.empty();
+        }
+        if (value instanceof Stream<?> stream) {
+            return stream;
+        }
+        if (value instanceof IntStream stream) {
+            return stream.boxed();
+        }
+        if (value instanceof LongStream stream) {
+            return stream.boxed();
+        }
+        if (value instanceof DoubleStream stream) {
+            return stream.boxed();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream();
+        }
+        if (value instanceof Iterable<?> iterable) {
+            return StreamSupport.stream(iterable.spliterator(), false);
+        }
+        if (value instanceof Iterator<?> iterator) {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+        }
+        if (value instanceof Spliterator<?> spliterator) {
+            return StreamSupport.stream(spliterator, false);
+        }
+        if (value instanceof Object[] array) {
+            return Arrays.stream(array);
+        }
+        return Stream.of(value);
+    }
+
+    private PipedValues() {
+        // No instance needed
+    }
+}
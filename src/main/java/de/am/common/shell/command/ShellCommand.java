@@ -21,14 +21,20 @@ import de.am.common.shell.util.Preconditions;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 /**
  * {@code ShellCommand} encapsulates a recognized command method annotated with {@link Command}.
  *
  * @author Martin Absmeier
  */
 public class ShellCommand {
+    private static final TypeConverterRegistry DEFAULT_CONVERTERS = new TypeConverterRegistry();
+
     @Getter
     private final String name;
     @Getter
@@ -40,7 +46,15 @@ public class ShellCommand {
     @Getter
     private final Object commandHandler;
     @Getter
+    private final CommandInvoker invoker;
+    @Getter
     private final ShellCommandParameter[] parameters;
+    @Getter
+    private final boolean isThreadSafe;
+    @Getter
+    private final long timeout;
+    private final Class<?>[] parameterTypes;
+    private final TypeConverter<?>[] converters;
 
     /**
      * Creates a new instance of {@link ShellCommand} class.
@@ -48,18 +62,43 @@ public class ShellCommand {
      * @param name           the name of the command
      * @param description    the description of the command
      * @param shortcut       the shortcut of the command
-     * @param method         the method to call
+     * @param method         the method to call, may be null if the command is created by a generated {@link CommandRegistry}
      * @param commandHandler the command handler instance owning the method
+     * @param invoker        the invoker calling the method on the command handler
      * @param parameters     the parameters of the method to call
+     * @param isThreadSafe   true if the command can run concurrently with other thread safe commands
+     * @param timeout        the timeout of the command in milliseconds or 0 if the default timeout of the shell applies
      */
     @Builder
-    public ShellCommand(String name, String description, String shortcut, Method method, Object commandHandler, ShellCommandParameter[] parameters) {
+    public ShellCommand(String name, String description, String shortcut, Method method, Object commandHandler,
+                        CommandInvoker invoker, ShellCommandParameter[] parameters, boolean isThreadSafe,
+                        long timeout) {
         this.name = name;
         this.description = description;
         this.shortcut = shortcut;
         this.method = method;
         this.commandHandler = commandHandler;
+        this.invoker = invoker;
+        this.parameters = parameters;
+        this.isThreadSafe = isThreadSafe;
+        this.timeout = timeout;
+        this.parameterTypes = nonNull(method) ? method.getParameterTypes() : typesOf(parameters);
+        this.converters = resolveConverters(parameters, parameterTypes);
+    }
+
+    // the copy reuses the parameter types and converters resolved for the registered command
+    private ShellCommand(ShellCommand command, ShellCommandParameter[] parameters) {
+        this.name = command.name;
+        this.description = command.description;
+        this.shortcut = command.shortcut;
+        this.method = command.method;
+        this.commandHandler = command.commandHandler;
+        this.invoker = command.invoker;
         this.parameters = parameters;
+        this.isThreadSafe = command.isThreadSafe;
+        this.timeout = command.timeout;
+        this.parameterTypes = command.parameterTypes;
+        this.converters = command.converters;
     }
 
     /**
@@ -68,22 +107,43 @@ public class ShellCommand {
      * @return the parameters entered, typed for the method call
      */
     public Object[] getTypedParameters() {
-        Class<?>[] paramTypes = method.getParameterTypes();
+        checkParameterCount(parameters.length);
 
-        if (paramTypes.length != parameters.length) {
-            String message = "Number of parameters does not match, the method expects " + paramTypes.length
-                    + " parameters. Run help to show method signature.";
-            throw new IllegalArgumentException(message);
+        Object[] typedParameters = new Object[parameterTypes.length];
+        for (int index = 0; index < parameters.length; index++) {
+            typedParameters[index] = convertValue(parameters[index].getValue(), converters[index]);
         }
 
-        Object[] typedParameters = new Object[paramTypes.length];
-        int index = 0;
-        for (ShellCommandParameter param : parameters) {
-            typedParameters[index] = convertValueToType(param.getValue(), paramTypes[index]);
-            index++;
+        return typedParameters;
+    }
+
+    /**
+     * Invokes the command method with the specified typed parameters.<p>
+     * Unchecked exceptions thrown by the command method are passed on unchanged, checked ones and errors are wrapped in
+     * a {@link ShellException}, so the failure of a single command does not end the shell. Only errors leaving the
+     * virtual machine unusable, e.g. an {@link OutOfMemoryError}, are passed on unchanged.
+     *
+     * @param typedParameters the parameters typed for the method call, see {@link #getTypedParameters()}
+     * @return the return value of the command method or null if the method is void
+     * @throws ShellException if the command is not bound to a method or the method throws a checked exception or error
+     */
+    public Object invoke(Object[] typedParameters) {
+        if (isNull(invoker)) {
+            throw new ShellException("Command [" + name + "] is not bound to a method.");
         }
 
-        return typedParameters;
+        try {
+            return invoker.invoke(typedParameters);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (VirtualMachineError ex) {
+            if (!(ex instanceof StackOverflowError)) {
+                throw ex;
+            }
+            throw new ShellException("Stack overflow in command [" + name + "].", ex);
+        } catch (Throwable ex) {
+            throw new ShellException(ex.getMessage(), ex);
+        }
     }
 
     /**
@@ -93,40 +153,98 @@ public class ShellCommand {
      * @return a copied command instance
      */
     public ShellCommand withParameters(ShellCommandParameter[] commandParameters) {
-        return ShellCommand.builder()
-            .name(name)
-            .description(description)
-            .shortcut(shortcut)
-            .method(method)
-            .commandHandler(commandHandler)
-            .parameters(commandParameters)
-            .build();
+        return new ShellCommand(this, commandParameters);
+    }
+
+    /**
+     * Converts the value of the parameter with the specified index to the type expected by the method.
+     *
+     * @param index the index of the parameter
+     * @param value the value entered by the user
+     * @return the typed value
+     */
+    Object convertParameter(int index, String value) {
+        return convertValue(value, converters[index]);
+    }
+
+    /**
+     * Converts the value piped from the previous command of a pipeline to the type of the parameter with the specified
+     * index.<p>
+     * {@link java.util.stream.Stream}, {@link java.util.Iterator} and {@link Iterable} parameters receive the value as
+     * lazy sequence, values of the parameter type are passed unchanged and all other values are converted from their
+     * string representation. Streams and iterators are never converted to text.
+     *
+     * @param index the index of the parameter
+     * @param value the return value of the previous command
+     * @return the typed value
+     * @throws IllegalArgumentException if the value can not be passed to the parameter
+     */
+    Object convertPipedValue(int index, Object value) {
+        Class<?> type = isNull(parameterTypes[index]) ? String.class : parameterTypes[index];
+        if (PipedValues.isSequenceType(type)) {
+            return PipedValues.toSequence(value, type);
+        }
+        if (isNull(value) && !type.isPrimitive()) {
+            return null;
+        }
+        if (MethodType.methodType(type).wrap().returnType().isInstance(value)) {
+            return value;
+        }
+        if (isNull(value) || PipedValues.isSequence(value)) {
+            String message = "Command [" + name + "] can not receive the piped value as " + type.getSimpleName() + ".";
+            throw new IllegalArgumentException(message);
+        }
+        return convertValue(String.valueOf(value), converters[index]);
+    }
+
+    /**
+     * Ensures the number of entered values matches the number of parameters of the method.
+     *
+     * @param valueCount the number of entered values
+     * @throws IllegalArgumentException if the number does not match
+     */
+    void checkParameterCount(int valueCount) {
+        if (parameterTypes.length != valueCount || converters.length != valueCount) {
+            String message = "Number of parameters does not match, the method expects " + parameterTypes.length
+                + " parameters. Run help to show method signature.";
+            throw new IllegalArgumentException(message);
+        }
     }
 
     // #################################################################################################################
-    private Object convertValueToType(String value, Class<?> clazz) {
+    private static Class<?>[] typesOf(ShellCommandParameter[] parameters) {
+        if (isNull(parameters)) {
+            return new Class<?>[0];
+        }
+
+        Class<?>[] types = new Class<?>[parameters.length];
+        for (int index = 0; index < parameters.length; index++) {
+            types[index] = parameters[index].getType();
+        }
+        return types;
+    }
+
+    private static TypeConverter<?>[] resolveConverters(ShellCommandParameter[] parameters, Class<?>[] parameterTypes) {
+        if (isNull(parameters) || parameters.length != parameterTypes.length) {
+            // getTypedParameters() rejects the command, no converters needed
+            return new TypeConverter<?>[0];
+        }
+
+        TypeConverter<?>[] converters = new TypeConverter<?>[parameters.length];
+        for (int index = 0; index < parameters.length; index++) {
+            TypeConverter<?> converter = parameters[index].getConverter();
+            Class<?> type = isNull(parameterTypes[index]) ? String.class : parameterTypes[index];
+            converters[index] = nonNull(converter) ? converter : DEFAULT_CONVERTERS.getConverter(type);
+        }
+        return converters;
+    }
+
+    private static Object convertValue(String value, TypeConverter<?> converter) {
         if (Preconditions.isNullOrEmpty(value)) {
             String message = "[NULL] or empty string is not permitted for 'value' parameter.";
             throw new IllegalArgumentException(message);
         }
 
-        if (clazz.equals(String.class) || clazz.isInstance(value)) {
-            return value;
-        } else if (clazz.equals(Integer.class) || clazz.equals(Integer.TYPE)) {
-            return Integer.parseInt(value);
-        } else if (clazz.equals(Long.class) || clazz.equals(Long.TYPE)) {
-            return Long.parseLong(value);
-        } else if (clazz.equals(Double.class) || clazz.equals(Double.TYPE)) {
-            return Double.parseDouble(value);
-        } else if (clazz.equals(Float.class) || clazz.equals(Float.TYPE)) {
-            return Float.parseFloat(value);
-        } else if (clazz.equals(Boolean.class) || clazz.equals(Boolean.TYPE)) {
-            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
-                return Boolean.parseBoolean(value);
-            }
-            throw new IllegalArgumentException("Can not convert value '" + value + "' to type '" + clazz + "'.");
-        } else {
-            throw new ShellException("Can not convert value '" + value + "' to type '" + clazz + "'.");
-        }
+        return converter.convert(value);
     }
 }
\ No newline at end of file
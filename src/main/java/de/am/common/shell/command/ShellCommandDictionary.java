@@ -18,9 +18,9 @@ package de.am.common.shell.command;
 import lombok.Builder;
 import lombok.Getter;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import static de.am.common.shell.util.Preconditions.checkNotNull;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
@@ -31,22 +31,72 @@ import static java.util.Objects.nonNull;
  * @author Martin Absmeier
  */
 public class ShellCommandDictionary {
+    private static final ThreadLocal<CommandLineTokenizer> TOKENIZER = ThreadLocal.withInitial(CommandLineTokenizer::new);
 
     @Getter
     private final List<ShellCommand> commands;
+    @Getter
+    private final CommandLineCache cache;
+    @Getter
+    private final boolean isPrefixMatching;
+    private final CommandIndex index;
+    private final CommandPrefixIndex prefixIndex;
 
     /**
-     * Create a new instance of {@code ShellCommandDictionary}.
+     * Create a new instance of {@code ShellCommandDictionary}.<p>
+     * The commands are copied and indexed by name and shortcut, later changes of {@code commands} are not reflected.
      *
-     * @param commands the known commands
+     * @param commands         the known commands
+     * @param cache            the cache of parsed command lines or null if lines are parsed every time
+     * @param isPrefixMatching true if a command is also found by a prefix of its name or shortcut matching no other command
+     * @throws NullPointerException if {@code commands} contains null
      */
     @Builder
-    public ShellCommandDictionary(List<ShellCommand> commands) {
-        this.commands = isNull(commands) ? new ArrayList<>() : commands;
+    public ShellCommandDictionary(List<ShellCommand> commands, CommandLineCache cache, boolean isPrefixMatching) {
+        if (nonNull(commands)) {
+            for (int index = 0; index < commands.size(); index++) {
+                checkNotNull(commands.get(index), "command at index " + index);
+            }
+        }
+
+        this.commands = isNull(commands) ? List.of() : List.copyOf(commands);
+        this.cache = cache;
+        this.isPrefixMatching = isPrefixMatching;
+        this.index = new CommandIndex(this.commands);
+        this.prefixIndex = new CommandPrefixIndex(this.commands);
+    }
+
+    /**
+     * Parses the entered command line and binds the found {@link ShellCommand} to the typed parameter values.<p>
+     * In contrast to {@link #getCommand(String)} neither the command nor its parameters are copied, the tokens of the line
+     * are kept as offsets in a buffer reused by the calling thread. Commands separated by an unquoted {@code |} form a
+     * pipeline, each piped command receives the return value of its predecessor as last parameter and the invocation
+     * of the last command is returned. If a {@link CommandLineCache} is configured, the
+     * invocations of lines with immutable arguments are cached and returned for the same line again.
+     *
+     * @param line the command line entered by the user
+     * @return the invocation of the found command or null if a command of the line is not found
+     * @throws IllegalArgumentException if the line is malformed or the number of parameter values does not match
+     */
+    public CommandInvocation parse(String line) {
+        if (isNull(cache)) {
+            return parseLine(line);
+        }
+
+        CommandInvocation invocation = cache.get(line);
+        if (isNull(invocation)) {
+            invocation = parseLine(line);
+            if (nonNull(invocation)) {
+                cache.put(line, invocation);
+            }
+        }
+        return invocation;
     }
 
     /**
-     * Maps the entered command to a {@link ShellCommand} if one is found, returns null otherwise
+     * Maps the entered command to a {@link ShellCommand} if one is found, returns null otherwise.<p>
+     * The returned command is a copy of the registered one containing the entered parameter values, use
+     * {@link #parse(String)} to execute a command line.
      *
      * @param command the command entered by the user
      * @return the found {@code ShellCommand} or null if no one is found
@@ -65,7 +115,80 @@ public class ShellCommandDictionary {
         return cmd;
     }
 
+    /**
+     * Returns the completion candidates of the last token of the entered line.<p>
+     * If the token is a command, the names and shortcuts starting with the token are returned in ascending order. If it
+     * is a parameter value, the name of the parameter at this position is returned as {@code <name>}.
+     *
+     * @param line the line entered so far, the cursor is at its end
+     * @return the completion candidates, an empty list if there are none
+     */
+    public List<String> complete(String line) {
+        CommandLineTokenizer tokenizer = TOKENIZER.get();
+        try {
+            tokenizer.tokenize(line);
+        } catch (IllegalArgumentException ex) {
+            // an empty last pipeline stage is completed with a command, an unterminated quote has no candidates
+            return line.strip().endsWith("|") ? prefixIndex.complete("") : List.of();
+        }
+
+        int stage = tokenizer.stageCount() - 1;
+        int commandToken = tokenizer.stageStart(stage);
+        int tokenCount = tokenizer.stageEnd(stage) - commandToken;
+        boolean isNewToken = line.isEmpty() || Character.isWhitespace(line.charAt(line.length() - 1));
+        if (tokenCount == 0) {
+            return prefixIndex.complete("");
+        }
+        if (tokenCount == 1 && !isNewToken) {
+            return prefixIndex.complete(tokenizer.token(line, commandToken));
+        }
+
+        ShellCommand cmd = findCommand(tokenizer.token(line, commandToken));
+        int paramIndex = isNewToken ? tokenCount - 1 : tokenCount - 2;
+        if (isNull(cmd) || isNull(cmd.getParameters()) || paramIndex >= cmd.getParameters().length) {
+            return List.of();
+        }
+        return List.of("<" + cmd.getParameters()[paramIndex].getName() + ">");
+    }
+
     // #################################################################################################################
+    private CommandInvocation parseLine(String line) {
+        CommandLineTokenizer tokenizer = TOKENIZER.get();
+        if (tokenizer.tokenize(line) == 0) {
+            return null;
+        }
+
+        CommandInvocation invocation = null;
+        for (int stage = 0; stage < tokenizer.stageCount(); stage++) {
+            invocation = parseStage(line, tokenizer, stage, invocation);
+            if (isNull(invocation)) {
+                return null;
+            }
+        }
+        return invocation;
+    }
+
+    private CommandInvocation parseStage(String line, CommandLineTokenizer tokenizer, int stage, CommandInvocation previous) {
+        int commandToken = tokenizer.stageStart(stage);
+        ShellCommand cmd = tokenizer.isQuoted(commandToken)
+            ? findCommand(tokenizer.token(line, commandToken))
+            : findCommand(line, tokenizer.start(commandToken), tokenizer.end(commandToken));
+        if (isNull(cmd)) {
+            return null;
+        }
+
+        // the tokens after the command are the values, a piped command receives the value of its last parameter
+        int valueCount = tokenizer.stageEnd(stage) - commandToken - 1;
+        int argumentCount = isNull(previous) ? valueCount : valueCount + 1;
+        cmd.checkParameterCount(argumentCount);
+        Object[] arguments = new Object[argumentCount];
+        for (int paramIndex = 0; paramIndex < valueCount; paramIndex++) {
+            arguments[paramIndex] = cmd.convertParameter(paramIndex, tokenizer.token(line, commandToken + paramIndex + 1));
+        }
+
+        return new CommandInvocation(cmd, arguments, previous);
+    }
+
     private ShellCommand createCommandWithParameterValues(String[] paramValues, ShellCommand command) {
         ShellCommandParameter[] parameters = command.getParameters();
         // the first value in paramValues is the command
@@ -88,49 +211,23 @@ public class ShellCommandDictionary {
     }
 
     private ShellCommand findCommand(String command) {
-        return commands.stream()
-            .filter(cmd -> isNameOrShortCutEqual(cmd, command))
-            .findFirst().orElse(null);
+        return findCommand(command, 0, command.length());
     }
 
-    private boolean isNameOrShortCutEqual(ShellCommand cmd, String command) {
-        return command.equals(cmd.getName()) || command.equals(cmd.getShortcut());
+    private ShellCommand findCommand(CharSequence line, int start, int end) {
+        ShellCommand cmd = index.get(line, start, end);
+        return isNull(cmd) && isPrefixMatching && end > start ? prefixIndex.resolve(line, start, end) : cmd;
     }
 
     private String[] tokenize(String command) {
-        List<String> tokens = new ArrayList<>();
-        StringBuilder currentToken = new StringBuilder();
-        boolean tokenStarted = false;
-        char activeQuote = 0;
-
-        for (int index = 0; index < command.length(); index++) {
-            char currentChar = command.charAt(index);
-
-            if (activeQuote == 0 && (currentChar == '"' || currentChar == '\'')) {
-                activeQuote = currentChar;
-                tokenStarted = true;
-            } else if (activeQuote != 0 && currentChar == activeQuote) {
-                activeQuote = 0;
-            } else if (activeQuote == 0 && Character.isWhitespace(currentChar)) {
-                if (tokenStarted) {
-                    tokens.add(currentToken.toString());
-                    currentToken.setLength(0);
-                    tokenStarted = false;
-                }
-            } else {
-                currentToken.append(currentChar);
-                tokenStarted = true;
-            }
+        CommandLineTokenizer tokenizer = TOKENIZER.get();
+        String[] tokens = new String[tokenizer.tokenize(command)];
+        if (tokenizer.stageCount() > 1) {
+            throw new IllegalArgumentException("Command pipelines can only be executed by parse(String).");
         }
-
-        if (activeQuote != 0) {
-            throw new IllegalArgumentException("Command contains an unterminated quoted parameter.");
+        for (int tokenIndex = 0; tokenIndex < tokens.length; tokenIndex++) {
+            tokens[tokenIndex] = tokenizer.token(command, tokenIndex);
         }
-
-        if (tokenStarted) {
-            tokens.add(currentToken.toString());
-        }
-
-        return tokens.toArray(new String[0]);
+        return tokens;
     }
-}
\ No newline at end of file
+}
@@ -39,6 +39,8 @@ public class ShellCommandParameter {
     private String value;
     @Getter
     private final Class<?> type;
+    @Getter
+    private final TypeConverter<?> converter;
 
     /**
      * Creates a new instance of {@link ShellCommandParameter} class.
@@ -48,14 +50,16 @@ public class ShellCommandParameter {
      * @param description the description of the parameter
      * @param value the value of the parameter
      * @param type  the type of the parameter
+     * @param converter the converter of the parameter type resolved at registration, see {@link TypeConverterRegistry}
      */
     @Builder
-    public ShellCommandParameter(int index, String name, String description, String value, Class<?> type) {
+    public ShellCommandParameter(int index, String name, String description, String value, Class<?> type, TypeConverter<?> converter) {
         this.index = index;
         this.name = isNull(name) ? "" : name;
         this.description = isNull(description) ? "" : description;
         this.value = isNull(value) ? "" : value;
         this.type = type;
+        this.converter = converter;
     }
 
     /**
@@ -71,6 +75,7 @@ public class ShellCommandParameter {
             .description(description)
             .value(value)
             .type(type)
+            .converter(converter)
             .build();
     }
 }
\ No newline at end of file
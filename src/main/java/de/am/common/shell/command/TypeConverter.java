@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+/**
+ * {@code TypeConverter} converts a parameter value entered by the user into the type expected by the command method.<p>
+ * Converters are resolved once per {@link ShellCommandParameter} when the command is registered, see
+ * {@link TypeConverterRegistry}.
+ *
+ * @param <T> the type the value is converted to
+ * @author Martin Absmeier
+ */
+@FunctionalInterface
+public interface TypeConverter<T> {
+
+    /**
+     * Converts the specified value.
+     *
+     * @param value the value entered by the user, never null or empty
+     * @return the converted value
+     * @throws IllegalArgumentException if the value can not be converted
+     */
+    T convert(String value);
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.util.Preconditions;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code TypeConverterRegistry} resolves the {@link TypeConverter} of a parameter type.<p>
+ * Out of the box {@code String}, the primitive types and their wrappers, {@code BigDecimal}, {@code BigInteger},
+ * {@code UUID}, {@code Duration} (ISO-8601 e.g. PT5S), {@code Path}, enums and arrays of all of them (comma separated
+ * values) are supported. Additional converters can be registered with {@link #register(Class, TypeConverter)}.
+ *
+ * @author Martin Absmeier
+ */
+public class TypeConverterRegistry {
+
+    private static final String ARRAY_SEPARATOR = ",";
+
+    private final Map<Class<?>, TypeConverter<?>> converters = new HashMap<>();
+
+    /**
+     * Creates a new instance of {@link TypeConverterRegistry} class containing the default converters.
+     */
+    public TypeConverterRegistry() {
+        register(String.class, value -> value);
+        register(Integer.class, Integer::valueOf);
+        register(Long.class, Long::valueOf);
+        register(Short.class, Short::valueOf);
+        register(Byte.class, Byte::valueOf);
+        register(Double.class, Double::valueOf);
+        register(Float.class, Float::valueOf);
+        register(Boolean.class, TypeConverterRegistry::toBoolean);
+        register(Character.class, TypeConverterRegistry::toCharacter);
+        register(BigDecimal.class, BigDecimal::new);
+        register(BigInteger.class, BigInteger::new);
+        register(UUID.class, UUID::fromString);
+        register(Duration.class, Duration::parse);
+        register(Path.class, Path::of);
+    }
+
+    /**
+     * Registers the {@code converter} for the specified {@code type}, an existing converter is replaced.<p>
+     * A converter registered for a wrapper type is used for the primitive type as well.
+     *
+     * @param type      the parameter type
+     * @param converter the converter creating instances of {@code type}
+     * @param <T>       the parameter type
+     * @return this registry
+     */
+    public <T> TypeConverterRegistry register(Class<T> type, TypeConverter<? extends T> converter) {
+        Preconditions.checkNotNull(type, "type");
+        Preconditions.checkNotNull(converter, "converter");
+        converters.put(type, converter);
+        return this;
+    }
+
+    /**
+     * Returns the converter of the specified {@code type}.<p>
+     * If no converter is known for the type, a converter throwing a {@link ShellException} is returned, so commands with
+     * unsupported parameter types can still be registered.
+     *
+     * @param type the parameter type
+     * @return the converter
+     */
+    public TypeConverter<?> getConverter(Class<?> type) {
+        Preconditions.checkNotNull(type, "type");
+
+        TypeConverter<?> converter = converters.get(type.isPrimitive() ? wrap(type) : type);
+        if (nonNull(converter)) {
+            return converter;
+        }
+        if (type.isEnum()) {
+            return createEnumConverter(type);
+        }
+        if (type.isArray()) {
+            return createArrayConverter(type.getComponentType(), getConverter(type.getComponentType()));
+        }
+        if (type.isAssignableFrom(String.class)) {
+            return value -> value;
+        }
+
+        return value -> {
+            throw new ShellException("Can not convert value '" + value + "' to type '" + type + "'.");
+        };
+    }
+
+    // #################################################################################################################
+    private static Boolean toBoolean(String value) {
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalArgumentException("Can not convert value '" + value + "' to type '" + Boolean.class + "'.");
+    }
+
+    private static Character toCharacter(String value) {
+        if (value.length() == 1) {
+            return value.charAt(0);
+        }
+        throw new IllegalArgumentException("Can not convert value '" + value + "' to type '" + Character.class + "'.");
+    }
+
+    private static TypeConverter<?> createEnumConverter(Class<?> type) {
+        Object[] constants = type.getEnumConstants();
+        return value -> {
+            for (Object constant : constants) {
+                if (((Enum<?>) constant).name().equalsIgnoreCase(value)) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("Can not convert value '" + value + "' to type '" + type + "'.");
+        };
+    }
+
+    private static TypeConverter<?> createArrayConverter(Class<?> componentType, TypeConverter<?> componentConverter) {
+        return value -> {
+            String[] values = value.split(ARRAY_SEPARATOR);
+            Object array = Array.newInstance(componentType, values.length);
+            for (int index = 0; index < values.length; index++) {
+                Array.set(array, index, componentConverter.convert(values[index].trim()));
+            }
+            return array;
+        };
+    }
+
+    private static Class<?> wrap(Class<?> primitiveType) {
+        return switch (primitiveType.getName()) {
+            case "int" -> Integer.class;
+            case "long" -> Long.class;
+            case "short" -> Short.class;
+            case "byte" -> Byte.class;
+            case "double" -> Double.class;
+            case "float" -> Float.class;
+            case "boolean" -> Boolean.class;
+            case "char" -> Character.class;
+            default -> Void.class;
+        };
+    }
+}
@@ -55,4 +55,23 @@ public @interface Command {
      * @return the description or empty string "" if not set
      */
     String description() default "";
+
+    /**
+     * Marks the command as thread safe.<p>
+     * Consecutive thread safe commands of a script executed in parallel batch mode run concurrently, all other commands
+     * are executed alone after the preceding commands are completed.
+     *
+     * @return true if the command can run concurrently with other thread safe commands, false otherwise
+     */
+    boolean threadSafe() default false;
+
+    /**
+     * The timeout of the command in milliseconds.<p>
+     * A command running longer is interrupted and the shell returns to the prompt. If not set, the command timeout of
+     * the shell configuration applies. A command ignoring the interruption keeps running in the
+     * background, the shell warns about it once when the next command is entered and does not wait for it.
+     *
+     * @return the timeout in milliseconds or 0 if not set
+     */
+    long timeout() default 0;
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command.processor;
+
+import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.command.annotation.CommandParameter;
+import de.am.common.shell.util.CommandNames;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * {@code CommandProcessor} generates a {@code CommandRegistry} for every class declaring methods annotated with
+ * {@link Command}.<p>
+ * The generated registry contains the names, shortcuts and parameter metadata of the commands and invokes the command
+ * methods directly, so the shell neither has to scan the handler class by reflection nor bind method handles at startup.
+ * Classes that are not accessible from their package (e.g. private nested classes) are skipped and registered by
+ * reflection at runtime.
+ *
+ * @author Martin Absmeier
+ */
+@SupportedAnnotationTypes("de.am.common.shell.command.annotation.Command")
+public class CommandProcessor extends AbstractProcessor {
+
+    private static final String SHELL_COMMAND = "de.am.common.shell.command.ShellCommand";
+    private static final String SHELL_COMMAND_PARAMETER = "de.am.common.shell.command.ShellCommandParameter";
+    private static final String COMMAND_INVOKER = "de.am.common.shell.command.CommandInvoker";
+    private static final String COMMAND_REGISTRY = "de.am.common.shell.command.CommandRegistry";
+    private static final String TYPE_CONVERTER_REGISTRY = "de.am.common.shell.command.TypeConverterRegistry";
+
+    private final Set<String> generatedRegistries = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> handlerTypes = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Command.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                handlerTypes.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+
+        for (TypeElement handlerType : handlerTypes) {
+            if (isRegistrable(handlerType)) {
+                writeRegistry(handlerType);
+            }
+        }
+
+        // Other processors may be interested in the annotation as well
+        return false;
+    }
+
+    // #################################################################################################################
+    private boolean isRegistrable(TypeElement handlerType) {
+        boolean isConcreteClass = (handlerType.getKind() == ElementKind.CLASS || handlerType.getKind() == ElementKind.RECORD)
+            && !handlerType.getModifiers().contains(Modifier.ABSTRACT);
+        return isConcreteClass && isAccessibleFromPackage(handlerType);
+    }
+
+    private boolean isAccessibleFromPackage(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement typeElement) {
+            NestingKind nestingKind = typeElement.getNestingKind();
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)
+                || nestingKind == NestingKind.LOCAL || nestingKind == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            element = typeElement.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private void writeRegistry(TypeElement handlerType) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(handlerType)).stream()
+            .filter(method -> method.getModifiers().contains(Modifier.PUBLIC))
+            .filter(method -> method.getAnnotation(Command.class) != null)
+            .toList();
+
+        String handlerBinaryName = processingEnv.getElementUtils().getBinaryName(handlerType).toString();
+        String registryName = CommandNames.registryName(handlerBinaryName);
+        if (methods.isEmpty() || !generatedRegistries.add(registryName)) {
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(handlerType).getQualifiedName().toString();
+        String simpleName = packageName.isEmpty() ? registryName : registryName.substring(packageName.length() + 1);
+        String handlerTypeName = handlerType.getQualifiedName().toString();
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(registryName, handlerType).openWriter()) {
+            writer.write(createSource(packageName, simpleName, handlerTypeName, methods));
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Can not write command registry [" + registryName + "]: " + ex.getMessage(), handlerType);
+        }
+    }
+
+    private String createSource(String packageName, String simpleName, String handlerTypeName, List<ExecutableElement> methods) {
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("@javax.annotation.processing.Generated(\"").append(CommandProcessor.class.getName()).append("\")\n")
+            .append("public final class ").append(simpleName).append(" implements ").append(COMMAND_REGISTRY).append(" {\n\n")
+            .append("    @Override\n")
+            .append("    public java.util.List<").append(SHELL_COMMAND).append("> createCommands(Object commandHandler, ")
+            .append(TYPE_CONVERTER_REGISTRY).append(" converters) {\n")
+            .append("        ").append(handlerTypeName).append(" handler = (").append(handlerTypeName).append(") commandHandler;\n")
+            .append("        return java.util.List.of(\n");
+        for (int index = 0; index < methods.size(); index++) {
+            appendCommand(source, methods.get(index), index);
+            source.append(index < methods.size() - 1 ? ",\n" : "\n");
+        }
+        source.append("        );\n")
+            .append("    }\n\n");
+
+        appendInvoker(source, handlerTypeName, methods);
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void appendCommand(StringBuilder source, ExecutableElement method, int methodIndex) {
+        Command command = method.getAnnotation(Command.class);
+        String methodName = method.getSimpleName().toString();
+        String name = command.name().isEmpty() ? methodName : command.name();
+        String shortCut = command.shortcut().isEmpty() ? CommandNames.createShortCut(methodName) : command.shortcut();
+
+        source.append("            ").append(SHELL_COMMAND).append(".builder()\n")
+            .append("                .name(").append(literal(name)).append(")")
+            .append(".shortcut(").append(literal(shortCut)).append(")")
+            .append(".description(").append(literal(command.description())).append(")")
+            .append(command.threadSafe() ? ".isThreadSafe(true)" : "")
+            .append(command.timeout() > 0 ? ".timeout(" + command.timeout() + "L)\n" : "\n")
+            .append("                .commandHandler(handler).invoker(new Invoker(handler, ").append(methodIndex).append("))\n")
+            .append("                .parameters(new ").append(SHELL_COMMAND_PARAMETER).append("[]{");
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int index = 0; index < parameters.size(); index++) {
+            VariableElement parameter = parameters.get(index);
+            CommandParameter annotation = parameter.getAnnotation(CommandParameter.class);
+            String parameterName = annotation == null || annotation.name().isEmpty() ? "param" + index : annotation.name();
+            String description = annotation == null ? "" : annotation.description();
+
+            String type = typeName(parameter.asType()) + ".class";
+
+            source.append(index == 0 ? "\n" : ",\n")
+                .append("                    ").append(SHELL_COMMAND_PARAMETER).append(".builder()")
+                .append(".index(").append(index).append(")")
+                .append(".name(").append(literal(parameterName)).append(")")
+                .append(".description(").append(literal(description)).append(")\n")
+                .append("                        .type(").append(type).append(")")
+                .append(".converter(converters.getConverter(").append(type).append(")).build()");
+        }
+        source.append(parameters.isEmpty() ? "})\n" : "\n                })\n")
+            .append("                .build()");
+    }
+
+    private void appendInvoker(StringBuilder source, String handlerTypeName, List<ExecutableElement> methods) {
+        source.append("    private static final class Invoker implements ").append(COMMAND_INVOKER).append(" {\n")
+            .append("        private final ").append(handlerTypeName).append(" handler;\n")
+            .append("        private final int method;\n\n")
+            .append("        private Invoker(").append(handlerTypeName).append(" handler, int method) {\n")
+            .append("            this.handler = handler;\n")
+            .append("            this.method = method;\n")
+            .append("        }\n\n")
+            .append("        @Override\n")
+            .append("        public Object invoke(Object[] arguments) throws Throwable {\n")
+            .append("            switch (method) {\n");
+
+        for (int index = 0; index < methods.size(); index++) {
+            ExecutableElement method = methods.get(index);
+            String target = method.getModifiers().contains(Modifier.STATIC) ? handlerTypeName : "handler";
+            StringBuilder call = new StringBuilder(target).append('.').append(method.getSimpleName()).append('(');
+            List<? extends VariableElement> parameters = method.getParameters();
+            for (int parameterIndex = 0; parameterIndex < parameters.size(); parameterIndex++) {
+                call.append(parameterIndex == 0 ? "" : ", ")
+                    .append('(').append(typeName(parameters.get(parameterIndex).asType())).append(") arguments[")
+                    .append(parameterIndex).append(']');
+            }
+            call.append(')');
+
+            source.append("                case ").append(index).append(":\n");
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                source.append("                    ").append(call).append(";\n")
+                    .append("                    return null;\n");
+            } else {
+                source.append("                    return ").append(call).append(";\n");
+            }
+        }
+
+        source.append("                default:\n")
+            .append("                    throw new IllegalStateException(\"Unknown command method \" + method);\n")
+            .append("            }\n")
+            .append("        }\n")
+            .append("    }\n");
+    }
+
+    private String typeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase(Locale.ROOT);
+        }
+        if (type instanceof ArrayType arrayType) {
+            return typeName(arrayType.getComponentType()) + "[]";
+        }
+
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure instanceof DeclaredType declaredType) {
+            return ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+        }
+        return "java.lang.Object";
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char character : value.toCharArray()) {
+            switch (character) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (character < 0x20 || character > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        literal.append(character);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.exception;
+
+import lombok.Getter;
+
+import java.io.Serial;
+
+/**
+ * {@code CommandTimeoutException} is thrown if a command runs longer than its timeout and is interrupted.
+ *
+ * @author Martin Absmeier
+ */
+public class CommandTimeoutException extends ShellException {
+    @Serial
+    private static final long serialVersionUID = 3871538902264511807L;
+
+    @Getter
+    private final long timeout;
+
+    /**
+     * Constructs a new command timeout exception.
+     *
+     * @param command the command line of the interrupted command
+     * @param timeout the exceeded timeout in milliseconds
+     */
+    public CommandTimeoutException(String command, long timeout) {
+        super("Command [" + command + "] timed out after " + timeout + " ms.");
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.exception;
+
+import lombok.Getter;
+
+import java.io.Serial;
+
+/**
+ * {@code CommandTooLongException} is thrown if a line of the input exceeds the maximum command length. The line is
+ * discarded while it is read, so the next line can be read afterwards.
+ *
+ * @author Martin Absmeier
+ */
+public class CommandTooLongException extends ShellException {
+    @Serial
+    private static final long serialVersionUID = 6204417935823092561L;
+
+    @Getter
+    private final int maxLength;
+
+    /**
+     * Constructs a new command too long exception.
+     *
+     * @param maxLength the exceeded maximum command length in characters
+     */
+    public CommandTooLongException(int maxLength) {
+        super("Command length exceeds the configured limit of " + maxLength + " characters.");
+        this.maxLength = maxLength;
+    }
+}
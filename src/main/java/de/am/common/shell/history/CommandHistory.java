@@ -0,0 +1,360 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.history;
+
+import de.am.common.shell.exception.ShellException;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code CommandHistory} is the persistent history of the executed commands.<p>
+ * The commands are appended to the history file as UTF-8 lines, the start offset of every entry is appended to an
+ * index file with the suffix {@value #INDEX_SUFFIX}. Both files are memory-mapped, so an entry is read by its number
+ * and searched without reading the history into the heap. A missing or incomplete index is rebuilt when the history is
+ * opened, an incomplete last line is removed. Entries are numbered from 1, history files up to 2 GB are supported.
+ * All methods are thread safe. Several processes may append to the same history file: an entry is appended at the
+ * current end of the file while holding a file lock, entries of other processes are visible after the next append.
+ * Within one process the instances of a history file must not append concurrently.
+ *
+ * @author Martin Absmeier
+ */
+public class CommandHistory implements Closeable {
+
+    /**
+     * Suffix of the index file
+     */
+    public static final String INDEX_SUFFIX = ".idx";
+
+    private static final int REBUILD_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    @Getter
+    private final Path file;
+    private long size;
+    private long count;
+    private MappedByteBuffer mappedData;
+    private LongBuffer mappedIndex;
+
+    /**
+     * Creates a new instance of {@link CommandHistory} class, the history file is created if it does not exist.
+     *
+     * @param file the path of the history file
+     * @throws IOException if the history file or its index can not be opened
+     */
+    @Builder
+    public CommandHistory(Path file) throws IOException {
+        checkNotNull(file, "file");
+
+        this.file = file;
+        this.data = FileChannel.open(file, CREATE, READ, WRITE, LinkOption.NOFOLLOW_LINKS);
+        try {
+            this.index = FileChannel.open(file.resolveSibling(file.getFileName() + INDEX_SUFFIX), CREATE, READ, WRITE,
+                LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException ex) {
+            data.close();
+            throw ex;
+        }
+
+        try (FileLock lock = data.lock()) {
+            load();
+        } catch (IOException | RuntimeException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Appends the specified command to the history.
+     *
+     * @param command the command, must not contain a line break
+     * @throws IOException if the command can not be written
+     */
+    public synchronized void add(String command) throws IOException {
+        checkNotNull(command, "command");
+        if (command.indexOf('\n') >= 0 || command.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("A history entry must not contain a line break.");
+        }
+
+        byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+        try (FileLock lock = data.lock()) {
+            // another process may have appended entries since the last append
+            size = data.size();
+            count = index.size() / Long.BYTES;
+            if (size + bytes.length + 1 > Integer.MAX_VALUE || (count + 1) * Long.BYTES > Integer.MAX_VALUE) {
+                throw new ShellException("The history file [" + file + "] is full.");
+            }
+
+            ByteBuffer entry = ByteBuffer.allocate(bytes.length + 1).put(bytes).put((byte) '\n').flip();
+            while (entry.hasRemaining()) {
+                data.write(entry, size + entry.position());
+            }
+            ByteBuffer offset = ByteBuffer.allocate(Long.BYTES).putLong(0, size);
+            while (offset.hasRemaining()) {
+                index.write(offset, count * Long.BYTES + offset.position());
+            }
+            size += bytes.length + 1;
+            count++;
+        }
+    }
+
+    /**
+     * Returns the entry of the specified number.
+     *
+     * @param number the number of the entry, starting with 1
+     * @return the entry
+     * @throws IllegalArgumentException if there is no entry with the specified number
+     */
+    public synchronized String get(long number) {
+        if (number < 1 || number > count) {
+            throw new IllegalArgumentException("History entry [" + number + "] not found.");
+        }
+
+        map();
+        int start = start(number);
+        byte[] bytes = new byte[end(number) - start];
+        mappedData.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of the most recent entry starting with the specified prefix.
+     *
+     * @param prefix the prefix of the entry
+     * @return the number of the entry or 0 if no entry starts with the prefix
+     */
+    public synchronized long findPrefix(String prefix) {
+        checkNotNull(prefix, "prefix");
+
+        map();
+        byte[] needle = prefix.getBytes(StandardCharsets.UTF_8);
+        for (long number = count; number > 0; number--) {
+            int start = start(number);
+            if (end(number) - start >= needle.length && matches(start, needle)) {
+                return number;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Searches the history backwards for an entry containing the specified text, starting before the entry of the
+     * specified number.
+     *
+     * @param text   the text contained in the entry
+     * @param before the number of the entry the search starts before, {@link #getCount()} + 1 to search all entries
+     * @return the number of the most recent matching entry or 0 if no entry contains the text
+     */
+    public synchronized long search(String text, long before) {
+        checkNotNull(text, "text");
+
+        long first = Math.max(0, Math.min(before - 1, count));
+        if (text.isEmpty()) {
+            return first;
+        }
+
+        map();
+        byte[] needle = text.getBytes(StandardCharsets.UTF_8);
+        for (long number = first; number > 0; number--) {
+            int start = start(number);
+            int last = end(number) - needle.length;
+            for (int position = start; position <= last; position++) {
+                if (mappedData.get(position) == needle[0] && matches(position, needle)) {
+                    return number;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Recalls the entry of the specified event as in {@code !n} or {@code !prefix}: the entry of the number if the event
+     * consists of digits, the most recent entry starting with the event otherwise.
+     *
+     * @param event the event without the leading {@code !}
+     * @return the recalled entry or null if there is no such entry
+     */
+    public synchronized String recall(String event) {
+        checkNotNull(event, "event");
+        if (event.isEmpty()) {
+            return null;
+        }
+
+        long number;
+        if (event.chars().allMatch(Character::isDigit)) {
+            try {
+                number = Long.parseLong(event);
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        } else {
+            number = findPrefix(event);
+        }
+        return number > 0 && number <= count ? get(number) : null;
+    }
+
+    @Override
+    public synchronized void close() {
+        mappedData = null;
+        mappedIndex = null;
+        try (FileChannel dataChannel = data; FileChannel indexChannel = index) {
+            // both channels are closed even if closing one of them fails
+        } catch (IOException ex) {
+            throw new ShellException("Can not close history file [" + file + "].", ex);
+        }
+    }
+
+    // #################################################################################################################
+    private void load() throws IOException {
+        size = data.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new ShellException("The history file [" + file + "] exceeds 2 GB.");
+        }
+        if (size > 0 && readByte(size - 1) != '\n') {
+            // the last entry was not written completely
+            size = lastLineEnd();
+            data.truncate(size);
+        }
+
+        long indexSize = index.size();
+        count = indexSize / Long.BYTES;
+        if (indexSize % Long.BYTES != 0 || !isLastOffsetValid()) {
+            rebuildIndex();
+        }
+    }
+
+    private boolean isLastOffsetValid() throws IOException {
+        if (count == 0) {
+            return size == 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        index.read(buffer, (count - 1) * Long.BYTES);
+        long offset = buffer.getLong(0);
+        if (offset < 0 || offset >= size || offset > 0 && readByte(offset - 1) != '\n') {
+            return false;
+        }
+        ByteBuffer entry = data.map(FileChannel.MapMode.READ_ONLY, offset, size - offset);
+        for (int position = 0; position < entry.limit() - 1; position++) {
+            if (entry.get(position) == '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rebuildIndex() throws IOException {
+        index.truncate(0);
+        count = 0;
+        ByteBuffer offsets = ByteBuffer.allocate(REBUILD_BUFFER_SIZE);
+        if (size > 0) {
+            ByteBuffer entries = data.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            boolean isLineStart = true;
+            for (int position = 0; position < size; position++) {
+                if (isLineStart) {
+                    if (!offsets.hasRemaining()) {
+                        writeOffsets(offsets);
+                    }
+                    offsets.putLong(position);
+                    count++;
+                }
+                isLineStart = entries.get(position) == '\n';
+            }
+        }
+        writeOffsets(offsets);
+    }
+
+    private void writeOffsets(ByteBuffer offsets) throws IOException {
+        offsets.flip();
+        while (offsets.hasRemaining()) {
+            index.write(offsets, index.size());
+        }
+        offsets.clear();
+    }
+
+    private long lastLineEnd() throws IOException {
+        ByteBuffer entries = data.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        for (int position = (int) size - 1; position >= 0; position--) {
+            if (entries.get(position) == '\n') {
+                return position + 1L;
+            }
+        }
+        return 0;
+    }
+
+    private byte readByte(long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        data.read(buffer, position);
+        return buffer.get(0);
+    }
+
+    private void map() {
+        try {
+            if (isNull(mappedData) || mappedData.capacity() != size) {
+                mappedData = data.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            if (isNull(mappedIndex) || mappedIndex.capacity() != count) {
+                mappedIndex = index.map(FileChannel.MapMode.READ_ONLY, 0, count * Long.BYTES).asLongBuffer();
+            }
+        } catch (IOException ex) {
+            throw new ShellException("Can not read history file [" + file + "].", ex);
+        }
+    }
+
+    private int start(long number) {
+        return (int) mappedIndex.get((int) number - 1);
+    }
+
+    private int end(long number) {
+        long next = number < count ? mappedIndex.get((int) number) : size;
+        return (int) next - 1;
+    }
+
+    private boolean matches(int position, byte[] needle) {
+        for (int offset = 0; offset < needle.length; offset++) {
+            if (mappedData.get(position + offset) != needle[offset]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
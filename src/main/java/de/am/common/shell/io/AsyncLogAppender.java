@@ -0,0 +1,337 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_LOG_QUEUE_CAPACITY;
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code AsyncLogAppender} decouples the threads writing log entries from the disk.<p>
+ * Entries are put into a bounded lock-free {@link RingBuffer}, a single background thread drains them to the target
+ * {@link LogSink} and flushes it whenever the buffer runs empty, so a burst of entries is written at once. If the buffer
+ * is full, the {@link Overflow} strategy decides whether the writing thread waits or an entry is dropped.
+ *
+ * @author Martin Absmeier
+ */
+public final class AsyncLogAppender implements LogSink {
+
+    /**
+     * Specifies what happens to an entry written while the buffer is full.
+     */
+    public enum Overflow {
+        /**
+         * The writing thread waits until the background thread made room.
+         */
+        BLOCK,
+        /**
+         * The new entry is dropped.
+         */
+        DROP,
+        /**
+         * The oldest buffered entry is dropped to make room for the new one.
+         */
+        DROP_OLDEST
+    }
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final LogSink target;
+    @Getter
+    private final Overflow overflow;
+    private final RingBuffer<String> entries;
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+    private final Thread drainer;
+    private volatile boolean isIdle;
+    private volatile boolean isClosed;
+    private volatile boolean isStopped;
+    private volatile IOException failure;
+
+    /**
+     * Creates a new instance of {@link AsyncLogAppender} class and starts its background thread.
+     *
+     * @param target   the sink the entries are written to, e.g. a {@link LogFileWriter}
+     * @param overflow the strategy if the buffer is full, {@link Overflow#BLOCK} if null
+     * @param capacity the number of buffered entries, {@link de.am.common.shell.ShellConstants#DEFAULT_LOG_QUEUE_CAPACITY} if null
+     */
+    @Builder
+    public AsyncLogAppender(LogSink target, Overflow overflow, Integer capacity) {
+        checkNotNull(target, "target");
+
+        this.target = target;
+        this.overflow = isNull(overflow) ? Overflow.BLOCK : overflow;
+        this.entries = new RingBuffer<>(isNull(capacity) ? DEFAULT_LOG_QUEUE_CAPACITY : capacity);
+        this.drainer = Thread.ofPlatform().daemon().name("shell-log-writer").start(this::drain);
+    }
+
+    /**
+     * Puts the specified entry into the buffer, see {@link Overflow} if the buffer is full.
+     *
+     * @param entry the log entry
+     * @throws IOException if the background thread failed to write an entry before
+     */
+    @Override
+    public void write(CharSequence entry) throws IOException {
+        IOException lastFailure = failure;
+        if (nonNull(lastFailure)) {
+            failure = null;
+            throw lastFailure;
+        }
+        if (isClosed) {
+            throw new IOException("The log appender is closed.");
+        }
+
+        String text = entry.toString();
+        pendingCount.incrementAndGet();
+        while (!entries.offer(text)) {
+            if (overflow == Overflow.DROP) {
+                pendingCount.decrementAndGet();
+                droppedCount.increment();
+                return;
+            }
+            if (overflow == Overflow.DROP_OLDEST) {
+                if (nonNull(entries.poll())) {
+                    pendingCount.decrementAndGet();
+                    droppedCount.increment();
+                }
+            } else {
+                awaitOffer(text);
+                break;
+            }
+        }
+        if (isStopped) {
+            // the background thread stopped while the entry was put into the buffer
+            discardRemaining();
+        } else if (isIdle) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    /**
+     * Does nothing, the entries are written when the background thread drained the buffer.
+     */
+    @Override
+    public void commandCompleted() {
+        // written by the background thread
+    }
+
+    /**
+     * Wakes up the background thread, it writes the buffered entries without waiting for further ones.
+     */
+    @Override
+    public void flush() {
+        LockSupport.unpark(drainer);
+    }
+
+    /**
+     * Waits until the background thread wrote the buffered entries and appends the specified bytes unchanged.
+     *
+     * @param bytes the bytes to append, the buffer is consumed
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void writeBytes(ByteBuffer bytes) throws IOException {
+        awaitDrained();
+        target.writeBytes(bytes);
+    }
+
+    /**
+     * Waits until the background thread wrote the buffered entries and appends the specified region of a file unchanged.
+     *
+     * @param source   the file
+     * @param position the position of the region in the file
+     * @param count    the number of bytes of the region
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void transferFrom(FileChannel source, long position, long count) throws IOException {
+        awaitDrained();
+        target.transferFrom(source, position, count);
+    }
+
+    /**
+     * Returns the number of entries written to the log file.
+     *
+     * @return the number of written entries
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * Returns the number of entries dropped because the buffer was full.
+     *
+     * @return the number of dropped entries
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Stops accepting entries, waits until the background thread wrote all buffered entries and closes the log file.<p>
+     * The log file is not closed before the background thread stopped, even if the calling thread is interrupted, its
+     * interrupt status is restored afterwards. Entries written concurrently after the background thread stopped are
+     * counted as dropped.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        isClosed = true;
+        LockSupport.unpark(drainer);
+        boolean isInterrupted = false;
+        try {
+            while (drainer.isAlive()) {
+                try {
+                    drainer.join();
+                } catch (InterruptedException ex) {
+                    isInterrupted = true;
+                }
+            }
+            discardRemaining();
+        } finally {
+            target.close();
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        IOException lastFailure = failure;
+        if (nonNull(lastFailure)) {
+            failure = null;
+            throw lastFailure;
+        }
+    }
+
+    // #################################################################################################################
+    private void drain() {
+        while (true) {
+            boolean isStopping = isClosed;
+            String entry = entries.poll();
+            if (nonNull(entry)) {
+                writeEntry(entry);
+                wakeWaiters();
+                continue;
+            }
+
+            flushTarget();
+            if (isStopping) {
+                if (!isStopped) {
+                    // one more pass for entries put into the buffer before the writing threads see the stop
+                    isStopped = true;
+                    continue;
+                }
+                wakeWaiters();
+                return;
+            }
+            isIdle = true;
+            if (entries.isEmpty() && !isClosed) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+            isIdle = false;
+        }
+    }
+
+    private void writeEntry(String entry) {
+        try {
+            target.write(entry);
+            writtenCount.increment();
+        } catch (IOException ex) {
+            failure = ex;
+        } finally {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    private void awaitDrained() throws IOException {
+        if (isClosed) {
+            throw new IOException("The log appender is closed.");
+        }
+        Thread waiter = Thread.currentThread();
+        waiters.add(waiter);
+        try {
+            while (pendingCount.get() > 0 && drainer.isAlive()) {
+                LockSupport.unpark(drainer);
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        } finally {
+            waiters.remove(waiter);
+        }
+
+        IOException lastFailure = failure;
+        if (nonNull(lastFailure)) {
+            failure = null;
+            throw lastFailure;
+        }
+    }
+
+    private void awaitOffer(String entry) {
+        Thread writer = Thread.currentThread();
+        // registered before the offer, so the background thread wakes this thread after it wrote the next entry
+        waiters.add(writer);
+        try {
+            while (!entries.offer(entry)) {
+                if (isStopped) {
+                    pendingCount.decrementAndGet();
+                    droppedCount.increment();
+                    return;
+                }
+                LockSupport.unpark(drainer);
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        } finally {
+            waiters.remove(writer);
+        }
+    }
+
+    private void discardRemaining() {
+        while (nonNull(entries.poll())) {
+            pendingCount.decrementAndGet();
+            droppedCount.increment();
+        }
+    }
+
+    private void wakeWaiters() {
+        if (!waiters.isEmpty()) {
+            waiters.forEach(LockSupport::unpark);
+        }
+    }
+
+    private void flushTarget() {
+        try {
+            target.flush();
+        } catch (IOException ex) {
+            failure = ex;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.ShellException;
+import lombok.Builder;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code ChannelInputProvider} is an {@link InputProvider} reading the commands through a {@link ChannelLineReader}.<p>
+ * In contrast to the {@link DefaultInputProvider} the line breaks are found without regular expressions in one large
+ * decoded buffer, which makes it considerably faster for scripts piped into the shell. By default the channel of the
+ * standard input is used. A command longer than the maximum command length is discarded while it is read and a
+ * {@link de.am.common.shell.exception.CommandTooLongException} is thrown instead.
+ *
+ * @author Martin Absmeier
+ */
+public class ChannelInputProvider implements InputProvider {
+
+    private final ChannelLineReader reader;
+
+    /**
+     * Creates a new instance of {@link ChannelInputProvider} class.
+     *
+     * @param channel    the channel to read the commands from, the channel of the standard input if null
+     * @param bufferSize the size of the read buffer, {@link de.am.common.shell.ShellConstants#DEFAULT_READ_BUFFER_SIZE} if null
+     * @param charset    the charset of the input, UTF-8 if null
+     * @param maxCommandLength the maximum length of a command, unlimited if null
+     */
+    @Builder
+    public ChannelInputProvider(ReadableByteChannel channel, Integer bufferSize, Charset charset, Integer maxCommandLength) {
+        this.reader = ChannelLineReader.builder()
+            .channel(isNull(channel) ? new FileInputStream(FileDescriptor.in).getChannel() : channel)
+            .bufferSize(bufferSize)
+            .charset(charset)
+            .maxLineLength(maxCommandLength)
+            .build();
+    }
+
+    @Override
+    public String readCommand() {
+        try {
+            return reader.readLine();
+        } catch (IOException ex) {
+            throw new ShellException("Can not read command.", ex);
+        }
+    }
+
+    @Override
+    public void exit() {
+        try {
+            reader.close();
+        } catch (IOException ex) {
+            throw new ShellException("Can not close input.", ex);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.CommandTooLongException;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_READ_BUFFER_SIZE;
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code ChannelLineReader} reads lines from a {@link ReadableByteChannel} through one large byte and char buffer.<p>
+ * Lines are terminated by {@code \n} or {@code \r\n}. A line lying completely in the char buffer is created directly from
+ * it, only lines crossing the buffer boundary are assembled in a reused {@link StringBuilder}. Malformed input is replaced
+ * by the replacement character of the charset. If a maximum line length is given, a longer line is never held in
+ * memory: its rest is skipped chunk by chunk and a {@link CommandTooLongException} is thrown. The reader is not thread
+ * safe.
+ *
+ * @author Martin Absmeier
+ */
+public class ChannelLineReader implements Closeable {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final CharsetDecoder decoder;
+    private final StringBuilder pending;
+    private final int maxLineLength;
+    private boolean isEndOfInput;
+    private boolean isFinished;
+    @Getter
+    private long bytesRead;
+
+    /**
+     * Creates a new instance of {@link ChannelLineReader} class.
+     *
+     * @param channel    the channel to read from
+     * @param bufferSize the size of the read buffer, {@link de.am.common.shell.ShellConstants#DEFAULT_READ_BUFFER_SIZE} if null
+     * @param charset    the charset of the input, UTF-8 if null
+     * @param maxLineLength the maximum length of a line without terminator, unlimited if null
+     */
+    @Builder
+    public ChannelLineReader(ReadableByteChannel channel, Integer bufferSize, Charset charset, Integer maxLineLength) {
+        checkNotNull(channel, "channel");
+        int size = isNull(bufferSize) ? DEFAULT_READ_BUFFER_SIZE : bufferSize;
+        if (size <= 0) {
+            throw new IllegalArgumentException("The buffer size must be greater than zero.");
+        }
+        if (nonNull(maxLineLength) && maxLineLength < 0) {
+            throw new IllegalArgumentException("The maximum line length must not be negative.");
+        }
+
+        this.channel = channel;
+        this.bytes = ByteBuffer.allocate(size);
+        this.chars = CharBuffer.allocate(size);
+        this.chars.flip();
+        this.decoder = (isNull(charset) ? StandardCharsets.UTF_8 : charset).newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.pending = new StringBuilder();
+        this.maxLineLength = isNull(maxLineLength) ? Integer.MAX_VALUE : maxLineLength;
+    }
+
+    /**
+     * Reads the next line without the line terminator.
+     *
+     * @return the next line or null if the end of the input is reached
+     * @throws IOException             if an I/O error occurs
+     * @throws CommandTooLongException if the line exceeds the maximum line length, the line is skipped
+     */
+    public String readLine() throws IOException {
+        while (true) {
+            if (!chars.hasRemaining() && !fill()) {
+                return pending.isEmpty() ? null : checkLength(takePending());
+            }
+
+            char[] array = chars.array();
+            int start = chars.position();
+            int limit = chars.limit();
+            for (int index = start; index < limit; index++) {
+                if (array[index] == '\n') {
+                    chars.position(index + 1);
+                    if (pending.isEmpty()) {
+                        int end = index > start && array[index - 1] == '\r' ? index - 1 : index;
+                        if (end - start > maxLineLength) {
+                            throw new CommandTooLongException(maxLineLength);
+                        }
+                        return new String(array, start, end - start);
+                    }
+                    pending.append(array, start, index - start);
+                    return checkLength(takePending());
+                }
+            }
+            chars.position(limit);
+            // One more character is kept for a carriage return preceding the line feed
+            if (pending.length() + (long) (limit - start) > maxLineLength + 1L) {
+                pending.setLength(0);
+                skipLine();
+                throw new CommandTooLongException(maxLineLength);
+            }
+            pending.append(array, start, limit - start);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // #################################################################################################################
+    private boolean fill() throws IOException {
+        if (isFinished) {
+            return false;
+        }
+
+        chars.clear();
+        while (true) {
+            if (!isEndOfInput) {
+                int read = channel.read(bytes);
+                if (read < 0) {
+                    isEndOfInput = true;
+                } else {
+                    bytesRead += read;
+                }
+            }
+
+            bytes.flip();
+            CoderResult result = decoder.decode(bytes, chars, isEndOfInput);
+            bytes.compact();
+            if (result.isError()) {
+                result.throwException();
+            }
+
+            if (isEndOfInput) {
+                decoder.flush(chars);
+                isFinished = true;
+            }
+            if (isFinished || chars.position() > 0) {
+                chars.flip();
+                return chars.hasRemaining();
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        while (chars.hasRemaining() || fill()) {
+            char[] array = chars.array();
+            int limit = chars.limit();
+            for (int index = chars.position(); index < limit; index++) {
+                if (array[index] == '\n') {
+                    chars.position(index + 1);
+                    return;
+                }
+            }
+            chars.position(limit);
+        }
+    }
+
+    private String checkLength(String line) {
+        if (line.length() > maxLineLength) {
+            throw new CommandTooLongException(maxLineLength);
+        }
+        return line;
+    }
+
+    private String takePending() {
+        int length = pending.length();
+        if (length > 0 && pending.charAt(length - 1) == '\r') {
+            pending.setLength(length - 1);
+        }
+        String line = pending.toString();
+        pending.setLength(0);
+        return line;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import java.util.List;
+
+/**
+ * {@code Completer} provides the completion candidates of the line entered at the prompt, see
+ * {@link InputProvider#setCompleter(Completer)}.
+ *
+ * @author Martin Absmeier
+ */
+@FunctionalInterface
+public interface Completer {
+
+    /**
+     * Returns the completion candidates of the last token of the entered line.
+     *
+     * @param line the line entered so far, the cursor is at its end
+     * @return the completion candidates, an empty list if there are none
+     */
+    List<String> complete(String line);
+}
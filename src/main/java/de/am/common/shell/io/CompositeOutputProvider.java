@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.util.Preconditions;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code CompositeOutputProvider} writes every message to the console and to any number of {@link Sink}s, e.g. a log
+ * file, a {@link MemoryLogSink} or a {@link JsonLinesLogSink}.<p>
+ * A message is formatted once, the console receives it with its colour codes and every sink accepting it by its filter
+ * receives the plain text. Each sink has its own buffering: by default a sink is written by the background thread of an
+ * {@link AsyncLogAppender} dropping entries if its buffer is full, so a slow sink never blocks the console.<p>
+ * {@link #enableLogging(String, LogRotation)} adds a log file as further sink until logging is disabled.
+ *
+ * @author Martin Absmeier
+ */
+public class CompositeOutputProvider implements OutputProvider {
+
+    private final boolean isConsoleEnabled;
+    private final ConsoleWriter console;
+    @Getter
+    private final List<Sink> sinks;
+    private final TemplateCache templates;
+    private volatile Sink logging;
+
+    /**
+     * Creates a new instance of {@link CompositeOutputProvider} class.
+     *
+     * @param isConsoleEnabled false if the messages are not written to the console, true if null
+     * @param isBuffered       true to buffer the console output until the buffer is full or {@link #flush()} is called
+     * @param console          the channel the buffered console output is written to, the channel of stdout if null
+     * @param sinks            the sinks receiving the messages
+     */
+    @Builder
+    public CompositeOutputProvider(Boolean isConsoleEnabled, boolean isBuffered, WritableByteChannel console, List<Sink> sinks) {
+        this.isConsoleEnabled = isNull(isConsoleEnabled) || isConsoleEnabled;
+        this.console = new ConsoleWriter(isBuffered, console, null);
+        this.sinks = isNull(sinks) ? List.of() : List.copyOf(sinks);
+        this.templates = new TemplateCache();
+    }
+
+    @Override
+    public void print(String pattern, String ansiColour, Object... arguments) {
+        write(pattern, ansiColour, arguments, false);
+    }
+
+    @Override
+    public void println(String pattern, String ansiColour, Object... arguments) {
+        write(pattern, ansiColour, arguments, true);
+    }
+
+    /**
+     * Writes the buffered console output and notifies the sinks that a command is completed.
+     */
+    @Override
+    public void flush() {
+        console.flush();
+
+        IOException failure = null;
+        for (Sink sink : sinks) {
+            failure = complete(sink, failure);
+        }
+        Sink current = logging;
+        if (nonNull(current)) {
+            failure = complete(current, failure);
+        }
+        if (nonNull(failure)) {
+            throw new ShellException("Can not write to output sink.", failure);
+        }
+    }
+
+    /**
+     * Flushes the output and closes all sinks, asynchronous sinks write their buffered entries before.
+     */
+    @Override
+    public void exit() {
+        try {
+            flush();
+        } finally {
+            disableLogging();
+            closeSinks();
+        }
+    }
+
+    @Override
+    public void enableLogging(String fileName) {
+        enableLogging(fileName, null);
+    }
+
+    @Override
+    public void enableLogging(String fileName, LogRotation rotation) {
+        Path logFilePath = LogFileWriter.resolve(fileName);
+        try {
+            FileChannel channel = LogFileWriter.open(logFilePath);
+            disableLogging();
+            LogFileWriter writer = LogFileWriter.builder().channel(channel).file(logFilePath).rotation(rotation).build();
+            logging = Sink.builder().target(writer).build();
+        } catch (IOException ex) {
+            throw new ShellException("Can not open log file.", ex);
+        }
+    }
+
+    @Override
+    public void disableLogging() {
+        Sink current = logging;
+        if (isNull(current)) {
+            return;
+        }
+
+        logging = null;
+        try {
+            current.close();
+        } catch (IOException ex) {
+            throw new ShellException("Can not close log file.", ex);
+        }
+    }
+
+    // #################################################################################################################
+    private void write(String pattern, String ansiColour, Object[] arguments, boolean isNewLine) {
+        Preconditions.checkNotNull(pattern, "pattern");
+        MessageTemplate.Message message = templates.get(pattern, ansiColour).format(arguments, isNewLine);
+        if (isConsoleEnabled) {
+            console.write(message.text());
+        }
+
+        Sink current = logging;
+        if (sinks.isEmpty() && isNull(current)) {
+            return;
+        }
+
+        String plainText = message.plainText();
+        IOException failure = null;
+        for (Sink sink : sinks) {
+            failure = write(sink, plainText, failure);
+        }
+        if (nonNull(current)) {
+            failure = write(current, plainText, failure);
+        }
+        if (nonNull(failure)) {
+            throw new ShellException("Can not write to output sink.", failure);
+        }
+    }
+
+    private void closeSinks() {
+        IOException failure = null;
+        for (Sink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException ex) {
+                failure = isNull(failure) ? ex : failure;
+            }
+        }
+        if (nonNull(failure)) {
+            throw new ShellException("Can not close output sink.", failure);
+        }
+    }
+
+    private static IOException write(Sink sink, String plainText, IOException failure) {
+        try {
+            sink.write(plainText);
+            return failure;
+        } catch (IOException ex) {
+            return isNull(failure) ? ex : failure;
+        }
+    }
+
+    private static IOException complete(Sink sink, IOException failure) {
+        try {
+            sink.writer.commandCompleted();
+            return failure;
+        } catch (IOException ex) {
+            return isNull(failure) ? ex : failure;
+        }
+    }
+
+    /**
+     * {@code Sink} is a {@link LogSink} attached to a {@link CompositeOutputProvider} together with its filter and
+     * buffering.
+     */
+    public static final class Sink {
+
+        @Getter
+        private final LogSink target;
+        private final Predicate<String> filter;
+        private final LogSink writer;
+
+        /**
+         * Creates a new instance of {@link Sink} class.<p>
+         * An asynchronous sink starts the background thread of its {@link AsyncLogAppender}.
+         *
+         * @param target   the sink receiving the messages
+         * @param filter   the filter of the messages by their plain text, all messages are accepted if null
+         * @param isAsync  false if the target is written by the printing thread, true if null
+         * @param overflow the strategy of an asynchronous sink if its buffer is full, {@link AsyncLogAppender.Overflow#DROP} if null
+         * @param capacity the number of buffered entries of an asynchronous sink, {@link de.am.common.shell.ShellConstants#DEFAULT_LOG_QUEUE_CAPACITY} if null
+         */
+        @Builder
+        public Sink(LogSink target, Predicate<String> filter, Boolean isAsync, AsyncLogAppender.Overflow overflow, Integer capacity) {
+            Preconditions.checkNotNull(target, "target");
+            this.target = target;
+            this.filter = filter;
+            this.writer = isNull(isAsync) || isAsync
+                ? AsyncLogAppender.builder()
+                    .target(target)
+                    .overflow(isNull(overflow) ? AsyncLogAppender.Overflow.DROP : overflow)
+                    .capacity(capacity)
+                    .build()
+                : target;
+        }
+
+        /**
+         * Returns the asynchronous appender writing the target, e.g. to read its counters.
+         *
+         * @return the appender or null if the sink is written by the printing thread
+         */
+        public AsyncLogAppender getAppender() {
+            return writer instanceof AsyncLogAppender appender ? appender : null;
+        }
+
+        // #############################################################################################################
+        private void write(String plainText) throws IOException {
+            if (isNull(filter) || filter.test(plainText)) {
+                writer.write(plainText);
+            }
+        }
+
+        private void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.ShellException;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code ConsoleWriter} writes formatted messages to the console.<p>
+ * Unbuffered messages are printed to {@link System#out} immediately. Buffered messages are collected in a reused buffer
+ * and written to the console channel when the buffer is full or {@link #flush()} is called. Raw content is written to
+ * the console channel after the pending output. If {@link System#out} is redirected after the writer was created, the
+ * output follows it instead of stdout. The writer is thread safe, messages and raw content never interleave.
+ *
+ * @author Martin Absmeier
+ */
+final class ConsoleWriter {
+
+    private final WritableByteChannel channel;
+    private final PrintStream stdout;
+    private final boolean isStdout;
+    private final Object lock;
+    private final int bufferSize;
+    private final StringBuilder buffer;
+    private final ByteBuffer bytes;
+    private final CharsetEncoder encoder;
+
+    /**
+     * Creates a new instance of {@link ConsoleWriter} class.
+     *
+     * @param isBuffered true to buffer the output until the buffer is full or {@link #flush()} is called
+     * @param channel    the channel the buffered output and raw content are written to, the channel of stdout if null
+     * @param bufferSize the size of the buffer, {@link de.am.common.shell.ShellConstants#DEFAULT_WRITE_BUFFER_SIZE} if null
+     */
+    ConsoleWriter(boolean isBuffered, WritableByteChannel channel, Integer bufferSize) {
+        this.channel = isNull(channel) ? new FileOutputStream(FileDescriptor.out).getChannel() : channel;
+        this.stdout = System.out;
+        this.isStdout = isNull(channel);
+        this.lock = new Object();
+        this.bufferSize = isNull(bufferSize) ? DEFAULT_WRITE_BUFFER_SIZE : bufferSize;
+        if (this.bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be positive.");
+        }
+        if (isBuffered) {
+            this.buffer = new StringBuilder(this.bufferSize);
+            this.bytes = ByteBuffer.allocate(this.bufferSize);
+            this.encoder = System.out.charset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        } else {
+            this.buffer = null;
+            this.bytes = null;
+            this.encoder = null;
+        }
+    }
+
+    /**
+     * Writes the specified text.
+     *
+     * @param text the text
+     */
+    void write(String text) {
+        synchronized (lock) {
+            if (isNull(buffer)) {
+                System.out.print(text);
+                return;
+            }
+
+            buffer.append(text);
+            if (buffer.length() >= bufferSize) {
+                writeBuffer();
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered output to the console channel.
+     */
+    void flush() {
+        if (isNull(buffer)) {
+            return;
+        }
+
+        synchronized (lock) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Writes the specified bytes unchanged after the pending output.
+     *
+     * @param bytes the bytes to write, the buffer is consumed
+     * @throws IOException if an I/O error occurs
+     */
+    void writeBytes(ByteBuffer bytes) throws IOException {
+        synchronized (lock) {
+            flushPending();
+            WritableByteChannel target = target();
+            while (bytes.hasRemaining()) {
+                target.write(bytes);
+            }
+            flushTarget(target);
+        }
+    }
+
+    /**
+     * Transfers the specified region of a file unchanged after the pending output, without copying it into the heap.
+     *
+     * @param source   the file
+     * @param position the position of the region in the file
+     * @param count    the number of bytes of the region
+     * @throws IOException if an I/O error occurs
+     */
+    void transferFrom(FileChannel source, long position, long count) throws IOException {
+        synchronized (lock) {
+            flushPending();
+            WritableByteChannel target = target();
+            long transferred = 0;
+            while (transferred < count) {
+                long length = source.transferTo(position + transferred, count - transferred, target);
+                if (length <= 0) {
+                    break;
+                }
+                transferred += length;
+            }
+            flushTarget(target);
+        }
+    }
+
+    // #################################################################################################################
+    private void flushPending() {
+        if (isNull(buffer)) {
+            System.out.flush();
+        } else {
+            writeBuffer();
+        }
+    }
+
+    private WritableByteChannel target() {
+        // after System.setOut the output follows the redirected stream instead of stdout
+        return isStdout && System.out != stdout ? Channels.newChannel(System.out) : channel;
+    }
+
+    private void flushTarget(WritableByteChannel target) {
+        if (target != channel) {
+            System.out.flush();
+        }
+    }
+
+    private void writeBuffer() {
+        try {
+            CharBuffer chars = CharBuffer.wrap(buffer);
+            encoder.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, true);
+                writeBytes();
+            } while (result.isOverflow());
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        } catch (IOException ex) {
+            throw new ShellException("Can not write to console.", ex);
+        } finally {
+            buffer.setLength(0);
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        WritableByteChannel target = target();
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            target.write(bytes);
+        }
+        bytes.clear();
+        flushTarget(target);
+    }
+}
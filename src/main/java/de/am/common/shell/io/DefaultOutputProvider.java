@@ -18,26 +18,32 @@ package de.am.common.shell.io;
 import de.am.common.shell.exception.ShellException;
 import de.am.common.shell.util.Preconditions;
 import lombok.Builder;
+import lombok.Getter;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.LinkOption;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.logging.Logger;
 
-import static de.am.common.shell.ShellConstants.ANSI_RESET;
 import static de.am.common.shell.ShellConstants.DEFAULT_MAX_LOG_ENTRY_LENGTH;
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
 import static de.am.common.shell.ShellConstants.NEW_LINE;
-import static java.text.MessageFormat.format;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.logging.Level.INFO;
 
 /**
- * {@code DefaultOutputProvider} is the standard {@link OutputProvider} and write all to the console.
+ * {@code DefaultOutputProvider} is the standard {@link OutputProvider} and write all to the console.<p>
+ * The compiled patterns are cached per colour, every message is formatted once and the result is shared by the console,
+ * the logger and the log file. The log file receives the message without ANSI colour codes.<p>
+ * In buffered mode the output is collected in a reused buffer and written to the console channel when the buffer is
+ * full or {@link #flush()} is called, the shell flushes before it waits for input.<p>
+ * While logging is enabled, the log file is kept open and written by a {@link LogFileWriter}, in asynchronous logging
+ * mode by an {@link AsyncLogAppender} on a background thread. The log file is rotated by size if a {@link LogRotation}
+ * is configured or passed to {@link #enableLogging(String, LogRotation)}.
  *
  * @author Martin Absmeier
  */
@@ -45,8 +51,15 @@ public class DefaultOutputProvider implements OutputProvider {
 
     private final Logger logger;
     private final int maxLogEntryLength;
-    private boolean isLoggingEnabled;
-    private Path logFilePath;
+    private final ConsoleWriter console;
+    private final LogFileWriter.FlushPolicy logFlushPolicy;
+    private final boolean isLogSynced;
+    private final boolean isLogAsync;
+    private final AsyncLogAppender.Overflow logOverflow;
+    private final LogRotation logRotation;
+    private final TemplateCache templates;
+    @Getter
+    private volatile LogSink logSink;
 
     /**
      * Creates a new instance of {@link DefaultOutputProvider} class.<br>
@@ -54,106 +67,174 @@ public class DefaultOutputProvider implements OutputProvider {
      *
      * @param logger a logger should only be passed for a JUnit test
      * @param maxLogEntryLength maximum allowed length of a single log entry
+     * @param isBuffered        true to buffer the output until the buffer is full or {@link #flush()} is called
+     * @param console           the channel the buffered output is written to, the channel of stdout if null
+     * @param bufferSize        the size of the output buffer, {@link de.am.common.shell.ShellConstants#DEFAULT_WRITE_BUFFER_SIZE} if null
+     * @param logFlushPolicy    specifies when the log file is written, {@link LogFileWriter.FlushPolicy#COMMAND} if null
+     * @param isLogSynced       true if every write of the log file is forced to the storage device
+     * @param isLogAsync        true if the log file is written by a background thread
+     * @param logOverflow       the strategy of the asynchronous log if its buffer is full, {@link AsyncLogAppender.Overflow#BLOCK} if null
+     * @param logRotation       specifies when the log file is rotated, never if null
      */
     @Builder
-    public DefaultOutputProvider(Logger logger, Integer maxLogEntryLength) {
+    public DefaultOutputProvider(Logger logger, Integer maxLogEntryLength, boolean isBuffered, WritableByteChannel console,
+                                 Integer bufferSize, LogFileWriter.FlushPolicy logFlushPolicy, boolean isLogSynced, boolean isLogAsync,
+                                 AsyncLogAppender.Overflow logOverflow, LogRotation logRotation) {
         this.logger = logger;
+        this.logFlushPolicy = logFlushPolicy;
+        this.isLogSynced = isLogSynced;
+        this.isLogAsync = isLogAsync;
+        this.logOverflow = logOverflow;
+        this.logRotation = logRotation;
+        this.templates = new TemplateCache();
         this.maxLogEntryLength = isNull(maxLogEntryLength) ? DEFAULT_MAX_LOG_ENTRY_LENGTH : maxLogEntryLength;
-        this.isLoggingEnabled = false;
-        this.logFilePath = null;
+        this.console = new ConsoleWriter(isBuffered, console, bufferSize);
     }
 
     @Override
     public void print(String pattern, String ansiColour, Object... arguments) {
-        Preconditions.checkNotNull(pattern, "pattern");
-        pattern = isNull(ansiColour) ? pattern : ansiColour.concat(pattern).concat(ANSI_RESET);
-        String formattedContent = format(pattern, arguments);
-        System.out.print(formattedContent);
+        write(pattern, ansiColour, arguments, false);
+    }
+
+    @Override
+    public void println(String pattern, String ansiColour, Object... arguments) {
+        write(pattern, ansiColour, arguments, true);
 
         if (!isNull(logger) && logger.isLoggable(INFO)) {
-            logger.log(INFO, pattern, arguments);
+            logger.log(INFO, NEW_LINE);
         }
+    }
 
-        if (isLoggingEnabled) {
-            writeString(pattern, arguments);
-            writeString("{0}", NEW_LINE);
+    /**
+     * Writes the content unchanged to the console channel and the log file. The content of a {@link FileChannel} is
+     * transferred from its position to its end without copying it into the heap, other channels are copied in chunks.
+     *
+     * @param content the content
+     * @throws ShellException if the content can not be read or written
+     */
+    @Override
+    public void write(ReadableByteChannel content) {
+        Preconditions.checkNotNull(content, "content");
+
+        LogSink sink = logSink;
+        try {
+            if (content instanceof FileChannel file) {
+                long position = file.position();
+                long count = Math.max(0, file.size() - position);
+                console.transferFrom(file, position, count);
+                if (nonNull(sink)) {
+                    sink.transferFrom(file, position, count);
+                }
+                file.position(position + count);
+                return;
+            }
+
+            ByteBuffer chunk = ByteBuffer.allocate(DEFAULT_WRITE_BUFFER_SIZE);
+            while (content.read(chunk) >= 0) {
+                chunk.flip();
+                console.writeBytes(chunk.duplicate());
+                if (nonNull(sink)) {
+                    sink.writeBytes(chunk);
+                }
+                chunk.clear();
+            }
+        } catch (IOException ex) {
+            throw new ShellException("Can not write content.", ex);
         }
     }
 
+    /**
+     * Writes the buffered console output and, if the log flush policy is {@link LogFileWriter.FlushPolicy#COMMAND},
+     * the buffered log entries.
+     */
     @Override
-    public void println(String pattern, String ansiColour, Object... arguments) {
-        print(pattern, ansiColour, arguments);
-        System.out.print(NEW_LINE);
-
-        if (!isNull(logger) && logger.isLoggable(INFO)) {
-            logger.log(INFO, NEW_LINE);
+    public void flush() {
+        console.flush();
+
+        LogSink sink = logSink;
+        if (nonNull(sink)) {
+            try {
+                sink.commandCompleted();
+            } catch (IOException ex) {
+                throw new ShellException("Can not write to log file.", ex);
+            }
         }
     }
 
     @Override
     public void exit() {
-        // No resources to clean up
+        flush();
+        disableLogging();
     }
 
     @Override
     public void enableLogging(String fileName) {
-        isLoggingEnabled = true;
-        initLogFile(fileName);
+        enableLogging(fileName, logRotation);
     }
 
     @Override
-    public void disableLogging() {
-        isLoggingEnabled = false;
+    public void enableLogging(String fileName, LogRotation rotation) {
+        Path logFilePath = LogFileWriter.resolve(fileName);
+        try {
+            FileChannel channel = LogFileWriter.open(logFilePath);
+            disableLogging();
+            LogFileWriter writer = LogFileWriter.builder()
+                .channel(channel)
+                .file(logFilePath)
+                .rotation(rotation)
+                .flushPolicy(logFlushPolicy)
+                .isSynced(isLogSynced)
+                .build();
+            logSink = isLogAsync ? AsyncLogAppender.builder().target(writer).overflow(logOverflow).build() : writer;
+        } catch (IOException ex) {
+            throw new ShellException("Can not open log file.", ex);
+        }
     }
 
-    // #################################################################################################################
-    private void initLogFile(String fileName) {
-        Preconditions.checkNotNull(fileName, "fileName");
-
-        String trimmedFileName = fileName.trim();
-        if (trimmedFileName.isEmpty()) {
-            throw new IllegalArgumentException("The file name for logging must not be empty.");
+    @Override
+    public void disableLogging() {
+        LogSink sink = logSink;
+        if (isNull(sink)) {
+            return;
         }
 
-        Path normalizedPath = Path.of(trimmedFileName).normalize();
-        if (normalizedPath.isAbsolute() || normalizedPath.getNameCount() != 1) {
-            throw new IllegalArgumentException("The file name for logging must not contain path elements.");
+        logSink = null;
+        try {
+            sink.close();
+        } catch (IOException ex) {
+            throw new ShellException("Can not close log file.", ex);
         }
+    }
+
+    // #################################################################################################################
+    private void write(String pattern, String ansiColour, Object[] arguments, boolean isNewLine) {
+        Preconditions.checkNotNull(pattern, "pattern");
+        MessageTemplate.Message message = templates.get(pattern, ansiColour).format(arguments, isNewLine);
+        console.write(message.text());
+        log(message);
+    }
 
-        String normalizedFileName = normalizedPath.toString();
-        if (!normalizedFileName.endsWith(".log")) {
-            normalizedFileName = normalizedFileName + ".log";
+    private void log(MessageTemplate.Message message) {
+        boolean isLogged = !isNull(logger) && logger.isLoggable(INFO);
+        LogSink sink = logSink;
+        if (!isLogged && isNull(sink)) {
+            return;
         }
 
-        logFilePath = Path.of(System.getProperty("user.dir"), normalizedFileName).normalize();
-        if (Files.isSymbolicLink(logFilePath)) {
-            throw new IllegalArgumentException("The log file must not be a symbolic link.");
+        String plainText = message.plainText();
+        if (isLogged) {
+            logger.log(INFO, plainText);
         }
-        if (Files.exists(logFilePath, LinkOption.NOFOLLOW_LINKS) && !Files.isRegularFile(logFilePath, LinkOption.NOFOLLOW_LINKS)) {
-            throw new IllegalArgumentException("The log target must be a regular file.");
+        if (nonNull(sink)) {
+            writeLog(sink, plainText);
         }
     }
 
-    private void writeString(String pattern, Object... arguments) {
+    private void writeLog(LogSink sink, String content) {
         try {
-            String content = format(pattern, arguments);
-            if (content.length() > maxLogEntryLength) {
-                content = content.substring(0, maxLogEntryLength);
-            }
-
-            try (SeekableByteChannel channel = Files.newByteChannel(
-                logFilePath,
-                StandardOpenOption.CREATE,
-                StandardOpenOption.WRITE,
-                StandardOpenOption.APPEND,
-                LinkOption.NOFOLLOW_LINKS
-            )) {
-                channel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
-            }
+            sink.write(content.length() > maxLogEntryLength ? content.substring(0, maxLogEntryLength) : content);
         } catch (IOException ex) {
-            ShellException shellException = new ShellException("Can not write to log file.");
-            shellException.initCause(ex);
-            throw shellException;
+            throw new ShellException("Can not write to log file.", ex);
         }
     }
-}
\ No newline at end of file
+}
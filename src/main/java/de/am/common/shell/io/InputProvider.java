@@ -29,6 +29,16 @@ public interface InputProvider {
      */
     String readCommand();
 
+    /**
+     * Is called by the shell to provide the completion of the entered line, e.g. when the user presses the tab key.
+     * Input providers of terminals supporting line editing can use it, the default implementation ignores it.
+     *
+     * @param completer the completer of the shell
+     */
+    default void setCompleter(Completer completer) {
+        // line based input can not complete the entered line
+    }
+
     /**
      * Is called if the shell is terminated. Used to close resources of the input provider.
      */
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import lombok.Builder;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code JsonLinesLogSink} writes every log entry as a JSON object on a line of its own (JSON Lines) to a target
+ * {@link LogSink}, e.g. a {@link LogFileWriter}.<p>
+ * An entry is written as {@code {"time":"2022-01-01T12:00:00Z","text":"..."}}, the text is escaped as JSON string.
+ *
+ * @author Martin Absmeier
+ */
+public final class JsonLinesLogSink implements LogSink {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final LogSink target;
+    private final Clock clock;
+
+    /**
+     * Creates a new instance of {@link JsonLinesLogSink} class.
+     *
+     * @param target the sink the JSON lines are written to
+     * @param clock  the clock of the time stamps, the UTC system clock if null
+     */
+    @Builder
+    public JsonLinesLogSink(LogSink target, Clock clock) {
+        checkNotNull(target, "target");
+        this.target = target;
+        this.clock = isNull(clock) ? Clock.systemUTC() : clock;
+    }
+
+    /**
+     * Writes the specified entry as JSON object.
+     *
+     * @param entry the log entry
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void write(CharSequence entry) throws IOException {
+        checkNotNull(entry, "entry");
+
+        StringBuilder line = new StringBuilder(entry.length() + 64)
+            .append("{\"time\":\"").append(Instant.now(clock)).append("\",\"text\":\"");
+        escape(entry, line);
+        target.write(line.append("\"}"));
+    }
+
+    @Override
+    public void commandCompleted() throws IOException {
+        target.commandCompleted();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+
+    // #################################################################################################################
+    private static void escape(CharSequence text, StringBuilder result) {
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            switch (character) {
+                case '"' -> result.append("\\\"");
+                case '\\' -> result.append("\\\\");
+                case '\n' -> result.append("\\n");
+                case '\r' -> result.append("\\r");
+                case '\t' -> result.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        result.append("\\u00").append(HEX[character >> 4]).append(HEX[character & 0xF]);
+                    } else {
+                        result.append(character);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_LOG_BUFFER_SIZE;
+import static de.am.common.shell.ShellConstants.DEFAULT_LOG_FLUSH_INTERVAL_MILLIS;
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code LogFileWriter} appends log entries to a {@link FileChannel} kept open until the writer is closed.<p>
+ * Entries are encoded as UTF-8 into a reused direct buffer, which is written to the channel as specified by the
+ * {@link FlushPolicy} or when it is full. If synced, the channel is forced to the storage device after every write.
+ * With a {@link LogRotation} the log file is rotated before a write would exceed its maximum size, rotated segments
+ * are compressed by a background thread if requested. The writer is thread safe.
+ *
+ * @author Martin Absmeier
+ */
+public final class LogFileWriter implements LogSink {
+
+    /**
+     * Specifies when the buffered log entries are written to the log file.
+     */
+    public enum FlushPolicy {
+        /**
+         * Every entry is written immediately.
+         */
+        LINE,
+        /**
+         * The entries are written when a command is completed, see {@link #commandCompleted()}.
+         */
+        COMMAND,
+        /**
+         * The entries are written periodically by a background thread.
+         */
+        TIMER
+    }
+
+    private final Path file;
+    @Getter
+    private final LogRotation rotation;
+    @Getter
+    private final FlushPolicy flushPolicy;
+    @Getter
+    private final boolean isSynced;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService compressor;
+    private FileChannel channel;
+    private long size;
+    private Future<?> compression;
+    private IOException timerFailure;
+
+    /**
+     * Creates a new instance of {@link LogFileWriter} class.
+     *
+     * @param channel       the channel of the log file, opened for appending, see {@link #open(Path)}
+     * @param file          the path of the log file, only required if the file is rotated
+     * @param rotation      specifies when the log file is rotated, never if null
+     * @param flushPolicy   specifies when the entries are written, {@link FlushPolicy#COMMAND} if null
+     * @param isSynced      true if every write is forced to the storage device, false if null
+     * @param bufferSize    the size of the write buffer, {@link de.am.common.shell.ShellConstants#DEFAULT_LOG_BUFFER_SIZE} if null
+     * @param flushInterval the interval in milliseconds of {@link FlushPolicy#TIMER}, {@link de.am.common.shell.ShellConstants#DEFAULT_LOG_FLUSH_INTERVAL_MILLIS} if null
+     * @throws IOException if the size of the log file can not be determined
+     */
+    @Builder
+    public LogFileWriter(FileChannel channel, Path file, LogRotation rotation, FlushPolicy flushPolicy, Boolean isSynced,
+                         Integer bufferSize, Long flushInterval) throws IOException {
+        checkNotNull(channel, "channel");
+        int capacity = isNull(bufferSize) ? DEFAULT_LOG_BUFFER_SIZE : bufferSize;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The buffer size must be greater than zero.");
+        }
+        if (nonNull(rotation) && isNull(file)) {
+            throw new IllegalArgumentException("The file is required to rotate the log.");
+        }
+
+        this.channel = channel;
+        this.size = channel.size();
+        this.file = file;
+        this.rotation = rotation;
+        this.compressor = nonNull(rotation) && rotation.isCompressed()
+            ? Executors.newSingleThreadExecutor(Thread.ofPlatform().daemon().name("shell-log-compress").factory())
+            : null;
+        this.flushPolicy = isNull(flushPolicy) ? FlushPolicy.COMMAND : flushPolicy;
+        this.isSynced = nonNull(isSynced) && isSynced;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        if (this.flushPolicy == FlushPolicy.TIMER) {
+            long interval = isNull(flushInterval) ? DEFAULT_LOG_FLUSH_INTERVAL_MILLIS : flushInterval;
+            this.timer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("shell-log-flush").factory());
+            this.timer.scheduleWithFixedDelay(this::flushByTimer, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.timer = null;
+        }
+    }
+
+    /**
+     * Opens the specified log file for appending, a symbolic link is not followed.
+     *
+     * @param file the path of the log file
+     * @return the channel of the log file
+     * @throws IOException if the file can not be opened
+     */
+    public static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, CREATE, WRITE, APPEND, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    /**
+     * Resolves the log file of the specified name in "user.dir", the {@code .log} suffix is appended if missing.
+     *
+     * @param fileName the name of the log file
+     * @return the path of the log file
+     * @throws IllegalArgumentException if the name contains path elements or the file is no regular file
+     */
+    static Path resolve(String fileName) {
+        checkNotNull(fileName, "fileName");
+
+        String trimmedFileName = fileName.trim();
+        if (trimmedFileName.isEmpty()) {
+            throw new IllegalArgumentException("The file name for logging must not be empty.");
+        }
+
+        Path normalizedPath = Path.of(trimmedFileName).normalize();
+        if (normalizedPath.isAbsolute() || normalizedPath.getNameCount() != 1) {
+            throw new IllegalArgumentException("The file name for logging must not contain path elements.");
+        }
+
+        String normalizedFileName = normalizedPath.toString();
+        if (!normalizedFileName.endsWith(".log")) {
+            normalizedFileName = normalizedFileName + ".log";
+        }
+
+        Path logFilePath = Path.of(System.getProperty("user.dir"), normalizedFileName).normalize();
+        if (Files.isSymbolicLink(logFilePath)) {
+            throw new IllegalArgumentException("The log file must not be a symbolic link.");
+        }
+        if (Files.exists(logFilePath, LinkOption.NOFOLLOW_LINKS) && !Files.isRegularFile(logFilePath, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IllegalArgumentException("The log target must be a regular file.");
+        }
+        return logFilePath;
+    }
+
+    /**
+     * Appends the specified entry followed by a line separator.
+     *
+     * @param entry the log entry
+     * @throws IOException if an I/O error occurs, including a failed write of the flush timer
+     */
+    @Override
+    public synchronized void write(CharSequence entry) throws IOException {
+        if (nonNull(timerFailure)) {
+            IOException failure = timerFailure;
+            timerFailure = null;
+            throw failure;
+        }
+
+        encode(entry);
+        encode(NEW_LINE);
+        if (flushPolicy == FlushPolicy.LINE) {
+            flush();
+        }
+    }
+
+    /**
+     * Is called when a command is completed, writes the buffered entries if the flush policy is {@link FlushPolicy#COMMAND}.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void commandCompleted() throws IOException {
+        if (flushPolicy == FlushPolicy.COMMAND) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered entries to the log file, the file is rotated before if it would exceed its maximum size.
+     *
+     * @throws IOException if an I/O error occurs, including a failed compression of a rotated segment
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        rotateIfExceeded(buffer.position());
+
+        buffer.flip();
+        size += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        if (isSynced) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Appends the specified bytes unchanged after the buffered entries.
+     *
+     * @param bytes the bytes to append, the buffer is consumed
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void writeBytes(ByteBuffer bytes) throws IOException {
+        flush();
+        rotateIfExceeded(bytes.remaining());
+
+        size += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        if (isSynced) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Appends the specified region of a file unchanged after the buffered entries, the region is transferred without
+     * copying it into the heap.
+     *
+     * @param source   the file
+     * @param position the position of the region in the file
+     * @param count    the number of bytes of the region
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void transferFrom(FileChannel source, long position, long count) throws IOException {
+        flush();
+        rotateIfExceeded(count);
+
+        long transferred = 0;
+        while (transferred < count) {
+            long length = source.transferTo(position + transferred, count - transferred, channel);
+            if (length <= 0) {
+                break;
+            }
+            transferred += length;
+        }
+        size += transferred;
+        if (isSynced) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Writes the buffered entries, stops the flush timer, closes the channel and waits for a pending compression.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (nonNull(timer)) {
+            timer.shutdown();
+        }
+        synchronized (this) {
+            try {
+                flush();
+            } finally {
+                channel.close();
+                if (nonNull(compressor)) {
+                    compressor.shutdown();
+                }
+            }
+            awaitCompression();
+        }
+    }
+
+    // #################################################################################################################
+    private void encode(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else {
+                break;
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            flush();
+        }
+    }
+
+    private void rotateIfExceeded(long length) throws IOException {
+        if (nonNull(rotation) && size > 0 && size + length > rotation.getMaxFileSize()) {
+            rotate();
+        }
+    }
+
+    private void rotate() throws IOException {
+        Path rotated = segment(1, false);
+        channel.close();
+        try {
+            awaitCompression();
+
+            int maxFiles = rotation.getMaxFiles();
+            Files.deleteIfExists(segment(maxFiles, false));
+            Files.deleteIfExists(segment(maxFiles, true));
+            for (int index = maxFiles - 1; index > 0; index--) {
+                moveIfExists(segment(index, false), segment(index + 1, false));
+                moveIfExists(segment(index, true), segment(index + 1, true));
+            }
+            Files.move(file, rotated, REPLACE_EXISTING);
+            size = 0;
+        } finally {
+            // the log stays writable if the rotation fails, the next flush tries again
+            channel = open(file);
+        }
+        if (nonNull(compressor)) {
+            compression = compressor.submit(() -> compress(rotated));
+        }
+    }
+
+    private Path segment(int index, boolean isCompressed) {
+        return file.resolveSibling(file.getFileName() + "." + index + (isCompressed ? ".gz" : ""));
+    }
+
+    private static void moveIfExists(Path source, Path target) throws IOException {
+        if (Files.exists(source, LinkOption.NOFOLLOW_LINKS)) {
+            Files.move(source, target, REPLACE_EXISTING);
+        }
+    }
+
+    private static Void compress(Path source) throws IOException {
+        Path target = source.resolveSibling(source.getFileName() + ".gz");
+        Files.deleteIfExists(target);
+        try (InputStream in = Files.newInputStream(source, LinkOption.NOFOLLOW_LINKS);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target, CREATE_NEW, WRITE, LinkOption.NOFOLLOW_LINKS))) {
+            in.transferTo(out);
+        }
+        Files.delete(source);
+        return null;
+    }
+
+    private void awaitCompression() throws IOException {
+        if (isNull(compression)) {
+            return;
+        }
+
+        try {
+            compression.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing the rotated log file.");
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof IOException cause ? cause : new IOException(ex.getCause());
+        } finally {
+            compression = null;
+        }
+    }
+
+    private synchronized void flushByTimer() {
+        try {
+            flush();
+        } catch (IOException ex) {
+            // reported by the next write
+            timerFailure = ex;
+        }
+    }
+}
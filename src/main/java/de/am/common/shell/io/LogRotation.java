@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Locale;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_LOG_MAX_FILES;
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code LogRotation} specifies when a log file is rotated and how many rotated segments are kept.<p>
+ * If the log file would exceed the maximum file size, it is renamed to {@code <name>.1} and a new file is
+ * started, older segments are shifted to {@code <name>.2}, {@code <name>.3} and so on. Segments beyond
+ * the maximum number of files are deleted. Compressed segments are written as {@code <name>.1.gz} by a background thread.
+ *
+ * @author Martin Absmeier
+ */
+@Getter
+public final class LogRotation {
+
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final boolean isCompressed;
+
+    /**
+     * Creates a new instance of {@link LogRotation} class.
+     *
+     * @param maxFileSize  the maximum size in bytes of the log file, must be greater than zero
+     * @param maxFiles     the number of rotated segments kept, {@link de.am.common.shell.ShellConstants#DEFAULT_LOG_MAX_FILES} if null
+     * @param isCompressed true if the rotated segments are compressed with gzip
+     */
+    @Builder
+    public LogRotation(Long maxFileSize, Integer maxFiles, boolean isCompressed) {
+        checkNotNull(maxFileSize, "maxFileSize");
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("The maximum file size must be greater than zero.");
+        }
+        int files = isNull(maxFiles) ? DEFAULT_LOG_MAX_FILES : maxFiles;
+        if (files <= 0) {
+            throw new IllegalArgumentException("The maximum number of files must be greater than zero.");
+        }
+
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = files;
+        this.isCompressed = isCompressed;
+    }
+
+    /**
+     * Parses a file size in bytes, optionally followed by the unit {@code KB}, {@code MB} or {@code GB} (e.g. {@code 10MB}).
+     *
+     * @param size the file size
+     * @return the size in bytes
+     * @throws IllegalArgumentException if the size is malformed
+     */
+    public static long parseSize(String size) {
+        checkNotNull(size, "size");
+
+        String value = size.trim().toUpperCase(Locale.ROOT);
+        long factor = 1;
+        if (value.endsWith("KB")) {
+            factor = 1L << 10;
+        } else if (value.endsWith("MB")) {
+            factor = 1L << 20;
+        } else if (value.endsWith("GB")) {
+            factor = 1L << 30;
+        }
+        if (factor > 1) {
+            value = value.substring(0, value.length() - 2).trim();
+        }
+        try {
+            return Math.multiplyExact(Long.parseLong(value), factor);
+        } catch (NumberFormatException | ArithmeticException ex) {
+            throw new IllegalArgumentException("Invalid file size [" + size + "].", ex);
+        }
+    }
+}
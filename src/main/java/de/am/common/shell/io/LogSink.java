@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_LOG_BUFFER_SIZE;
+
+/**
+ * {@code LogSink} is the interface of the targets the session log entries of {@link DefaultOutputProvider} are written to.
+ *
+ * @author Martin Absmeier
+ */
+public interface LogSink extends Closeable, Flushable {
+
+    /**
+     * Appends the specified entry followed by a line separator.
+     *
+     * @param entry the log entry
+     * @throws IOException if an I/O error occurs
+     */
+    void write(CharSequence entry) throws IOException;
+
+    /**
+     * Is called when a command is completed, the sink may write its buffered entries.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void commandCompleted() throws IOException;
+
+    /**
+     * Appends the specified bytes unchanged, e.g. the content of a file returned by a command.
+     *
+     * @param bytes the bytes to append, the buffer is consumed
+     * @throws IOException                   if an I/O error occurs
+     * @throws UnsupportedOperationException if the sink only supports text entries
+     */
+    default void writeBytes(ByteBuffer bytes) throws IOException {
+        throw new UnsupportedOperationException("The log sink does not support raw content.");
+    }
+
+    /**
+     * Appends the specified region of a file unchanged.<p>
+     * The default implementation reads the region in chunks and passes them to {@link #writeBytes(ByteBuffer)}, sinks
+     * writing to a channel should transfer the region without copying it.
+     *
+     * @param source   the file
+     * @param position the position of the region in the file
+     * @param count    the number of bytes of the region
+     * @throws IOException if an I/O error occurs
+     */
+    default void transferFrom(FileChannel source, long position, long count) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(count, DEFAULT_LOG_BUFFER_SIZE));
+        long end = position + count;
+        long current = position;
+        while (current < end) {
+            chunk.clear().limit((int) Math.min(chunk.capacity(), end - current));
+            int read = source.read(chunk, current);
+            if (read < 0) {
+                return;
+            }
+            current += read;
+            chunk.flip();
+            writeBytes(chunk);
+        }
+    }
+}
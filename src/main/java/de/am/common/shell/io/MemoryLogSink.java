@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import lombok.Builder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_MEMORY_LOG_CAPACITY;
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code MemoryLogSink} keeps the latest log entries in memory, e.g. to show the recent output of a session.<p>
+ * The entries are stored in a ring of fixed capacity, if it is full the oldest entry is overwritten. The sink is thread
+ * safe.
+ *
+ * @author Martin Absmeier
+ */
+public final class MemoryLogSink implements LogSink {
+
+    private final String[] entries;
+    private int head;
+    private int size;
+
+    /**
+     * Creates a new instance of {@link MemoryLogSink} class.
+     *
+     * @param capacity the number of entries kept, {@link de.am.common.shell.ShellConstants#DEFAULT_MEMORY_LOG_CAPACITY} if null
+     */
+    @Builder
+    public MemoryLogSink(Integer capacity) {
+        int length = isNull(capacity) ? DEFAULT_MEMORY_LOG_CAPACITY : capacity;
+        if (length <= 0) {
+            throw new IllegalArgumentException("The capacity must be greater than zero.");
+        }
+        this.entries = new String[length];
+    }
+
+    /**
+     * Stores the specified entry, the oldest entry is overwritten if the sink is full.
+     *
+     * @param entry the log entry
+     */
+    @Override
+    public synchronized void write(CharSequence entry) {
+        checkNotNull(entry, "entry");
+
+        entries[(head + size) % entries.length] = entry.toString();
+        if (size < entries.length) {
+            size++;
+        } else {
+            head = (head + 1) % entries.length;
+        }
+    }
+
+    /**
+     * Returns a copy of the stored entries, the oldest entry first.
+     *
+     * @return the stored entries
+     */
+    public synchronized List<String> getEntries() {
+        List<String> result = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            result.add(entries[(head + index) % entries.length]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of stored entries.
+     *
+     * @return the number of stored entries
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Removes all stored entries.
+     */
+    public synchronized void clear() {
+        for (int index = 0; index < size; index++) {
+            entries[(head + index) % entries.length] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public void commandCompleted() {
+        // nothing buffered
+    }
+
+    @Override
+    public void flush() {
+        // nothing buffered
+    }
+
+    @Override
+    public void close() {
+        // the entries are still available
+    }
+}
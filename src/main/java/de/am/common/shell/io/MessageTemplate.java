@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import java.text.FieldPosition;
+import java.text.MessageFormat;
+
+import static de.am.common.shell.ShellConstants.ANSI_RESET;
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code MessageTemplate} is a compiled output pattern together with its ANSI colour.<p>
+ * A message is formatted once into a reused buffer, the result contains the colour codes for the console and provides
+ * the plain text without any ANSI escape sequences for log files. The template is thread safe.
+ *
+ * @author Martin Absmeier
+ */
+final class MessageTemplate {
+
+    private static final char ESCAPE = '\u001B';
+
+    private final MessageFormat format;
+    private final String prefix;
+    private final String suffix;
+    private final FieldPosition position;
+    private final StringBuffer buffer;
+
+    /**
+     * Creates a new instance of {@link MessageTemplate} class.
+     *
+     * @param pattern    the pattern of the message, see {@link MessageFormat}
+     * @param ansiColour the colour in ANSI format, null if the message is not coloured
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    MessageTemplate(String pattern, String ansiColour) {
+        this.format = new MessageFormat(pattern);
+        this.prefix = isNull(ansiColour) ? "" : ansiColour;
+        this.suffix = isNull(ansiColour) ? "" : ANSI_RESET;
+        this.position = new FieldPosition(0);
+        this.buffer = new StringBuffer();
+    }
+
+    /**
+     * Formats the specified arguments.
+     *
+     * @param arguments the arguments
+     * @param isNewLine true if the message is followed by a line separator
+     * @return the formatted message
+     * @throws IllegalArgumentException if an argument is not of the type expected by the pattern
+     */
+    synchronized Message format(Object[] arguments, boolean isNewLine) {
+        try {
+            buffer.append(prefix);
+            format.format(arguments, buffer, position);
+            int end = buffer.length();
+            buffer.append(suffix);
+            if (isNewLine) {
+                buffer.append(NEW_LINE);
+            }
+            return new Message(buffer.toString(), prefix.length(), end);
+        } finally {
+            buffer.setLength(0);
+            if (buffer.capacity() > DEFAULT_WRITE_BUFFER_SIZE) {
+                buffer.trimToSize();
+            }
+        }
+    }
+
+    /**
+     * Removes the ANSI escape sequences of the specified text.
+     *
+     * @param text the text
+     * @return the text without escape sequences, the text itself if it does not contain any
+     */
+    static String stripAnsi(String text) {
+        int escape = text.indexOf(ESCAPE);
+        if (escape < 0) {
+            return text;
+        }
+
+        StringBuilder result = new StringBuilder(text.length()).append(text, 0, escape);
+        int index = escape;
+        while (index < text.length()) {
+            char character = text.charAt(index++);
+            if (character != ESCAPE) {
+                result.append(character);
+            } else if (index < text.length() && text.charAt(index) == '[') {
+                // skip the control sequence up to its final byte
+                index++;
+                while (index < text.length() && (text.charAt(index) < '@' || text.charAt(index) > '~')) {
+                    index++;
+                }
+                index++;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * A formatted message.
+     *
+     * @param text  the text written to the console, including the colour codes and line separator
+     * @param start the start of the message without colour codes in {@code text}
+     * @param end   the end of the message without colour codes in {@code text}
+     */
+    record Message(String text, int start, int end) {
+
+        /**
+         * Returns the message without colour codes and line separator.
+         *
+         * @return the plain text of the message
+         */
+        String plainText() {
+            return stripAnsi(start == 0 && end == text.length() ? text : text.substring(start, end));
+        }
+    }
+}
@@ -15,8 +15,19 @@
  */
 package de.am.common.shell.io;
 
+import de.am.common.shell.exception.ShellException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
+
 /**
  * {@code OutputProvider} is the interface off all output providers.<p>
  * A provider is only responsible for the output on the console, not for the output in a log file.
@@ -52,6 +63,49 @@ public interface OutputProvider {
      */
     void println(String pattern, String ansiColour, Object... arguments);
 
+    /**
+     * Writes the content of the specified channel, e.g. a file returned by a command, until its end is reached.<p>
+     * The default implementation decodes the content as UTF-8 in chunks and prints them, providers writing to a channel
+     * should transfer the content without decoding it. The channel is not closed.
+     *
+     * @param content the content
+     * @throws ShellException if the content can not be read
+     */
+    default void write(ReadableByteChannel content) {
+        ByteBuffer bytes = ByteBuffer.allocate(DEFAULT_WRITE_BUFFER_SIZE);
+        CharBuffer chars = CharBuffer.allocate(DEFAULT_WRITE_BUFFER_SIZE);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try {
+            boolean isEnd = false;
+            while (!isEnd) {
+                isEnd = content.read(bytes) < 0;
+                bytes.flip();
+                decoder.decode(bytes, chars, isEnd);
+                if (isEnd) {
+                    decoder.flush(chars);
+                }
+                bytes.compact();
+                chars.flip();
+                if (chars.hasRemaining()) {
+                    print("{0}", null, chars.toString());
+                }
+                chars.clear();
+            }
+        } catch (IOException ex) {
+            throw new ShellException("Can not read content.", ex);
+        }
+    }
+
+    /**
+     * Writes the buffered output to the console, e.g. before the shell waits for input.<p>
+     * Providers writing directly to the console do not need to implement this method.
+     */
+    default void flush() {
+        // nothing buffered
+    }
+
     /**
      * Is called if the shell is terminated. Used to close resources of the output provider.
      */
@@ -65,6 +119,22 @@ public interface OutputProvider {
      */
     void enableLogging(String fileName);
 
+    /**
+     * Turns on writing to a log file rotated as specified by {@code rotation}, the file specified by {@code fileName}
+     * is created in "user.dir". The file name must not contain path elements.<p>
+     * Providers not supporting the rotation of log files do not need to implement this method.
+     *
+     * @param fileName the name of the log file
+     * @param rotation specifies when the log file is rotated, never if null
+     * @throws UnsupportedOperationException if a rotation is specified but not supported by the provider
+     */
+    default void enableLogging(String fileName, LogRotation rotation) {
+        if (rotation != null) {
+            throw new UnsupportedOperationException("The output provider does not support the rotation of log files.");
+        }
+        enableLogging(fileName);
+    }
+
     /**
      * Turns off writing to a log file.
      */
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.util.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_RECORDING_MEMORY_SIZE;
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code RecordingOutputProvider} records the printed output, so it can be written later to another
+ * {@link OutputProvider} in the original order with {@link #replay(OutputProvider)}.<p>
+ * It is used to keep the output of concurrently executed commands in the order of their command lines. Switching the
+ * logging and {@link #exit()} are passed to the delegate immediately.<p>
+ * Up to a maximum number of characters the output is kept in memory. Further output and all content written with
+ * {@link #write(ReadableByteChannel)} is spooled to a temporary file, so a large result is never held in the heap. The
+ * file is deleted when the recording is replayed.
+ *
+ * @author Martin Absmeier
+ */
+public class RecordingOutputProvider implements OutputProvider {
+
+    private static final byte TEXT = 0;
+    private static final byte TEXT_LINE = 1;
+    private static final byte CONTENT = 2;
+    private static final int HEADER_SIZE = 1 + Long.BYTES;
+
+    private final OutputProvider delegate;
+    private final List<Entry> entries;
+    private final int memorySize;
+    private long recordedSize;
+    private FileChannel spool;
+
+    /**
+     * Creates a new instance of {@link RecordingOutputProvider} class keeping up to
+     * {@link de.am.common.shell.ShellConstants#DEFAULT_RECORDING_MEMORY_SIZE} characters in memory.
+     *
+     * @param delegate the provider receiving the calls that are not recorded
+     */
+    public RecordingOutputProvider(OutputProvider delegate) {
+        this(delegate, DEFAULT_RECORDING_MEMORY_SIZE);
+    }
+
+    /**
+     * Creates a new instance of {@link RecordingOutputProvider} class.
+     *
+     * @param delegate   the provider receiving the calls that are not recorded
+     * @param memorySize the number of characters kept in memory before the output is spooled to a temporary file
+     * @throws IllegalArgumentException if {@code memorySize} is negative
+     */
+    public RecordingOutputProvider(OutputProvider delegate, int memorySize) {
+        Preconditions.checkNotNull(delegate, "delegate");
+        if (memorySize < 0) {
+            throw new IllegalArgumentException("The memory size of the recording must not be negative.");
+        }
+        this.delegate = delegate;
+        this.memorySize = memorySize;
+        this.entries = new ArrayList<>();
+    }
+
+    @Override
+    public void print(String pattern, String ansiColour, Object... arguments) {
+        record(pattern, ansiColour, arguments, false);
+    }
+
+    @Override
+    public void println(String pattern, String ansiColour, Object... arguments) {
+        record(pattern, ansiColour, arguments, true);
+    }
+
+    /**
+     * Spools the content of the specified channel to the temporary file until its end is reached, the channel is not
+     * closed.
+     *
+     * @param content the content
+     * @throws ShellException if the content can not be read or spooled
+     */
+    @Override
+    public void write(ReadableByteChannel content) {
+        try {
+            FileChannel file = spool();
+            long start = file.position();
+            writeFully(file, ByteBuffer.allocate(HEADER_SIZE).put(CONTENT).putLong(0).flip());
+            long length = 0;
+            ByteBuffer bytes = ByteBuffer.allocate(DEFAULT_WRITE_BUFFER_SIZE);
+            while (content.read(bytes) >= 0) {
+                bytes.flip();
+                length += bytes.remaining();
+                writeFully(file, bytes);
+                bytes.clear();
+            }
+            file.write(ByteBuffer.allocate(Long.BYTES).putLong(0, length), start + 1);
+        } catch (IOException ex) {
+            throw new ShellException("Can not record content.", ex);
+        }
+    }
+
+    @Override
+    public void exit() {
+        delegate.exit();
+    }
+
+    @Override
+    public void enableLogging(String fileName) {
+        delegate.enableLogging(fileName);
+    }
+
+    @Override
+    public void enableLogging(String fileName, LogRotation rotation) {
+        delegate.enableLogging(fileName, rotation);
+    }
+
+    @Override
+    public void disableLogging() {
+        delegate.disableLogging();
+    }
+
+    /**
+     * Writes the recorded output to the specified provider and clears the recording.
+     *
+     * @param target the provider to write to
+     * @throws ShellException if the spooled output can not be read
+     */
+    public void replay(OutputProvider target) {
+        for (Entry entry : entries) {
+            if (entry.isNewLine()) {
+                target.println(entry.pattern(), entry.ansiColour(), entry.arguments());
+            } else {
+                target.print(entry.pattern(), entry.ansiColour(), entry.arguments());
+            }
+        }
+        entries.clear();
+        recordedSize = 0;
+
+        if (nonNull(spool)) {
+            try (FileChannel file = spool) {
+                spool = null;
+                replaySpool(file, target);
+            } catch (IOException ex) {
+                throw new ShellException("Can not replay recorded output.", ex);
+            }
+        }
+    }
+
+    /**
+     * Returns true if no output is recorded.
+     *
+     * @return true if no output is recorded, false otherwise
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty() && isNull(spool);
+    }
+
+    // #################################################################################################################
+    private void record(String pattern, String ansiColour, Object[] arguments, boolean isNewLine) {
+        Preconditions.checkNotNull(pattern, "pattern");
+        if (isNull(spool)) {
+            recordedSize += estimateLength(pattern, arguments);
+            if (recordedSize <= memorySize) {
+                entries.add(new Entry(pattern, ansiColour, arguments, isNewLine));
+                return;
+            }
+        }
+
+        // formatted like the output providers do, the spooled text is printed unchanged
+        byte[] text = MessageFormat.format(pattern, arguments).getBytes(StandardCharsets.UTF_8);
+        byte[] colour = isNull(ansiColour) ? new byte[0] : ansiColour.getBytes(StandardCharsets.UTF_8);
+        int length = Integer.BYTES + colour.length + text.length;
+        ByteBuffer entry = ByteBuffer.allocate(HEADER_SIZE + length).put(isNewLine ? TEXT_LINE : TEXT).putLong(length)
+            .putInt(isNull(ansiColour) ? -1 : colour.length).put(colour).put(text).flip();
+        try {
+            writeFully(spool(), entry);
+        } catch (IOException ex) {
+            throw new ShellException("Can not record output.", ex);
+        }
+    }
+
+    private FileChannel spool() throws IOException {
+        if (isNull(spool)) {
+            spool = FileChannel.open(Files.createTempFile("shell-output", ".tmp"), READ, WRITE, DELETE_ON_CLOSE);
+        }
+        return spool;
+    }
+
+    private static void replaySpool(FileChannel file, OutputProvider target) throws IOException {
+        long end = file.position();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position < end) {
+            readFully(file, header.clear(), position);
+            byte kind = header.get(0);
+            long length = header.getLong(1);
+            long start = position + HEADER_SIZE;
+            if (kind == CONTENT) {
+                target.write(new SegmentChannel(file, start, start + length));
+            } else {
+                ByteBuffer entry = ByteBuffer.allocate((int) length);
+                readFully(file, entry, start);
+                int colourLength = entry.getInt(0);
+                String colour = colourLength < 0 ? null
+                    : new String(entry.array(), Integer.BYTES, colourLength, StandardCharsets.UTF_8);
+                int textStart = Integer.BYTES + Math.max(colourLength, 0);
+                String text = new String(entry.array(), textStart, entry.capacity() - textStart, StandardCharsets.UTF_8);
+                if (kind == TEXT_LINE) {
+                    target.println("{0}", colour, text);
+                } else {
+                    target.print("{0}", colour, text);
+                }
+            }
+            position = start + length;
+        }
+    }
+
+    private static long estimateLength(String pattern, Object[] arguments) {
+        long length = pattern.length();
+        for (Object argument : arguments) {
+            // other values are referenced by the recording anyway, their text is only produced when replayed
+            length += argument instanceof CharSequence text ? text.length() : Long.BYTES;
+        }
+        return length;
+    }
+
+    private static void writeFully(FileChannel file, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            file.write(bytes);
+        }
+    }
+
+    private static void readFully(FileChannel file, ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            if (file.read(bytes, position + bytes.position()) < 0) {
+                throw new IOException("The recorded output is incomplete.");
+            }
+        }
+    }
+
+    private record Entry(String pattern, String ansiColour, Object[] arguments, boolean isNewLine) {
+    }
+
+    private static final class SegmentChannel implements ReadableByteChannel {
+        private final FileChannel file;
+        private final long end;
+        private long position;
+
+        private SegmentChannel(FileChannel file, long position, long end) {
+            this.file = file;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+
+            int length = (int) Math.min(target.remaining(), end - position);
+            int count = file.read(target.slice(target.position(), length), position);
+            if (count < 0) {
+                return -1;
+            }
+            target.position(target.position() + count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // the spooled file is closed when the recording is replayed
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import java.io.IOException;
+
+/**
+ * {@code ResultRenderer} writes the result of a command to the {@link OutputProvider} instead of printing its
+ * {@code toString()} representation.<p>
+ * Renderers are registered per result type in the {@link ResultRendererRegistry}.
+ *
+ * @param <T> the type of the rendered results
+ * @author Martin Absmeier
+ */
+@FunctionalInterface
+public interface ResultRenderer<T> {
+
+    /**
+     * Renders the specified result.
+     *
+     * @param result the result of a command, never null
+     * @param output the output provider of the shell
+     * @throws IOException if the result can not be read
+     */
+    void render(T result, OutputProvider output) throws IOException;
+}
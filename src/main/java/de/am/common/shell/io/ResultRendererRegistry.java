@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.util.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@code ResultRendererRegistry} resolves the {@link ResultRenderer} of a command result.<p>
+ * Out of the box the content of a returned {@code Path}, {@code byte[]}, {@code ByteBuffer} or
+ * {@code ReadableByteChannel} is written with {@link OutputProvider#write(ReadableByteChannel)}, so a file is streamed
+ * to the console and the log file without holding it in memory. Returned channels are closed after rendering.
+ * Additional renderers can be registered with {@link #register(Class, ResultRenderer)}, the renderer registered last
+ * for a matching type is used.
+ *
+ * @author Martin Absmeier
+ */
+public class ResultRendererRegistry {
+
+    private final List<Registration<?>> renderers = new ArrayList<>();
+
+    /**
+     * Creates a new instance of {@link ResultRendererRegistry} class containing the default renderers.
+     */
+    public ResultRendererRegistry() {
+        register(ReadableByteChannel.class, ResultRendererRegistry::renderChannel);
+        register(ByteBuffer.class, (buffer, output) -> output.write(new ByteBufferChannel(buffer.duplicate())));
+        register(byte[].class, (bytes, output) -> output.write(new ByteBufferChannel(ByteBuffer.wrap(bytes))));
+        register(Path.class, ResultRendererRegistry::renderFile);
+    }
+
+    /**
+     * Registers the {@code renderer} for results of the specified {@code type} and its subtypes.
+     *
+     * @param type     the result type
+     * @param renderer the renderer of the results
+     * @param <T>      the result type
+     * @return this registry
+     */
+    public <T> ResultRendererRegistry register(Class<T> type, ResultRenderer<? super T> renderer) {
+        Preconditions.checkNotNull(type, "type");
+        Preconditions.checkNotNull(renderer, "renderer");
+        renderers.add(new Registration<>(type, renderer));
+        return this;
+    }
+
+    /**
+     * Returns true if a renderer is registered for the type of the specified result.
+     *
+     * @param result the result of a command
+     * @return true if the result is rendered by {@link #render(Object, OutputProvider)}, false otherwise
+     */
+    public boolean canRender(Object result) {
+        return nonNull(find(result));
+    }
+
+    /**
+     * Renders the specified result if a renderer is registered for its type.
+     *
+     * @param result the result of a command
+     * @param output the output provider of the shell
+     * @return true if the result is rendered, false if no renderer is registered for its type
+     * @throws ShellException if the result can not be read
+     */
+    public boolean render(Object result, OutputProvider output) {
+        Preconditions.checkNotNull(output, "output");
+        Registration<?> registration = find(result);
+        if (isNull(registration)) {
+            return false;
+        }
+
+        try {
+            registration.render(result, output);
+        } catch (IOException ex) {
+            throw new ShellException("Can not render result.", ex);
+        }
+        return true;
+    }
+
+    // #################################################################################################################
+    private Registration<?> find(Object result) {
+        if (isNull(result)) {
+            return null;
+        }
+        // later registrations override earlier ones
+        for (int index = renderers.size() - 1; index >= 0; index--) {
+            Registration<?> registration = renderers.get(index);
+            if (registration.type().isInstance(result)) {
+                return registration;
+            }
+        }
+        return null;
+    }
+
+    private static void renderChannel(ReadableByteChannel channel, OutputProvider output) throws IOException {
+        try (channel) {
+            output.write(channel);
+        }
+    }
+
+    private static void renderFile(Path file, OutputProvider output) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            output.write(channel);
+        }
+    }
+
+    private record Registration<T>(Class<T> type, ResultRenderer<? super T> renderer) {
+
+        private void render(Object result, OutputProvider output) throws IOException {
+            renderer.render(type.cast(result), output);
+        }
+    }
+
+    private static final class ByteBufferChannel implements ReadableByteChannel {
+        private final ByteBuffer content;
+        private boolean isOpen = true;
+
+        private ByteBufferChannel(ByteBuffer content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read(ByteBuffer target) {
+            if (!content.hasRemaining()) {
+                return -1;
+            }
+
+            int length = Math.min(content.remaining(), target.remaining());
+            target.put(target.position(), content, content.position(), length);
+            target.position(target.position() + length);
+            content.position(content.position() + length);
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return isOpen;
+        }
+
+        @Override
+        public void close() {
+            isOpen = false;
+        }
+    }
+}
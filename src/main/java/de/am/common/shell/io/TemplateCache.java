@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_TEMPLATE_CACHE_SIZE;
+import static java.util.Objects.isNull;
+
+/**
+ * {@code TemplateCache} caches the compiled {@link MessageTemplate} of every pattern and colour.<p>
+ * At most {@link de.am.common.shell.ShellConstants#DEFAULT_TEMPLATE_CACHE_SIZE} templates are cached, if the cache is
+ * full the least recently used template is removed. The cache is thread safe.
+ *
+ * @author Martin Absmeier
+ */
+final class TemplateCache {
+
+    private final Map<Key, MessageTemplate> templates = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, MessageTemplate> eldest) {
+            return size() > DEFAULT_TEMPLATE_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Returns the compiled template of the specified pattern and colour.
+     *
+     * @param pattern    the pattern of the message
+     * @param ansiColour the colour in ANSI format, null if the message is not coloured
+     * @return the compiled template
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    MessageTemplate get(String pattern, String ansiColour) {
+        Key key = new Key(pattern, ansiColour);
+        MessageTemplate template;
+        synchronized (templates) {
+            template = templates.get(key);
+        }
+        if (isNull(template)) {
+            // compiled outside the lock, a template compiled twice by concurrent callers is equal
+            template = new MessageTemplate(pattern, ansiColour);
+            synchronized (templates) {
+                templates.put(key, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Returns the number of cached templates.
+     *
+     * @return the number of cached templates
+     */
+    int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    // #################################################################################################################
+    private record Key(String pattern, String ansiColour) {
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.job;
+
+import de.am.common.shell.io.RecordingOutputProvider;
+import lombok.Getter;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * {@code Job} is a command running in the background, it is tracked by the {@link JobTable} of the shell.
+ *
+ * @author Martin Absmeier
+ */
+public class Job {
+    @Getter
+    private final int id;
+    @Getter
+    private final String commandLine;
+    @Getter
+    private final Future<?> future;
+    @Getter
+    private final RecordingOutputProvider output;
+    private final long startTimeNanos;
+    private final AtomicBoolean isReported;
+    private volatile long endTimeNanos;
+
+    /**
+     * Creates a new instance of {@link Job} class.
+     *
+     * @param id          the identifier of the job
+     * @param commandLine the command line started the job
+     * @param future      the future of the job
+     * @param output      the recorded output of the job or null if the job does not print
+     */
+    Job(int id, String commandLine, Future<?> future, RecordingOutputProvider output) {
+        this.id = id;
+        this.commandLine = commandLine;
+        this.future = future;
+        this.output = output;
+        this.startTimeNanos = System.nanoTime();
+        this.isReported = new AtomicBoolean();
+    }
+
+    /**
+     * Returns the state of the job.
+     *
+     * @return the state of the future of the job
+     */
+    public Future.State getState() {
+        return future.state();
+    }
+
+    /**
+     * Returns true if the job is completed, failed or cancelled.
+     *
+     * @return true if the job is done, false otherwise
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Returns the runtime of the job, if the job is done the time until its completion was recognized.
+     *
+     * @return the runtime in milliseconds
+     */
+    public long getRuntimeMillis() {
+        long endTime = endTimeNanos;
+        if (endTime == 0) {
+            endTime = isDone() ? markDone() : System.nanoTime();
+        }
+        return NANOSECONDS.toMillis(endTime - startTimeNanos);
+    }
+
+    /**
+     * Marks the job as reported to the user, the completion of a job is reported once.
+     *
+     * @return true if the job was not reported before, false otherwise
+     */
+    public boolean markReported() {
+        return isReported.compareAndSet(false, true);
+    }
+
+    @Override
+    public String toString() {
+        return "[%d] %s %d ms %s".formatted(id, getState(), getRuntimeMillis(), commandLine);
+    }
+
+    // #################################################################################################################
+    long markDone() {
+        if (endTimeNanos == 0) {
+            endTimeNanos = System.nanoTime();
+        }
+        return endTimeNanos;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.job;
+
+import de.am.common.shell.io.RecordingOutputProvider;
+import de.am.common.shell.util.Preconditions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@code JobTable} tracks the commands running in the background of the shell.<p>
+ * A job is added when a command returns a {@link Future}, it stays in the table until its result was fetched or its
+ * completion was reported. All methods are thread safe.
+ *
+ * @author Martin Absmeier
+ */
+public class JobTable {
+
+    private final Map<Integer, Job> jobs;
+    private final AtomicInteger nextId;
+
+    /**
+     * Creates a new instance of {@link JobTable} class.
+     */
+    public JobTable() {
+        this.jobs = new ConcurrentSkipListMap<>();
+        this.nextId = new AtomicInteger(1);
+    }
+
+    /**
+     * Adds a job for the specified future.<p>
+     * If the future is a {@link CompletableFuture} the {@code completionListener} is called as soon as it is done,
+     * the completion of other futures is only recognized when the job table is queried.
+     *
+     * @param commandLine        the command line started the job
+     * @param future             the future of the job
+     * @param completionListener the listener called when a {@link CompletableFuture} is done, may be null
+     * @return the added job
+     */
+    public Job add(String commandLine, Future<?> future, Consumer<Job> completionListener) {
+        return add(commandLine, future, null, completionListener);
+    }
+
+    /**
+     * Adds a job for the specified future whose output is recorded, see {@link #add(String, Future, Consumer)}.
+     *
+     * @param commandLine        the command line started the job
+     * @param future             the future of the job
+     * @param output             the recorded output of the job, may be null
+     * @param completionListener the listener called when a {@link CompletableFuture} is done, may be null
+     * @return the added job
+     */
+    public Job add(String commandLine, Future<?> future, RecordingOutputProvider output, Consumer<Job> completionListener) {
+        Preconditions.checkNotNull(future, "future");
+
+        Job job = new Job(nextId.getAndIncrement(), commandLine, future, output);
+        jobs.put(job.getId(), job);
+        if (future instanceof CompletableFuture<?> completableFuture) {
+            completableFuture.whenComplete((result, failure) -> {
+                job.markDone();
+                if (!isNull(completionListener)) {
+                    completionListener.accept(job);
+                }
+            });
+        }
+        return job;
+    }
+
+    /**
+     * Returns the job with the specified identifier.
+     *
+     * @param id the identifier of the job
+     * @return the job
+     * @throws IllegalArgumentException if no job with the identifier exists
+     */
+    public Job get(int id) {
+        Job job = jobs.get(id);
+        if (isNull(job)) {
+            throw new IllegalArgumentException("Job [" + id + "] not found.");
+        }
+        return job;
+    }
+
+    /**
+     * Removes the job with the specified identifier.
+     *
+     * @param id the identifier of the job
+     */
+    public void remove(int id) {
+        jobs.remove(id);
+    }
+
+    /**
+     * Returns all jobs ordered by their identifier.
+     *
+     * @return the jobs
+     */
+    public List<Job> getJobs() {
+        return List.copyOf(jobs.values());
+    }
+
+    /**
+     * Returns the number of jobs not done yet.
+     *
+     * @return the number of running jobs
+     */
+    public int getRunningCount() {
+        return (int) jobs.values().stream().filter(job -> !job.isDone()).count();
+    }
+
+    /**
+     * Cancels all running jobs, see {@link Future#cancel(boolean)}.
+     *
+     * @return the number of cancelled jobs
+     */
+    public int cancelAll() {
+        int cancelled = 0;
+        for (Job job : jobs.values()) {
+            if (!job.isDone() && job.getFuture().cancel(true)) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Returns the done jobs whose completion was not reported yet, marks them as reported and removes them from the job
+     * table.
+     *
+     * @return the jobs to report ordered by their identifier
+     */
+    public List<Job> takeUnreported() {
+        List<Job> unreported = jobs.values().stream()
+            .filter(Job::isDone)
+            .filter(Job::markReported)
+            .toList();
+        unreported.forEach(job -> jobs.remove(job.getId()));
+        return unreported;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.server;
+
+import de.am.common.shell.Shell;
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.io.ChannelInputProvider;
+import de.am.common.shell.io.DefaultOutputProvider;
+import de.am.common.shell.io.InputProvider;
+import de.am.common.shell.io.OutputProvider;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static de.am.common.shell.ShellConstants.DEFAULT_MAX_SESSIONS;
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static de.am.common.shell.ShellConstants.SERVER_BACKLOG;
+import static de.am.common.shell.ShellConstants.SESSION_BUFFER_SIZE;
+import static de.am.common.shell.util.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+/**
+ * {@code ShellServer} serves a {@link Shell} to many clients connected over TCP at the same time.<p>
+ * The server only listens on the loopback address. Every connection is a session of its own executed by a virtual
+ * thread, see {@link Shell#executeSession(InputProvider, OutputProvider)}. The sessions share the commands and their
+ * handlers, but have their own background jobs, last exception and display settings. An idle session blocks its
+ * virtual thread only, so thousands of sessions are served by a few carrier threads. A session ends when the client
+ * closes the connection or executes the {@code exit} command, connections exceeding the maximum number of sessions
+ * are rejected.
+ *
+ * @author Martin Absmeier
+ */
+public class ShellServer implements Closeable {
+
+    private static final String REJECTED_MESSAGE = "Too many sessions, try again later." + NEW_LINE;
+    private static final Logger LOGGER = Logger.getLogger(ShellServer.class.getName());
+
+    @Getter
+    private final Shell shell;
+    @Getter
+    private final int port;
+    @Getter
+    private final int maxSessions;
+    private final ServerSocketChannel server;
+    private final Map<SocketChannel, Thread> sessions;
+    private Thread acceptor;
+
+    /**
+     * Creates a new instance of {@link ShellServer} class and binds it to the loopback address.
+     *
+     * @param shell       the shell executing the commands of the sessions
+     * @param port        the port to listen on, a free port is chosen if null or 0
+     * @param maxSessions the maximum number of sessions served at the same time, {@link de.am.common.shell.ShellConstants#DEFAULT_MAX_SESSIONS} if null
+     * @throws IOException if the server can not be bound
+     */
+    @Builder
+    public ShellServer(Shell shell, Integer port, Integer maxSessions) throws IOException {
+        checkNotNull(shell, "shell");
+        int serverPort = isNull(port) ? 0 : port;
+        if (serverPort < 0 || serverPort > 0xFFFF) {
+            throw new IllegalArgumentException("The port must be between 0 and 65535.");
+        }
+        this.maxSessions = isNull(maxSessions) ? DEFAULT_MAX_SESSIONS : maxSessions;
+        if (this.maxSessions < 1) {
+            throw new IllegalArgumentException("The maximum number of sessions must be positive.");
+        }
+
+        this.shell = shell;
+        this.sessions = new ConcurrentHashMap<>();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), serverPort), SERVER_BACKLOG);
+        } catch (IOException ex) {
+            server.close();
+            throw ex;
+        }
+        this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Starts accepting connections, every connection is served by a virtual thread of its own.
+     *
+     * @throws IllegalStateException if the server is already started or closed
+     */
+    public synchronized void start() {
+        if (nonNull(acceptor) || !server.isOpen()) {
+            throw new IllegalStateException("The server is already started or closed.");
+        }
+        acceptor = Thread.ofVirtual().name("shell-server-" + port).start(this::accept);
+    }
+
+    /**
+     * Returns the number of sessions currently served.
+     *
+     * @return the number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns true if the server accepts connections.
+     *
+     * @return true if the server is open, false otherwise
+     */
+    public boolean isOpen() {
+        return server.isOpen();
+    }
+
+    /**
+     * Stops accepting connections, closes the connections of all sessions and waits until the sessions have ended.
+     * The background jobs of the sessions are cancelled, the shell itself is not closed.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException ex) {
+            throw new ShellException("Can not close server.", ex);
+        }
+
+        Thread thread;
+        synchronized (this) {
+            thread = acceptor;
+        }
+        try {
+            if (nonNull(thread)) {
+                thread.join();
+            }
+            // no connection is accepted anymore
+            sessions.keySet().forEach(ShellServer::closeQuietly);
+            for (Thread session : sessions.values()) {
+                session.join();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // #################################################################################################################
+    private void accept() {
+        while (server.isOpen()) {
+            SocketChannel socket;
+            try {
+                socket = server.accept();
+            } catch (IOException ex) {
+                // the server was closed
+                return;
+            }
+
+            if (sessions.size() >= maxSessions) {
+                reject(socket);
+            } else {
+                Thread session = Thread.ofVirtual().name("shell-session-" + port).unstarted(() -> serve(socket));
+                sessions.put(socket, session);
+                session.start();
+            }
+        }
+    }
+
+    private void serve(SocketChannel socket) {
+        try (socket) {
+            InputProvider input = ChannelInputProvider.builder()
+                .channel(new SessionInput(socket))
+                .bufferSize(SESSION_BUFFER_SIZE)
+                .maxCommandLength(shell.getMaxCommandLength())
+                .build();
+            OutputProvider output = DefaultOutputProvider.builder()
+                .isBuffered(true)
+                .console(socket)
+                .bufferSize(SESSION_BUFFER_SIZE)
+                .build();
+            try {
+                shell.executeSession(input, output);
+            } catch (RuntimeException | Error ex) {
+                reportFailure(socket, output, ex);
+            }
+        } catch (IOException ex) {
+            // the connection is closed anyway
+        } finally {
+            sessions.remove(socket);
+        }
+    }
+
+    private void reportFailure(SocketChannel socket, OutputProvider output, Throwable failure) {
+        // a session failing because its connection was closed or lost is no error
+        boolean isConnectionLost = !socket.isOpen() || failure.getCause() instanceof IOException;
+        Level level = isConnectionLost ? FINE : WARNING;
+        LOGGER.log(level, failure, () -> "Session of shell server on port " + port + " failed.");
+        try {
+            output.println("Session failed: {0}", ANSI_WHITE_BRIGHT, failure.toString());
+            output.flush();
+        } catch (RuntimeException ex) {
+            // the connection is lost
+            failure.addSuppressed(ex);
+        }
+    }
+
+    private static void reject(SocketChannel socket) {
+        try (socket) {
+            socket.write(ByteBuffer.wrap(REJECTED_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException ex) {
+            // the client is rejected anyway
+        }
+    }
+
+    private static void closeQuietly(SocketChannel socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            // the session ends anyway
+        }
+    }
+
+    /**
+     * The input of a session, closing it shuts down the input of the connection only, so the output of the
+     * {@code exit} command is still sent to the client.
+     */
+    private record SessionInput(SocketChannel socket) implements ReadableByteChannel {
+
+        @Override
+        public int read(ByteBuffer buffer) throws IOException {
+            return socket.read(buffer);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return socket.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (socket.isOpen()) {
+                socket.shutdownInput();
+            }
+        }
+    }
+}
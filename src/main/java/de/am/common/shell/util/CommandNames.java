@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.util;
+
+import static de.am.common.shell.ShellConstants.COMMAND_REGISTRY_SUFFIX;
+import static de.am.common.shell.ShellConstants.SPLIT_REGEX;
+import static java.util.Arrays.stream;
+
+/**
+ * {@code CommandNames} provides the naming rules shared by the runtime command registration and the annotation processor
+ * generating command registries at build time.
+ *
+ * @author Martin Absmeier
+ */
+public final class CommandNames {
+
+    /**
+     * Creates the default shortcut of a command by taking the first letter of each word of the method name
+     * (void selectUser() --- su).
+     *
+     * @param methodName the name of the command method
+     * @return the shortcut
+     */
+    public static String createShortCut(String methodName) {
+        return stream(methodName.split(SPLIT_REGEX))
+            .map(word -> String.valueOf(word.charAt(0)))
+            .reduce("", String::concat);
+    }
+
+    /**
+     * Returns the binary name of the generated command registry of the command handler class with the specified binary
+     * name, e.g. {@code com.acme.Outer$Inner} becomes {@code com.acme.Outer_Inner_CommandRegistry}.
+     *
+     * @param handlerBinaryName the binary name of the command handler class
+     * @return the binary name of the command registry
+     */
+    public static String registryName(String handlerBinaryName) {
+        return handlerBinaryName.replace('$', '_').concat(COMMAND_REGISTRY_SUFFIX);
+    }
+
+    // #################################################################################################################
+    private CommandNames() {
+        // No instance needed
+    }
+}
@@ -15,15 +15,30 @@
  */
 package de.am.common.shell;
 
+import de.am.common.shell.command.CommandLineCache;
+import de.am.common.shell.io.AsyncLogAppender;
+import de.am.common.shell.io.ChannelInputProvider;
+import de.am.common.shell.io.DefaultInputProvider;
+import de.am.common.shell.io.LogFileWriter;
+import de.am.common.shell.io.LogRotation;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 import static de.am.common.shell.ShellConstants.DEFAULT_APP_NAME;
 import static de.am.common.shell.ShellConstants.DEFAULT_DISPLAY_EXCEPTION_DETAILS;
 import static de.am.common.shell.ShellConstants.DEFAULT_DISPLAY_TIME;
 import static de.am.common.shell.ShellConstants.DEFAULT_MAX_COMMAND_LENGTH;
+import static de.am.common.shell.ShellConstants.DEFAULT_MAX_JOBS;
 import static de.am.common.shell.ShellConstants.DEFAULT_MAX_LOG_ENTRY_LENGTH;
+import static de.am.common.shell.ShellConstants.DEFAULT_OUTPUT_BUFFERED;
+import static de.am.common.shell.ShellConstants.DEFAULT_PARSE_CACHE_SIZE;
 import static de.am.common.shell.ShellConstants.DEFAULT_PROMPT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JUnit test cases of {@link ShellConfig} class.
@@ -42,6 +57,21 @@ class ShellConfigTest {
         assertEquals(DEFAULT_DISPLAY_EXCEPTION_DETAILS, config.isExceptionDetailsDisplayed());
         assertEquals(DEFAULT_MAX_COMMAND_LENGTH, config.getMaxCommandLength());
         assertEquals(DEFAULT_MAX_LOG_ENTRY_LENGTH, config.getMaxLogEntryLength());
+        assertNotNull(config.getTypeConverters());
+        assertEquals(DEFAULT_PARSE_CACHE_SIZE, config.getParseCacheSize());
+        assertEquals(CommandLineCache.Eviction.LEAST_RECENTLY_USED, config.getParseCacheEviction());
+        assertEquals(DEFAULT_MAX_JOBS, config.getMaxJobs());
+        assertEquals(Duration.ZERO, config.getCommandTimeout());
+        assertEquals(DEFAULT_OUTPUT_BUFFERED, config.isOutputBuffered());
+        assertEquals(LogFileWriter.FlushPolicy.COMMAND, config.getLogFlushPolicy());
+        assertEquals(false, config.isLogSynced());
+        assertEquals(false, config.isLogAsync());
+        assertEquals(AsyncLogAppender.Overflow.BLOCK, config.getLogOverflow());
+        assertNull(config.getLogRotation());
+        assertEquals(false, config.isFastInput());
+        assertNull(config.getHistoryFile());
+        assertEquals(false, config.isPrefixMatching());
+        assertTrue(config.getInputProvider() instanceof DefaultInputProvider, "Scanner based input expected.");
     }
 
     @Test
@@ -52,6 +82,9 @@ class ShellConfigTest {
         boolean showExceptionDetails = true;
         int maxCommandLength = 100;
         int maxLogEntryLength = 200;
+        int parseCacheSize = 300;
+        int maxJobs = 4;
+        LogRotation rotation = LogRotation.builder().maxFileSize(1024L).build();
 
         ShellConfig config = ShellConfig.builder()
             .prompt(prompt)
@@ -60,6 +93,19 @@ class ShellConfigTest {
             .isExceptionDetailsDisplayed(showExceptionDetails)
             .maxCommandLength(maxCommandLength)
             .maxLogEntryLength(maxLogEntryLength)
+            .parseCacheSize(parseCacheSize)
+            .parseCacheEviction(CommandLineCache.Eviction.FIRST_IN_FIRST_OUT)
+            .maxJobs(maxJobs)
+            .commandTimeout(Duration.ofSeconds(30))
+            .isOutputBuffered(true)
+            .logFlushPolicy(LogFileWriter.FlushPolicy.TIMER)
+            .isLogSynced(true)
+            .isLogAsync(true)
+            .logOverflow(AsyncLogAppender.Overflow.DROP_OLDEST)
+            .logRotation(rotation)
+            .isFastInput(true)
+            .historyFile(Path.of("history"))
+            .isPrefixMatching(true)
             .build();
 
         assertEquals(prompt, config.getPrompt());
@@ -68,5 +114,19 @@ class ShellConfigTest {
         assertEquals(showExceptionDetails, config.isExceptionDetailsDisplayed());
         assertEquals(maxCommandLength, config.getMaxCommandLength());
         assertEquals(maxLogEntryLength, config.getMaxLogEntryLength());
+        assertEquals(parseCacheSize, config.getParseCacheSize());
+        assertEquals(CommandLineCache.Eviction.FIRST_IN_FIRST_OUT, config.getParseCacheEviction());
+        assertEquals(maxJobs, config.getMaxJobs());
+        assertEquals(Duration.ofSeconds(30), config.getCommandTimeout());
+        assertEquals(true, config.isOutputBuffered());
+        assertEquals(LogFileWriter.FlushPolicy.TIMER, config.getLogFlushPolicy());
+        assertEquals(true, config.isLogSynced());
+        assertEquals(true, config.isLogAsync());
+        assertEquals(AsyncLogAppender.Overflow.DROP_OLDEST, config.getLogOverflow());
+        assertEquals(rotation, config.getLogRotation());
+        assertEquals(true, config.isFastInput());
+        assertEquals(Path.of("history"), config.getHistoryFile());
+        assertEquals(true, config.isPrefixMatching());
+        assertTrue(config.getInputProvider() instanceof ChannelInputProvider, "Channel based input expected.");
     }
 }
\ No newline at end of file
@@ -15,8 +15,10 @@
  */
 package de.am.common.shell;
 
+import de.am.common.shell.command.CommandLineCache;
 import de.am.common.shell.command.ShellCommand;
 import de.am.common.shell.command.ShellCommandParameter;
+import de.am.common.shell.command.TypeConverterRegistry;
 import de.am.common.shell.command.annotation.Command;
 import de.am.common.shell.command.annotation.CommandParameter;
 import de.am.common.shell.io.OutputProvider;
@@ -27,9 +29,12 @@ import java.util.List;
 import static de.am.common.shell.ShellConstants.DEFAULT_APP_NAME;
 import static de.am.common.shell.ShellConstants.DEFAULT_PROMPT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JUnit test cases of {@link ShellFactory} class.
@@ -111,8 +116,82 @@ class ShellFactoryTest {
         assertThrows(IllegalArgumentException.class, () -> ShellFactory.createShell(config, new DuplicateExitCommand()));
     }
 
+    @Test
+    void createShellUsesGeneratedRegistry() {
+        ShellConfig config = ShellConfig.builder().build();
+        Shell actual = ShellFactory.createShell(config, new GeneratedRegistryCommands());
+
+        ShellCommand command = findCommand(actual, "generated");
+        assertNull(command.getMethod(), "The command should be created by the generated registry.");
+        assertEquals("generated", command.invoke(new Object[0]), "The generated invoker should call the handler.");
+    }
+
+    @Test
+    void createShellFallsBackToReflection() {
+        ShellConfig config = ShellConfig.builder().build();
+        Shell actual = ShellFactory.createShell(config, new ParameterizedCommands());
+
+        ShellCommand command = findCommand(actual, "annotated");
+        assertNotNull(command.getMethod(), "Commands of private classes are registered by reflection.");
+    }
+
+    @Test
+    void createShellUsesConfiguredTypeConverters() {
+        TypeConverterRegistry converters = new TypeConverterRegistry().register(Integer.class, value -> Integer.parseInt(value, 16));
+        ShellConfig config = ShellConfig.builder().typeConverters(converters).build();
+        Shell actual = ShellFactory.createShell(config, new GeneratedRegistryCommands(), new ParameterizedCommands());
+
+        ShellCommand generated = actual.getDictionary().getCommand("hex ff");
+        assertEquals(255, generated.getTypedParameters()[0], "Configured converter expected for generated commands.");
+        ShellCommand reflected = actual.getDictionary().getCommand("reflected-hex 10");
+        assertEquals(16, reflected.getTypedParameters()[0], "Configured converter expected for reflected commands.");
+    }
+
+    @Test
+    void createShellWithParseCache() {
+        ShellConfig config = ShellConfig.builder().parseCacheSize(8).parseCacheEviction(CommandLineCache.Eviction.FIRST_IN_FIRST_OUT).build();
+        Shell actual = ShellFactory.createShell(config, new GeneratedRegistryCommands());
+
+        CommandLineCache cache = actual.getDictionary().getCache();
+        assertEquals(8, cache.getMaxSize(), "Configured cache size expected.");
+        assertEquals(CommandLineCache.Eviction.FIRST_IN_FIRST_OUT, cache.getEviction(), "Configured eviction expected.");
+        assertSame(actual.getDictionary().parse("hex 42"), actual.getDictionary().parse("hex 42"), "Cached invocation expected.");
+        assertNull(ShellFactory.createShell(null, null, (Object[]) null).getDictionary().getCache(), "The cache is disabled by default.");
+    }
+
+    @Test
+    void createShellUsesThreadSafeFlag() {
+        Shell actual = ShellFactory.createShell(ShellConfig.builder().build(), new GeneratedRegistryCommands(), new ParameterizedCommands());
+
+        assertTrue(findCommand(actual, "hex").isThreadSafe(), "Thread safe flag expected for generated commands.");
+        assertTrue(findCommand(actual, "reflected-hex").isThreadSafe(), "Thread safe flag expected for reflected commands.");
+        assertFalse(findCommand(actual, "generated").isThreadSafe(), "Commands are not thread safe by default.");
+        assertEquals(100, findCommand(actual, "reflected-hex").getTimeout(), "Timeout expected for reflected commands.");
+        assertEquals(0, findCommand(actual, "generated").getTimeout(), "Commands have no timeout by default.");
+    }
+
     // #################################################################################################################
 
+    private ShellCommand findCommand(Shell shell, String name) {
+        return shell.getDictionary().getCommands().stream()
+            .filter(shellCommand -> name.equals(shellCommand.getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    public static class GeneratedRegistryCommands {
+
+        @Command(name = "generated")
+        public String generated() {
+            return "generated";
+        }
+
+        @Command(name = "hex", threadSafe = true)
+        public int hex(int value) {
+            return value;
+        }
+    }
+
     private static class TestCommands implements ShellInject {
         private Shell shell;
 
@@ -146,6 +225,11 @@ class ShellFactoryTest {
         public void annotated(@CommandParameter(name = "file-name", description = "A file passed from the shell.") String fileName) {
             // nothing to do
         }
+
+        @Command(name = "reflected-hex", threadSafe = true, timeout = 100)
+        public void reflectedHex(int value) {
+            // nothing to do
+        }
     }
 
     private static class DuplicateCommandsOne {
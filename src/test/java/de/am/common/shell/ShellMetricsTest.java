@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JUnit test cases of {@link ShellMetrics} class.
+ *
+ * @author Martin Absmeier
+ */
+class ShellMetricsTest {
+
+    @Test
+    void counters() {
+        ShellMetrics metrics = new ShellMetrics();
+        metrics.recordCommand();
+        metrics.recordCommand();
+        metrics.recordCommand();
+        metrics.recordFailure();
+        metrics.recordTimeout();
+
+        assertEquals(3, metrics.getCommandCount(), "Number of commands expected.");
+        assertEquals(2, metrics.getFailureCount(), "Timeouts count as failures.");
+        assertEquals(1, metrics.getTimeoutCount(), "Number of timeouts expected.");
+        assertEquals("ShellMetrics{commands=3, failures=2, timeouts=1}", metrics.toString());
+    }
+}
@@ -23,6 +23,6 @@ public class ShellRunner {
     public static void main(String[] args) {
         ShellConfig config = ShellConfig.builder().build();
         Shell shell = ShellFactory.createShell(config);
-        shell.execute();
+        shell.execute(args);
     }
 }
\ No newline at end of file
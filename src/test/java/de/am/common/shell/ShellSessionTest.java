@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell;
+
+import de.am.common.shell.io.InputProvider;
+import de.am.common.shell.io.OutputProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * JUnit test cases of {@link ShellSession} class.
+ *
+ * @author Martin Absmeier
+ */
+class ShellSessionTest {
+
+    @Test
+    void builder() {
+        InputProvider inputProvider = mock(InputProvider.class);
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        ShellSession session = ShellSession.builder().inputProvider(inputProvider).outputProvider(outputProvider)
+            .isTimeDisplayed(true).build();
+
+        assertSame(inputProvider, session.getInputProvider(), "Input provider not equal.");
+        assertSame(outputProvider, session.getOutputProvider(), "Output provider not equal.");
+        assertTrue(session.isTimeDisplayed(), "Time display expected.");
+        assertFalse(session.isExceptionDetailsDisplayed(), "No exception details expected.");
+        assertFalse(session.isShutdown(), "A new session is not shut down.");
+        assertNull(session.getException(), "A new session has no exception.");
+        assertTrue(session.getJobs().getJobs().isEmpty(), "A new session has no jobs.");
+        assertNotNull(session.getStopWatch(), "Stop watch expected.");
+    }
+
+    @Test
+    void builderWithoutProviders() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+
+        assertThrows(NullPointerException.class, () -> ShellSession.builder().outputProvider(outputProvider).build());
+        assertThrows(NullPointerException.class, () -> ShellSession.builder().inputProvider(mock(InputProvider.class)).build());
+    }
+
+    @Test
+    void sessionsHaveStateOfTheirOwn() {
+        ShellSession first = createSession();
+        ShellSession second = createSession();
+
+        first.setException(new IllegalStateException());
+        first.setShutdown(true);
+
+        assertNull(second.getException(), "The exception of another session is not visible.");
+        assertFalse(second.isShutdown(), "The shutdown of another session is not visible.");
+        assertNotSame(first.getJobs(), second.getJobs(), "Every session has jobs of its own.");
+        assertNotSame(first.getPromptLock(), second.getPromptLock(), "Every session has a prompt lock of its own.");
+    }
+
+    // #################################################################################################################
+    private static ShellSession createSession() {
+        return ShellSession.builder().inputProvider(mock(InputProvider.class)).outputProvider(mock(OutputProvider.class))
+            .build();
+    }
+}
@@ -16,19 +16,68 @@
 package de.am.common.shell;
 
 import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.exception.CommandTimeoutException;
+import de.am.common.shell.exception.CommandTooLongException;
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.io.Completer;
 import de.am.common.shell.io.DefaultInputProvider;
 import de.am.common.shell.io.InputProvider;
 import de.am.common.shell.io.OutputProvider;
+import de.am.common.shell.job.Job;
 import lombok.Setter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
 import static de.am.common.shell.ShellConstants.ANSI_YELLOW_BRIGHT;
+import static de.am.common.shell.ShellConstants.DEFAULT_RECORDING_MEMORY_SIZE;
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static de.am.common.shell.ShellConstants.RENDER_CHUNK_SIZE;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -70,6 +119,19 @@ class ShellTest {
         shell.execute();
     }
 
+    @Test
+    void executeTimeDisplayPrintsCommandLineVerbatim() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider)
+            .isTimeDisplayed(true).build();
+        shell = ShellFactory.createShell(config);
+
+        when(inputProvider.readCommand()).thenReturn("{x} it's").thenReturn("exit");
+        shell.execute();
+
+        verify(outputProvider).println(eq("{0}"), eq(ANSI_WHITE_BRIGHT), startsWith("Command [{x} it's] executed in = "));
+    }
+
     @Test
     void executeCommandNotFound() {
         assertNotNull(shell);
@@ -115,6 +177,108 @@ class ShellTest {
         assertTrue(shell.getException() instanceof IllegalArgumentException);
     }
 
+    @Test
+    void executeRejectsTooLongCommandWhileReading() {
+        InputProvider channelInput = mock(InputProvider.class);
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(channelInput).outputProvider(outputProvider).build());
+
+        when(channelInput.readCommand()).thenThrow(new CommandTooLongException(5)).thenReturn("exit");
+
+        shell.execute();
+        assertTrue(shell.getException() instanceof CommandTooLongException, "The rejection should be recorded.");
+        assertTrue(shell.isShutdown(), "The shell should continue after the rejected command.");
+        verify(outputProvider, times(2)).print(any(), eq(ANSI_YELLOW_BRIGHT));
+    }
+
+    @Test
+    void executeRecallsHistory(@TempDir Path tempDir) throws IOException {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        CountingCommand commandHandler = new CountingCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider)
+            .historyFile(tempDir.resolve("history")).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("count", "!1", "!co", "!9", "!", "exit");
+
+        shell.execute();
+        assertEquals(3, commandHandler.counter, "The recalled commands should be executed.");
+        verify(outputProvider, times(2)).println("{0}", ANSI_WHITE_BRIGHT, "count");
+        verify(outputProvider).println("Event [{0}] not found.", ANSI_WHITE_BRIGHT, "!9");
+        assertEquals(List.of("count", "count", "count", "!", "exit"), Files.readAllLines(tempDir.resolve("history")),
+            "Executed and recalled commands are added to the history.");
+    }
+
+    @Test
+    void createShellWithInvalidHistoryFile(@TempDir Path tempDir) {
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).historyFile(tempDir).build();
+
+        assertThrows(ShellException.class, () -> ShellFactory.createShell(config));
+    }
+
+    @Test
+    void createShellProvidesCompleter() {
+        InputProvider terminal = mock(InputProvider.class);
+        ShellConfig config = ShellConfig.builder().inputProvider(terminal).isPrefixMatching(true).build();
+        shell = ShellFactory.createShell(config, new CountingCommand());
+
+        ArgumentCaptor<Completer> completer = ArgumentCaptor.forClass(Completer.class);
+        verify(terminal).setCompleter(completer.capture());
+        assertEquals(List.of("count"), completer.getValue().complete("cou"), "Completion of the dictionary expected.");
+        assertTrue(shell.getDictionary().isPrefixMatching(), "Prefix matching of the configuration expected.");
+        assertEquals("count", shell.getDictionary().parse("cou").getCommand().getName(), "Command expected by prefix.");
+    }
+
+    @Test
+    void executeSessionKeepsStateOfItsOwn() {
+        OutputProvider consoleOutput = mock(OutputProvider.class);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(consoleOutput).build();
+        shell = ShellFactory.createShell(config, new ExceptionCommand());
+        InputProvider sessionInput = mock(InputProvider.class);
+        OutputProvider sessionOutput = mock(OutputProvider.class);
+
+        when(sessionInput.readCommand()).thenReturn("throwException").thenReturn("enableTimeDisplay").thenReturn("exit");
+        shell.executeSession(sessionInput, sessionOutput);
+
+        verify(sessionInput).setCompleter(any(Completer.class));
+        verify(sessionOutput).println("{0}", ANSI_WHITE_BRIGHT, "Exception occurred, run 'showException' or 'sE' to see the details.");
+        verify(sessionOutput).println("{0}", ANSI_WHITE_BRIGHT, "Shutdown shell...");
+        verify(sessionInput).exit();
+        verify(consoleOutput, never()).println(anyString(), any(), any());
+        verify(inputProvider, never()).exit();
+        assertNull(shell.getException(), "The exception of the session is not visible to the console.");
+        assertFalse(shell.isTimeDisplayed(), "The display settings of the session are not visible to the console.");
+        assertFalse(shell.isShutdown(), "The exit of the session does not shut down the console.");
+        assertTrue(shell.isConsole(), "The console is executed outside of a session.");
+    }
+
+    @Test
+    void executeSessionsConcurrently() throws InterruptedException {
+        SessionCommand commandHandler = new SessionCommand();
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).build(), commandHandler);
+        int sessionCount = 20;
+        OutputProvider[] outputs = new OutputProvider[sessionCount];
+        Thread[] threads = new Thread[sessionCount];
+        for (int index = 0; index < sessionCount; index++) {
+            InputProvider sessionInput = mock(InputProvider.class);
+            when(sessionInput.readCommand()).thenReturn("whoami " + index).thenReturn("background &").thenReturn("jobs")
+                .thenReturn(null);
+            outputs[index] = mock(OutputProvider.class);
+            OutputProvider sessionOutput = outputs[index];
+            threads[index] = Thread.ofVirtual().start(() -> shell.executeSession(sessionInput, sessionOutput));
+        }
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+
+        for (int index = 0; index < sessionCount; index++) {
+            verify(outputs[index]).println("{0}", ANSI_WHITE_BRIGHT, "session-" + index);
+            verify(outputs[index]).println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, "1", "background");
+        }
+        assertEquals(sessionCount, commandHandler.sessions.get(), "Every command was executed in a session.");
+        assertTrue(shell.getJobs().getJobs().isEmpty(), "The jobs of the sessions are not visible to the console.");
+    }
+
     @Test
     void shutdownSetsShutdownFlag() {
         shell.shutdown();
@@ -134,6 +298,429 @@ class ShellTest {
         verify(outputProvider, times(1)).print(shell.getPrompt(), ANSI_YELLOW_BRIGHT);
     }
 
+    @Test
+    void executeScript(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "# comment\n\ncount\r\n  count\n\t# indented comment\ncount");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        CountingCommand commandHandler = new CountingCommand();
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build(), commandHandler);
+
+        assertEquals(0, shell.executeScript(script), "We expect no failed command.");
+        assertEquals(3, commandHandler.counter, "All commands of the script should be executed.");
+        verify(outputProvider, never()).print(shell.getPrompt(), ANSI_YELLOW_BRIGHT);
+        verify(outputProvider).println(eq("{0}"), eq(ANSI_WHITE_BRIGHT), anyString());
+    }
+
+    @Test
+    void executeScriptStopsOnError(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "count\nunknown\ncount\n");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        CountingCommand commandHandler = new CountingCommand();
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build(), commandHandler);
+
+        assertEquals(1, shell.executeScript(script), "We expect one failed command.");
+        assertEquals(1, commandHandler.counter, "The script should stop at the unknown command.");
+        verify(outputProvider).println("Line {0}: Command [{1}] not found.", ANSI_WHITE_BRIGHT, "2", "unknown");
+    }
+
+    @Test
+    void executeScriptContinuesOnError(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "throwException\ncount\nthrowException\ncount\n");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        CountingCommand commandHandler = new CountingCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler, new ExceptionCommand());
+
+        String[] args = {"--script", script.toString(), "--continue-on-error"};
+        assertEquals(1, shell.execute(args), "Only the first throwException command fails.");
+        assertEquals(2, commandHandler.counter, "The script should continue after the failed command.");
+        assertTrue(shell.getException() instanceof NullPointerException, "The exception of the failed command is expected.");
+        verify(outputProvider).println("Line {0}: {1}", ANSI_WHITE_BRIGHT, "1", NullPointerException.class.getName());
+    }
+
+    @Test
+    void executeScriptRejectsTooLongLine(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "count\n" + "count ".repeat(100) + "\ncount\n");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        CountingCommand commandHandler = new CountingCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider)
+            .maxCommandLength(20).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        assertEquals(1, shell.executeScript(script, false), "The too long line fails.");
+        assertEquals(2, commandHandler.counter, "The script should continue after the too long line.");
+        assertTrue(shell.getException() instanceof CommandTooLongException, "The rejection should be recorded.");
+        verify(outputProvider).println("Line {0}: {1}", ANSI_WHITE_BRIGHT, "2", CommandTooLongException.class.getName());
+
+        assertEquals(1, shell.executeScript(script), "The too long line fails.");
+        assertEquals(3, commandHandler.counter, "The script should stop at the too long line.");
+    }
+
+    @Test
+    void executeScriptStopsAtExit(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "count\nexit\ncount\n");
+        CountingCommand commandHandler = new CountingCommand();
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).build(), commandHandler);
+
+        assertEquals(0, shell.executeScript(script, false), "We expect no failed command.");
+        assertEquals(1, commandHandler.counter, "The script should end with the exit command.");
+        assertTrue(shell.isShutdown());
+    }
+
+    @Test
+    void executeScriptMissingFile(@TempDir Path tempDir) {
+        assertEquals(1, shell.executeScript(tempDir.resolve("missing.txt")), "A missing script counts as failure.");
+        assertTrue(shell.getException() instanceof IOException, "The I/O exception is expected.");
+    }
+
+    @Test
+    void executeArguments() {
+        when(inputProvider.readCommand()).thenReturn("exit");
+
+        assertEquals(0, shell.execute(new String[0]), "Interactive mode is expected without script option.");
+        assertTrue(shell.isShutdown());
+        assertThrows(IllegalArgumentException.class, () -> shell.execute(new String[]{"--script"}));
+    }
+
+    @Test
+    void executeScriptParallel(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "echo 1\necho 2\necho 3\ncount\necho 4\necho 5\necho 6\n");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        ParallelCommand commandHandler = new ParallelCommand(3);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        assertEquals(0, shell.execute(new String[]{"--script", script.toString(), "--parallel"}), "We expect no failed command.");
+        assertEquals(1, commandHandler.counter, "The barrier command should be executed.");
+        assertEquals(List.of(3), commandHandler.echoedBeforeCount, "The barrier command waits for the preceding commands.");
+        assertEquals(6, commandHandler.echoed.get(), "All thread safe commands should be executed.");
+
+        InOrder inOrder = inOrder(outputProvider);
+        for (String value : List.of("1", "2", "3", "4", "5", "6")) {
+            inOrder.verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "echo-" + value);
+        }
+    }
+
+    @Test
+    void executeScriptParallelWithConfiguredExecutor(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "echo 1\nfail\necho 2\ncount\necho 3\n");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).batchExecutor(pool).build();
+            ParallelCommand commandHandler = new ParallelCommand(3);
+            shell = ShellFactory.createShell(config, commandHandler);
+
+            assertEquals(1, shell.executeScript(script, true, true), "We expect one failed command.");
+            assertTrue(shell.getException() instanceof IllegalStateException, "The exception of the failed command is expected.");
+            assertFalse(pool.isShutdown(), "A configured executor must not be closed by the shell.");
+            assertEquals(0, commandHandler.counter, "The script should stop after the batch with the failed command.");
+
+            InOrder inOrder = inOrder(outputProvider);
+            inOrder.verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "echo-1");
+            inOrder.verify(outputProvider).println("Line {0}: {1}", ANSI_WHITE_BRIGHT, "2", IllegalStateException.class.getName());
+            inOrder.verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "echo-2");
+            verify(outputProvider, times(2)).flush();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void executeScriptParallelSpoolsLargeFileResult(@TempDir Path tempDir) throws IOException {
+        byte[] content = new byte[8 << 20];
+        Arrays.fill(content, (byte) 'x');
+        Path file = Files.write(tempDir.resolve("large.txt"), content);
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "dump " + file + "\ndump " + file + "\n");
+        ByteCountingOutputProvider outputProvider = new ByteCountingOutputProvider();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, new ParallelCommand(1));
+
+        assertEquals(0, shell.executeScript(script, true, true), "We expect no failed command.");
+        assertEquals(2L * content.length, outputProvider.writtenBytes, "The content of both files is written.");
+        assertTrue(outputProvider.maxPrintedLength < DEFAULT_RECORDING_MEMORY_SIZE,
+            "The recorded content must not be held as text in the heap.");
+    }
+
+    @Test
+    void executeScriptParallelCountsErrorAsFailedLine(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "echo 1\ncrash\necho 2\ncount\n");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        ParallelCommand commandHandler = new ParallelCommand(3);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        assertEquals(1, shell.executeScript(script, false, true), "The error fails one line.");
+        assertEquals(1, commandHandler.counter, "The script should continue after the failed line.");
+        assertEquals(2, commandHandler.echoed.get(), "The other commands of the batch should be completed.");
+        assertTrue(shell.getException() instanceof ShellException, "The error should be recorded.");
+        assertTrue(shell.getException().getCause() instanceof OutOfMemoryError, "The error is the cause.");
+        verify(outputProvider).println("Line {0}: {1}", ANSI_WHITE_BRIGHT, "2", OutOfMemoryError.class.getName());
+    }
+
+    @Test
+    void executeScriptParallelParsesLineOnce(@TempDir Path tempDir) throws IOException {
+        Path script = Files.writeString(tempDir.resolve("commands.txt"), "count\ncount\nunknown\n");
+        ParallelCommand commandHandler = new ParallelCommand(1);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).parseCacheSize(16).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        assertEquals(1, shell.executeScript(script, false, true), "The unknown command fails.");
+        assertEquals(2, commandHandler.counter, "The commands should be executed.");
+        assertEquals(2, shell.getDictionary().getCache().getMisses(), "Each distinct line is parsed once.");
+        assertEquals(1, shell.getDictionary().getCache().getHits(), "Only the repeated line is a cache hit.");
+    }
+
+    @Test
+    void executeAsyncCommand() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        AsyncCommand commandHandler = new AsyncCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("load").thenAnswer(invocation -> {
+            // the job completes while the shell waits for input
+            commandHandler.future.complete("loaded");
+            return "fail";
+        }).thenReturn("exit");
+        shell.execute();
+
+        InOrder inOrder = inOrder(outputProvider);
+        inOrder.verify(outputProvider).println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, "1", "load");
+        inOrder.verify(outputProvider).print(shell.getPrompt(), ANSI_YELLOW_BRIGHT);
+        // the output is flushed before the shell waits for input
+        inOrder.verify(outputProvider).flush();
+        inOrder.verify(outputProvider).println("", null);
+        inOrder.verify(outputProvider).println(eq("Job [{0}] done in {1} ms: {2}"), eq(ANSI_WHITE_BRIGHT), eq("1"), anyString(), eq("loaded"));
+        inOrder.verify(outputProvider).print(shell.getPrompt(), ANSI_YELLOW_BRIGHT);
+        inOrder.verify(outputProvider).println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, "2", "fail");
+        // the failed job is reported before the next prompt
+        inOrder.verify(outputProvider).println("Job [{0}] failed: {1}", ANSI_WHITE_BRIGHT, "2", IllegalStateException.class.getName());
+        inOrder.verify(outputProvider).print(shell.getPrompt(), ANSI_YELLOW_BRIGHT);
+        assertTrue(shell.getException() instanceof IllegalStateException, "The exception of the failed job is expected.");
+    }
+
+    @Test
+    void executeRemovesReportedJobs() {
+        AsyncCommand commandHandler = new AsyncCommand();
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).build(), commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("load").thenAnswer(invocation -> {
+            // reported while the shell waits for input
+            commandHandler.future.complete("loaded");
+            assertTrue(shell.getJobs().getJobs().isEmpty(), "A job reported while prompting is removed.");
+            return "fail";
+        }).thenAnswer(invocation -> {
+            // reported before the prompt
+            assertTrue(shell.getJobs().getJobs().isEmpty(), "A job reported at the prompt is removed.");
+            return "exit";
+        });
+        shell.execute();
+
+        assertTrue(shell.getJobs().getJobs().isEmpty(), "Reported jobs are removed.");
+    }
+
+    @Test
+    void executeBackgroundCommand() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        BackgroundCommand commandHandler = new BackgroundCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).maxJobs(1).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("block &").thenReturn("block  & ").thenAnswer(invocation -> {
+            // the job is removed from the table as soon as its completion is reported
+            Job job = shell.getJobs().get(1);
+            commandHandler.release.countDown();
+            job.getFuture().get(10, TimeUnit.SECONDS);
+            return "unknown &";
+        }).thenReturn("exit");
+        shell.execute();
+
+        assertTrue(shell.getException() instanceof IllegalStateException, "The job limit is exceeded.");
+        InOrder inOrder = inOrder(outputProvider);
+        inOrder.verify(outputProvider).println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, "1", "block");
+        // the output of the job is written when the job is reported
+        inOrder.verify(outputProvider, timeout(5000)).println("{0}", ANSI_WHITE_BRIGHT, "blocked");
+        inOrder.verify(outputProvider, timeout(5000)).println(eq("Job [{0}] done in {1} ms: {2}"), eq(ANSI_WHITE_BRIGHT), eq("1"), anyString(), eq("released"));
+        verify(outputProvider).println("Command [{0}] not found.", ANSI_WHITE_BRIGHT, "unknown &");
+        verify(outputProvider, never()).println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, "2", "block");
+    }
+
+    @Test
+    void exitStopsBackgroundJobs() {
+        BackgroundCommand commandHandler = new BackgroundCommand();
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).build(), commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("block&").thenAnswer(invocation -> {
+            commandHandler.started.await(10, TimeUnit.SECONDS);
+            return "exit";
+        });
+        shell.execute();
+
+        Job job = shell.getJobs().get(1);
+        assertEquals(Future.State.CANCELLED, job.getState(), "The running job is cancelled on exit.");
+        assertTrue(commandHandler.isInterrupted, "The thread of the job is interrupted.");
+        assertEquals(0, shell.stopJobs(), "No job is running anymore.");
+    }
+
+    @Test
+    void exitOfConsoleKeepsJobsOfSessions() throws InterruptedException {
+        BackgroundCommand commandHandler = new BackgroundCommand();
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).build(), commandHandler);
+        CountDownLatch consoleExited = new CountDownLatch(1);
+        InputProvider sessionInput = mock(InputProvider.class);
+        OutputProvider sessionOutput = mock(OutputProvider.class);
+        when(sessionInput.readCommand()).thenReturn("block &").thenAnswer(invocation -> {
+            consoleExited.await(10, TimeUnit.SECONDS);
+            return "block &";
+        }).thenAnswer(invocation -> {
+            commandHandler.release.countDown();
+            return "wait 1";
+        }).thenReturn(null);
+        Thread session = Thread.ofVirtual().start(() -> shell.executeSession(sessionInput, sessionOutput));
+
+        when(inputProvider.readCommand()).thenAnswer(invocation -> {
+            commandHandler.started.await(10, TimeUnit.SECONDS);
+            return "exit";
+        });
+        shell.execute();
+        consoleExited.countDown();
+        session.join(10_000);
+
+        assertFalse(commandHandler.isInterrupted, "The jobs of a session are not interrupted by the exit of the console.");
+        verify(sessionOutput).println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, "2", "block");
+        verify(sessionOutput).println("{0}", ANSI_WHITE_BRIGHT, "released");
+    }
+
+    @Test
+    void closeRejectsBackgroundJobs() {
+        shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(inputProvider).build(), new BackgroundCommand());
+        shell.close();
+
+        when(inputProvider.readCommand()).thenReturn("block &").thenReturn("exit");
+        shell.execute();
+
+        assertTrue(shell.getException() instanceof IllegalStateException, "No job can be started after close.");
+        assertTrue(shell.getJobs().getJobs().isEmpty(), "No job expected.");
+    }
+
+    @Test
+    void executeInterruptsTimedOutCommand() throws InterruptedException {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        SlowCommand commandHandler = new SlowCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("hang").thenReturn("quick").thenReturn("exit");
+        shell.execute();
+
+        assertTrue(shell.getException() instanceof CommandTimeoutException, "The timeout is recorded.");
+        assertTrue(commandHandler.interrupted.await(5, TimeUnit.SECONDS), "The timed out command is interrupted.");
+        verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "quick");
+        assertEquals(3, shell.getMetrics().getCommandCount(), "Number of commands expected.");
+        assertEquals(1, shell.getMetrics().getTimeoutCount(), "Number of timeouts expected.");
+        assertEquals(1, shell.getMetrics().getFailureCount(), "Number of failures expected.");
+    }
+
+    @Test
+    void executeReportsTimedOutCommandIgnoringInterruption() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        SlowCommand commandHandler = new SlowCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("stubborn").thenReturn("quick").thenReturn("exit");
+        shell.execute();
+
+        assertTrue(shell.getException() instanceof CommandTimeoutException, "The timeout is recorded.");
+        assertEquals(List.of(true), commandHandler.overlapped, "The next command must not wait for the timed out one.");
+        verify(outputProvider).println("Timed out command [{0}] ignores the interruption and is still running.",
+            ANSI_WHITE_BRIGHT, "stubborn");
+        verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "quick");
+        assertTrue(shell.isShutdown(), "The exit command is not blocked.");
+    }
+
+    @Test
+    void executeUsesConfiguredCommandTimeout() {
+        SlowCommand commandHandler = new SlowCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).commandTimeout(Duration.ofMillis(50)).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("block").thenReturn("exit");
+        shell.execute();
+
+        CommandTimeoutException exception = (CommandTimeoutException) shell.getException();
+        assertEquals(50, exception.getTimeout(), "The configured timeout applies.");
+    }
+
+    @Test
+    void executeRendersStreamInChunks() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        RowCommand commandHandler = new RowCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("rows 600").thenReturn("exit");
+        shell.execute();
+
+        ArgumentCaptor<Object> chunks = ArgumentCaptor.forClass(Object.class);
+        verify(outputProvider, atLeast(3)).println(eq("{0}"), eq(ANSI_WHITE_BRIGHT), chunks.capture());
+        List<String> lines = chunks.getAllValues().stream()
+            .flatMap(chunk -> Stream.of(chunk.toString().split(NEW_LINE)))
+            .filter(line -> line.startsWith("row-"))
+            .toList();
+        assertEquals(IntStream.range(0, 600).mapToObj(row -> "row-" + row).toList(), lines, "All rows in order expected.");
+        assertTrue(chunks.getAllValues().stream().allMatch(chunk -> chunk.toString().split(NEW_LINE).length <= RENDER_CHUNK_SIZE),
+            "The rows are printed in chunks.");
+        assertTrue(commandHandler.isClosed, "The returned stream is closed.");
+        verify(outputProvider, atLeast(2)).flush();
+    }
+
+    @Test
+    void executeRendersStreamResultOfJob() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        RowCommand commandHandler = new RowCommand();
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, commandHandler);
+
+        when(inputProvider.readCommand()).thenReturn("laterRows 2").thenReturn("exit");
+        shell.execute();
+
+        InOrder inOrder = inOrder(outputProvider);
+        inOrder.verify(outputProvider).println(eq("Job [{0}] done in {1} ms:"), eq(ANSI_WHITE_BRIGHT), eq("1"), anyString());
+        inOrder.verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "row-0" + NEW_LINE + "row-1");
+        assertTrue(commandHandler.isClosed, "The stream of the job is closed.");
+    }
+
+    @Test
+    void executeRendersIteratorIterableAndSpliterator() {
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, new RowCommand());
+
+        when(inputProvider.readCommand()).thenReturn("iterator").thenReturn("iterable").thenReturn("spliterator").thenReturn("empty")
+            .thenReturn("exit");
+        shell.execute();
+
+        String expected = Stream.of("a", "b").collect(Collectors.joining(NEW_LINE));
+        verify(outputProvider, times(3)).println("{0}", ANSI_WHITE_BRIGHT, expected);
+        verify(outputProvider, never()).println("{0}", ANSI_WHITE_BRIGHT, "");
+    }
+
+    @Test
+    void executeRendersContent(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("state.txt"), "state");
+        OutputProvider outputProvider = mock(OutputProvider.class);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, new RowCommand());
+
+        when(inputProvider.readCommand()).thenReturn("file " + file).thenReturn("bytes").thenReturn("exit");
+        shell.execute();
+
+        verify(outputProvider, times(2)).write(any(ReadableByteChannel.class));
+        verify(outputProvider, never()).println(eq("{0}"), eq(ANSI_WHITE_BRIGHT), any(Path.class));
+    }
+
     public static class ExceptionCommand implements ShellInject {
         @Setter
         private Shell shell;
@@ -149,6 +736,228 @@ class ShellTest {
         }
     }
 
+    public static class ParallelCommand {
+        private final CyclicBarrier barrier;
+        private final AtomicInteger echoed = new AtomicInteger();
+        private final List<Integer> echoedBeforeCount = new ArrayList<>();
+        private int counter;
+
+        public ParallelCommand(int parallelism) {
+            barrier = new CyclicBarrier(parallelism);
+        }
+
+        @Command(name = "echo", threadSafe = true)
+        public String echo(int value) throws Exception {
+            // only passes if the commands of the batch run concurrently
+            barrier.await(10, TimeUnit.SECONDS);
+            // the output of later lines is produced first
+            Thread.sleep(10L * (3 - value % 3));
+            echoed.incrementAndGet();
+            return "echo-" + value;
+        }
+
+        @Command(name = "fail", threadSafe = true)
+        public void fail() throws Exception {
+            barrier.await(10, TimeUnit.SECONDS);
+            throw new IllegalStateException("Failed");
+        }
+
+        @Command(name = "dump", shortcut = "du", threadSafe = true)
+        public Path dump(String file) {
+            return Path.of(file);
+        }
+
+        @Command(name = "crash", shortcut = "cr", threadSafe = true)
+        public void crash() throws Exception {
+            barrier.await(10, TimeUnit.SECONDS);
+            throw new OutOfMemoryError();
+        }
+
+        @Command(name = "count")
+        public void count() {
+            counter++;
+            echoedBeforeCount.add(echoed.get());
+        }
+    }
+
+    public static class ByteCountingOutputProvider implements OutputProvider {
+        private long writtenBytes;
+        private int maxPrintedLength;
+
+        @Override
+        public void print(String pattern, String ansiColour, Object... arguments) {
+            maxPrintedLength = Math.max(maxPrintedLength, MessageFormat.format(pattern, arguments).length());
+        }
+
+        @Override
+        public void println(String pattern, String ansiColour, Object... arguments) {
+            print(pattern, ansiColour, arguments);
+        }
+
+        @Override
+        public void write(ReadableByteChannel content) {
+            ByteBuffer bytes = ByteBuffer.allocate(DEFAULT_WRITE_BUFFER_SIZE);
+            try {
+                for (int count = content.read(bytes); count >= 0; count = content.read(bytes.clear())) {
+                    writtenBytes += count;
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void exit() {
+            // nothing to close
+        }
+
+        @Override
+        public void enableLogging(String fileName) {
+            // not logged
+        }
+
+        @Override
+        public void disableLogging() {
+            // not logged
+        }
+    }
+
+    public static class AsyncCommand {
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        @Command(name = "load")
+        public CompletableFuture<String> load() {
+            return future;
+        }
+
+        @Command(name = "fail")
+        public Future<String> fail() {
+            return CompletableFuture.failedFuture(new IllegalStateException("Failed"));
+        }
+    }
+
+    public static class BackgroundCommand implements ShellInject {
+        @Setter
+        private Shell shell;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean isInterrupted;
+
+        @Command(name = "block")
+        public String block() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                isInterrupted = true;
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            shell.getOutputProvider().println("{0}", ANSI_WHITE_BRIGHT, "blocked");
+            return "released";
+        }
+    }
+
+    public static class SlowCommand {
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private final List<Boolean> overlapped = new ArrayList<>();
+        private volatile boolean isStubbornRunning;
+
+        @Command(name = "hang", timeout = 50)
+        public void hang() {
+            block();
+        }
+
+        @Command(name = "block")
+        public void block() {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+        }
+
+        @Command(name = "stubborn", shortcut = "sb", timeout = 50)
+        public void stubborn() {
+            isStubbornRunning = true;
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+            while (System.nanoTime() < end) {
+                // ignores the interruption
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            isStubbornRunning = false;
+        }
+
+        @Command(name = "quick")
+        public String quick() {
+            overlapped.add(isStubbornRunning);
+            return "quick";
+        }
+    }
+
+    public static class RowCommand {
+        private boolean isClosed;
+
+        @Command(name = "rows", shortcut = "ro")
+        public Stream<String> rows(int count) {
+            return IntStream.range(0, count).mapToObj(row -> "row-" + row).onClose(() -> isClosed = true);
+        }
+
+        @Command(name = "laterRows", shortcut = "lr")
+        public Future<Stream<String>> laterRows(int count) {
+            return CompletableFuture.completedFuture(rows(count));
+        }
+
+        @Command(name = "iterator", shortcut = "it")
+        public Iterator<String> iterator() {
+            return List.of("a", "b").iterator();
+        }
+
+        @Command(name = "iterable", shortcut = "ib")
+        public Iterable<String> iterable() {
+            return List.of("a", "b");
+        }
+
+        @Command(name = "spliterator", shortcut = "sp")
+        public Spliterator<String> spliterator() {
+            return List.of("a", "b").spliterator();
+        }
+
+        @Command(name = "empty", shortcut = "em")
+        public Stream<String> empty() {
+            return Stream.empty();
+        }
+
+        @Command(name = "file", shortcut = "fi")
+        public Path file(Path file) {
+            return file;
+        }
+
+        @Command(name = "bytes", shortcut = "by")
+        public byte[] bytes() {
+            return "content".getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public static class SessionCommand implements ShellInject {
+        @Setter
+        private Shell shell;
+        private final AtomicInteger sessions = new AtomicInteger();
+
+        @Command(name = "whoami")
+        public String whoami(int session) {
+            if (!shell.isConsole()) {
+                sessions.incrementAndGet();
+            }
+            return "session-" + session;
+        }
+
+        @Command(name = "background")
+        public String background() {
+            return shell.isConsole() ? "console" : "session";
+        }
+    }
+
     public static class CountingCommand {
         private int counter;
 
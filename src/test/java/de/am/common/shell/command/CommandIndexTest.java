@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * JUnit test cases of {@link CommandIndex} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandIndexTest {
+
+    private ShellCommand help;
+    private ShellCommand version;
+    private CommandIndex index;
+
+    @BeforeEach
+    void setUp() {
+        help = ShellCommand.builder().name("help").shortcut("h").build();
+        version = ShellCommand.builder().name("version").shortcut("v").build();
+        index = new CommandIndex(List.of(help, version));
+    }
+
+    @Test
+    void getByNameAndShortcut() {
+        assertSame(help, index.get("help"), "Command expected by name.");
+        assertSame(help, index.get("h"), "Command expected by shortcut.");
+        assertSame(version, index.get("version"), "Command expected by name.");
+        assertSame(version, index.get("v"), "Command expected by shortcut.");
+    }
+
+    @Test
+    void getByRange() {
+        String line = "  version 1 2";
+
+        assertSame(version, index.get(line, 2, 9), "Command expected for the range of the line.");
+        assertNull(index.get(line, 2, 8), "No command expected for a part of the name.");
+    }
+
+    @Test
+    void getUnknown() {
+        assertNull(index.get("unknown"), "No command expected.");
+        assertNull(index.get(""), "No command expected for an empty key.");
+    }
+
+    @Test
+    void emptyIndex() {
+        index = new CommandIndex(List.of());
+
+        assertNull(index.get("help"), "No command expected.");
+    }
+
+    @Test
+    void nullIdentifiersAreIgnored() {
+        ShellCommand unnamed = ShellCommand.builder().build();
+        index = new CommandIndex(List.of(unnamed, help));
+
+        assertSame(help, index.get("help"), "Command expected by name.");
+    }
+}
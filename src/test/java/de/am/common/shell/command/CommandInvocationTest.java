@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link CommandInvocation} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandInvocationTest {
+    private int closedStreams;
+
+    @Test
+    void invoke() throws NoSuchMethodException {
+        CommandInvocation invocation = new CommandInvocation(createCommand("twice", false, int.class), new Object[]{21});
+
+        assertEquals(42, invocation.invoke(), "Result of the method expected.");
+        assertNull(invocation.getPrevious(), "A single command has no previous invocation.");
+    }
+
+    @Test
+    void invokePipedValueConversion() throws NoSuchMethodException {
+        ShellCommand twice = createCommand("twice", false, int.class);
+        ShellCommand text = createCommand("text", false);
+        ShellCommand numbers = createCommand("numbers", false);
+
+        CommandInvocation piped = new CommandInvocation(twice, new Object[1], new CommandInvocation(twice, new Object[]{2}));
+        assertEquals(8, piped.invoke(), "Values of the parameter type are passed unchanged.");
+
+        CommandInvocation parsed = new CommandInvocation(twice, new Object[1], new CommandInvocation(text, new Object[0]));
+        assertEquals(42, parsed.invoke(), "Other values are converted from their string representation.");
+
+        CommandInvocation stream = new CommandInvocation(twice, new Object[1], new CommandInvocation(numbers, new Object[0]));
+        assertThrows(IllegalArgumentException.class, stream::invoke, "Streams must not be converted to text.");
+
+        CommandInvocation nothing = new CommandInvocation(twice, new Object[1], new CommandInvocation(createCommand("nothing", false), new Object[0]));
+        assertThrows(IllegalArgumentException.class, nothing::invoke, "Null can not be passed to a primitive parameter.");
+    }
+
+    @Test
+    void invokeClosesStreamOfFailedStage() throws NoSuchMethodException {
+        ShellCommand numbers = createCommand("numbers", false);
+
+        CommandInvocation converted = new CommandInvocation(createCommand("twice", false, int.class), new Object[1],
+            new CommandInvocation(numbers, new Object[0]));
+        assertThrows(IllegalArgumentException.class, converted::invoke);
+        assertEquals(1, closedStreams, "The stream must be closed if it can not be passed.");
+
+        CommandInvocation failed = new CommandInvocation(createCommand("reject", false, Stream.class), new Object[1],
+            new CommandInvocation(numbers, new Object[0]));
+        assertThrows(IllegalStateException.class, failed::invoke);
+        assertEquals(2, closedStreams, "The stream must be closed if the receiving command fails.");
+
+        CommandInvocation passed = new CommandInvocation(createCommand("sum", false, Stream.class), new Object[1],
+            new CommandInvocation(numbers, new Object[0]));
+        assertEquals(3, passed.invoke(), "The stream is consumed by the receiving command.");
+        assertEquals(2, closedStreams, "The stream of a successful command is not closed by the invocation.");
+    }
+
+    @Test
+    void isThreadSafe() throws NoSuchMethodException {
+        ShellCommand safe = createCommand("twice", true, int.class);
+        ShellCommand unsafe = createCommand("text", false);
+
+        assertTrue(new CommandInvocation(safe, new Object[]{1}).isThreadSafe());
+        assertTrue(new CommandInvocation(safe, new Object[1], new CommandInvocation(safe, new Object[]{1})).isThreadSafe());
+        assertFalse(new CommandInvocation(safe, new Object[1], new CommandInvocation(unsafe, new Object[0])).isThreadSafe());
+        assertFalse(new CommandInvocation(unsafe, new Object[0]).isThreadSafe());
+    }
+
+    @Test
+    void getTimeout() throws NoSuchMethodException {
+        ShellCommand unlimited = createCommand("twice", false, int.class);
+        ShellCommand slow = ShellCommand.builder().name("slow").parameters(new ShellCommandParameter[0]).timeout(500).build();
+
+        assertEquals(0, new CommandInvocation(unlimited, new Object[]{1}).getTimeout(), "No timeout declared.");
+        assertEquals(500, new CommandInvocation(slow, new Object[0]).getTimeout(), "Declared timeout expected.");
+        assertEquals(500, new CommandInvocation(unlimited, new Object[1], new CommandInvocation(slow, new Object[0])).getTimeout(),
+            "The largest timeout of the pipeline expected.");
+    }
+
+    // #################################################################################################################
+    public int twice(int value) {
+        return value * 2;
+    }
+
+    public String text() {
+        return "21";
+    }
+
+    public Stream<Integer> numbers() {
+        return Stream.of(1, 2).onClose(() -> closedStreams++);
+    }
+
+    public int sum(Stream<Integer> values) {
+        return values.mapToInt(Integer::intValue).sum();
+    }
+
+    public int reject(Stream<Integer> values) {
+        throw new IllegalStateException("Rejected");
+    }
+
+    public void nothing() {
+        // returns null to the next command
+    }
+
+    private ShellCommand createCommand(String name, boolean isThreadSafe, Class<?>... types) throws NoSuchMethodException {
+        Method method = getClass().getMethod(name, types);
+        ShellCommandParameter[] parameters = new ShellCommandParameter[types.length];
+        for (int index = 0; index < types.length; index++) {
+            parameters[index] = ShellCommandParameter.builder().index(index).name("param" + index).type(types[index]).build();
+        }
+        return ShellCommand.builder().name(name).shortcut(name).method(method).invoker(MethodHandleInvoker.bind(method, this))
+            .parameters(parameters).isThreadSafe(isThreadSafe).build();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link CommandLineCache} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandLineCacheTest {
+
+    private static final ShellCommand COMMAND = ShellCommand.builder().name("cmd").shortcut("c").build();
+
+    @Test
+    void constructorDefaults() {
+        CommandLineCache cache = CommandLineCache.builder().maxSize(10).build();
+
+        assertEquals(10, cache.getMaxSize(), "Size not equal.");
+        assertEquals(CommandLineCache.Eviction.LEAST_RECENTLY_USED, cache.getEviction(), "LRU eviction expected by default.");
+        assertThrows(IllegalArgumentException.class, () -> CommandLineCache.builder().maxSize(0).build());
+    }
+
+    @Test
+    void getCountsHitsAndMisses() {
+        CommandLineCache cache = CommandLineCache.builder().maxSize(10).build();
+        CommandInvocation invocation = invocation("value", 1, 2L, true, TimeUnit.SECONDS, Path.of("file"), null);
+
+        assertNull(cache.get("cmd"), "Empty cache expected.");
+        assertTrue(cache.put("cmd", invocation), "Immutable arguments are cached.");
+        assertSame(invocation, cache.get("cmd"), "Cached invocation expected.");
+        assertEquals(1, cache.getHits(), "One hit expected.");
+        assertEquals(1, cache.getMisses(), "One miss expected.");
+        assertNotNull(cache.toString());
+
+        cache.clear();
+        assertEquals(0, cache.size(), "Empty cache expected.");
+        assertEquals(0, cache.getHits(), "Counters are reset.");
+    }
+
+    @Test
+    void putSkipsMutableArguments() {
+        CommandLineCache cache = CommandLineCache.builder().maxSize(10).build();
+
+        assertFalse(cache.put("cmd 1,2", invocation((Object) new int[]{1, 2})), "Arrays must not be cached.");
+        assertFalse(cache.put("cmd x", invocation(new StringBuilder("x"))), "Mutable objects must not be cached.");
+        CommandInvocation piped = new CommandInvocation(COMMAND, new Object[]{"x", null}, invocation((Object) new String[]{"y"}));
+        assertFalse(cache.put("cmd y | cmd x", piped), "Mutable arguments of previous stages must not be cached.");
+        assertEquals(0, cache.size(), "Nothing is cached.");
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        CommandLineCache cache = CommandLineCache.builder().maxSize(2).eviction(CommandLineCache.Eviction.LEAST_RECENTLY_USED).build();
+        cache.put("a", invocation());
+        cache.put("b", invocation());
+        cache.get("a");
+        cache.put("c", invocation());
+
+        assertNotNull(cache.get("a"), "Recently used line must be kept.");
+        assertNull(cache.get("b"), "Least recently used line must be evicted.");
+        assertEquals(2, cache.size(), "Size must be bounded.");
+    }
+
+    @Test
+    void evictFirstInFirstOut() {
+        CommandLineCache cache = CommandLineCache.builder().maxSize(2).eviction(CommandLineCache.Eviction.FIRST_IN_FIRST_OUT).build();
+        cache.put("a", invocation());
+        cache.put("b", invocation());
+        cache.get("a");
+        cache.put("c", invocation());
+
+        assertNull(cache.get("a"), "First added line must be evicted.");
+        assertNotNull(cache.get("b"), "Second line must be kept.");
+    }
+
+    // #################################################################################################################
+    private static CommandInvocation invocation(Object... arguments) {
+        return new CommandInvocation(COMMAND, arguments);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link CommandLineTokenizer} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandLineTokenizerTest {
+
+    private CommandLineTokenizer tokenizer;
+
+    @BeforeEach
+    void setUp() {
+        tokenizer = new CommandLineTokenizer();
+    }
+
+    @Test
+    void tokenizeOffsets() {
+        String line = "  cmd   value-1 value-2 ";
+
+        assertEquals(3, tokenizer.tokenize(line), "We expect three tokens.");
+        assertEquals(2, tokenizer.start(0), "Start offset of the command expected.");
+        assertEquals(5, tokenizer.end(0), "End offset of the command expected.");
+        assertFalse(tokenizer.isQuoted(0), "The command is not quoted.");
+        assertEquals("value-1", tokenizer.token(line, 1), "Token expected.");
+        assertEquals("value-2", tokenizer.token(line, 2), "Token expected.");
+    }
+
+    @Test
+    void tokenizeQuoted() {
+        String line = "cmd \"value 1\" 'value \"2\"' pre\"fix suf\"fix ''";
+
+        assertEquals(5, tokenizer.tokenize(line), "We expect five tokens.");
+        assertTrue(tokenizer.isQuoted(1), "The token is quoted.");
+        assertEquals("value 1", tokenizer.token(line, 1), "Double-quoted value expected.");
+        assertEquals("value \"2\"", tokenizer.token(line, 2), "Single-quoted value expected.");
+        assertEquals("prefix suffix", tokenizer.token(line, 3), "Quoted part inside a token expected.");
+        assertEquals("", tokenizer.token(line, 4), "Empty quoted value expected.");
+    }
+
+    @Test
+    void tokenizeEmpty() {
+        assertEquals(0, tokenizer.tokenize(""), "No tokens expected.");
+        assertEquals(0, tokenizer.tokenize(" \t "), "No tokens expected.");
+    }
+
+    @Test
+    void tokenizeManyTokensReusesBuffers() {
+        String line = "cmd" + " value".repeat(100);
+
+        assertEquals(101, tokenizer.tokenize(line), "We expect 101 tokens.");
+        assertEquals("value", tokenizer.token(line, 100), "Last token expected.");
+        assertEquals(1, tokenizer.tokenize("cmd"), "The buffers are reset for the next line.");
+    }
+
+    @Test
+    void tokenizePipeline() {
+        String line = "list 'a|b' | filter x|count";
+
+        assertEquals(5, tokenizer.tokenize(line), "We expect five tokens.");
+        assertEquals(3, tokenizer.stageCount(), "We expect three stages.");
+        assertEquals("a|b", tokenizer.token(line, 1), "Quoted pipe is no separator.");
+        assertEquals(0, tokenizer.stageStart(0), "First stage starts with the first token.");
+        assertEquals(2, tokenizer.stageEnd(0), "First stage ends before the filter command.");
+        assertEquals("filter", tokenizer.token(line, tokenizer.stageStart(1)), "Command of second stage expected.");
+        assertEquals(4, tokenizer.stageEnd(1), "Second stage ends before the count command.");
+        assertEquals("count", tokenizer.token(line, tokenizer.stageStart(2)), "Command of third stage expected.");
+        assertEquals(5, tokenizer.stageEnd(2), "Last stage ends with the last token.");
+
+        assertEquals(1, tokenizer.tokenize("cmd"), "We expect one token.");
+        assertEquals(1, tokenizer.stageCount(), "A line without pipe has one stage.");
+    }
+
+    @Test
+    void tokenizeEmptyPipelineStage() {
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.tokenize("| cmd"));
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.tokenize("cmd | | cmd"));
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.tokenize("cmd |  "));
+    }
+
+    @Test
+    void tokenizeUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.tokenize("cmd 'value"));
+    }
+}
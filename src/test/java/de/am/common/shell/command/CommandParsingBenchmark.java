@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Measures the heap allocation and latency per parsed command line of {@link ShellCommandDictionary#parse(String)}
+ * compared to copying the command with {@link ShellCommandDictionary#getCommand(String)} and converting its parameters.
+ * <p>
+ * This is no JUnit test, run it with the test classpath: {@code java de.am.common.shell.command.CommandParsingBenchmark}
+ *
+ * @author Martin Absmeier
+ */
+public class CommandParsingBenchmark {
+
+    private static final int LINES = 1_000_000;
+    private static final String[] INPUT = {"sum 1 2", "s  42 '4711'", "sum \"-1\" 99", "s 0 0"};
+
+    public static void main(String[] args) throws NoSuchMethodException {
+        Method method = CommandParsingBenchmark.class.getMethod("sum", int.class, long.class);
+        ShellCommandParameter[] parameters = new ShellCommandParameter[]{
+            ShellCommandParameter.builder().index(0).name("first").type(int.class).build(),
+            ShellCommandParameter.builder().index(1).name("second").type(long.class).build()
+        };
+        ShellCommand command = ShellCommand.builder().name("sum").shortcut("s").method(method)
+            .parameters(parameters).build();
+        ShellCommandDictionary dictionary = ShellCommandDictionary.builder().commands(List.of(command)).build();
+
+        // warm up
+        measureCopy(dictionary);
+        measureParse(dictionary);
+
+        System.out.printf("%8s | %16s | %12s%n", "variant", "bytes/line", "ns/line");
+        print("copy", measureCopy(dictionary));
+        print("parse", measureParse(dictionary));
+    }
+
+    public static long sum(int first, long second) {
+        return first + second;
+    }
+
+    private static long[] measureCopy(ShellCommandDictionary dictionary) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int index = 0; index < LINES; index++) {
+            ShellCommand cmd = dictionary.getCommand(INPUT[index & 3]);
+            checksum += cmd.getTypedParameters().length;
+        }
+        return new long[]{allocatedBytes() - bytes, System.nanoTime() - start, checksum};
+    }
+
+    private static long[] measureParse(ShellCommandDictionary dictionary) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int index = 0; index < LINES; index++) {
+            CommandInvocation invocation = dictionary.parse(INPUT[index & 3]);
+            checksum += invocation.getArguments().length;
+        }
+        return new long[]{allocatedBytes() - bytes, System.nanoTime() - start, checksum};
+    }
+
+    private static void print(String variant, long[] result) {
+        System.out.printf("%8s | %16.1f | %12.1f%n", variant, result[0] / (double) LINES, result[1] / (double) LINES);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * JUnit test cases of {@link CommandPrefixIndex} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandPrefixIndexTest {
+
+    private ShellCommand enableLogging;
+    private ShellCommand enableTime;
+    private ShellCommand exit;
+    private CommandPrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        enableLogging = ShellCommand.builder().name("enableLogging").shortcut("eL").build();
+        enableTime = ShellCommand.builder().name("enableTimeDisplay").shortcut("enableTimeDisplay").build();
+        exit = ShellCommand.builder().name("exit").shortcut("exit").build();
+        index = new CommandPrefixIndex(List.of(enableLogging, enableTime, exit));
+    }
+
+    @Test
+    void resolveUniquePrefix() {
+        assertSame(exit, resolve("ex"), "Command expected for a unique prefix.");
+        assertSame(enableLogging, resolve("enableL"), "Command expected for a unique prefix.");
+        assertSame(enableLogging, resolve("eL"), "Command expected by shortcut.");
+        assertSame(enableTime, resolve("enableTimeDisplay"), "Command expected by name.");
+    }
+
+    @Test
+    void resolveAmbiguousOrUnknown() {
+        assertNull(resolve("e"), "No command expected for an ambiguous prefix.");
+        assertNull(resolve("enable"), "No command expected for an ambiguous prefix.");
+        assertNull(resolve("version"), "No command expected for an unknown prefix.");
+        assertNull(resolve("exits"), "No command expected for a longer key.");
+    }
+
+    @Test
+    void resolveNameAndShortcutOfOneCommand() {
+        ShellCommand help = ShellCommand.builder().name("helpMe").shortcut("helpM").build();
+        index = new CommandPrefixIndex(List.of(help, exit));
+
+        assertSame(help, resolve("he"), "Name and shortcut of the same command are no ambiguity.");
+    }
+
+    @Test
+    void resolveByRange() {
+        String line = "  ex 1 2";
+
+        assertSame(exit, index.resolve(line, 2, 4), "Command expected for the range of the line.");
+    }
+
+    @Test
+    void complete() {
+        assertEquals(List.of("eL", "enableLogging", "enableTimeDisplay", "exit"), index.complete("e"), "Sorted candidates expected.");
+        assertEquals(List.of("enableLogging", "enableTimeDisplay"), index.complete("ena"), "Candidates expected.");
+        assertEquals(List.of("exit"), index.complete("exit"), "The complete key is a candidate.");
+        assertEquals(List.of(), index.complete("x"), "No candidates expected.");
+        assertEquals(4, index.complete("").size(), "All keys are candidates of the empty prefix.");
+    }
+
+    @Test
+    void emptyIndex() {
+        index = new CommandPrefixIndex(List.of());
+
+        assertNull(resolve("help"), "No command expected.");
+        assertEquals(List.of(), index.complete(""), "No candidates expected.");
+    }
+
+    @Test
+    void nullIdentifiersAreIgnoredAndFirstRegisteredWins() {
+        ShellCommand unnamed = ShellCommand.builder().build();
+        ShellCommand second = ShellCommand.builder().name("exit").shortcut("quit").build();
+        index = new CommandPrefixIndex(List.of(unnamed, exit, second));
+
+        assertSame(exit, resolve("exit"), "The first registered command expected.");
+        assertSame(second, resolve("q"), "Command expected by shortcut.");
+    }
+
+    // #################################################################################################################
+    private ShellCommand resolve(String prefix) {
+        return index.resolve(prefix, 0, prefix.length());
+    }
+}
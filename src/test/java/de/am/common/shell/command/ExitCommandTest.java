@@ -16,17 +16,16 @@
 package de.am.common.shell.command;
 
 import de.am.common.shell.Shell;
+import de.am.common.shell.history.CommandHistory;
 import de.am.common.shell.io.InputProvider;
 import de.am.common.shell.io.OutputProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -61,15 +60,39 @@ class ExitCommandTest {
 
     @Test
     void exit() {
-        doCallRealMethod().when(shell).setShutdown(anyBoolean());
-        when(shell.isShutdown()).thenCallRealMethod();
         when(shell.getInputProvider()).thenReturn(inputProvider);
         when(shell.getOutputProvider()).thenReturn(outputProvider);
         doNothing().when(shell).shutdown();
 
         command.exit();
-        assertTrue(shell.isShutdown());
+        verify(shell, times(1)).setShutdown(true);
         verify(inputProvider, times(1)).exit();
         verify(outputProvider, times(1)).exit();
+        verify(shell, times(1)).stopJobs();
+    }
+
+    @Test
+    void exitClosesHistory() {
+        CommandHistory history = mock(CommandHistory.class);
+        when(shell.getInputProvider()).thenReturn(inputProvider);
+        when(shell.getOutputProvider()).thenReturn(outputProvider);
+        when(shell.getHistory()).thenReturn(history);
+        when(shell.isConsole()).thenReturn(true);
+
+        command.exit();
+        verify(history, times(1)).close();
+    }
+
+    @Test
+    void exitOfSessionKeepsHistory() {
+        CommandHistory history = mock(CommandHistory.class);
+        when(shell.getInputProvider()).thenReturn(inputProvider);
+        when(shell.getOutputProvider()).thenReturn(outputProvider);
+        when(shell.getHistory()).thenReturn(history);
+        when(shell.isConsole()).thenReturn(false);
+
+        command.exit();
+        verify(history, never()).close();
+        verify(inputProvider, times(1)).exit();
     }
 }
\ No newline at end of file
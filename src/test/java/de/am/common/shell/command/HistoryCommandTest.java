@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.Shell;
+import de.am.common.shell.ShellConfig;
+import de.am.common.shell.ShellFactory;
+import de.am.common.shell.io.OutputProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static de.am.common.shell.ShellConstants.HISTORY_LIST_SIZE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * JUnit test cases of {@link HistoryCommand} class.
+ *
+ * @author Martin Absmeier
+ */
+class HistoryCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HistoryCommand command;
+    private OutputProvider outputProvider;
+    private Shell shell;
+
+    @BeforeEach
+    void setUp() {
+        command = new HistoryCommand();
+        outputProvider = mock(OutputProvider.class);
+        ShellConfig config = ShellConfig.builder().outputProvider(outputProvider).historyFile(tempDir.resolve("history")).build();
+        shell = ShellFactory.createShell(config);
+        command.setShell(shell);
+    }
+
+    @Test
+    void history() throws IOException {
+        for (int index = 1; index <= HISTORY_LIST_SIZE + 5; index++) {
+            shell.getHistory().add("command " + index);
+        }
+
+        command.history();
+        verify(outputProvider, times(HISTORY_LIST_SIZE)).println(eq("{0}  {1}"), eq(ANSI_WHITE_BRIGHT), any(), any());
+        verify(outputProvider).println("{0}  {1}", ANSI_WHITE_BRIGHT, "    6", "command 6");
+        verify(outputProvider).println("{0}  {1}", ANSI_WHITE_BRIGHT, "   25", "command 25");
+    }
+
+    @Test
+    void searchHistory() throws IOException {
+        shell.getHistory().add("load data.csv");
+        shell.getHistory().add("help");
+        shell.getHistory().add("store data.csv");
+
+        command.searchHistory("data");
+        verify(outputProvider).println("{0}  {1}", ANSI_WHITE_BRIGHT, "    3", "store data.csv");
+        verify(outputProvider).println("{0}  {1}", ANSI_WHITE_BRIGHT, "    1", "load data.csv");
+
+        command.searchHistory("version");
+        verify(outputProvider).println("No command contains [{0}].", ANSI_WHITE_BRIGHT, "version");
+    }
+
+    @Test
+    void historyDisabled() {
+        shell = ShellFactory.createShell(ShellConfig.builder().outputProvider(outputProvider).build());
+        command.setShell(shell);
+
+        command.history();
+        command.searchHistory("data");
+        verify(outputProvider, times(2)).println("{0}", ANSI_WHITE_BRIGHT, "The history is disabled.");
+    }
+}
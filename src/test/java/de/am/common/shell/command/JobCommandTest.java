@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.Shell;
+import de.am.common.shell.ShellConfig;
+import de.am.common.shell.ShellFactory;
+import de.am.common.shell.ShellInject;
+import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.exception.ShellException;
+import de.am.common.shell.io.InputProvider;
+import de.am.common.shell.io.OutputProvider;
+import de.am.common.shell.job.Job;
+import lombok.Setter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JUnit test cases of {@link JobCommand} class.
+ *
+ * @author Martin Absmeier
+ */
+class JobCommandTest {
+
+    private JobCommand command;
+    private OutputProvider outputProvider;
+    private Shell shell;
+
+    @BeforeEach
+    void setUp() {
+        command = new JobCommand();
+        outputProvider = mock(OutputProvider.class);
+        shell = ShellFactory.createShell(ShellConfig.builder().outputProvider(outputProvider).build());
+        command.setShell(shell);
+    }
+
+    @Test
+    void jobs() {
+        command.jobs();
+        verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "No jobs.");
+
+        Job running = shell.getJobs().add("load", new CompletableFuture<>(), null);
+        Job done = shell.getJobs().add("done", CompletableFuture.completedFuture("x"), null);
+        command.jobs();
+
+        verify(outputProvider).println(eq("{0}"), eq(ANSI_WHITE_BRIGHT), startsWith("[1] RUNNING"));
+        verify(outputProvider).println(eq("{0}"), eq(ANSI_WHITE_BRIGHT), startsWith("[2] SUCCESS"));
+        assertEquals(1, shell.getJobs().getJobs().size(), "Done jobs are removed after listing.");
+        assertSame(running, shell.getJobs().getJobs().get(0), "Running job expected.");
+        assertFalse(done.markReported(), "Listed jobs are reported.");
+    }
+
+    @Test
+    void waitFor() {
+        shell.getJobs().add("load", CompletableFuture.completedFuture("result"), null);
+
+        assertEquals("result", command.waitFor(1), "Result of the job expected.");
+        assertTrue(shell.getJobs().getJobs().isEmpty(), "Awaited job is removed.");
+        assertThrows(IllegalArgumentException.class, () -> command.waitFor(1));
+    }
+
+    @Test
+    void waitForFailedJob() {
+        shell.getJobs().add("runtime", CompletableFuture.failedFuture(new IllegalStateException("failed")), null);
+        shell.getJobs().add("checked", CompletableFuture.failedFuture(new IOException("failed")), null);
+
+        assertThrows(IllegalStateException.class, () -> command.waitFor(1));
+        ShellException exception = assertThrows(ShellException.class, () -> command.waitFor(2));
+        assertTrue(exception.getCause() instanceof IOException, "Checked exceptions are wrapped.");
+    }
+
+    @Test
+    void waitForInterrupted() {
+        shell.getJobs().add("load", new CompletableFuture<>(), null);
+
+        Thread.currentThread().interrupt();
+        assertThrows(ShellException.class, () -> command.waitFor(1));
+        assertTrue(Thread.interrupted(), "The interrupt flag must be restored.");
+    }
+
+    @Test
+    void waitForReplaysOutputOfBackgroundJob() {
+        InputProvider inputProvider = mock(InputProvider.class);
+        ShellConfig config = ShellConfig.builder().inputProvider(inputProvider).outputProvider(outputProvider).build();
+        shell = ShellFactory.createShell(config, new SlowCommand());
+
+        when(inputProvider.readCommand()).thenReturn("slow & ").thenReturn("wait 1").thenReturn("exit");
+        shell.execute();
+
+        InOrder inOrder = inOrder(outputProvider);
+        inOrder.verify(outputProvider).println("Job [{0}] started: {1}", ANSI_WHITE_BRIGHT, "1", "slow");
+        inOrder.verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "first line");
+        inOrder.verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "second line");
+        inOrder.verify(outputProvider).println("{0}", ANSI_WHITE_BRIGHT, "done");
+        verify(outputProvider, never()).println(startsWith("Job [{0}] done"), any(), any(), any(), any());
+        assertTrue(shell.getJobs().getJobs().isEmpty(), "The awaited job is removed.");
+    }
+
+    @Test
+    void cancel() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        shell.getJobs().add("load", future, null);
+        shell.getJobs().add("done", CompletableFuture.completedFuture("x"), null);
+
+        command.cancel(1);
+        command.cancel(2);
+
+        assertThrows(CancellationException.class, future::join);
+        verify(outputProvider).println("Job [{0}] cancelled.", ANSI_WHITE_BRIGHT, "1");
+        verify(outputProvider).println("Job [{0}] is already done.", ANSI_WHITE_BRIGHT, "2");
+        assertTrue(shell.getJobs().getJobs().isEmpty(), "Cancelled jobs are removed.");
+    }
+
+    public static class SlowCommand implements ShellInject {
+        @Setter
+        private Shell shell;
+
+        @Command(name = "slow")
+        public String slow() throws InterruptedException {
+            Thread.sleep(50);
+            shell.getOutputProvider().println("{0}", ANSI_WHITE_BRIGHT, "first line");
+            shell.getOutputProvider().println("{0}", ANSI_WHITE_BRIGHT, "second line");
+            return "done";
+        }
+    }
+}
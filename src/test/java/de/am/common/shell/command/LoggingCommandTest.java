@@ -18,13 +18,17 @@ package de.am.common.shell.command;
 import de.am.common.shell.ShellConfig;
 import de.am.common.shell.ShellFactory;
 import de.am.common.shell.io.DefaultOutputProvider;
+import de.am.common.shell.io.LogRotation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.File;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
@@ -86,6 +90,26 @@ class LoggingCommandTest {
         assertThrows(IllegalArgumentException.class, () -> command.enableLogging(fileName));
     }
 
+    @Test
+    void enableRollingLogging() {
+        command.enableRollingLogging("rolling.log", "10MB", 3, true);
+
+        ArgumentCaptor<LogRotation> rotation = ArgumentCaptor.forClass(LogRotation.class);
+        verify(outputProvider).enableLogging(eq("rolling.log"), rotation.capture());
+        assertEquals(10L << 20, rotation.getValue().getMaxFileSize(), "Maximum file size expected.");
+        assertEquals(3, rotation.getValue().getMaxFiles(), "Number of files expected.");
+        assertTrue(rotation.getValue().isCompressed(), "Compressed segments expected.");
+    }
+
+    @Test
+    void enableRollingLoggingInvalid() {
+        String fileName = ".." + File.separator + "logfile";
+
+        assertThrows(IllegalArgumentException.class, () -> command.enableRollingLogging(fileName, "10MB", 3, false));
+        assertThrows(IllegalArgumentException.class, () -> command.enableRollingLogging("rolling.log", "big", 3, false));
+        assertThrows(IllegalArgumentException.class, () -> command.enableRollingLogging("rolling.log", "10MB", 0, false));
+    }
+
     @Test
     void disableLogging() {
         doNothing().when(outputProvider).disableLogging();
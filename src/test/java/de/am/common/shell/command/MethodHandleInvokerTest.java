@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test cases of {@link MethodHandleInvoker} class.
+ *
+ * @author Martin Absmeier
+ */
+class MethodHandleInvokerTest {
+
+    @Test
+    void invokeInstanceMethod() throws Throwable {
+        Handler handler = new Handler();
+        Method method = Handler.class.getMethod("add", int.class, Integer.class);
+
+        CommandInvoker invoker = MethodHandleInvoker.bind(method, handler);
+        assertEquals(3, invoker.invoke(new Object[]{1, 2}), "Sum of the arguments expected.");
+    }
+
+    @Test
+    void invokeVoidMethod() throws Throwable {
+        Handler handler = new Handler();
+        Method method = Handler.class.getMethod("count");
+
+        CommandInvoker invoker = MethodHandleInvoker.bind(method, handler);
+        assertNull(invoker.invoke(new Object[0]), "A void method returns null.");
+        assertEquals(1, handler.counter, "The bound handler should be called.");
+    }
+
+    @Test
+    void invokeStaticMethod() throws Throwable {
+        Method method = Integer.class.getMethod("parseInt", String.class);
+
+        CommandInvoker invoker = MethodHandleInvoker.bind(method, null);
+        assertEquals(42, invoker.invoke(new Object[]{"42"}), "Parsed value expected.");
+    }
+
+    @Test
+    void invokeVarargsMethodWithFixedArity() throws Throwable {
+        Method method = Handler.class.getMethod("join", String[].class);
+
+        CommandInvoker invoker = MethodHandleInvoker.bind(method, new Handler());
+        assertEquals("a,b", invoker.invoke(new Object[]{new String[]{"a", "b"}}), "Joined values expected.");
+    }
+
+    @Test
+    void invokeThrowsUnwrappedException() throws NoSuchMethodException {
+        Method method = Handler.class.getMethod("fail");
+
+        CommandInvoker invoker = MethodHandleInvoker.bind(method, new Handler());
+        assertThrows(IOException.class, () -> invoker.invoke(new Object[0]));
+    }
+
+    @Test
+    void invokeWrongNumberOfArguments() throws NoSuchMethodException {
+        Method method = Handler.class.getMethod("count");
+
+        CommandInvoker invoker = MethodHandleInvoker.bind(method, new Handler());
+        assertThrows(IllegalArgumentException.class, () -> invoker.invoke(new Object[]{"too much"}));
+    }
+
+    @Test
+    void bindNullMethod() {
+        assertThrows(NullPointerException.class, () -> MethodHandleInvoker.bind(null, new Handler()));
+    }
+
+    // #################################################################################################################
+    private static class Handler {
+        private int counter;
+
+        public int add(int first, Integer second) {
+            return first + second;
+        }
+
+        public void count() {
+            counter++;
+        }
+
+        public String join(String... values) {
+            return String.join(",", values);
+        }
+
+        public void fail() throws IOException {
+            throw new IOException("Expected");
+        }
+    }
+}
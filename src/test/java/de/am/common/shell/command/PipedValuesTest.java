@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link PipedValues} class.
+ *
+ * @author Martin Absmeier
+ */
+class PipedValuesTest {
+
+    @Test
+    void isSequenceType() {
+        assertTrue(PipedValues.isSequenceType(Stream.class));
+        assertTrue(PipedValues.isSequenceType(Iterator.class));
+        assertTrue(PipedValues.isSequenceType(Iterable.class));
+        assertFalse(PipedValues.isSequenceType(List.class));
+        assertFalse(PipedValues.isSequenceType(String.class));
+    }
+
+    @Test
+    void isSequence() {
+        assertTrue(PipedValues.isSequence(Stream.of(1)));
+        assertTrue(PipedValues.isSequence(IntStream.of(1)));
+        assertTrue(PipedValues.isSequence(List.of(1).iterator()));
+        assertTrue(PipedValues.isSequence(List.of(1).spliterator()));
+        assertFalse(PipedValues.isSequence(List.of(1)));
+        assertFalse(PipedValues.isSequence("value"));
+    }
+
+    @Test
+    void toSequenceKeepsMatchingValue() {
+        Stream<Integer> stream = Stream.of(1, 2);
+        List<Integer> list = List.of(1, 2);
+
+        assertSame(stream, PipedValues.toSequence(stream, Stream.class), "Stream should be passed unchanged.");
+        assertSame(list, PipedValues.toSequence(list, Iterable.class), "Iterable should be passed unchanged.");
+    }
+
+    @Test
+    void toSequenceIsLazy() {
+        // an infinite stream must not be materialized
+        Stream<Integer> infinite = Stream.iterate(0, value -> value + 1);
+        Iterator<?> iterator = (Iterator<?>) PipedValues.toSequence(infinite, Iterator.class);
+
+        assertEquals(0, iterator.next());
+        assertEquals(1, iterator.next());
+    }
+
+    @Test
+    void toSequenceAdaptsValues() {
+        assertEquals(List.of(1, 2), elements(PipedValues.toSequence(List.of(1, 2), Stream.class)));
+        assertEquals(List.of(1, 2), elements(PipedValues.toSequence(new Integer[]{1, 2}, Stream.class)));
+        assertEquals(List.of(1, 2), elements(PipedValues.toSequence(IntStream.of(1, 2), Stream.class)));
+        assertEquals(List.of(1L, 2L), elements(PipedValues.toSequence(IntStream.of(1, 2).asLongStream(), Iterator.class)));
+        assertEquals(List.of(1.0, 2.0), elements(PipedValues.toSequence(IntStream.of(1, 2).asDoubleStream(), Iterable.class)));
+        assertEquals(List.of(1, 2), elements(PipedValues.toSequence(List.of(1, 2).iterator(), Iterable.class)));
+        assertEquals(List.of(1, 2), elements(PipedValues.toSequence(List.of(1, 2).spliterator(), Stream.class)));
+        assertEquals(List.of(1, 2), elements(PipedValues.toSequence(new CustomIterable(), Stream.class)));
+        assertEquals(List.of("value"), elements(PipedValues.toSequence("value", Stream.class)));
+        assertEquals(List.of(), elements(PipedValues.toSequence(null, Stream.class)));
+    }
+
+    // #################################################################################################################
+    private static List<Object> elements(Object sequence) {
+        List<Object> elements = new ArrayList<>();
+        if (sequence instanceof Stream<?> stream) {
+            stream.forEach(elements::add);
+        } else if (sequence instanceof Iterator<?> iterator) {
+            iterator.forEachRemaining(elements::add);
+        } else {
+            ((Iterable<?>) sequence).forEach(elements::add);
+        }
+        return elements;
+    }
+
+    private static class CustomIterable implements Iterable<Integer> {
+        @Override
+        public Iterator<Integer> iterator() {
+            return List.of(1, 2).iterator();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the lookup latency of {@link ShellCommandDictionary#getCommand(String)} for a growing number of registered
+ * commands and compares it to a linear scan over the command list. The resolution of unique prefixes and the completion
+ * of a prefix are measured as well.<p>
+ * This is no JUnit test, run it with the test classpath: {@code java de.am.common.shell.command.ShellCommandDictionaryBenchmark}
+ *
+ * @author Martin Absmeier
+ */
+public class ShellCommandDictionaryBenchmark {
+
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000};
+    private static final int LOOKUPS = 200_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%10s | %18s | %18s | %18s | %18s%n", "commands", "index ns/lookup", "linear ns/lookup",
+            "prefix ns/lookup", "complete ns/call");
+        for (int size : SIZES) {
+            List<ShellCommand> commands = createCommands(size);
+            ShellCommandDictionary dictionary = ShellCommandDictionary.builder().commands(commands).isPrefixMatching(true).build();
+            String[] lines = createLines(size);
+            String[] prefixes = createPrefixes(lines);
+
+            // warm up
+            measureIndex(dictionary, lines);
+            measureLinear(commands, lines);
+            measureIndex(dictionary, prefixes);
+            measureComplete(dictionary, prefixes);
+
+            System.out.printf("%10d | %18.1f | %18.1f | %18.1f | %18.1f%n", size, measureIndex(dictionary, lines),
+                measureLinear(commands, lines), measureIndex(dictionary, prefixes), measureComplete(dictionary, prefixes));
+        }
+    }
+
+    private static double measureComplete(ShellCommandDictionary dictionary, String[] prefixes) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int index = 0; index < LOOKUPS; index++) {
+            if (!dictionary.complete(prefixes[index % prefixes.length]).isEmpty()) {
+                found++;
+            }
+        }
+        return nanosPerLookup(start, found);
+    }
+
+    private static double measureIndex(ShellCommandDictionary dictionary, String[] lines) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int index = 0; index < LOOKUPS; index++) {
+            if (dictionary.getCommand(lines[index % lines.length]) != null) {
+                found++;
+            }
+        }
+        return nanosPerLookup(start, found);
+    }
+
+    private static double measureLinear(List<ShellCommand> commands, String[] lines) {
+        int lookups = Math.min(LOOKUPS, 20_000_000 / commands.size());
+        int found = 0;
+        long start = System.nanoTime();
+        for (int index = 0; index < lookups; index++) {
+            String line = lines[index % lines.length];
+            if (commands.stream().anyMatch(cmd -> line.equals(cmd.getName()) || line.equals(cmd.getShortcut()))) {
+                found++;
+            }
+        }
+        return (System.nanoTime() - start) / (double) found;
+    }
+
+    private static double nanosPerLookup(long start, int found) {
+        return (System.nanoTime() - start) / (double) found;
+    }
+
+    private static List<ShellCommand> createCommands(int size) {
+        List<ShellCommand> commands = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            commands.add(ShellCommand.builder().name("admin-command-" + index + "-run").shortcut("ac" + index)
+                .parameters(new ShellCommandParameter[0]).build());
+        }
+        return commands;
+    }
+
+    private static String[] createLines(int size) {
+        String[] lines = new String[1024];
+        for (int index = 0; index < lines.length; index++) {
+            int command = (int) ((index * 2654435761L) % size);
+            lines[index] = index % 2 == 0 ? "admin-command-" + command + "-run" : "ac" + command;
+        }
+        return lines;
+    }
+
+    private static String[] createPrefixes(String[] lines) {
+        String[] prefixes = new String[lines.length];
+        for (int index = 0; index < lines.length; index++) {
+            // the name without its last character is a unique prefix
+            String line = lines[index - index % 2];
+            prefixes[index] = line.substring(0, line.length() - 1);
+        }
+        return prefixes;
+    }
+}
@@ -17,11 +17,17 @@ package de.am.common.shell.command;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -51,6 +57,18 @@ class ShellCommandDictionaryTest {
         assertTrue(commands.isEmpty(), "Shell command list not empty.");
     }
 
+    @Test
+    void builderNullCommand() {
+        List<ShellCommand> commands = new ArrayList<>();
+        commands.add(createCommand("cmd-1", "c1"));
+        commands.add(null);
+
+        NullPointerException ex = assertThrows(NullPointerException.class,
+            () -> ShellCommandDictionary.builder().commands(commands).build());
+        assertEquals("[NULL] is not permitted as value for [command at index 1] parameter.", ex.getMessage(),
+            "The null command should be named.");
+    }
+
     @Test
     void commandsList() {
         dictionary = ShellCommandDictionary.builder().commands(createCommands()).build();
@@ -79,6 +97,50 @@ class ShellCommandDictionaryTest {
         assertEquals(expectedShortCut, actual.getShortcut(), "Command short cut not equal.");
     }
 
+    @Test
+    void commandsListIsImmutable() {
+        List<ShellCommand> commands = createCommands();
+        dictionary = ShellCommandDictionary.builder().commands(commands).build();
+        commands.clear();
+
+        List<ShellCommand> actual = dictionary.getCommands();
+        assertEquals(3, actual.size(), "Later changes of the passed list must not affect the dictionary.");
+        assertThrows(UnsupportedOperationException.class, () -> actual.add(createCommand("cmd-4", "c4")));
+    }
+
+    @Test
+    void getCommandUnknown() {
+        dictionary = ShellCommandDictionary.builder().commands(createCommands()).build();
+
+        assertNull(dictionary.getCommand("cmd-4"), "We expect no command.");
+        assertNull(dictionary.getCommand("cmd"), "We expect no command for a prefix of a name.");
+    }
+
+    @Test
+    void getCommandFirstRegisteredWins() {
+        List<ShellCommand> commands = new ArrayList<>();
+        ShellCommand first = createCommand("first", "cmd");
+        commands.add(first);
+        commands.add(createCommand("cmd", "second"));
+        dictionary = ShellCommandDictionary.builder().commands(commands).build();
+
+        assertSame(first, dictionary.getCommand("cmd"), "The first registered command is expected.");
+    }
+
+    @Test
+    void getCommandManyCommands() {
+        List<ShellCommand> commands = new ArrayList<>();
+        for (int index = 0; index < 10_000; index++) {
+            commands.add(createCommand("cmd-" + index, "c" + index));
+        }
+        dictionary = ShellCommandDictionary.builder().commands(commands).build();
+
+        for (int index = 0; index < 10_000; index += 999) {
+            assertEquals("cmd-" + index, dictionary.getCommand("cmd-" + index).getName(), "Command name not equal.");
+            assertEquals("cmd-" + index, dictionary.getCommand("c" + index).getName(), "Command short cut not found.");
+        }
+    }
+
     @Test
     void getCommandIllegalArgumentException() {
         ShellCommandParameter[] parameters = new ShellCommandParameter[]{
@@ -157,7 +219,161 @@ class ShellCommandDictionaryTest {
         assertEquals("second", secondCommand.getParameters()[0].getValue(), "Second parsed command should keep its own value.");
     }
 
+    @Test
+    void parse() throws NoSuchMethodException {
+        Method method = getClass().getMethod("sum", int.class, Long.class);
+        ShellCommandParameter[] parameters = new ShellCommandParameter[]{
+            ShellCommandParameter.builder().index(0).name("first").type(int.class).build(),
+            ShellCommandParameter.builder().index(1).name("second").type(Long.class).build()
+        };
+        ShellCommand registeredCommand = ShellCommand.builder().name("sum").shortcut("s").method(method)
+            .invoker(MethodHandleInvoker.bind(method, this)).parameters(parameters).build();
+        dictionary = ShellCommandDictionary.builder().commands(List.of(registeredCommand)).build();
+
+        CommandInvocation invocation = dictionary.parse("  s 1 '2'");
+        assertSame(registeredCommand, invocation.getCommand(), "The registered command should not be copied.");
+        assertArrayEquals(new Object[]{1, 2L}, invocation.getArguments(), "Typed arguments expected.");
+        assertEquals(3L, invocation.invoke(), "Result of the method expected.");
+        assertEquals("", registeredCommand.getParameters()[0].getValue(), "Registered command metadata must stay unchanged.");
+    }
+
+    @Test
+    void parseQuotedCommandName() {
+        dictionary = ShellCommandDictionary.builder().commands(createCommands()).build();
+
+        CommandInvocation invocation = dictionary.parse("\"cmd-2\"");
+        assertEquals("cmd-2", invocation.getCommand().getName(), "Command name not equal.");
+        assertEquals(0, invocation.getArguments().length, "No arguments expected.");
+    }
+
+    @Test
+    void parseUnknownAndEmpty() {
+        dictionary = ShellCommandDictionary.builder().commands(createCommands()).build();
+
+        assertNull(dictionary.parse("unknown 1"), "No invocation expected for an unknown command.");
+        assertNull(dictionary.parse("   "), "No invocation expected for an empty line.");
+    }
+
+    @Test
+    void parseWrongNumberOfValues() {
+        ShellCommandParameter[] parameters = new ShellCommandParameter[]{
+            ShellCommandParameter.builder().name("param-1").type(String.class).build()
+        };
+        List<ShellCommand> commands = new ArrayList<>();
+        commands.add(ShellCommand.builder().name("cmd").shortcut("cmd").parameters(parameters).build());
+        dictionary = ShellCommandDictionary.builder().commands(commands).build();
+
+        assertThrows(IllegalArgumentException.class, () -> dictionary.parse("cmd"));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.parse("cmd 1 2"));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.parse("cmd \"1"));
+    }
+
+    @Test
+    void parseWithCache() throws NoSuchMethodException {
+        Method method = getClass().getMethod("sum", int.class, Long.class);
+        ShellCommandParameter[] parameters = new ShellCommandParameter[]{
+            ShellCommandParameter.builder().index(0).name("first").type(int.class).build(),
+            ShellCommandParameter.builder().index(1).name("second").type(Long.class).build()
+        };
+        ShellCommand registeredCommand = ShellCommand.builder().name("sum").shortcut("s").method(method)
+            .invoker(MethodHandleInvoker.bind(method, this)).parameters(parameters).build();
+        CommandLineCache cache = CommandLineCache.builder().maxSize(4).build();
+        dictionary = ShellCommandDictionary.builder().commands(List.of(registeredCommand)).cache(cache).build();
+
+        CommandInvocation first = dictionary.parse("sum 1 2");
+        assertSame(first, dictionary.parse("sum 1 2"), "The cached invocation is expected.");
+        assertNull(dictionary.parse("unknown"), "Unknown commands are not cached.");
+        assertEquals(1, cache.getHits(), "One cache hit expected.");
+        assertEquals(2, cache.getMisses(), "Two cache misses expected.");
+        assertEquals(1, cache.size(), "Only the known command line is cached.");
+    }
+
+    @Test
+    void parsePipeline() throws NoSuchMethodException {
+        dictionary = ShellCommandDictionary.builder().commands(List.of(
+            createBoundCommand("range", int.class),
+            createBoundCommand("above", int.class, Stream.class),
+            createBoundCommand("total", Iterator.class)
+        )).build();
+
+        CommandInvocation invocation = dictionary.parse("range 5 | above 2 | total");
+        assertEquals("total", invocation.getCommand().getName(), "The last command of the pipeline is expected.");
+        assertEquals("above", invocation.getPrevious().getCommand().getName(), "The previous command is expected.");
+        assertEquals(7L, invocation.invoke(), "Sum of 3 and 4 expected.");
+        assertEquals(7L, invocation.invoke(), "A pipeline can be invoked several times.");
+
+        assertNull(dictionary.parse("range 5 | unknown"), "No invocation expected for an unknown piped command.");
+        assertThrows(IllegalArgumentException.class, () -> dictionary.parse("range 5 | above"));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.getCommand("range 5 | total"));
+    }
+
+    @Test
+    void parseByPrefix() {
+        dictionary = ShellCommandDictionary.builder().commands(createCommands()).build();
+        assertNull(dictionary.parse("cmd-"), "Prefixes are only matched if enabled.");
+
+        dictionary = ShellCommandDictionary.builder().commands(List.of(createCommand("version", "v"),
+            createCommand("verbose", "vb"), createCommand("exit", "exit"))).isPrefixMatching(true).build();
+        assertTrue(dictionary.isPrefixMatching(), "Prefix matching expected.");
+        assertEquals("exit", dictionary.parse("ex").getCommand().getName(), "Command expected for a unique prefix.");
+        assertEquals("version", dictionary.parse("\"vers\"").getCommand().getName(), "Command expected for a quoted prefix.");
+        assertEquals("version", dictionary.getCommand("vers").getName(), "Command expected for a unique prefix.");
+        assertEquals("version", dictionary.parse("v").getCommand().getName(), "Exact shortcut is preferred.");
+        assertNull(dictionary.parse("ver"), "No invocation expected for an ambiguous prefix.");
+        assertNull(dictionary.parse("''"), "No invocation expected for an empty command.");
+    }
+
+    @Test
+    void complete() throws NoSuchMethodException {
+        dictionary = ShellCommandDictionary.builder().commands(List.of(
+            createBoundCommand("range", int.class),
+            createBoundCommand("above", int.class, Stream.class),
+            createBoundCommand("total", Iterator.class)
+        )).build();
+
+        assertEquals(List.of("above", "range", "total"), dictionary.complete(""), "All commands expected.");
+        assertEquals(List.of("range"), dictionary.complete("  ra"), "Command candidates expected.");
+        assertEquals(List.of("<param0>"), dictionary.complete("range "), "Parameter name expected.");
+        assertEquals(List.of("<param0>"), dictionary.complete("range 5"), "Parameter name expected.");
+        assertEquals(List.of(), dictionary.complete("range 5 "), "No more parameters expected.");
+        assertEquals(List.of("above", "range", "total"), dictionary.complete("range 5 | "), "Piped command candidates expected.");
+        assertEquals(List.of("total"), dictionary.complete("range 5 | t"), "Piped command candidates expected.");
+        assertEquals(List.of("<param0>"), dictionary.complete("range 5 | above "), "Parameter of piped command expected.");
+        assertEquals(List.of(), dictionary.complete("unknown "), "No candidates for an unknown command expected.");
+        assertEquals(List.of(), dictionary.complete("range \"5"), "No candidates within an unterminated quote expected.");
+    }
+
     // #################################################################################################################
+    public Stream<Integer> range(int count) {
+        return Stream.iterate(0, value -> value + 1).limit(count);
+    }
+
+    public Stream<Integer> above(int minimum, Stream<Integer> values) {
+        return values.filter(value -> value > minimum);
+    }
+
+    public long total(Iterator<Integer> values) {
+        long total = 0;
+        while (values.hasNext()) {
+            total += values.next();
+        }
+        return total;
+    }
+
+    private ShellCommand createBoundCommand(String name, Class<?>... types) throws NoSuchMethodException {
+        Method method = getClass().getMethod(name, types);
+        ShellCommandParameter[] parameters = new ShellCommandParameter[types.length];
+        for (int index = 0; index < types.length; index++) {
+            parameters[index] = ShellCommandParameter.builder().index(index).name("param" + index).type(types[index]).build();
+        }
+        return ShellCommand.builder().name(name).shortcut(name).method(method)
+            .invoker(MethodHandleInvoker.bind(method, this)).parameters(parameters).build();
+    }
+
+    public long sum(int first, Long second) {
+        return first + second;
+    }
+
     private List<ShellCommand> createCommands() {
         List<ShellCommand> commands = new ArrayList<>();
 
@@ -15,11 +15,14 @@
  */
 package de.am.common.shell.command;
 
+import de.am.common.shell.exception.ShellException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -119,7 +122,93 @@ class ShellCommandTest {
         assertThrows(IllegalArgumentException.class, () -> command.getTypedParameters());
     }
 
+    @Test
+    void convertWithParameterConverter() throws NoSuchMethodException {
+        TypeConverter<Boolean> converter = value -> "yes".equals(value);
+        ShellCommandParameter[] parameters = new ShellCommandParameter[]{
+            ShellCommandParameter.builder().index(0).name("param-1").value("yes").type(Boolean.class).converter(converter).build()
+        };
+
+        Method booleanMethod = getClass().getMethod("booleanValue", Boolean.class);
+        command = ShellCommand.builder().name("booleanCommand").method(booleanMethod).parameters(parameters).build();
+
+        assertEquals(Boolean.TRUE, command.getTypedParameters()[0], "The converter of the parameter should be used.");
+    }
+
+    @Test
+    void withParametersReusesConverters() throws NoSuchMethodException {
+        TypeConverter<Boolean> converter = value -> "yes".equals(value);
+        ShellCommandParameter[] parameters = new ShellCommandParameter[]{
+            ShellCommandParameter.builder().index(0).name("param-1").type(Boolean.class).converter(converter).build()
+        };
+        Method booleanMethod = getClass().getMethod("booleanValue", Boolean.class);
+        command = ShellCommand.builder().name("booleanCommand").method(booleanMethod).parameters(parameters).build();
+
+        ShellCommand copy = command.withParameters(new ShellCommandParameter[]{
+            ShellCommandParameter.builder().index(0).name("param-1").value("yes").type(Boolean.class).build()
+        });
+
+        assertEquals("booleanCommand", copy.getName(), "The name of the command should be copied.");
+        assertEquals(Boolean.TRUE, copy.getTypedParameters()[0], "The converter resolved for the command should be used.");
+    }
+
+    @Test
+    void convertWithoutMethod() {
+        ShellCommandParameter[] parameters = new ShellCommandParameter[]{
+            ShellCommandParameter.builder().index(0).name("param-1").value("12").type(int.class).build()
+        };
+        command = ShellCommand.builder().name("intCommand").parameters(parameters).build();
+
+        assertEquals(12, command.getTypedParameters()[0], "The type of the parameter should be used.");
+    }
+
+    @Test
+    void invoke() throws NoSuchMethodException {
+        Method booleanMethod = getClass().getMethod("booleanValue", Boolean.class);
+        command = ShellCommand.builder().name("booleanCommand").method(booleanMethod)
+            .invoker(MethodHandleInvoker.bind(booleanMethod, this)).build();
+
+        assertEquals("true", command.invoke(new Object[]{Boolean.TRUE}), "Return value of the method expected.");
+    }
+
+    @Test
+    void invokeWrapsCheckedException() throws NoSuchMethodException {
+        Method failMethod = getClass().getMethod("fail");
+        command = ShellCommand.builder().name("failCommand").method(failMethod)
+            .invoker(MethodHandleInvoker.bind(failMethod, this)).build();
+
+        ShellException exception = assertThrows(ShellException.class, () -> command.invoke(new Object[0]));
+        assertEquals(IOException.class, exception.getCause().getClass(), "The checked exception is expected as cause.");
+    }
+
+    @Test
+    void invokeWrapsError() throws NoSuchMethodException {
+        command = createCommand("assertFail");
+        ShellException exception = assertThrows(ShellException.class, () -> command.invoke(new Object[0]));
+        assertEquals(AssertionError.class, exception.getCause().getClass(), "The error is expected as cause.");
+
+        command = createCommand("overflow");
+        exception = assertThrows(ShellException.class, () -> command.invoke(new Object[0]));
+        assertEquals(StackOverflowError.class, exception.getCause().getClass(), "The stack overflow is expected as cause.");
+    }
+
+    @Test
+    void invokePassesFatalError() throws NoSuchMethodException {
+        command = createCommand("outOfMemory");
+        assertThrows(OutOfMemoryError.class, () -> command.invoke(new Object[0]));
+    }
+
+    @Test
+    void invokeWithoutInvoker() {
+        assertThrows(ShellException.class, () -> command.invoke(new Object[0]), "We expect a ShellException to be thrown.");
+    }
+
     // #################################################################################################################
+    private ShellCommand createCommand(String methodName) throws NoSuchMethodException {
+        Method method = getClass().getMethod(methodName);
+        return ShellCommand.builder().name(methodName).method(method).invoker(MethodHandleInvoker.bind(method, this)).build();
+    }
+
     private ShellCommandParameter[] createParameter(int count) {
         ShellCommandParameter[] parameter = new ShellCommandParameter[count];
 
@@ -139,4 +228,20 @@ class ShellCommandTest {
     public String booleanValue(Boolean value) {
         return value.toString();
     }
-}
\ No newline at end of file
+
+    public void fail() throws IOException {
+        throw new IOException("Expected exception.");
+    }
+
+    public void assertFail() {
+        throw new AssertionError("Expected error.");
+    }
+
+    public void overflow() {
+        throw new StackOverflowError();
+    }
+
+    public void outOfMemory() {
+        throw new OutOfMemoryError("Expected error.");
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command;
+
+import de.am.common.shell.exception.ShellException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test cases of {@link TypeConverterRegistry} class.
+ *
+ * @author Martin Absmeier
+ */
+class TypeConverterRegistryTest {
+
+    private TypeConverterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TypeConverterRegistry();
+    }
+
+    @Test
+    void convertPrimitivesAndWrappers() {
+        assertEquals(42, registry.getConverter(int.class).convert("42"));
+        assertEquals(42, registry.getConverter(Integer.class).convert("42"));
+        assertEquals(7L, registry.getConverter(long.class).convert("7"));
+        assertEquals((short) 3, registry.getConverter(short.class).convert("3"));
+        assertEquals((byte) 1, registry.getConverter(byte.class).convert("1"));
+        assertEquals(2.5d, registry.getConverter(double.class).convert("2.5"));
+        assertEquals(1.5f, registry.getConverter(float.class).convert("1.5"));
+        assertEquals(true, registry.getConverter(boolean.class).convert("TRUE"));
+        assertEquals('x', registry.getConverter(char.class).convert("x"));
+        assertEquals("text", registry.getConverter(String.class).convert("text"));
+    }
+
+    @Test
+    void convertInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> registry.getConverter(int.class).convert("one"));
+        assertThrows(IllegalArgumentException.class, () -> registry.getConverter(boolean.class).convert("yes"));
+        assertThrows(IllegalArgumentException.class, () -> registry.getConverter(char.class).convert("xy"));
+    }
+
+    @Test
+    void convertValueTypes() {
+        UUID uuid = UUID.randomUUID();
+
+        assertEquals(new BigDecimal("10.95"), registry.getConverter(BigDecimal.class).convert("10.95"));
+        assertEquals(uuid, registry.getConverter(UUID.class).convert(uuid.toString()));
+        assertEquals(Duration.ofSeconds(5), registry.getConverter(Duration.class).convert("PT5S"));
+        assertEquals(Path.of("dir", "file.txt"), registry.getConverter(Path.class).convert("dir/file.txt"));
+    }
+
+    @Test
+    void convertEnum() {
+        assertEquals(TimeUnit.SECONDS, registry.getConverter(TimeUnit.class).convert("SECONDS"));
+        assertEquals(TimeUnit.SECONDS, registry.getConverter(TimeUnit.class).convert("seconds"));
+        assertThrows(IllegalArgumentException.class, () -> registry.getConverter(TimeUnit.class).convert("weeks"));
+    }
+
+    @Test
+    void convertArrays() {
+        assertArrayEquals(new int[]{1, 2, 3}, (int[]) registry.getConverter(int[].class).convert("1, 2,3"));
+        assertArrayEquals(new String[]{"a", "b"}, (String[]) registry.getConverter(String[].class).convert("a,b"));
+        assertArrayEquals(new TimeUnit[]{TimeUnit.DAYS}, (TimeUnit[]) registry.getConverter(TimeUnit[].class).convert("days"));
+    }
+
+    @Test
+    void convertToSuperTypeOfString() {
+        assertEquals("text", registry.getConverter(CharSequence.class).convert("text"));
+        assertEquals("text", registry.getConverter(Object.class).convert("text"));
+    }
+
+    @Test
+    void convertUnsupportedType() {
+        TypeConverter<?> converter = registry.getConverter(Thread.class);
+
+        assertThrows(ShellException.class, () -> converter.convert("thread"));
+    }
+
+    @Test
+    void registerCustomConverter() {
+        registry.register(Integer.class, value -> Integer.parseInt(value, 16));
+
+        assertEquals(255, registry.getConverter(int.class).convert("ff"), "Custom converter used for primitive type.");
+        assertEquals(255, registry.getConverter(Integer.class).convert("ff"), "Custom converter expected.");
+    }
+
+    @Test
+    void registerNull() {
+        assertThrows(NullPointerException.class, () -> registry.register(null, value -> value));
+        assertThrows(NullPointerException.class, () -> registry.register(String.class, null));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.command.processor;
+
+import de.am.common.shell.command.CommandRegistry;
+import de.am.common.shell.command.ShellCommand;
+import de.am.common.shell.command.TypeConverterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link CommandProcessor} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandProcessorTest {
+
+    private static final String HANDLER_SOURCE = """
+        package demo;
+
+        import de.am.common.shell.command.annotation.Command;
+        import de.am.common.shell.command.annotation.CommandParameter;
+
+        public class DemoCommands {
+            public int counter;
+
+            @Command(name = "add", shortcut = "a", description = "Adds \\"two\\" numbers.")
+            public long add(@CommandParameter(name = "first") int first, Long second) {
+                return first + second;
+            }
+
+            @Command(threadSafe = true, timeout = 250)
+            public void countCalls() {
+                counter++;
+            }
+
+            @Command
+            public static String join(String... values) {
+                return String.join(",", values);
+            }
+
+            public static class Nested {
+                @Command(name = "nested")
+                public String nested() {
+                    return "nested";
+                }
+            }
+
+            private static class Hidden {
+                @Command(name = "hidden")
+                public void hidden() {
+                }
+            }
+        }
+        """;
+
+    @TempDir
+    Path tempDir;
+    private Path sourceDir;
+    private Path classDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sourceDir = Files.createDirectories(tempDir.resolve("src/demo"));
+        classDir = Files.createDirectories(tempDir.resolve("classes"));
+        Files.writeString(sourceDir.resolve("DemoCommands.java"), HANDLER_SOURCE);
+    }
+
+    @Test
+    void generatesRegistry() throws Exception {
+        compile();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classDir.toUri().toURL()}, getClass().getClassLoader())) {
+            Object handler = loader.loadClass("demo.DemoCommands").getDeclaredConstructor().newInstance();
+            CommandRegistry registry = (CommandRegistry) loader.loadClass("demo.DemoCommands_CommandRegistry")
+                .getDeclaredConstructor().newInstance();
+
+            List<ShellCommand> commands = registry.createCommands(handler, new TypeConverterRegistry());
+            assertEquals(3, commands.size(), "We expect three commands.");
+
+            ShellCommand add = find(commands, "add");
+            assertEquals("a", add.getShortcut(), "Shortcut of the annotation expected.");
+            assertEquals("Adds \"two\" numbers.", add.getDescription(), "Description of the annotation expected.");
+            assertNull(add.getMethod(), "Generated commands do not need reflection.");
+            assertEquals("first", add.getParameters()[0].getName(), "Annotated parameter name expected.");
+            assertEquals("param1", add.getParameters()[1].getName(), "Default parameter name expected.");
+            assertEquals(int.class, add.getParameters()[0].getType(), "Primitive parameter type expected.");
+            assertEquals(Long.class, add.getParameters()[1].getType(), "Parameter type expected.");
+            assertEquals(5L, add.invoke(new Object[]{2, 3L}), "Sum of the arguments expected.");
+
+            ShellCommand countCalls = find(commands, "countCalls");
+            assertEquals("cC", countCalls.getShortcut(), "Generated shortcut expected.");
+            assertTrue(countCalls.isThreadSafe(), "Thread safe flag of the annotation expected.");
+            assertFalse(add.isThreadSafe(), "Commands are not thread safe by default.");
+            assertEquals(250, countCalls.getTimeout(), "Timeout of the annotation expected.");
+            assertEquals(0, add.getTimeout(), "Commands have no timeout by default.");
+            assertNull(countCalls.invoke(new Object[0]), "Void methods return null.");
+            assertEquals(1, handler.getClass().getField("counter").getInt(handler), "Handler should be called.");
+
+            ShellCommand join = find(commands, "join");
+            assertArrayEquals(new Class<?>[]{String[].class}, new Class<?>[]{join.getParameters()[0].getType()});
+            assertEquals("x,y", join.invoke(new Object[]{new String[]{"x", "y"}}), "Static method should be called.");
+        }
+    }
+
+    @Test
+    void generatesRegistryForNestedClass() throws Exception {
+        compile();
+
+        Path nestedRegistry = classDir.resolve("demo/DemoCommands_Nested_CommandRegistry.class");
+        assertTrue(Files.exists(nestedRegistry), "Registry for accessible nested class expected.");
+    }
+
+    @Test
+    void skipsPrivateClass() throws Exception {
+        compile();
+
+        Path hiddenRegistry = classDir.resolve("demo/DemoCommands_Hidden_CommandRegistry.class");
+        assertFalse(Files.exists(hiddenRegistry), "No registry expected for private classes.");
+    }
+
+    // #################################################################################################################
+    private void compile() throws URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String classPath = Path.of(ShellCommand.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+        int result = compiler.run(null, null, errors,
+            "-processor", CommandProcessor.class.getName(),
+            "-classpath", classPath,
+            "-d", classDir.toString(),
+            "-s", classDir.toString(),
+            sourceDir.resolve("DemoCommands.java").toString());
+        assertEquals(0, result, "Compilation failed: " + errors);
+    }
+
+    private ShellCommand find(List<ShellCommand> commands, String name) {
+        ShellCommand command = commands.stream().filter(cmd -> name.equals(cmd.getName())).findFirst().orElse(null);
+        assertInstanceOf(ShellCommand.class, command, "Command [" + name + "] expected.");
+        return command;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JUnit test cases of {@link CommandTimeoutException} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandTimeoutExceptionTest {
+
+    @Test
+    void constructor() {
+        CommandTimeoutException exception = new CommandTimeoutException("load data", 500);
+
+        assertEquals("Command [load data] timed out after 500 ms.", exception.getMessage(), "The detail message does not match.");
+        assertEquals(500, exception.getTimeout(), "The timeout does not match.");
+    }
+}
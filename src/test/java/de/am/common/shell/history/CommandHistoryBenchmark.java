@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.history;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures the time to open, index and search a {@link CommandHistory} with millions of entries.
+ * <p>
+ * This is no JUnit test, run it with the test classpath: {@code java de.am.common.shell.history.CommandHistoryBenchmark}
+ *
+ * @author Martin Absmeier
+ */
+public class CommandHistoryBenchmark {
+
+    private static final int ENTRIES = 5_000_000;
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("history");
+        Path file = directory.resolve("history");
+        StringBuilder entries = new StringBuilder();
+        for (int index = 0; index < ENTRIES; index++) {
+            entries.append("load data-").append(index).append(".csv --verbose\n");
+        }
+        Files.writeString(file, entries);
+
+        System.out.printf("%14s | %12s%n", "operation", "ms");
+        long start = System.nanoTime();
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            print("rebuild index", start);
+        }
+
+        start = System.nanoTime();
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            print("open", start);
+
+            start = System.nanoTime();
+            long number = history.findPrefix("store");
+            print("prefix miss", start);
+
+            start = System.nanoTime();
+            number += history.search("data-42.csv", history.getCount() + 1);
+            print("search", start);
+
+            start = System.nanoTime();
+            number += history.search("unknown", history.getCount() + 1);
+            print("search miss", start);
+            System.out.println("checksum " + number);
+        }
+
+        Files.delete(file);
+        Files.delete(directory.resolve("history" + CommandHistory.INDEX_SUFFIX));
+        Files.delete(directory);
+    }
+
+    private static void print(String operation, long start) {
+        System.out.printf("%14s | %12.1f%n", operation, (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.history;
+
+import de.am.common.shell.exception.ShellException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test cases of {@link CommandHistory} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void addAndGet() throws IOException {
+        Path file = tempDir.resolve("history");
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            history.add("help");
+            history.add("sum 1 2");
+            history.add("echo äöü");
+
+            assertEquals(3, history.getCount(), "Number of entries not equal.");
+            assertEquals("help", history.get(1), "First entry expected.");
+            assertEquals("echo äöü", history.get(3), "Last entry expected.");
+            assertThrows(IllegalArgumentException.class, () -> history.get(0));
+            assertThrows(IllegalArgumentException.class, () -> history.get(4));
+        }
+
+        assertEquals("help\nsum 1 2\necho äöü\n", Files.readString(file), "Entries are appended as lines.");
+        assertEquals(3 * Long.BYTES, Files.size(tempDir.resolve("history" + CommandHistory.INDEX_SUFFIX)),
+            "An offset per entry expected.");
+    }
+
+    @Test
+    void reopen() throws IOException {
+        Path file = tempDir.resolve("history");
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            history.add("first");
+            history.add("second");
+        }
+
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            assertEquals(2, history.getCount(), "Entries of the previous session expected.");
+            history.add("third");
+            assertEquals("second", history.get(2), "Entry of the previous session expected.");
+            assertEquals("third", history.get(3), "Entry of the current session expected.");
+        }
+    }
+
+    @Test
+    void addAfterOtherWriter() throws IOException {
+        Path file = tempDir.resolve("history");
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            history.add("first");
+            // another shell appends to the same history file
+            try (CommandHistory other = CommandHistory.builder().file(file).build()) {
+                other.add("second");
+            }
+            history.add("third");
+
+            assertEquals(3, history.getCount(), "Entries of the other writer expected.");
+            assertEquals("second", history.get(2), "Entry of the other writer must not be overwritten.");
+            assertEquals("third", history.get(3), "Entry is appended at the end of the file.");
+        }
+
+        assertEquals("first\nsecond\nthird\n", Files.readString(file), "Entries are appended as lines.");
+    }
+
+    @Test
+    void rebuildIndex() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("history"), "first\nsecond\nthird\n");
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            assertEquals(3, history.getCount(), "Missing index should be rebuilt.");
+            assertEquals("second", history.get(2), "Entry of the rebuilt index expected.");
+        }
+
+        // the entry was appended but its offset was not written
+        Files.writeString(file, "fourth\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            assertEquals(4, history.getCount(), "Incomplete index should be rebuilt.");
+            assertEquals("fourth", history.get(4), "Entry missing in the index expected.");
+        }
+    }
+
+    @Test
+    void removeIncompleteEntry() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("history"), "first\nsec");
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            assertEquals(1, history.getCount(), "The incomplete entry should be removed.");
+            history.add("second");
+        }
+        assertEquals("first\nsecond\n", Files.readString(file), "The incomplete entry should be replaced.");
+
+        Files.writeString(file, "partial");
+        try (CommandHistory history = CommandHistory.builder().file(file).build()) {
+            assertEquals(0, history.getCount(), "No complete entry expected.");
+        }
+    }
+
+    @Test
+    void findPrefix() throws IOException {
+        try (CommandHistory history = createHistory("sum 1 2", "help", "sum 3 4", "s")) {
+            assertEquals(3, history.findPrefix("sum"), "Most recent entry with prefix expected.");
+            assertEquals(2, history.findPrefix("he"), "Entry with prefix expected.");
+            assertEquals(0, history.findPrefix("version"), "No entry expected.");
+        }
+    }
+
+    @Test
+    void search() throws IOException {
+        try (CommandHistory history = createHistory("load data.csv", "help", "store data.csv", "exit")) {
+            assertEquals(3, history.search("data", history.getCount() + 1), "Most recent match expected.");
+            assertEquals(1, history.search("data", 3), "Match before the third entry expected.");
+            assertEquals(0, history.search("data", 1), "No match before the first entry expected.");
+            assertEquals(0, history.search("unknown", 5), "No match expected.");
+            assertEquals(4, history.search("", 10), "Every entry matches the empty text.");
+        }
+    }
+
+    @Test
+    void recall() throws IOException {
+        try (CommandHistory history = createHistory("sum 1 2", "help")) {
+            assertEquals("sum 1 2", history.recall("1"), "Entry by number expected.");
+            assertEquals("sum 1 2", history.recall("su"), "Entry by prefix expected.");
+            assertNull(history.recall("3"), "No entry with number expected.");
+            assertNull(history.recall("99999999999999999999"), "No entry with number expected.");
+            assertNull(history.recall("version"), "No entry with prefix expected.");
+            assertNull(history.recall(""), "No entry for an empty event expected.");
+        }
+    }
+
+    @Test
+    void addInvalid() throws IOException {
+        try (CommandHistory history = createHistory()) {
+            assertThrows(NullPointerException.class, () -> history.add(null));
+            assertThrows(IllegalArgumentException.class, () -> history.add("help\nexit"));
+            assertThrows(IllegalArgumentException.class, () -> history.add("help\r"));
+        }
+    }
+
+    @Test
+    void constructorInvalid() throws IOException {
+        assertThrows(NullPointerException.class, () -> CommandHistory.builder().build());
+
+        Path target = Files.createFile(tempDir.resolve("target"));
+        Path link = Files.createSymbolicLink(tempDir.resolve("link"), target);
+        assertThrows(IOException.class, () -> CommandHistory.builder().file(link).build());
+    }
+
+    @Test
+    void closeTwice() throws IOException {
+        CommandHistory history = createHistory("help");
+        history.close();
+        history.close();
+        assertThrows(ShellException.class, () -> history.get(1));
+    }
+
+    // #################################################################################################################
+    private CommandHistory createHistory(String... commands) throws IOException {
+        CommandHistory history = CommandHistory.builder().file(tempDir.resolve("history")).build();
+        for (String command : commands) {
+            history.add(command);
+        }
+        return history;
+    }
+}
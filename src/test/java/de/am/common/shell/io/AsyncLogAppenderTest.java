@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link AsyncLogAppender} class.
+ *
+ * @author Martin Absmeier
+ */
+class AsyncLogAppenderTest {
+
+    @Test
+    void closeDrainsBuffer(@TempDir Path tempDir) throws IOException {
+        Path log = tempDir.resolve("async.log");
+        LogFileWriter writer = LogFileWriter.builder().channel(FileChannel.open(log, CREATE, WRITE, APPEND)).build();
+        AsyncLogAppender appender = AsyncLogAppender.builder().target(writer).capacity(4).build();
+        assertEquals(AsyncLogAppender.Overflow.BLOCK, appender.getOverflow(), "Blocking overflow expected by default.");
+
+        StringBuilder expected = new StringBuilder();
+        for (int index = 0; index < 100; index++) {
+            appender.write("entry-" + index);
+            expected.append("entry-").append(index).append(NEW_LINE);
+        }
+        appender.commandCompleted();
+        appender.flush();
+        appender.close();
+
+        assertEquals(expected.toString(), Files.readString(log), "All entries are written in order.");
+        assertEquals(100, appender.getWrittenCount(), "Number of written entries expected.");
+        assertEquals(0, appender.getDroppedCount(), "No entry is dropped when blocking.");
+        assertThrows(IOException.class, () -> appender.write("closed"), "A closed appender rejects entries.");
+    }
+
+    @Test
+    void rawContentAfterBufferedEntries(@TempDir Path tempDir) throws IOException {
+        Path log = tempDir.resolve("raw.log");
+        Path file = Files.writeString(tempDir.resolve("state.txt"), "file");
+        AsyncLogAppender appender = AsyncLogAppender.builder().target(LogFileWriter.builder().channel(LogFileWriter.open(log)).build())
+            .build();
+
+        for (int index = 0; index < 100; index++) {
+            appender.write("entry-" + index);
+        }
+        appender.writeBytes(ByteBuffer.wrap("bytes".getBytes(StandardCharsets.UTF_8)));
+        try (FileChannel source = FileChannel.open(file)) {
+            appender.transferFrom(source, 0, source.size());
+        }
+        appender.close();
+
+        String content = Files.readString(log);
+        assertTrue(content.endsWith("entry-99" + NEW_LINE + "bytesfile"), "Raw content after the buffered entries expected.");
+        assertThrows(IOException.class, () -> appender.writeBytes(ByteBuffer.allocate(1)), "A closed appender rejects content.");
+    }
+
+    @Test
+    void blockedWriterIsParked() throws Exception {
+        BlockingSink sink = new BlockingSink();
+        AsyncLogAppender appender = AsyncLogAppender.builder().target(sink).capacity(2).build();
+
+        appender.write("first");
+        assertTrue(sink.isWriting.await(5, TimeUnit.SECONDS), "The background thread writes the first entry.");
+        Thread writer = Thread.ofPlatform().start(() -> {
+            try {
+                for (String entry : List.of("second", "third", "fourth")) {
+                    appender.write(entry);
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, writer.getState(), "The writer waits parked for room in the buffer.");
+
+        sink.release.countDown();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        appender.close();
+        assertEquals(List.of("first", "second", "third", "fourth"), sink.entries, "No entry is dropped when blocking.");
+    }
+
+    @Test
+    void dropNewEntries() throws Exception {
+        BlockingSink sink = new BlockingSink();
+        AsyncLogAppender appender = AsyncLogAppender.builder().target(sink).overflow(AsyncLogAppender.Overflow.DROP).capacity(2).build();
+
+        appender.write("first");
+        assertTrue(sink.isWriting.await(5, TimeUnit.SECONDS), "The background thread writes the first entry.");
+        appender.write("second");
+        appender.write("third");
+        appender.write("fourth");
+        sink.release.countDown();
+        appender.close();
+
+        assertEquals(List.of("first", "second", "third"), sink.entries, "New entries are dropped if the buffer is full.");
+        assertEquals(1, appender.getDroppedCount(), "Number of dropped entries expected.");
+        assertTrue(sink.isClosed, "The target is closed.");
+    }
+
+    @Test
+    void dropOldestEntries() throws Exception {
+        BlockingSink sink = new BlockingSink();
+        AsyncLogAppender appender = AsyncLogAppender.builder().target(sink).overflow(AsyncLogAppender.Overflow.DROP_OLDEST).capacity(2)
+            .build();
+
+        appender.write("first");
+        assertTrue(sink.isWriting.await(5, TimeUnit.SECONDS), "The background thread writes the first entry.");
+        appender.write("second");
+        appender.write("third");
+        appender.write("fourth");
+        sink.release.countDown();
+        appender.close();
+
+        assertEquals(List.of("first", "third", "fourth"), sink.entries, "The oldest entries are dropped if the buffer is full.");
+        assertEquals(1, appender.getDroppedCount(), "Number of dropped entries expected.");
+    }
+
+    @Test
+    void interruptedCloseWaitsForBackgroundThread() throws Exception {
+        BlockingSink sink = new BlockingSink();
+        AsyncLogAppender appender = AsyncLogAppender.builder().target(sink).build();
+
+        appender.write("first");
+        assertTrue(sink.isWriting.await(5, TimeUnit.SECONDS), "The background thread writes the first entry.");
+        appender.write("second");
+        Thread.ofPlatform().start(() -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            sink.release.countDown();
+        });
+        Thread.currentThread().interrupt();
+        appender.close();
+
+        assertTrue(Thread.interrupted(), "The interrupt status is restored.");
+        assertEquals(List.of("first", "second"), sink.entries, "All entries are written before the target is closed.");
+        assertTrue(sink.isClosed, "The target is closed.");
+        assertEquals(0, appender.getDroppedCount(), "No entry is dropped.");
+    }
+
+    @Test
+    void reportsWriteFailure() throws Exception {
+        BlockingSink sink = new BlockingSink();
+        sink.release.countDown();
+        sink.failure = new IOException("Disk full");
+        AsyncLogAppender appender = AsyncLogAppender.builder().target(sink).build();
+
+        appender.write("lost");
+        IOException failure = assertThrows(IOException.class, appender::close, "The failure of the background thread is reported.");
+        assertEquals("Disk full", failure.getMessage());
+    }
+
+    // #################################################################################################################
+    private static class BlockingSink implements LogSink {
+        private final List<String> entries = new CopyOnWriteArrayList<>();
+        private final CountDownLatch isWriting = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile IOException failure;
+        private volatile boolean isClosed;
+
+        @Override
+        public void write(CharSequence entry) throws IOException {
+            isWriting.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            entries.add(entry.toString());
+        }
+
+        @Override
+        public void commandCompleted() {
+            // nothing to do
+        }
+
+        @Override
+        public void flush() {
+            // nothing to do
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.CommandTooLongException;
+import de.am.common.shell.exception.ShellException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JUnit test cases of {@link ChannelInputProvider} class.
+ *
+ * @author Martin Absmeier
+ */
+class ChannelInputProviderTest {
+
+    @Test
+    void readCommand() {
+        ChannelInputProvider provider = createProvider("help\r\nsum 1 2\n\nexit");
+
+        assertEquals("help", provider.readCommand(), "Commands not equal.");
+        assertEquals("sum 1 2", provider.readCommand(), "Commands not equal.");
+        assertEquals("", provider.readCommand(), "Empty line expected.");
+        assertEquals("exit", provider.readCommand(), "Last command without line break expected.");
+        assertNull(provider.readCommand(), "End of input should return null.");
+    }
+
+    @Test
+    void readCommandTooLong() {
+        ByteArrayInputStream stream = new ByteArrayInputStream("help\nversion-x\nexit\n".getBytes(StandardCharsets.UTF_8));
+        ChannelInputProvider provider = ChannelInputProvider.builder().channel(Channels.newChannel(stream))
+            .maxCommandLength(7).build();
+
+        assertEquals("help", provider.readCommand(), "Commands not equal.");
+        assertThrows(CommandTooLongException.class, provider::readCommand);
+        assertEquals("exit", provider.readCommand(), "The command after the rejected one expected.");
+    }
+
+    @Test
+    void readCommandFailed() throws IOException {
+        ReadableByteChannel channel = mock(ReadableByteChannel.class);
+        when(channel.read(any(ByteBuffer.class))).thenThrow(new IOException("failed"));
+        ChannelInputProvider provider = ChannelInputProvider.builder().channel(channel).build();
+
+        assertThrows(ShellException.class, provider::readCommand);
+    }
+
+    @Test
+    void exit() throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(new byte[0]));
+        ChannelInputProvider provider = ChannelInputProvider.builder().channel(channel).build();
+
+        provider.exit();
+        assertFalse(channel.isOpen(), "The channel should be closed.");
+
+        ReadableByteChannel failing = mock(ReadableByteChannel.class);
+        doThrow(new IOException("failed")).when(failing).close();
+        assertThrows(ShellException.class, () -> ChannelInputProvider.builder().channel(failing).build().exit());
+    }
+
+    // #################################################################################################################
+    private static ChannelInputProvider createProvider(String input) {
+        ByteArrayInputStream stream = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        return ChannelInputProvider.builder().channel(Channels.newChannel(stream)).bufferSize(8).build();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.CommandTooLongException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test cases of {@link ChannelLineReader} class.
+ *
+ * @author Martin Absmeier
+ */
+class ChannelLineReaderTest {
+
+    @Test
+    void readLine() throws IOException {
+        try (ChannelLineReader reader = createReader("first\nsecond\r\n\nlast", null)) {
+            assertEquals(List.of("first", "second", "", "last"), readAll(reader), "Lines not equal.");
+            assertEquals(19, reader.getBytesRead(), "All bytes should be read.");
+        }
+    }
+
+    @Test
+    void readLineAcrossBufferBoundaries() throws IOException {
+        String input = "a-long-line\r\näöü-umlauts-split-between-buffers\r\nx\n";
+        try (ChannelLineReader reader = createReader(input, 4)) {
+            assertEquals(List.of("a-long-line", "äöü-umlauts-split-between-buffers", "x"), readAll(reader),
+                "Lines crossing the buffer boundary not equal.");
+        }
+    }
+
+    @Test
+    void readLineEmptyInput() throws IOException {
+        try (ChannelLineReader reader = createReader("", 8)) {
+            assertNull(reader.readLine(), "No line expected.");
+            assertNull(reader.readLine(), "No line expected after the end of input.");
+        }
+    }
+
+    @Test
+    void readLineTooLong() throws IOException {
+        String input = "ok\n" + "x".repeat(50) + "\n12345\r\n123456\nnext\n1234567";
+        ByteArrayInputStream stream = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        try (ChannelLineReader reader = ChannelLineReader.builder().channel(Channels.newChannel(stream)).bufferSize(4)
+            .maxLineLength(5).build()) {
+            assertEquals("ok", reader.readLine(), "Short line expected.");
+            CommandTooLongException exception = assertThrows(CommandTooLongException.class, reader::readLine);
+            assertEquals(5, exception.getMaxLength(), "The maximum length does not match.");
+            assertEquals("12345", reader.readLine(), "Line of maximum length expected.");
+            assertThrows(CommandTooLongException.class, reader::readLine);
+            assertEquals("next", reader.readLine(), "The line after a skipped line expected.");
+            assertThrows(CommandTooLongException.class, reader::readLine);
+            assertNull(reader.readLine(), "No line expected after the end of input.");
+        }
+    }
+
+    @Test
+    void readLineTooLongWithinBuffer() throws IOException {
+        String input = "123456\n" + "y".repeat(100) + "\nok\n";
+        ByteArrayInputStream stream = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        try (ChannelLineReader reader = ChannelLineReader.builder().channel(Channels.newChannel(stream))
+            .maxLineLength(5).build()) {
+            assertThrows(CommandTooLongException.class, reader::readLine);
+            assertThrows(CommandTooLongException.class, reader::readLine);
+            assertEquals("ok", reader.readLine(), "The line after the skipped lines expected.");
+        }
+    }
+
+    @Test
+    void readLineTooLongSkippedInChunks() throws IOException {
+        ReadableByteChannel channel = new ReadableByteChannel() {
+            private long remaining = 64L << 20;
+            private boolean isOpen = true;
+
+            @Override
+            public int read(ByteBuffer target) {
+                if (remaining < 0) {
+                    return -1;
+                }
+                int count = 0;
+                while (target.hasRemaining() && remaining >= 0) {
+                    target.put(remaining-- == 0 ? (byte) '\n' : (byte) 'z');
+                    count++;
+                }
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return isOpen;
+            }
+
+            @Override
+            public void close() {
+                isOpen = false;
+            }
+        };
+        try (ChannelLineReader reader = ChannelLineReader.builder().channel(channel).bufferSize(8192)
+            .maxLineLength(4096).build()) {
+            assertThrows(CommandTooLongException.class, reader::readLine);
+            assertEquals((64L << 20) + 1, reader.getBytesRead(), "The oversized line should be read completely.");
+            assertNull(reader.readLine(), "No line expected after the skipped line.");
+        }
+    }
+
+    @Test
+    void constructorInvalid() {
+        assertThrows(NullPointerException.class, () -> ChannelLineReader.builder().build());
+        assertThrows(IllegalArgumentException.class, () -> createReader("", 0));
+        assertThrows(IllegalArgumentException.class, () -> ChannelLineReader.builder()
+            .channel(Channels.newChannel(new ByteArrayInputStream(new byte[0]))).maxLineLength(-1).build());
+    }
+
+    // #################################################################################################################
+    private static ChannelLineReader createReader(String input, Integer bufferSize) {
+        ByteArrayInputStream stream = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        return ChannelLineReader.builder().channel(Channels.newChannel(stream)).bufferSize(bufferSize).build();
+    }
+
+    private static List<String> readAll(ChannelLineReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.ShellException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static de.am.common.shell.ShellConstants.ANSI_RESET;
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * JUnit test cases of {@link CompositeOutputProvider} class.
+ *
+ * @author Martin Absmeier
+ */
+class CompositeOutputProviderTest {
+
+    @Test
+    void fanOut() {
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        MemoryLogSink all = MemoryLogSink.builder().build();
+        MemoryLogSink errors = MemoryLogSink.builder().build();
+        CompositeOutputProvider provider = CompositeOutputProvider.builder()
+            .isBuffered(true)
+            .console(Channels.newChannel(console))
+            .sinks(List.of(
+                CompositeOutputProvider.Sink.builder().target(all).isAsync(false).build(),
+                CompositeOutputProvider.Sink.builder().target(errors).filter(text -> text.startsWith("Error")).build()))
+            .build();
+
+        provider.print("{0}> ", ANSI_WHITE_BRIGHT, "Shell");
+        provider.println("Error: {0}", ANSI_WHITE_BRIGHT, "failed");
+        provider.println("done", null);
+        provider.exit();
+
+        assertEquals(ANSI_WHITE_BRIGHT + "Shell> " + ANSI_RESET + ANSI_WHITE_BRIGHT + "Error: failed" + ANSI_RESET + NEW_LINE
+            + "done" + NEW_LINE, console.toString(System.out.charset()), "Coloured console output expected.");
+        assertEquals(List.of("Shell> ", "Error: failed", "done"), all.getEntries(), "Plain text of all messages expected.");
+        assertEquals(List.of("Error: failed"), errors.getEntries(), "Only the filtered messages expected.");
+        assertNull(provider.getSinks().get(0).getAppender(), "The first sink is written directly.");
+        assertEquals(1, provider.getSinks().get(1).getAppender().getWrittenCount(), "The second sink is written asynchronously.");
+    }
+
+    @Test
+    void slowSinkDoesNotBlockConsole() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MemoryLogSink written = MemoryLogSink.builder().build();
+        LogSink slow = new LogSink() {
+            @Override
+            public void write(CharSequence entry) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                written.write(entry);
+            }
+
+            @Override
+            public void commandCompleted() {
+                // nothing buffered
+            }
+
+            @Override
+            public void flush() {
+                // nothing buffered
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+        CompositeOutputProvider provider = CompositeOutputProvider.builder()
+            .isConsoleEnabled(false)
+            .sinks(List.of(CompositeOutputProvider.Sink.builder().target(slow).capacity(2).build()))
+            .build();
+
+        long start = System.nanoTime();
+        for (int index = 0; index < 100; index++) {
+            provider.println("line {0}", null, index);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5, "The slow sink must not block.");
+
+        release.countDown();
+        provider.exit();
+        AsyncLogAppender appender = provider.getSinks().get(0).getAppender();
+        assertEquals(100, appender.getWrittenCount() + appender.getDroppedCount(), "Every line is written or dropped.");
+        assertTrue(appender.getDroppedCount() > 0, "Lines are dropped while the sink is slow.");
+        assertEquals(appender.getWrittenCount(), written.getSize(), "The written lines reach the sink.");
+    }
+
+    @Test
+    void enableLogging(@TempDir Path tempDir) throws IOException {
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            CompositeOutputProvider provider = CompositeOutputProvider.builder().isConsoleEnabled(false).build();
+            provider.println("not logged", null);
+            provider.enableLogging("composite");
+            provider.println("{0}", ANSI_WHITE_BRIGHT, "logged");
+            provider.disableLogging();
+            provider.println("not logged", null);
+            provider.exit();
+
+            assertEquals("logged" + NEW_LINE, Files.readString(tempDir.resolve("composite.log")), "Logged line expected.");
+            assertThrows(IllegalArgumentException.class, () -> provider.enableLogging("../composite"));
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    @Test
+    void sinkFailure() throws IOException {
+        LogSink failing = mock(LogSink.class);
+        doThrow(new IOException("write")).when(failing).write(any());
+        doThrow(new IOException("complete")).when(failing).commandCompleted();
+        doThrow(new IOException("close")).when(failing).close();
+        MemoryLogSink other = MemoryLogSink.builder().build();
+        CompositeOutputProvider provider = CompositeOutputProvider.builder()
+            .isConsoleEnabled(false)
+            .sinks(List.of(
+                CompositeOutputProvider.Sink.builder().target(failing).isAsync(false).build(),
+                CompositeOutputProvider.Sink.builder().target(other).isAsync(false).build()))
+            .build();
+
+        assertThrows(ShellException.class, () -> provider.println("line", null));
+        assertEquals(List.of("line"), other.getEntries(), "The other sinks are written anyway.");
+        assertThrows(ShellException.class, provider::flush);
+        assertThrows(ShellException.class, provider::exit);
+        verify(failing).close();
+    }
+
+    @Test
+    void builder() {
+        CompositeOutputProvider provider = CompositeOutputProvider.builder().build();
+        assertNotNull(provider.getSinks(), "Sinks expected.");
+        assertTrue(provider.getSinks().isEmpty(), "No sinks by default.");
+        assertThrows(NullPointerException.class, () -> CompositeOutputProvider.Sink.builder().build());
+        assertThrows(NullPointerException.class, () -> provider.print(null, null));
+    }
+}
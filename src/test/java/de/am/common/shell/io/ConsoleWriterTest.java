@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link ConsoleWriter} class.
+ *
+ * @author Martin Absmeier
+ */
+class ConsoleWriterTest {
+
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void setUp() {
+        originalOut = System.out;
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void rawContentFollowsRedirectedSystemOut(@TempDir Path tempDir) throws IOException {
+        ConsoleWriter writer = new ConsoleWriter(false, null, null);
+        ByteArrayOutputStream redirected = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(redirected, false, StandardCharsets.UTF_8));
+
+        writer.write("text ");
+        writer.writeBytes(ByteBuffer.wrap("bytes ".getBytes(StandardCharsets.UTF_8)));
+        Path file = Files.writeString(tempDir.resolve("content.txt"), "file");
+        try (FileChannel source = FileChannel.open(file)) {
+            writer.transferFrom(source, 0, source.size());
+        }
+
+        assertEquals("text bytes file", redirected.toString(StandardCharsets.UTF_8), "Output in order expected.");
+    }
+
+    @Test
+    void rawContentDoesNotInterleaveBufferedText() throws Exception {
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        ConsoleWriter writer = new ConsoleWriter(true, Channels.newChannel(console), 64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                String text = "<" + thread + ">";
+                results.add(executor.submit(() -> {
+                    for (int index = 0; index < 500; index++) {
+                        writer.write(text);
+                        writer.writeBytes(ByteBuffer.wrap("[raw]".getBytes(StandardCharsets.UTF_8)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        writer.flush();
+
+        String output = console.toString(StandardCharsets.UTF_8);
+        assertEquals(4 * 500 * ("<0>".length() + "[raw]".length()), output.length(), "All output expected.");
+        assertTrue(output.replaceAll("<\\d>|\\[raw]", "").isEmpty(), "Messages and raw content must not interleave.");
+    }
+}
@@ -17,22 +17,28 @@ package de.am.common.shell.io;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static de.am.common.shell.ShellConstants.ANSI_RESET;
 import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
 import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
 import static java.util.logging.Level.INFO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.AdditionalMatchers.aryEq;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -64,21 +70,81 @@ class DefaultOutputProviderTest {
     void printAnsiColourNull() {
         outputProvider.print("{0}", null);
 
-        verify(logger).log(any(Level.class), anyString(), aryEq(new Object[0]));
+        verify(logger).log(INFO, "{0}");
     }
 
     @Test
     void printAnsiColourNotNull() {
         outputProvider.print("{0}", ANSI_WHITE_BRIGHT);
 
-        verify(logger).log(any(Level.class), anyString(), aryEq(new Object[0]));
+        verify(logger).log(INFO, "{0}");
     }
 
     @Test
     void println() {
         outputProvider.println("{0}", ANSI_WHITE_BRIGHT);
 
-        verify(logger).log(any(Level.class), anyString(), aryEq(new Object[0]));
+        verify(logger).log(INFO, "{0}");
+    }
+
+    @Test
+    void printFormatsOnceForAllSinks(@TempDir Path tempDir) throws IOException {
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            ByteArrayOutputStream console = new ByteArrayOutputStream();
+            outputProvider = DefaultOutputProvider.builder().logger(logger).isBuffered(true).console(Channels.newChannel(console))
+                .logFlushPolicy(LogFileWriter.FlushPolicy.LINE).build();
+            outputProvider.enableLogging("plain");
+            outputProvider.println("Hello {0}", ANSI_WHITE_BRIGHT, "world");
+            outputProvider.println("Hello {0}", ANSI_WHITE_BRIGHT, "again");
+            outputProvider.println("{0}", null, ANSI_WHITE_BRIGHT + "argument" + ANSI_RESET);
+            outputProvider.exit();
+
+            String expected = ANSI_WHITE_BRIGHT + "Hello world" + ANSI_RESET + NEW_LINE + ANSI_WHITE_BRIGHT + "Hello again" + ANSI_RESET
+                + NEW_LINE + ANSI_WHITE_BRIGHT + "argument" + ANSI_RESET + NEW_LINE;
+            assertEquals(expected, console.toString(System.out.charset()), "Coloured console output expected.");
+            assertEquals("Hello world" + NEW_LINE + "Hello again" + NEW_LINE + "argument" + NEW_LINE,
+                Files.readString(tempDir.resolve("plain.log")), "The log file contains no colour codes.");
+            verify(logger).log(INFO, "Hello world");
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    @Test
+    void printBufferedWithBufferSize() {
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        outputProvider = DefaultOutputProvider.builder().isBuffered(true).console(Channels.newChannel(console)).bufferSize(8)
+            .build();
+
+        outputProvider.print("{0}", null, "1234");
+        assertEquals(0, console.size(), "The output is buffered.");
+        outputProvider.print("{0}", null, "5678");
+        assertEquals("12345678", console.toString(System.out.charset()), "A full buffer is written immediately.");
+        assertThrows(IllegalArgumentException.class, () -> DefaultOutputProvider.builder().bufferSize(0).build());
+    }
+
+    @Test
+    void printBuffered() {
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        outputProvider = DefaultOutputProvider.builder().isBuffered(true).console(Channels.newChannel(console)).build();
+
+        outputProvider.print("{0}: ", null, "name");
+        outputProvider.println("{0}", null, "Grüße");
+        assertEquals(0, console.size(), "The output is buffered.");
+
+        outputProvider.flush();
+        assertEquals("name: Grüße" + NEW_LINE, console.toString(System.out.charset()), "The buffered output is written.");
+
+        outputProvider.flush();
+        outputProvider.print("{0}", null, "x".repeat(DEFAULT_WRITE_BUFFER_SIZE));
+        assertEquals(("name: Grüße" + NEW_LINE).getBytes(System.out.charset()).length + DEFAULT_WRITE_BUFFER_SIZE, console.size(),
+            "A full buffer is written immediately.");
+
+        outputProvider.print("{0}", null, "end");
+        outputProvider.exit();
+        assertTrue(console.toString(System.out.charset()).endsWith("end"), "The buffered output is written on exit.");
     }
 
     @Test
@@ -93,12 +159,16 @@ class DefaultOutputProviderTest {
     }
 
     @Test
-    void enableLoggingNoExtension() {
+    void enableLoggingNoExtension() throws IOException {
         outputProvider.enableLogging("logNoExtension");
-        assertTrue(true, "We expect no exception.");
+        assertTrue(Files.exists(Path.of(System.getProperty("user.dir"), "logNoExtension.log")), "The log file is created.");
 
         outputProvider.enableLogging("logWithExtension.log");
         assertTrue(true, "We expect no exception.");
+
+        outputProvider.disableLogging();
+        Files.deleteIfExists(Path.of(System.getProperty("user.dir"), "logNoExtension.log"));
+        Files.deleteIfExists(Path.of(System.getProperty("user.dir"), "logWithExtension.log"));
     }
 
     @Test
@@ -139,7 +209,7 @@ class DefaultOutputProviderTest {
         outputProvider.enableLogging(fileName);
         outputProvider.println("{0}", ANSI_WHITE_BRIGHT);
 
-        verify(logger).log(any(Level.class), anyString(), aryEq(new Object[0]));
+        verify(logger).log(INFO, "{0}");
 
         String pathAndFileName = System.getProperty("user.dir").concat(File.separator).concat(fileName);
         File logFile = new File(pathAndFileName);
@@ -152,6 +222,8 @@ class DefaultOutputProviderTest {
         String fileName = "truncated-" + System.nanoTime() + ".log";
         outputProvider.enableLogging(fileName);
         outputProvider.print("{0}", null, "123456789");
+        // the log file is written when the command is completed
+        outputProvider.flush();
 
         String pathAndFileName = System.getProperty("user.dir") + File.separator + fileName;
         File logFile = new File(pathAndFileName);
@@ -163,6 +235,91 @@ class DefaultOutputProviderTest {
         }
     }
 
+    @Test
+    void enableLoggingKeepsFileOpenUntilExit(@TempDir Path tempDir) throws IOException {
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            outputProvider = DefaultOutputProvider.builder().logFlushPolicy(LogFileWriter.FlushPolicy.LINE).build();
+            outputProvider.enableLogging("first");
+            outputProvider.println("{0}", null, "one");
+            outputProvider.enableLogging("second");
+            outputProvider.println("{0}", null, "two");
+            outputProvider.exit();
+            outputProvider.println("{0}", null, "not logged");
+
+            assertEquals("one" + NEW_LINE, Files.readString(tempDir.resolve("first.log")), "Entry of the first log expected.");
+            assertEquals("two" + NEW_LINE, Files.readString(tempDir.resolve("second.log")), "Entry of the second log expected.");
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    @Test
+    void enableLoggingAsync(@TempDir Path tempDir) throws IOException {
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            outputProvider = DefaultOutputProvider.builder().isLogAsync(true).logOverflow(AsyncLogAppender.Overflow.DROP).build();
+            outputProvider.enableLogging("async");
+            AsyncLogAppender appender = assertInstanceOf(AsyncLogAppender.class, outputProvider.getLogSink(), "Async appender expected.");
+            assertEquals(AsyncLogAppender.Overflow.DROP, appender.getOverflow(), "Configured overflow strategy expected.");
+            outputProvider.println("{0}", null, "one");
+            outputProvider.println("{0}", null, "two");
+            outputProvider.exit();
+
+            assertEquals("one" + NEW_LINE + "two" + NEW_LINE, Files.readString(tempDir.resolve("async.log")), "Drained entries expected.");
+            assertEquals(2, appender.getWrittenCount() + appender.getDroppedCount(), "Every entry is written or dropped.");
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    @Test
+    void enableLoggingRotated(@TempDir Path tempDir) throws IOException {
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            LogRotation rotation = LogRotation.builder().maxFileSize(("one" + NEW_LINE).length() + 1L).maxFiles(1).build();
+            outputProvider = DefaultOutputProvider.builder().logFlushPolicy(LogFileWriter.FlushPolicy.LINE).logRotation(rotation).build();
+            outputProvider.enableLogging("rotated");
+            outputProvider.println("{0}", null, "one");
+            outputProvider.println("{0}", null, "two");
+            outputProvider.exit();
+
+            assertEquals("two" + NEW_LINE, Files.readString(tempDir.resolve("rotated.log")), "Current segment expected.");
+            assertEquals("one" + NEW_LINE, Files.readString(tempDir.resolve("rotated.log.1")), "Rotated segment expected.");
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    @Test
+    void writeContent(@TempDir Path tempDir) throws IOException {
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            Path file = Files.writeString(tempDir.resolve("state.txt"), "file content" + NEW_LINE);
+            ByteArrayOutputStream console = new ByteArrayOutputStream();
+            outputProvider = DefaultOutputProvider.builder().isBuffered(true).console(Channels.newChannel(console)).isLogAsync(true)
+                .build();
+            outputProvider.enableLogging("content");
+            outputProvider.println("{0}", null, "before");
+            try (FileChannel channel = FileChannel.open(file)) {
+                outputProvider.write(channel);
+                assertEquals(channel.size(), channel.position(), "The file is read to its end.");
+            }
+            outputProvider.write(Channels.newChannel(new ByteArrayInputStream("stream".getBytes(StandardCharsets.UTF_8))));
+            outputProvider.exit();
+
+            String expected = "before" + NEW_LINE + "file content" + NEW_LINE + "stream";
+            assertEquals(expected, console.toString(StandardCharsets.UTF_8), "Console output in order expected.");
+            assertEquals(expected, Files.readString(tempDir.resolve("content.log")), "Log file in order expected.");
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
     @Test
     void constructorDoesNotChangeLoggingSystemProperty() {
         String propertyKey = "java.util.logging.config.file";
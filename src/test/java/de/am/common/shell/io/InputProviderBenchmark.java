@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Measures the lines per second read by the {@link DefaultInputProvider} based on a {@link Scanner} compared to the
+ * {@link ChannelInputProvider} for a generated script held in memory.
+ * <p>
+ * This is no JUnit test, run it with the test classpath: {@code java de.am.common.shell.io.InputProviderBenchmark}
+ *
+ * @author Martin Absmeier
+ */
+public class InputProviderBenchmark {
+
+    private static final int LINES = 5_000_000;
+    private static final String[] INPUT = {"sum 1 2", "s  42 '4711'", "sum \"-1\" 99", "displayTime true"};
+
+    public static void main(String[] args) {
+        StringBuilder script = new StringBuilder();
+        for (int index = 0; index < LINES; index++) {
+            script.append(INPUT[index & 3]).append('\n');
+        }
+        byte[] bytes = script.toString().getBytes(StandardCharsets.UTF_8);
+
+        // warm up
+        measure(createScanner(bytes));
+        measure(createChannel(bytes));
+
+        System.out.printf("%8s | %12s | %14s%n", "variant", "ms", "lines/s");
+        print("scanner", measure(createScanner(bytes)));
+        print("channel", measure(createChannel(bytes)));
+    }
+
+    private static InputProvider createScanner(byte[] bytes) {
+        Scanner scanner = new Scanner(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        return DefaultInputProvider.builder().scanner(scanner).build();
+    }
+
+    private static InputProvider createChannel(byte[] bytes) {
+        return ChannelInputProvider.builder().channel(Channels.newChannel(new ByteArrayInputStream(bytes))).build();
+    }
+
+    private static long[] measure(InputProvider provider) {
+        long start = System.nanoTime();
+        long lines = 0;
+        while (provider.readCommand() != null) {
+            lines++;
+        }
+        provider.exit();
+        return new long[]{lines, System.nanoTime() - start};
+    }
+
+    private static void print(String variant, long[] result) {
+        System.out.printf("%8s | %12.1f | %14.0f%n", variant, result[1] / 1e6, result[0] * 1e9 / result[1]);
+    }
+}
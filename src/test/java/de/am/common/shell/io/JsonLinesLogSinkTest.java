@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * JUnit test cases of {@link JsonLinesLogSink} class.
+ *
+ * @author Martin Absmeier
+ */
+class JsonLinesLogSinkTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2022-01-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void write() throws IOException {
+        MemoryLogSink target = MemoryLogSink.builder().build();
+        JsonLinesLogSink sink = JsonLinesLogSink.builder().target(target).clock(CLOCK).build();
+
+        sink.write("plain");
+        sink.write("say \"hi\"\\\n\r\t\u0001");
+
+        assertEquals(List.of("{\"time\":\"2022-01-01T12:00:00Z\",\"text\":\"plain\"}",
+            "{\"time\":\"2022-01-01T12:00:00Z\",\"text\":\"say \\\"hi\\\"\\\\\\n\\r\\t\\u0001\"}"), target.getEntries(),
+            "Escaped JSON lines expected.");
+        assertThrows(NullPointerException.class, () -> sink.write(null));
+        assertThrows(NullPointerException.class, () -> JsonLinesLogSink.builder().build());
+    }
+
+    @Test
+    void delegates() throws IOException {
+        LogSink target = mock(LogSink.class);
+        JsonLinesLogSink sink = JsonLinesLogSink.builder().target(target).build();
+
+        sink.commandCompleted();
+        sink.flush();
+        sink.close();
+
+        verify(target).commandCompleted();
+        verify(target).flush();
+        verify(target).close();
+    }
+}
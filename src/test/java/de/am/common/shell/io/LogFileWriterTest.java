@@ -0,0 +1,208 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link LogFileWriter} class.
+ *
+ * @author Martin Absmeier
+ */
+class LogFileWriterTest {
+
+    private static final int ENTRY_LENGTH = ("entry-a" + NEW_LINE).length();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void builder() throws IOException {
+        try (LogFileWriter writer = LogFileWriter.builder().channel(open("default.log")).build()) {
+            assertEquals(LogFileWriter.FlushPolicy.COMMAND, writer.getFlushPolicy(), "Flush per command expected by default.");
+            assertFalse(writer.isSynced(), "Writes are not synced by default.");
+        }
+        assertThrows(NullPointerException.class, () -> LogFileWriter.builder().build());
+        FileChannel channel = open("invalid.log");
+        assertThrows(IllegalArgumentException.class, () -> LogFileWriter.builder().channel(channel).bufferSize(0).build());
+        LogRotation rotation = LogRotation.builder().maxFileSize(10L).build();
+        assertThrows(IllegalArgumentException.class, () -> LogFileWriter.builder().channel(channel).rotation(rotation).build());
+        channel.close();
+    }
+
+    @Test
+    void flushPerLine() throws IOException {
+        Path log = tempDir.resolve("line.log");
+        try (LogFileWriter writer = LogFileWriter.builder().channel(open("line.log")).flushPolicy(LogFileWriter.FlushPolicy.LINE)
+            .isSynced(true).build()) {
+            writer.write("first");
+            assertEquals("first" + NEW_LINE, Files.readString(log), "Every entry is written immediately.");
+        }
+    }
+
+    @Test
+    void flushPerCommand() throws IOException {
+        Path log = tempDir.resolve("command.log");
+        try (LogFileWriter writer = LogFileWriter.builder().channel(open("command.log")).build()) {
+            writer.write("first");
+            writer.write("second");
+            assertEquals(0, Files.size(log), "The entries are buffered.");
+
+            writer.commandCompleted();
+            assertEquals("first" + NEW_LINE + "second" + NEW_LINE, Files.readString(log), "Entries of the command expected.");
+
+            writer.write("third");
+        }
+        assertTrue(Files.readString(log).endsWith("third" + NEW_LINE), "Buffered entries are written on close.");
+    }
+
+    @Test
+    void flushByTimer() throws Exception {
+        Path log = tempDir.resolve("timer.log");
+        try (LogFileWriter writer = LogFileWriter.builder().channel(open("timer.log")).flushPolicy(LogFileWriter.FlushPolicy.TIMER)
+            .flushInterval(10L).build()) {
+            writer.write("first");
+            writer.commandCompleted();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.size(log) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("first" + NEW_LINE, Files.readString(log), "The timer writes the entries.");
+        }
+    }
+
+    @Test
+    void writeEntryLargerThanBuffer() throws IOException {
+        Path log = tempDir.resolve("large.log");
+        String entry = "äbc".repeat(100);
+        try (LogFileWriter writer = LogFileWriter.builder().channel(open("large.log")).bufferSize(16).build()) {
+            writer.write(entry);
+        }
+        assertEquals(entry + NEW_LINE, Files.readString(log), "The entry is written in several parts.");
+    }
+
+    @Test
+    void rotateBySize() throws IOException {
+        Path log = tempDir.resolve("rotate.log");
+        LogRotation rotation = LogRotation.builder().maxFileSize(5L * ENTRY_LENGTH).maxFiles(2).build();
+        try (LogFileWriter writer = LogFileWriter.builder().channel(LogFileWriter.open(log)).file(log).rotation(rotation)
+            .flushPolicy(LogFileWriter.FlushPolicy.LINE).build()) {
+            for (int index = 0; index < 17; index++) {
+                writer.write("entry-" + (char) ('a' + index));
+            }
+        }
+
+        assertEquals(entries('p', 'q'), Files.readString(log), "The current segment expected.");
+        assertEquals(entries('k', 'o'), Files.readString(tempDir.resolve("rotate.log.1")), "The latest rotated segment expected.");
+        assertEquals(entries('f', 'j'), Files.readString(tempDir.resolve("rotate.log.2")), "The oldest rotated segment expected.");
+        assertFalse(Files.exists(tempDir.resolve("rotate.log.3")), "Segments beyond the maximum are deleted.");
+    }
+
+    @Test
+    void rotateFailureKeepsLogWritable() throws IOException {
+        Path log = tempDir.resolve("failed.log");
+        Path blocker = Files.createDirectories(tempDir.resolve("failed.log.1"));
+        Files.writeString(blocker.resolve("content.txt"), "blocks the rotation");
+        LogRotation rotation = LogRotation.builder().maxFileSize(5L * ENTRY_LENGTH).maxFiles(1).build();
+        try (LogFileWriter writer = LogFileWriter.builder().channel(LogFileWriter.open(log)).file(log).rotation(rotation)
+            .flushPolicy(LogFileWriter.FlushPolicy.LINE).build()) {
+            for (int index = 0; index < 5; index++) {
+                writer.write("entry-" + (char) ('a' + index));
+            }
+            assertThrows(IOException.class, () -> writer.write("entry-f"), "The segment can not be replaced.");
+
+            Files.delete(blocker.resolve("content.txt"));
+            Files.delete(blocker);
+            writer.write("entry-g");
+        }
+
+        assertEquals(entries('f', 'g'), Files.readString(log), "The log is reopened after the failed rotation.");
+        assertEquals(entries('a', 'e'), Files.readString(tempDir.resolve("failed.log.1")), "The rotation is retried.");
+    }
+
+    @Test
+    void rotateCompressed() throws IOException {
+        Path log = tempDir.resolve("compress.log");
+        LogRotation rotation = LogRotation.builder().maxFileSize(5L * ENTRY_LENGTH).maxFiles(3).isCompressed(true).build();
+        try (LogFileWriter writer = LogFileWriter.builder().channel(LogFileWriter.open(log)).file(log).rotation(rotation).build()) {
+            for (int index = 0; index < 12; index++) {
+                writer.write("entry-" + (char) ('a' + index));
+                writer.commandCompleted();
+            }
+            assertEquals(rotation, writer.getRotation(), "The rotation expected.");
+        }
+
+        assertEquals(entries('k', 'l'), Files.readString(log), "The current segment is not compressed.");
+        assertEquals(entries('f', 'j'), gunzip(tempDir.resolve("compress.log.1.gz")), "The latest segment is compressed.");
+        assertEquals(entries('a', 'e'), gunzip(tempDir.resolve("compress.log.2.gz")), "The older segment is shifted.");
+        assertFalse(Files.exists(tempDir.resolve("compress.log.1")), "The uncompressed segment is deleted.");
+    }
+
+    @Test
+    void writeRawContent() throws IOException {
+        Path log = tempDir.resolve("raw.log");
+        Path file = Files.writeString(tempDir.resolve("state.txt"), "0123456789");
+        LogRotation rotation = LogRotation.builder().maxFileSize(10L).maxFiles(1).build();
+        try (LogFileWriter writer = LogFileWriter.builder().channel(LogFileWriter.open(log)).file(log).rotation(rotation).isSynced(true)
+            .build(); FileChannel source = FileChannel.open(file)) {
+            writer.write("a");
+            writer.writeBytes(ByteBuffer.wrap("bytes".getBytes(StandardCharsets.UTF_8)));
+            writer.transferFrom(source, 2, 5);
+        }
+
+        assertEquals("a" + NEW_LINE + "bytes", Files.readString(tempDir.resolve("raw.log.1")), "Buffered entry and bytes expected.");
+        assertEquals("23456", Files.readString(log), "The transferred region starts a new segment.");
+    }
+
+    // #################################################################################################################
+    private static String entries(char first, char last) {
+        StringBuilder entries = new StringBuilder();
+        for (char suffix = first; suffix <= last; suffix++) {
+            entries.append("entry-").append(suffix).append(NEW_LINE);
+        }
+        return entries.toString();
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private FileChannel open(String fileName) throws IOException {
+        return FileChannel.open(tempDir.resolve(fileName), CREATE, WRITE, APPEND);
+    }
+}
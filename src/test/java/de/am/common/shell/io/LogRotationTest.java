@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+
+import static de.am.common.shell.ShellConstants.DEFAULT_LOG_MAX_FILES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link LogRotation} class.
+ *
+ * @author Martin Absmeier
+ */
+class LogRotationTest {
+
+    @Test
+    void builder() {
+        LogRotation rotation = LogRotation.builder().maxFileSize(1024L).build();
+        assertEquals(1024, rotation.getMaxFileSize(), "Maximum file size expected.");
+        assertEquals(DEFAULT_LOG_MAX_FILES, rotation.getMaxFiles(), "Default number of files expected.");
+        assertFalse(rotation.isCompressed(), "Segments are not compressed by default.");
+
+        rotation = LogRotation.builder().maxFileSize(1L).maxFiles(2).isCompressed(true).build();
+        assertEquals(2, rotation.getMaxFiles(), "Number of files expected.");
+        assertTrue(rotation.isCompressed(), "Compressed segments expected.");
+    }
+
+    @Test
+    void builderInvalid() {
+        assertThrows(NullPointerException.class, () -> LogRotation.builder().build());
+        assertThrows(IllegalArgumentException.class, () -> LogRotation.builder().maxFileSize(0L).build());
+        assertThrows(IllegalArgumentException.class, () -> LogRotation.builder().maxFileSize(1L).maxFiles(0).build());
+    }
+
+    @Test
+    void parseSize() {
+        assertEquals(100, LogRotation.parseSize("100"), "Plain bytes expected.");
+        assertEquals(512L << 10, LogRotation.parseSize("512KB"), "Kilobytes expected.");
+        assertEquals(10L << 20, LogRotation.parseSize(" 10 mb "), "Megabytes expected.");
+        assertEquals(2L << 30, LogRotation.parseSize("2GB"), "Gigabytes expected.");
+        assertThrows(IllegalArgumentException.class, () -> LogRotation.parseSize("ten MB"));
+        assertThrows(IllegalArgumentException.class, () -> LogRotation.parseSize(Long.MAX_VALUE + "GB"));
+        assertThrows(NullPointerException.class, () -> LogRotation.parseSize(null));
+    }
+}
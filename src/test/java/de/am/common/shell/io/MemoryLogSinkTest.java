@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link MemoryLogSink} class.
+ *
+ * @author Martin Absmeier
+ */
+class MemoryLogSinkTest {
+
+    @Test
+    void builder() {
+        assertEquals(0, MemoryLogSink.builder().build().getSize(), "A new sink is empty.");
+        assertThrows(IllegalArgumentException.class, () -> MemoryLogSink.builder().capacity(0).build());
+    }
+
+    @Test
+    void keepsLatestEntries() {
+        MemoryLogSink sink = MemoryLogSink.builder().capacity(3).build();
+        sink.write("one");
+        sink.write("two");
+        assertEquals(List.of("one", "two"), sink.getEntries(), "Entries in order expected.");
+
+        sink.write("three");
+        sink.write(new StringBuilder("four"));
+        sink.commandCompleted();
+        sink.flush();
+        sink.close();
+        assertEquals(List.of("two", "three", "four"), sink.getEntries(), "The oldest entry is overwritten.");
+        assertEquals(3, sink.getSize(), "Number of entries expected.");
+
+        sink.clear();
+        assertTrue(sink.getEntries().isEmpty(), "The entries are removed.");
+        sink.write("five");
+        assertEquals(List.of("five"), sink.getEntries(), "The sink is reused after clearing.");
+        assertThrows(NullPointerException.class, () -> sink.write(null));
+    }
+}
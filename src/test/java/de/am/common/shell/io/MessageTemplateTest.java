@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static de.am.common.shell.ShellConstants.ANSI_RESET;
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static de.am.common.shell.ShellConstants.NEW_LINE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test cases of {@link MessageTemplate} class.
+ *
+ * @author Martin Absmeier
+ */
+class MessageTemplateTest {
+
+    @Test
+    void format() {
+        MessageTemplate template = new MessageTemplate("{0} has {1} items", ANSI_WHITE_BRIGHT);
+
+        MessageTemplate.Message message = template.format(new Object[]{"cart", 3}, true);
+        assertEquals(ANSI_WHITE_BRIGHT + "cart has 3 items" + ANSI_RESET + NEW_LINE, message.text(), "Console text expected.");
+        assertEquals("cart has 3 items", message.plainText(), "Plain text expected.");
+
+        message = template.format(new Object[]{"bag", 1}, false);
+        assertEquals(ANSI_WHITE_BRIGHT + "bag has 1 items" + ANSI_RESET, message.text(), "The buffer is reused.");
+    }
+
+    @Test
+    void formatWithoutColour() {
+        MessageTemplate.Message message = new MessageTemplate("it''s {0}", null).format(new Object[]{"done"}, false);
+
+        assertEquals("it's done", message.text(), "Text without colour expected.");
+        assertSame(message.text(), message.plainText(), "The plain text is the text itself.");
+        assertThrows(IllegalArgumentException.class, () -> new MessageTemplate("{x}", null));
+    }
+
+    @Test
+    void formatConcurrently() throws Exception {
+        MessageTemplate template = new MessageTemplate("value {0}", null);
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int index = 0; index < 100; index++) {
+                Object[] arguments = {"v" + index};
+                results.add(executor.submit(() -> template.format(arguments, false).text()));
+            }
+        }
+
+        for (int index = 0; index < results.size(); index++) {
+            assertEquals("value v" + index, results.get(index).get(), "Messages must not be mixed.");
+        }
+    }
+
+    @Test
+    void stripAnsi() {
+        assertEquals("plain", MessageTemplate.stripAnsi("plain"));
+        assertEquals("bold text", MessageTemplate.stripAnsi("\u001B[1mbold\u001B[0m text"));
+        assertEquals("a;b", MessageTemplate.stripAnsi("a\u001B[38;5;208m;b"));
+        assertEquals("ab", MessageTemplate.stripAnsi("a\u001Bb"));
+        assertEquals("x", MessageTemplate.stripAnsi("x\u001B[31"));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static de.am.common.shell.ShellConstants.DEFAULT_WRITE_BUFFER_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * JUnit test cases of {@link RecordingOutputProvider} class.
+ *
+ * @author Martin Absmeier
+ */
+class RecordingOutputProviderTest {
+
+    private OutputProvider delegate;
+    private RecordingOutputProvider recorder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(OutputProvider.class);
+        recorder = new RecordingOutputProvider(delegate);
+    }
+
+    @Test
+    void replay() {
+        recorder.print("{0}", ANSI_WHITE_BRIGHT, "first");
+        recorder.println("{0} {1}", null, "second", 2);
+        verifyNoInteractions(delegate);
+        assertFalse(recorder.isEmpty(), "Recorded output expected.");
+
+        OutputProvider target = mock(OutputProvider.class);
+        recorder.replay(target);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).print("{0}", ANSI_WHITE_BRIGHT, "first");
+        inOrder.verify(target).println("{0} {1}", null, "second", 2);
+        assertTrue(recorder.isEmpty(), "The recording is cleared after the replay.");
+    }
+
+    @Test
+    void replaySpooledOutput() {
+        RecordingOutputProvider spooling = new RecordingOutputProvider(delegate, 10);
+        spooling.println("{0}", ANSI_WHITE_BRIGHT, "first");
+        spooling.print("{0} {1}", null, "second", 2);
+        spooling.write(Channels.newChannel(new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8))));
+        spooling.println("it''s {0}", ANSI_WHITE_BRIGHT, "äöü");
+        verifyNoInteractions(delegate);
+
+        CollectingOutputProvider target = new CollectingOutputProvider();
+        spooling.replay(target);
+
+        assertEquals(List.of("[" + ANSI_WHITE_BRIGHT + "]first\n", "[null]second 2", "content", "[" + ANSI_WHITE_BRIGHT + "]it's äöü\n"),
+            target.output, "The output beyond the memory size is spooled in order.");
+        assertTrue(spooling.isEmpty(), "The recording is cleared after the replay.");
+
+        target.output.clear();
+        spooling.println("{0}", null, "again");
+        spooling.replay(target);
+        assertEquals(List.of("[null]again\n"), target.output, "The recording can be used again after the replay.");
+    }
+
+    @Test
+    void writeIsSpooled() {
+        byte[] content = new byte[3 * DEFAULT_WRITE_BUFFER_SIZE + 17];
+        Arrays.fill(content, (byte) 'x');
+        recorder.write(Channels.newChannel(new ByteArrayInputStream(content)));
+        assertFalse(recorder.isEmpty(), "Recorded content expected.");
+
+        CollectingOutputProvider target = new CollectingOutputProvider();
+        recorder.replay(target);
+        assertEquals(List.of(new String(content, StandardCharsets.UTF_8)), target.output, "The content is replayed unchanged.");
+        assertEquals(0, target.printedLength, "The content is passed as channel, not as text.");
+    }
+
+    @Test
+    void delegateLoggingAndExit() {
+        LogRotation rotation = LogRotation.builder().maxFileSize(1024L).build();
+        recorder.enableLogging("test.log");
+        recorder.enableLogging("rolling.log", rotation);
+        recorder.disableLogging();
+        recorder.exit();
+
+        verify(delegate).enableLogging("test.log");
+        verify(delegate).enableLogging("rolling.log", rotation);
+        verify(delegate).disableLogging();
+        verify(delegate).exit();
+    }
+
+    @Test
+    void nullArguments() {
+        assertThrows(NullPointerException.class, () -> new RecordingOutputProvider(null));
+        assertThrows(IllegalArgumentException.class, () -> new RecordingOutputProvider(delegate, -1));
+        assertThrows(NullPointerException.class, () -> recorder.print(null, ANSI_WHITE_BRIGHT));
+        assertThrows(NullPointerException.class, () -> recorder.println(null, ANSI_WHITE_BRIGHT));
+    }
+
+    // #################################################################################################################
+    private static class CollectingOutputProvider implements OutputProvider {
+        private final List<String> output = new ArrayList<>();
+        private long printedLength;
+
+        @Override
+        public void print(String pattern, String ansiColour, Object... arguments) {
+            String text = MessageFormat.format(pattern, arguments);
+            printedLength += text.length();
+            output.add("[" + ansiColour + "]" + text);
+        }
+
+        @Override
+        public void println(String pattern, String ansiColour, Object... arguments) {
+            print(pattern + "\n", ansiColour, arguments);
+        }
+
+        @Override
+        public void write(ReadableByteChannel content) {
+            try {
+                output.add(new String(Channels.newInputStream(content).readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void exit() {
+            // nothing to close
+        }
+
+        @Override
+        public void enableLogging(String fileName) {
+            // not logged
+        }
+
+        @Override
+        public void disableLogging() {
+            // not logged
+        }
+    }
+}
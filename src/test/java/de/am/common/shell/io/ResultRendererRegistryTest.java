@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import de.am.common.shell.exception.ShellException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link ResultRendererRegistry} class.
+ *
+ * @author Martin Absmeier
+ */
+class ResultRendererRegistryTest {
+
+    private ResultRendererRegistry registry;
+    private MemoryLogSink printed;
+    private OutputProvider output;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ResultRendererRegistry();
+        printed = MemoryLogSink.builder().build();
+        output = CompositeOutputProvider.builder()
+            .isConsoleEnabled(false)
+            .sinks(List.of(CompositeOutputProvider.Sink.builder().target(printed).isAsync(false).build()))
+            .build();
+    }
+
+    @Test
+    void renderBytes() {
+        ByteBuffer buffer = ByteBuffer.wrap("buffer".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(registry.render("Grüße".getBytes(StandardCharsets.UTF_8), output), "byte[] is rendered.");
+        assertTrue(registry.render(buffer, output), "ByteBuffer is rendered.");
+
+        assertEquals(List.of("Grüße", "buffer"), printed.getEntries(), "Decoded content expected.");
+        assertEquals(0, buffer.position(), "The returned buffer is not consumed.");
+    }
+
+    @Test
+    void renderFileAndChannel(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("state.txt"), "x".repeat(100_000));
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream("channel".getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(registry.render(file, output), "Path is rendered.");
+        assertTrue(registry.render(channel, output), "ReadableByteChannel is rendered.");
+
+        assertEquals("x".repeat(100_000) + "channel", String.join("", printed.getEntries()), "Content expected.");
+        assertFalse(channel.isOpen(), "The returned channel is closed.");
+        assertThrows(ShellException.class, () -> registry.render(tempDir.resolve("missing.txt"), output));
+    }
+
+    @Test
+    void register() {
+        registry.register(byte[].class, (bytes, provider) -> provider.println("{0} bytes", null, bytes.length));
+
+        assertTrue(registry.render(new byte[3], output), "Custom renderer expected.");
+        assertEquals(List.of("3 bytes"), printed.getEntries(), "The renderer registered last is used.");
+        assertFalse(registry.render("text", output), "Strings are not rendered.");
+        assertFalse(registry.render(null, output), "Nothing to render.");
+        assertTrue(registry.canRender(new byte[0]), "A renderer of byte[] is registered.");
+        assertFalse(registry.canRender("text"), "No renderer of strings is registered.");
+        assertFalse(registry.canRender(null), "Null can not be rendered.");
+        assertThrows(NullPointerException.class, () -> registry.register(null, (value, provider) -> { }));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link RingBuffer} class.
+ *
+ * @author Martin Absmeier
+ */
+class RingBufferTest {
+
+    @Test
+    void capacity() {
+        assertEquals(8, new RingBuffer<String>(5).capacity(), "The capacity is rounded up to a power of two.");
+        assertEquals(4, new RingBuffer<String>(4).capacity(), "Powers of two are kept.");
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(0));
+    }
+
+    @Test
+    void offerAndPoll() {
+        RingBuffer<String> buffer = new RingBuffer<>(2);
+        assertTrue(buffer.isEmpty(), "A new buffer is empty.");
+        assertNull(buffer.poll(), "Nothing to poll.");
+
+        assertTrue(buffer.offer("a"));
+        assertTrue(buffer.offer("b"));
+        assertFalse(buffer.offer("c"), "The buffer is full.");
+        assertEquals("a", buffer.poll(), "The oldest element first.");
+        assertTrue(buffer.offer("c"), "A slot is free again.");
+        assertEquals("b", buffer.poll());
+        assertEquals("c", buffer.poll());
+        assertTrue(buffer.isEmpty(), "All elements are polled.");
+    }
+
+    @Test
+    void concurrentProducers() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        int producers = 4;
+        int count = 10_000;
+        List<Integer> polled = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            for (int producer = 0; producer < producers; producer++) {
+                int offset = producer * count;
+                executor.submit(() -> IntStream.range(offset, offset + count).forEach(value -> {
+                    while (!buffer.offer(value)) {
+                        Thread.onSpinWait();
+                    }
+                }));
+            }
+            while (polled.size() < producers * count) {
+                Integer value = buffer.poll();
+                if (value != null) {
+                    polled.add(value);
+                }
+            }
+        }
+
+        assertEquals(producers * count, polled.stream().distinct().count(), "Every element is polled exactly once.");
+        assertTrue(buffer.isEmpty(), "All elements are polled.");
+    }
+}
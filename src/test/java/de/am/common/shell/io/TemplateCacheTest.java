@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.io;
+
+import org.junit.jupiter.api.Test;
+
+import static de.am.common.shell.ShellConstants.ANSI_WHITE_BRIGHT;
+import static de.am.common.shell.ShellConstants.DEFAULT_TEMPLATE_CACHE_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * JUnit test cases of {@link TemplateCache} class.
+ *
+ * @author Martin Absmeier
+ */
+class TemplateCacheTest {
+
+    @Test
+    void get() {
+        TemplateCache cache = new TemplateCache();
+
+        MessageTemplate template = cache.get("{0}", null);
+        assertSame(template, cache.get("{0}", null), "The cached template expected.");
+        assertNotSame(template, cache.get("{0}", ANSI_WHITE_BRIGHT), "Templates are cached per colour.");
+        assertEquals(2, cache.size(), "Number of cached templates expected.");
+    }
+
+    @Test
+    void limitedSize() {
+        TemplateCache cache = new TemplateCache();
+        MessageTemplate used = cache.get("used", null);
+        MessageTemplate unused = cache.get("unused", null);
+        for (int index = 0; index < DEFAULT_TEMPLATE_CACHE_SIZE + 10; index++) {
+            cache.get("pattern " + index, null);
+            assertSame(used, cache.get("used", null), "A recently used template stays cached.");
+        }
+
+        assertEquals(DEFAULT_TEMPLATE_CACHE_SIZE, cache.size(), "The cache is limited.");
+        assertNotSame(unused, cache.get("unused", null), "The least recently used template is removed.");
+        MessageTemplate further = cache.get("further", null);
+        assertSame(further, cache.get("further", null), "Further patterns are cached after eviction.");
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.job;
+
+import de.am.common.shell.io.OutputProvider;
+import de.am.common.shell.io.RecordingOutputProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * JUnit test cases of {@link JobTable} class.
+ *
+ * @author Martin Absmeier
+ */
+class JobTableTest {
+
+    private JobTable jobTable;
+
+    @BeforeEach
+    void setUp() {
+        jobTable = new JobTable();
+    }
+
+    @Test
+    void addAndGet() {
+        Job first = jobTable.add("first", new CompletableFuture<>(), null);
+        Job second = jobTable.add("second", new CompletableFuture<>(), null);
+
+        assertEquals(1, first.getId(), "Identifiers start with 1.");
+        assertEquals(2, second.getId(), "Identifiers are incremented.");
+        assertSame(second, jobTable.get(2), "Job expected.");
+        assertEquals(List.of(first, second), jobTable.getJobs(), "Jobs ordered by identifier expected.");
+
+        jobTable.remove(1);
+        assertThrows(IllegalArgumentException.class, () -> jobTable.get(1));
+        assertThrows(NullPointerException.class, () -> jobTable.add("null", null, null));
+    }
+
+    @Test
+    void completionListener() {
+        List<Job> completed = new ArrayList<>();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Job job = jobTable.add("load", future, completed::add);
+        jobTable.add("task", new FutureTask<>(() -> "task"), completed::add);
+
+        assertTrue(completed.isEmpty(), "No job is completed yet.");
+        future.complete("done");
+        assertEquals(List.of(job), completed, "Listener is called for completable futures only.");
+    }
+
+    @Test
+    void runningCountAndCancelAll() {
+        RecordingOutputProvider output = new RecordingOutputProvider(mock(OutputProvider.class));
+        Job running = jobTable.add("running", new CompletableFuture<>(), output, null);
+        jobTable.add("done", CompletableFuture.completedFuture("done"), null);
+
+        assertSame(output, running.getOutput(), "Recorded output expected.");
+        assertEquals(1, jobTable.getRunningCount(), "Only one job is running.");
+        assertEquals(1, jobTable.cancelAll(), "Only the running job is cancelled.");
+        assertEquals(0, jobTable.getRunningCount(), "No job is running anymore.");
+        assertEquals(Future.State.CANCELLED, running.getState(), "Cancelled job expected.");
+    }
+
+    @Test
+    void takeUnreported() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Job job = jobTable.add("load", future, null);
+        FutureTask<String> task = new FutureTask<>(() -> "task");
+        Job taskJob = jobTable.add("task", task, null);
+
+        assertTrue(jobTable.takeUnreported().isEmpty(), "Running jobs are not reported.");
+        future.complete("done");
+        task.run();
+        assertEquals(List.of(job, taskJob), jobTable.takeUnreported(), "Done jobs are reported.");
+        assertTrue(jobTable.takeUnreported().isEmpty(), "Jobs are only reported once.");
+        assertTrue(jobTable.getJobs().isEmpty(), "Reported jobs are removed.");
+    }
+}
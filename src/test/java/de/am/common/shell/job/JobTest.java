@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test cases of {@link Job} class.
+ *
+ * @author Martin Absmeier
+ */
+class JobTest {
+
+    @Test
+    void state() throws InterruptedException {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Job job = new Job(7, "load data", future, null);
+
+        assertEquals(Future.State.RUNNING, job.getState(), "Running state expected.");
+        assertFalse(job.isDone(), "Job is not done.");
+        assertTrue(job.toString().startsWith("[7] RUNNING"), "Identifier and state expected.");
+        assertTrue(job.toString().endsWith("load data"), "Command line expected.");
+
+        Thread.sleep(5);
+        future.complete("done");
+        long runtime = job.getRuntimeMillis();
+        assertEquals(Future.State.SUCCESS, job.getState(), "Success state expected.");
+        assertTrue(job.isDone(), "Job is done.");
+        assertTrue(runtime >= 5, "Runtime until completion expected.");
+        Thread.sleep(5);
+        assertEquals(runtime, job.getRuntimeMillis(), "Runtime does not change after completion.");
+    }
+
+    @Test
+    void markReported() {
+        Job job = new Job(1, "load", CompletableFuture.completedFuture("done"), null);
+
+        assertTrue(job.markReported(), "First report expected.");
+        assertFalse(job.markReported(), "A job is reported once.");
+    }
+}
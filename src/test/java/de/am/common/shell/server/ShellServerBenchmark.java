@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.server;
+
+import de.am.common.shell.Shell;
+import de.am.common.shell.ShellConfig;
+import de.am.common.shell.ShellFactory;
+import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.io.ChannelInputProvider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Load test of a {@link ShellServer} serving thousands of idle sessions while hundreds of sessions execute commands.
+ * <p>
+ * This is no JUnit test, run it with the test classpath: {@code java de.am.common.shell.server.ShellServerBenchmark}
+ *
+ * @author Martin Absmeier
+ */
+public class ShellServerBenchmark {
+
+    private static final int IDLE_SESSIONS = 5_000;
+    private static final int ACTIVE_SESSIONS = 200;
+    private static final int COMMANDS_PER_SESSION = 500;
+
+    public static void main(String[] args) throws Exception {
+        ChannelInputProvider console = ChannelInputProvider.builder()
+            .channel(Channels.newChannel(new ByteArrayInputStream(new byte[0]))).build();
+        Shell shell = ShellFactory.createShell(ShellConfig.builder().inputProvider(console).build(), new WorkCommand());
+        byte[] prompt = shell.getPrompt().getBytes(StandardCharsets.UTF_8);
+
+        try (ShellServer server = ShellServer.builder().shell(shell).maxSessions(IDLE_SESSIONS + ACTIVE_SESSIONS).build()) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+
+            long start = System.nanoTime();
+            List<SocketChannel> idle = new ArrayList<>(IDLE_SESSIONS);
+            for (int index = 0; index < IDLE_SESSIONS; index++) {
+                SocketChannel client = SocketChannel.open(address);
+                awaitPrompt(client, ByteBuffer.allocate(256), prompt);
+                idle.add(client);
+            }
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            System.out.printf("%d idle sessions connected in %d ms, %d sessions served, heap %d MB%n", IDLE_SESSIONS,
+                (System.nanoTime() - start) / 1_000_000, server.getSessionCount(),
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+
+            long[] latencies = new long[ACTIVE_SESSIONS * COMMANDS_PER_SESSION];
+            CountDownLatch done = new CountDownLatch(ACTIVE_SESSIONS);
+            start = System.nanoTime();
+            for (int session = 0; session < ACTIVE_SESSIONS; session++) {
+                int offset = session * COMMANDS_PER_SESSION;
+                Thread.ofVirtual().start(() -> {
+                    try (SocketChannel client = SocketChannel.open(address)) {
+                        ByteBuffer buffer = ByteBuffer.allocate(4096);
+                        awaitPrompt(client, buffer, prompt);
+                        for (int command = 0; command < COMMANDS_PER_SESSION; command++) {
+                            long sent = System.nanoTime();
+                            client.write(ByteBuffer.wrap(("work " + command + "\n").getBytes(StandardCharsets.UTF_8)));
+                            awaitPrompt(client, buffer, prompt);
+                            latencies[offset + command] = System.nanoTime() - sent;
+                        }
+                    } catch (IOException ex) {
+                        ex.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            long nanos = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%d active sessions executed %d commands in %d ms (%.0f commands/s), latency p50 %.2f ms, p99 %.2f ms%n",
+                ACTIVE_SESSIONS, latencies.length, nanos / 1_000_000, latencies.length / (nanos / 1e9),
+                latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 99 / 100] / 1e6);
+
+            for (SocketChannel client : idle) {
+                client.close();
+            }
+        }
+    }
+
+    private static void awaitPrompt(SocketChannel client, ByteBuffer buffer, byte[] prompt) throws IOException {
+        // the prompt is the last output of a command, it is followed by the reset of the colour
+        buffer.clear();
+        while (client.read(buffer) >= 0) {
+            if (contains(buffer, prompt)) {
+                return;
+            }
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+            }
+        }
+        throw new IOException("Connection closed.");
+    }
+
+    private static boolean contains(ByteBuffer buffer, byte[] text) {
+        byte[] array = buffer.array();
+        for (int index = buffer.position() - text.length; index >= 0; index--) {
+            if (Arrays.equals(array, index, index + text.length, text, 0, text.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class WorkCommand {
+
+        @Command(name = "work")
+        public String work(int value) {
+            return "result-" + Integer.toHexString(value * 31);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.server;
+
+import de.am.common.shell.Shell;
+import de.am.common.shell.ShellConfig;
+import de.am.common.shell.ShellFactory;
+import de.am.common.shell.command.annotation.Command;
+import de.am.common.shell.io.InputProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * JUnit test cases of {@link ShellServer} class.
+ *
+ * @author Martin Absmeier
+ */
+class ShellServerTest {
+
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    private Shell shell;
+    private ShellServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ShellConfig config = ShellConfig.builder().inputProvider(mock(InputProvider.class)).build();
+        shell = ShellFactory.createShell(config, new EchoCommand());
+        server = ShellServer.builder().shell(shell).build();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void builder() {
+        assertTrue(server.getPort() > 0, "A free port is chosen.");
+        assertTrue(server.isOpen(), "The server is open.");
+        assertEquals(shell, server.getShell(), "Shell not equal.");
+        assertThrows(NullPointerException.class, () -> ShellServer.builder().build());
+        assertThrows(IllegalArgumentException.class, () -> ShellServer.builder().shell(shell).port(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> ShellServer.builder().shell(shell).port(0x10000).build());
+        assertThrows(IllegalArgumentException.class, () -> ShellServer.builder().shell(shell).maxSessions(0).build());
+        assertThrows(IllegalStateException.class, server::start);
+    }
+
+    @Test
+    void executeCommands() throws IOException {
+        try (Socket client = connect()) {
+            send(client, "echo hello");
+            assertTrue(readUntil(client, "hello").contains("hello"), "The result of the command is sent.");
+
+            send(client, "exit");
+            String output = readUntil(client, null);
+            assertTrue(output.contains("Shutdown shell..."), "The output of the exit command is sent.");
+        }
+        waitForSessionCount(0);
+        assertFalse(shell.isShutdown(), "The exit of a session does not shut down the shell.");
+    }
+
+    @Test
+    void sessionsHaveStateOfTheirOwn() throws IOException {
+        try (Socket first = connect(); Socket second = connect()) {
+            send(first, "fail");
+            readUntil(first, "showException");
+            send(first, "showException");
+            assertTrue(readUntil(first, IllegalStateException.class.getName()).contains(IllegalStateException.class.getName()),
+                "The exception of the session is shown.");
+
+            send(second, "showException");
+            assertTrue(readUntil(second, "No exception occurred.").contains("No exception occurred."),
+                "The exception of another session is not visible.");
+            assertEquals(2, server.getSessionCount(), "Two sessions expected.");
+        }
+        waitForSessionCount(0);
+        assertNull(shell.getException(), "The exception of a session is not visible to the console.");
+    }
+
+    @Test
+    void reportsFailedSession() throws IOException {
+        try (Socket client = connect()) {
+            send(client, "fatal");
+            assertTrue(readUntil(client, null).contains("Session failed: " + OutOfMemoryError.class.getName()),
+                "The failure is sent before the connection is closed.");
+        }
+        waitForSessionCount(0);
+    }
+
+    @Test
+    void rejectsTooManySessions() throws IOException {
+        server.close();
+        server = ShellServer.builder().shell(shell).maxSessions(1).build();
+        server.start();
+
+        try (Socket first = connect()) {
+            send(first, "echo first");
+            readUntil(first, "first");
+            try (Socket second = connect()) {
+                assertTrue(readUntil(second, null).contains("Too many sessions"), "The connection is rejected.");
+            }
+        }
+    }
+
+    @Test
+    void close() throws IOException {
+        try (Socket client = connect()) {
+            send(client, "echo open");
+            readUntil(client, "open");
+
+            server.close();
+            readUntil(client, null);
+            assertFalse(server.isOpen(), "The server is closed.");
+            assertThrows(IllegalStateException.class, server::start);
+        }
+    }
+
+    // #################################################################################################################
+    private Socket connect() throws IOException {
+        Socket client = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        client.setSoTimeout(TIMEOUT_MILLIS);
+        return client;
+    }
+
+    private static void send(Socket client, String command) throws IOException {
+        OutputStream output = client.getOutputStream();
+        output.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    private static String readUntil(Socket client, String text) throws IOException {
+        InputStream input = client.getInputStream();
+        StringBuilder received = new StringBuilder();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((text == null || received.indexOf(text) < 0) && (read = input.read(buffer)) >= 0) {
+            received.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+        return received.toString();
+    }
+
+    private void waitForSessionCount(int count) {
+        long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (server.getSessionCount() != count && System.currentTimeMillis() < end) {
+            Thread.onSpinWait();
+        }
+        assertEquals(count, server.getSessionCount(), "Number of sessions not equal.");
+    }
+
+    public static class EchoCommand {
+
+        @Command(name = "echo")
+        public String echo(String text) {
+            return text;
+        }
+
+        @Command(name = "fail")
+        public void fail() {
+            throw new IllegalStateException("Failed");
+        }
+
+        @Command(name = "fatal", shortcut = "ft")
+        public void fatal() {
+            throw new OutOfMemoryError("Expected error.");
+        }
+    }
+}
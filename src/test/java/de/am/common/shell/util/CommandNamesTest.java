@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022 Martin Absmeier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.am.common.shell.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JUnit test cases of {@link CommandNames} class.
+ *
+ * @author Martin Absmeier
+ */
+class CommandNamesTest {
+
+    @Test
+    void createShortCut() {
+        assertEquals("sU", CommandNames.createShortCut("selectUser"), "First letter of each word expected.");
+        assertEquals("h", CommandNames.createShortCut("help"), "First letter expected.");
+    }
+
+    @Test
+    void registryName() {
+        assertEquals("com.acme.Commands_CommandRegistry", CommandNames.registryName("com.acme.Commands"));
+        assertEquals("com.acme.Outer_Inner_CommandRegistry", CommandNames.registryName("com.acme.Outer$Inner"));
+    }
+}